@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.NonNull;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+/**
+ * Recorded aca-py and BPA payloads that the benchmarks run against, see
+ * src/main/resources/payloads
+ */
+public final class Payloads {
+
+    public static final String VERIFIABLE_PRESENTATION = "verifiable-presentation.json";
+    public static final String V2_CREDEX_RECEIVED = "v2-credex-received.json";
+    public static final String V2_LD_CREDEX_RECEIVED = "v2-ld-credex-received.json";
+    public static final String PRESENTATION_VERIFIED = "presentation-verified.json";
+    public static final String PRESENTATION_REQUEST_RECEIVED = "presentation-request-received.json";
+
+    private Payloads() {
+    }
+
+    public static String load(@NonNull String name) {
+        try (InputStream in = Payloads.class.getResourceAsStream("/payloads/" + name)) {
+            return new String(Objects.requireNonNull(in, name).readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Builds a partner profile by repeating the recorded credentials of the
+     * verifiable presentation until it holds the requested amount.
+     *
+     * @param mapper      {@link ObjectMapper}
+     * @param credentials number of credentials in the profile
+     * @return verifiable presentation as json
+     */
+    public static ObjectNode profile(@NonNull ObjectMapper mapper, int credentials) {
+        try {
+            ObjectNode vp = (ObjectNode) mapper.readTree(load(VERIFIABLE_PRESENTATION));
+            ArrayNode recorded = (ArrayNode) vp.get("verifiableCredential");
+            ArrayNode result = mapper.createArrayNode();
+            for (int i = 0; i < credentials; i++) {
+                JsonNode c = recorded.get(i % recorded.size()).deepCopy();
+                result.add(c);
+            }
+            vp.set("verifiableCredential", result);
+            return vp;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries;
+
+import org.hyperledger.aries.api.issue_credential_v2.V20CredExRecord;
+import org.hyperledger.aries.api.present_proof.PresentationExchangeRecord;
+import org.hyperledger.aries.webhook.EventHandler;
+import org.hyperledger.bpa.benchmark.Payloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Webhook event handling from the raw body to the typed handler call, compares
+ * the parse once {@link AriesEventDispatcher} with calling
+ * {@link EventHandler#handleEvent(String, String)} on every handler.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AriesEventDispatcherBenchmark {
+
+    @Param({ "issue_credential_v2_0", "present_proof", "ping" })
+    String topic;
+
+    @Param({ "1", "3" })
+    int handlerCount;
+
+    private String body;
+
+    private List<EventHandler> handlers;
+
+    private AriesEventDispatcher dispatcher;
+
+    @Setup
+    public void setup() {
+        body = switch (topic) {
+        case "issue_credential_v2_0" -> Payloads.load(Payloads.V2_CREDEX_RECEIVED);
+        case "present_proof" -> Payloads.load(Payloads.PRESENTATION_VERIFIED);
+        default -> "{\"comment\":\"ping\",\"connection_id\":\"d5b8f0f4\",\"responded\":false,\"state\":\"received\","
+                + "\"thread_id\":\"4d2a1b47\"}";
+        };
+        handlers = new ArrayList<>();
+        for (int i = 0; i < handlerCount; i++) {
+            handlers.add(new ConsumingHandler());
+        }
+        dispatcher = new AriesEventDispatcher();
+        dispatcher.handlers = handlers;
+        dispatcher.init();
+    }
+
+    @Benchmark
+    public void dispatch() {
+        dispatcher.dispatch(topic, body);
+    }
+
+    @Benchmark
+    public void handleEventPerHandler() {
+        handlers.forEach(h -> h.handleEvent(topic, body));
+    }
+
+    /** Subscribes to credential and proof events, but not to pings */
+    private static final class ConsumingHandler extends EventHandler {
+
+        /** keeps the parsed event reachable, so that parsing can not be eliminated */
+        private volatile Object last;
+
+        @Override
+        public void handleCredentialV2(V20CredExRecord v20Credential) {
+            last = v20Credential;
+        }
+
+        @Override
+        public void handleProof(PresentationExchangeRecord proof) {
+            last = proof;
+        }
+    }
+}
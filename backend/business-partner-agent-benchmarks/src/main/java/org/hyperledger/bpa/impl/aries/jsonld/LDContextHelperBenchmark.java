@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.jsonld;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hyperledger.aries.api.issue_credential_v2.V2CredentialExchangeFree;
+import org.hyperledger.bpa.impl.activity.DocumentValidator;
+import org.hyperledger.bpa.impl.aries.wallet.Identity;
+import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.persistence.model.BPARestrictions;
+import org.hyperledger.bpa.persistence.model.BPASchema;
+import org.hyperledger.bpa.persistence.repository.BPARestrictionsRepository;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the json-ld credential offer or proposal from a document
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LDContextHelperBenchmark {
+
+    @Param({ "true", "false" })
+    boolean issuer;
+
+    private LDContextHelper helper;
+
+    private BPASchema schema;
+
+    private JsonNode document;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Converter converter = new Converter();
+        converter.setMapper(mapper);
+
+        schema = BPASchema.builder()
+                .schemaId("https://w3id.org/citizenship/v1")
+                .ldType("PermanentResident")
+                .schemaAttributeNames(new TreeSet<>(List.of("givenName", "familyName", "gender", "birthCountry",
+                        "birthDate", "residentSince", "lprCategory", "lprNumber", "commuterClassification")))
+                .build();
+        document = mapper.readTree("{\"givenName\":\"John\",\"familyName\":\"Smith\",\"gender\":\"Male\","
+                + "\"birthCountry\":\"Bahamas\",\"birthDate\":\"1958-07-17\",\"residentSince\":\"2015-01-01\","
+                + "\"lprCategory\":\"C09\",\"lprNumber\":\"999-999-999\",\"commuterClassification\":\"C1\"}");
+
+        Identity identity = mock(Identity.class);
+        when(identity.getMyDid()).thenReturn("did:key:z6MkpTHR8VNsBxYAAWHut2Geadd9jSwuBV8xRoAnwWsdvktH");
+        BPARestrictionsRepository trustedIssuer = mock(BPARestrictionsRepository.class);
+        when(trustedIssuer.findBySchema(any())).thenReturn(List.of(BPARestrictions.builder()
+                .issuerDid("did:key:z6MkiTBz1ymuepAQ4HEHYSF1H8quG5GLVVQR3djdX3mDooWp")
+                .build()));
+
+        helper = new LDContextHelper();
+        helper.identity = identity;
+        helper.conv = converter;
+        helper.documentValidator = new DocumentValidator();
+        helper.trustedIssuer = trustedIssuer;
+    }
+
+    @Benchmark
+    public V2CredentialExchangeFree.V20CredFilter buildVC() {
+        return helper.buildVC(schema, document, issuer);
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.jsonld;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCredential;
+import org.hyperledger.bpa.api.CredentialType;
+import org.hyperledger.bpa.impl.aries.schema.SchemaService;
+import org.hyperledger.bpa.impl.aries.wallet.Identity;
+import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.persistence.model.BPASchema;
+import org.hyperledger.bpa.persistence.model.MyDocument;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Builds the verifiable credentials of the public profile from wallet documents
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VPManagerBenchmark {
+
+    private static final String MY_DID = "did:sov:F6dB7dMVHUQSC64qemnBi7";
+
+    @Param({ "ORGANIZATIONAL_PROFILE_CREDENTIAL", "INDY" })
+    CredentialType type;
+
+    private VPManager vpm;
+
+    private MyDocument doc;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Converter converter = new Converter();
+        converter.setMapper(mapper);
+
+        SchemaService schemaService = mock(SchemaService.class);
+        when(schemaService.getSchemaFor(anyString())).thenReturn(Optional.of(BPASchema.builder()
+                .schemaId("M6Mbe3qx7vB4wpZF4sBRjt:2:bank_account:1.0")
+                .schemaAttributeNames(new TreeSet<>(List.of("iban", "bic", "holder", "currency")))
+                .build()));
+        Identity identity = mock(Identity.class);
+        when(identity.getDidPrefix()).thenReturn("did:sov:");
+
+        vpm = new VPManager();
+        vpm.setConverter(converter);
+        vpm.setSchemaService(schemaService);
+        vpm.id = identity;
+
+        String json = CredentialType.INDY.equals(type)
+                ? "{\"iban\":\"DE89370400440532013000\",\"bic\":\"COBADEFFXXX\",\"holder\":\"Acme GmbH\",\"currency\":\"EUR\"}"
+                : "{\"id\":\"did:sov:sadfafs\",\"type\":\"LegalEntity\",\"legalName\":\"Acme GmbH\","
+                        + "\"altName\":\"Acme\",\"identifier\":[{\"id\":\"DE123456789\",\"type\":\"VAT\"}],"
+                        + "\"registeredSite\":{\"address\":{\"streetAddress\":\"Main Street 1\","
+                        + "\"zipCode\":\"12345\",\"city\":\"Berlin\",\"country\":\"Germany\",\"region\":\"Berlin\"}}}";
+        Map<String, Object> document = converter.toMap(mapper.readTree(json));
+        doc = new MyDocument()
+                .setId(UUID.randomUUID())
+                .setType(type)
+                .setSchemaId(CredentialType.INDY.equals(type) ? "M6Mbe3qx7vB4wpZF4sBRjt:2:bank_account:1.0" : null)
+                .setIsPublic(Boolean.TRUE)
+                .setLabel("Benchmark")
+                .setCreatedAt(Instant.now())
+                .setUpdatedAt(Instant.now())
+                .setDocument(document);
+    }
+
+    @Benchmark
+    public VerifiableIndyCredential buildFromDocument() {
+        return vpm.buildFromDocument(doc, MY_DID);
+    }
+}
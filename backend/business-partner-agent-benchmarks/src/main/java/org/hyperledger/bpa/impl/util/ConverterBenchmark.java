@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.benchmark.Payloads;
+import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.impl.aries.schema.SchemaService;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Partner profile conversion as done for every partner list and detail call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConverterBenchmark {
+
+    @Param({ "4", "20" })
+    int credentials;
+
+    private Converter converter;
+
+    private Partner partner;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        converter = new Converter();
+        converter.setMapper(mapper);
+        converter.schemaService = mock(SchemaService.class);
+        when(converter.schemaService.getSchemaLabel(anyString())).thenReturn("Bank Account");
+        converter.msg = mock(BPAMessageSource.DefaultMessageSource.class);
+        when(converter.msg.getMessage(anyString())).thenReturn("Organizational Profile");
+        Field prefix = Converter.class.getDeclaredField("ledgerPrefix");
+        prefix.setAccessible(true);
+        prefix.set(converter, "did:sov:");
+
+        partner = Partner.builder()
+                .id(UUID.randomUUID())
+                .did("did:sov:F6dB7dMVHUQSC64qemnBi7")
+                .alias("Benchmark Partner")
+                .createdAt(Instant.now())
+                .updatedAt(Instant.now())
+                .verifiablePresentation(converter.toMap(Payloads.profile(mapper, credentials)))
+                .build();
+    }
+
+    @Benchmark
+    public PartnerAPI toAPIObject() {
+        return converter.toAPIObject(partner);
+    }
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hyperledger.aries.api.credentials.CredentialAttributes;
+import org.hyperledger.aries.api.issue_credential_v1.V1CredentialExchange.CredentialProposalDict.CredentialProposal;
+import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCredential;
+import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
+import org.hyperledger.aries.config.GsonConfig;
+import org.hyperledger.bpa.benchmark.Payloads;
+import org.hyperledger.bpa.persistence.model.BPACredentialExchange.ExchangePayload;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.codec.Hex;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Change detection of partner profiles, runs whenever a partner is refreshed,
+ * and matching of received offers against the holders proposal. The legacy
+ * methods replicate the former implementation as a baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CryptoUtilBenchmark {
+
+    private VerifiablePresentation<VerifiableIndyCredential> base;
+
+    private VerifiablePresentation<VerifiableIndyCredential> same;
+
+    private String baseJson;
+
+    private String sameJson;
+
+    private ExchangePayload proposal;
+
+    private ExchangePayload offer;
+
+    @Setup
+    public void setup() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        baseJson = mapper.writeValueAsString(Payloads.profile(mapper, 20));
+        sameJson = new String(baseJson.toCharArray());
+        base = mapper.readValue(baseJson, Converter.VP_TYPEREF);
+        same = mapper.readValue(sameJson, Converter.VP_TYPEREF);
+
+        List<CredentialAttributes> attrs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            attrs.add(CredentialAttributes.builder().name("attr" + i).value("value" + i).build());
+        }
+        List<CredentialAttributes> reordered = new ArrayList<>(attrs);
+        Collections.reverse(reordered);
+        proposal = ExchangePayload.indy(CredentialProposal.builder().attributes(attrs).build());
+        offer = ExchangePayload.indy(CredentialProposal.builder().attributes(reordered).build());
+    }
+
+    @Benchmark
+    public boolean hashCompareObjects() {
+        return CryptoUtil.hashCompare(base, same);
+    }
+
+    @Benchmark
+    public boolean hashCompareObjectsLegacy() throws Exception {
+        return legacyHashCompare(base, same);
+    }
+
+    @Benchmark
+    public boolean hashCompareStrings() {
+        return CryptoUtil.hashCompare(baseJson, sameJson);
+    }
+
+    @Benchmark
+    public boolean hashComparePayloadsLegacy() throws Exception {
+        return legacyHashCompare(proposal, offer);
+    }
+
+    @Benchmark
+    public boolean sameAttributes() {
+        return proposal.sameAttributes(offer);
+    }
+
+    private static boolean legacyHashCompare(Object base, Object other) throws Exception {
+        String b = legacySHA256Hex(GsonConfig.defaultConfig().toJson(base));
+        String o = legacySHA256Hex(GsonConfig.defaultConfig().toJson(other));
+        return b.equals(o);
+    }
+
+    private static String legacySHA256Hex(String base) throws Exception {
+        MessageDigest digest = MessageDigest.getInstance("SHA3-256");
+        return String.valueOf(Hex.encode(digest.digest(base.getBytes(StandardCharsets.UTF_8))));
+    }
+}
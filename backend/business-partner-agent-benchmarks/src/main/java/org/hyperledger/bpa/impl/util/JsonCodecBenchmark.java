@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCredential;
+import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
+import org.hyperledger.aries.config.GsonConfig;
+import org.hyperledger.bpa.benchmark.Payloads;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversions between jackson and gson as done when building and reading the
+ * verifiable presentation. The legacy methods replicate the former inline
+ * {@link GsonConfig} and string round trip usage, run with {@code -prof gc} to
+ * compare the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonCodecBenchmark {
+
+    private ObjectMapper mapper;
+
+    private ObjectNode document;
+
+    private JsonObject credentialSubject;
+
+    private Map<String, String> attributes;
+
+    @Setup
+    public void setup() throws Exception {
+        mapper = new ObjectMapper();
+        VerifiablePresentation<VerifiableIndyCredential> vp = mapper.convertValue(Payloads.profile(mapper, 1),
+                Converter.VP_TYPEREF);
+        credentialSubject = vp.getVerifiableCredential().get(0).getCredentialSubject();
+        document = (ObjectNode) mapper.readTree(credentialSubject.toString());
+        attributes = Map.of("iban", "DE89370400440532013000", "bic", "COBADEFFXXX",
+                "accountHolder", "Bosch Healthcare Solutions GmbH", "bankName", "Commerzbank");
+    }
+
+    @Benchmark
+    public JsonObject jacksonToGson() {
+        return JsonCodec.toGsonObject(document);
+    }
+
+    @Benchmark
+    public JsonObject jacksonToGsonLegacy() {
+        return GsonConfig.defaultConfig().fromJson(document.toString(), JsonObject.class);
+    }
+
+    @Benchmark
+    public JsonNode gsonToJackson() {
+        return JsonCodec.toJackson(credentialSubject);
+    }
+
+    @Benchmark
+    public JsonNode gsonToJacksonLegacy() throws Exception {
+        return mapper.readTree(credentialSubject.toString());
+    }
+
+    @Benchmark
+    public JsonElement mapToGson() {
+        return JsonCodec.GSON.toJsonTree(attributes);
+    }
+
+    @Benchmark
+    public JsonElement mapToGsonLegacy() {
+        return GsonConfig.defaultConfig().toJsonTree(attributes);
+    }
+}
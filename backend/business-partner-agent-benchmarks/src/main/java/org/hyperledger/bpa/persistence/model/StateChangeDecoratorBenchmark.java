@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.model;
+
+import org.hyperledger.aries.api.present_proof.PresentationExchangeState;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * State tracking of exchanges, every webhook event pushes at least one state
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StateChangeDecoratorBenchmark {
+
+    private static final PresentationExchangeState[] LIFECYCLE = {
+            PresentationExchangeState.REQUEST_SENT,
+            PresentationExchangeState.PRESENTATION_RECEIVED,
+            PresentationExchangeState.VERIFIED,
+            PresentationExchangeState.PRESENTATION_ACKED,
+            PresentationExchangeState.DONE
+    };
+
+    private final Instant start = Instant.now();
+
+    private PartnerProof completed;
+
+    @Setup
+    public void setup() {
+        completed = runLifecycle();
+    }
+
+    @Benchmark
+    public PartnerProof pushStates() {
+        return runLifecycle();
+    }
+
+    @Benchmark
+    public Map<PresentationExchangeState, Long> toApi() {
+        return completed.getStateToTimestamp().toApi();
+    }
+
+    private PartnerProof runLifecycle() {
+        PartnerProof p = new PartnerProof();
+        for (int i = 0; i < LIFECYCLE.length; i++) {
+            p.pushStates(LIFECYCLE[i], start.plusMillis(i));
+        }
+        return p;
+    }
+}
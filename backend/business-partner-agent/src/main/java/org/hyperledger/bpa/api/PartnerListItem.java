@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.api;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.Nullable;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hyperledger.aries.api.connection.ConnectionState;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Flat partner row as returned by the partner search. Read directly from the
+ * partner table, neither tags nor the public profile are loaded, use the
+ * {@link PartnerAPI} for that.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Introspected
+public class PartnerListItem {
+    private UUID id;
+    private String did;
+    @Nullable
+    private String alias;
+    @Nullable
+    private String label;
+    @Nullable
+    private ConnectionState state;
+    private Boolean ariesSupport;
+    @Nullable
+    private Boolean incoming;
+    @Nullable
+    private Boolean valid;
+    @Nullable
+    private Boolean trustPing;
+    @Nullable
+    private Instant lastSeen;
+    private Instant createdAt;
+    private Instant updatedAt;
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.api;
+
+import io.micronaut.core.annotation.Nullable;
+import lombok.*;
+import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.bpa.impl.util.CryptoUtil;
+import org.hyperledger.bpa.persistence.model.Partner;
+
+import java.time.Instant;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compact partner reference that is sent with websocket notifications. The UI
+ * uses the version to decide if its cached {@link PartnerAPI} is still current,
+ * and otherwise fetches the partner by id.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PartnerSummary {
+    private String id;
+    private String alias;
+    private String label;
+    private String did;
+    private ConnectionState state;
+    private String version;
+
+    public static PartnerSummary from(@NonNull Partner p) {
+        return PartnerSummary
+                .builder()
+                .id(p.getId().toString())
+                .alias(p.getAlias())
+                .label(p.getLabel())
+                .did(p.getDid())
+                .state(p.getState())
+                .version(versionOf(p))
+                .build();
+    }
+
+    /**
+     * Digest over everything that is visible in the {@link PartnerAPI}, computed
+     * without deserializing the public profile. Tag changes are covered by
+     * updatedAt as they always go together with an alias update. Also used as the
+     * ETag of the partner endpoint.
+     *
+     * @param p {@link Partner}
+     * @return version
+     */
+    public static String versionOf(@NonNull Partner p) {
+        String fields = Stream.of(millis(p.getUpdatedAt()), millis(p.getLastSeen()), p.getState(), p.getAlias(),
+                p.getLabel(), p.getDid(), p.getValid(), p.getTrustPing(), p.getAriesSupport())
+                .map(String::valueOf)
+                // length prefixed, so that no two field lists share a fingerprint
+                .map(f -> f.length() + ":" + f)
+                .collect(Collectors.joining());
+        return CryptoUtil.toSHA256Hex(fields);
+    }
+
+    private static @Nullable Long millis(@Nullable Instant i) {
+        return i != null ? i.toEpochMilli() : null;
+    }
+}
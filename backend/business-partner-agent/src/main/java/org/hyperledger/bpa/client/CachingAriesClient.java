@@ -17,25 +17,192 @@
  */
 package org.hyperledger.bpa.client;
 
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
 import io.micronaut.cache.annotation.Cacheable;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.context.event.StartupEvent;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Async;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
 import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
 import org.hyperledger.acy_py.generated.model.DID;
 import org.hyperledger.aries.AriesClient;
+import org.hyperledger.aries.api.exception.AriesException;
+import org.hyperledger.aries.api.ledger.DidVerkeyResponse;
+import org.hyperledger.aries.api.schema.SchemaSendResponse;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
+import org.hyperledger.bpa.impl.profile.Profiled;
+import org.hyperledger.bpa.impl.profile.Profiler;
 
 import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
 
+/**
+ * Read through cache in front of aca-py for data that does not change once it
+ * is written to the ledger, like schemas and did verkeys. Results are kept in
+ * the {@code ledger-cache}, lookups that returned nothing or a 404 are kept for
+ * a short time in the {@code ledger-miss-cache}, as the artefact might still be
+ * written to the ledger. If enabled, positive results are also kept in the
+ * {@link PersistentLedgerCache} so that a restarted instance does not need to
+ * go to the ledger again.
+ */
+@Slf4j
 @Singleton
+@Profiled(Profiler.CACHE)
 public class CachingAriesClient {
 
+    static final String LEDGER_CACHE = "ledger-cache";
+    static final String LEDGER_MISS_CACHE = "ledger-miss-cache";
+
+    private static final String SCHEMA = "schemasGetById";
+    private static final String VERKEY = "ledgerDidVerkey";
+
+    private static final Map<String, Type> KINDS = Map.of(
+            SCHEMA, SchemaSendResponse.Schema.class,
+            VERKEY, DidVerkeyResponse.class);
+
     @Inject
     @Setter
     private AriesClient ac;
 
+    @Inject
+    @Setter
+    CacheManager<?> cacheManager;
+
+    @Inject
+    @Setter
+    PersistentLedgerCache persistentCache;
+
+    @Value("${bpa.ledger.cache:true}")
+    @Setter
+    boolean enabled;
+
+    private SyncCache<?> ledgerCache;
+
+    private SyncCache<?> missCache;
+
+    private final Map<String, MethodStats> stats = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    void init() {
+        ledgerCache = cacheManager.getCache(LEDGER_CACHE);
+        missCache = cacheManager.getCache(LEDGER_MISS_CACHE);
+    }
+
+    @Async(TaskExecutorFactory.LEDGER)
+    @EventListener
+    public void warmup(@SuppressWarnings("unused") StartupEvent event) {
+        if (enabled && persistentCache.isEnabled()) {
+            int loaded = persistentCache.warmup(KINDS, ledgerCache::put);
+            log.info("Loaded {} ledger artefacts from the persistent cache", loaded);
+        }
+    }
+
     @Cacheable("did-lookup-cache")
     public Optional<DID> walletDidPublic() throws IOException {
         return ac.walletDidPublic();
     }
+
+    public Optional<SchemaSendResponse.Schema> schemasGetById(@NonNull String schemaId) throws IOException {
+        return readThrough(SCHEMA, schemaId, SchemaSendResponse.Schema.class,
+                () -> ac.schemasGetById(schemaId));
+    }
+
+    public Optional<DidVerkeyResponse> ledgerDidVerkey(@NonNull String did) throws IOException {
+        return readThrough(VERKEY, did, DidVerkeyResponse.class,
+                () -> ac.ledgerDidVerkey(did));
+    }
+
+    /**
+     * @return hit/miss statistics per cached aca-py method
+     */
+    public Map<String, MethodStatsSnapshot> stats() {
+        return stats.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+    }
+
+    private <T> Optional<T> readThrough(@NonNull String method, @NonNull String id, @NonNull Class<T> type,
+            @NonNull AriesCall<T> call) throws IOException {
+        if (!enabled) {
+            return call.get();
+        }
+        MethodStats methodStats = stats.computeIfAbsent(method, k -> new MethodStats());
+        String key = method + ":" + id;
+        Optional<T> cached = ledgerCache.get(key, type);
+        if (cached.isPresent()) {
+            methodStats.hits.increment();
+            return cached;
+        }
+        if (missCache.get(key, Boolean.class).isPresent()) {
+            methodStats.negativeHits.increment();
+            return Optional.empty();
+        }
+        Optional<T> persisted = persistentCache.get(key, type);
+        if (persisted.isPresent()) {
+            methodStats.persistentHits.increment();
+            ledgerCache.put(key, persisted.get());
+            return persisted;
+        }
+        methodStats.misses.increment();
+        Optional<T> result;
+        try {
+            result = call.get();
+        } catch (AriesException e) {
+            if (e.getCode() != 404) {
+                throw e;
+            }
+            result = Optional.empty();
+        }
+        result.ifPresentOrElse(value -> {
+            ledgerCache.put(key, value);
+            persistentCache.put(method, key, value, null);
+        }, () -> missCache.put(key, Boolean.TRUE));
+        return result;
+    }
+
+    @FunctionalInterface
+    private interface AriesCall<T> {
+        Optional<T> get() throws IOException;
+    }
+
+    private static final class MethodStats {
+        private final LongAdder hits = new LongAdder();
+        private final LongAdder negativeHits = new LongAdder();
+        private final LongAdder persistentHits = new LongAdder();
+        private final LongAdder misses = new LongAdder();
+
+        MethodStatsSnapshot snapshot() {
+            long h = hits.sum() + negativeHits.sum() + persistentHits.sum();
+            long total = h + misses.sum();
+            return MethodStatsSnapshot.builder()
+                    .hits(hits.sum())
+                    .negativeHits(negativeHits.sum())
+                    .persistentHits(persistentHits.sum())
+                    .misses(misses.sum())
+                    .hitRate(total == 0 ? 0 : (double) h / total)
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    public static final class MethodStatsSnapshot {
+        private long hits;
+        private long negativeHits;
+        private long persistentHits;
+        private long misses;
+        private double hitRate;
+    }
 }
@@ -20,7 +20,9 @@ package org.hyperledger.bpa.client;
 import com.google.gson.Gson;
 import com.google.gson.reflect.TypeToken;
 import io.micronaut.cache.annotation.Cacheable;
+import io.micronaut.context.annotation.Value;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
@@ -32,15 +34,19 @@ import org.hyperledger.aries.api.exception.AriesException;
 import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCredential;
 import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
 import org.hyperledger.aries.api.resolver.DIDDocument;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.api.exception.NetworkException;
 import org.hyperledger.bpa.api.exception.PartnerException;
 import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.config.HttpClientFactory;
+import org.hyperledger.bpa.impl.profile.Profiled;
+import org.hyperledger.bpa.impl.profile.Profiler;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.time.Duration;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
@@ -50,8 +56,11 @@ import java.util.Optional;
  */
 @Slf4j
 @Singleton
+@Profiled(Profiler.DID)
 public class DidDocClient {
 
+    private static final String DID_DOCUMENT = "resolverResolveDid";
+
     private static final Type VP_TYPE = new TypeToken<VerifiablePresentation<VerifiableIndyCredential>>() {
     }.getType();
 
@@ -61,14 +70,29 @@ public class DidDocClient {
     @Inject
     BPAMessageSource.DefaultMessageSource msg;
 
-    private final Gson gson = GsonConfig.defaultConfig();
+    private final Gson gson = JsonCodec.GSON;
+
+    @Inject
+    @Named(HttpClientFactory.DID_RESOLUTION)
+    OkHttpClient okClient;
+
+    @Inject
+    PersistentLedgerCache persistentCache;
 
-    private final OkHttpClient okClient = new OkHttpClient();
+    @Value("${bpa.ledger.persistent-cache.did-document-ttl:1h}")
+    Duration didDocumentTtl;
 
     @Cacheable(cacheNames = { "ur-cache" })
     public Optional<DIDDocument> getDidDocument(@NonNull String did) {
+        String key = DID_DOCUMENT + ":" + did;
+        Optional<DIDDocument> persisted = persistentCache.get(key, DIDDocument.class);
+        if (persisted.isPresent()) {
+            return persisted;
+        }
         try {
-            return ac.resolverResolveDid(did);
+            Optional<DIDDocument> didDocument = ac.resolverResolveDid(did);
+            didDocument.ifPresent(doc -> persistentCache.put(DID_DOCUMENT, key, doc, didDocumentTtl));
+            return didDocument;
         } catch (IOException e) {
             throw new NetworkException(msg.getMessage("acapy.unavailable"), e);
         } catch (AriesException e) {
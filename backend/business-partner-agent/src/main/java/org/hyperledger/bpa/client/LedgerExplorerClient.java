@@ -20,6 +20,7 @@ package org.hyperledger.bpa.client;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micronaut.context.annotation.Value;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import lombok.AccessLevel;
 import lombok.NonNull;
@@ -33,6 +34,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.hyperledger.bpa.client.api.LedgerQueryResult;
 import org.hyperledger.bpa.client.api.LedgerQueryResult.DomainTransaction;
 import org.hyperledger.bpa.client.api.LedgerQueryResult.DomainTransaction.TxnMetadata;
+import org.hyperledger.bpa.config.HttpClientFactory;
 import org.hyperledger.bpa.config.runtime.RequiresLedgerExplorer;
 import org.hyperledger.bpa.controller.api.partner.PartnerCredentialType;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
@@ -71,7 +73,10 @@ public class LedgerExplorerClient {
     @Setter(value = AccessLevel.PROTECTED)
     ObjectMapper mapper;
 
-    private final OkHttpClient ok = new OkHttpClient();
+    @Inject
+    @Named(HttpClientFactory.LEDGER_EXPLORER)
+    @Setter(value = AccessLevel.PROTECTED)
+    OkHttpClient ok;
 
     /**
      * Query the ledger explorer for a list of credential definitions that are based
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020-2021 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.client;
+
+import com.google.gson.Gson;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.Sort;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.Getter;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.impl.util.JsonCodec;
+import org.hyperledger.bpa.persistence.model.LedgerCacheEntry;
+import org.hyperledger.bpa.persistence.repository.LedgerCacheRepository;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.BiConsumer;
+
+/**
+ * Optional second level below the in memory caches, backed by the
+ * {@code ledger_cache} table. Because ledger artefacts never change, a new
+ * instance can be warmed from here instead of asking aca-py and the ledger
+ * again. All errors are logged and treated like a cache miss.
+ */
+@Slf4j
+@Singleton
+public class PersistentLedgerCache {
+
+    @Inject
+    LedgerCacheRepository repo;
+
+    @Getter
+    @Setter
+    @Value("${bpa.ledger.persistent-cache.enabled:false}")
+    boolean enabled;
+
+    @Value("${bpa.ledger.persistent-cache.warmup-size:5000}")
+    int warmupSize;
+
+    @Value("${bpa.ledger.persistent-cache.warmup-timeout:10s}")
+    Duration warmupTimeout;
+
+    private final Gson gson = JsonCodec.GSON;
+
+    public <T> Optional<T> get(@NonNull String key, @NonNull Type type) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        try {
+            return repo.findById(key)
+                    .filter(e -> e.getExpiresAt() == null || e.getExpiresAt().isAfter(Instant.now()))
+                    .map(e -> gson.fromJson(e.getValue(), type));
+        } catch (Exception e) {
+            log.warn("Could not read {} from the persistent ledger cache: {}", key, e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    public void put(@NonNull String kind, @NonNull String key, @NonNull Object value, @Nullable Duration ttl) {
+        if (!enabled) {
+            return;
+        }
+        try {
+            Instant now = Instant.now();
+            repo.upsert(key, kind, gson.toJson(value), now, ttl != null ? now.plus(ttl) : null);
+        } catch (Exception e) {
+            log.warn("Could not write {} to the persistent ledger cache: {}", key, e.getMessage());
+        }
+    }
+
+    /**
+     * Loads the most recent entries of the given kinds, bounded by size and time,
+     * and hands them over to the consumer.
+     *
+     * @param kinds    kind to type mapping
+     * @param consumer receives the cache key and the deserialized value
+     * @return number of loaded entries
+     */
+    public int warmup(@NonNull Map<String, Type> kinds, @NonNull BiConsumer<String, Object> consumer) {
+        if (!enabled || warmupSize <= 0) {
+            return 0;
+        }
+        Instant deadline = Instant.now().plus(warmupTimeout);
+        int pageSize = Math.min(500, warmupSize);
+        int loaded = 0;
+        try {
+            for (int page = 0; loaded < warmupSize && Instant.now().isBefore(deadline); page++) {
+                List<LedgerCacheEntry> entries = repo.findByKindIn(List.copyOf(kinds.keySet()),
+                        Pageable.from(page, pageSize, Sort.of(Sort.Order.desc("createdAt"))));
+                for (LedgerCacheEntry e : entries) {
+                    consumer.accept(e.getCacheKey(), gson.fromJson(e.getValue(), kinds.get(e.getKind())));
+                    loaded++;
+                }
+                if (entries.size() < pageSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.warn("Warming up from the persistent ledger cache failed: {}", e.getMessage());
+        }
+        return loaded;
+    }
+
+    @Scheduled(fixedDelay = "6h", initialDelay = "5m")
+    void deleteExpired() {
+        if (enabled) {
+            repo.deleteByExpiresAtBefore(Instant.now());
+        }
+    }
+}
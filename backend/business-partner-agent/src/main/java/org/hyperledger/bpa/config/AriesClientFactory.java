@@ -21,34 +21,26 @@ import io.micronaut.context.annotation.Factory;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.context.env.Environment;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import okhttp3.OkHttpClient;
 import org.hyperledger.aries.AriesClient;
 
-import java.util.concurrent.TimeUnit;
-
 @Factory
 @Requires(notEnv = Environment.TEST)
 public class AriesClientFactory {
 
-    private static final long FIVE = 300;
-
     @Value("${bpa.acapy.url}")
     private String url;
     @Value("${bpa.acapy.apiKey}")
     private String apiKey;
 
     @Singleton
-    public AriesClient ariesClient() {
+    public AriesClient ariesClient(@Named(HttpClientFactory.ACAPY) OkHttpClient client) {
         return AriesClient.builder()
                 .url(url)
                 .apiKey(apiKey)
-                .client(new OkHttpClient.Builder()
-                        .writeTimeout(FIVE, TimeUnit.SECONDS)
-                        .readTimeout(FIVE, TimeUnit.SECONDS)
-                        .connectTimeout(FIVE, TimeUnit.SECONDS)
-                        .callTimeout(FIVE, TimeUnit.SECONDS)
-                        .build())
+                .client(client)
                 .build();
     }
 }
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020-2021 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Settings of one outbound http client target, configured under
+ * {@code bpa.http-client.<target>}. For every configured target a named
+ * {@link okhttp3.OkHttpClient} is created by the {@link HttpClientFactory},
+ * each with its own dispatcher and connection pool.
+ */
+@Getter
+@Setter
+@EachProperty("bpa.http-client")
+public class HttpClientConfig {
+
+    private final String name;
+
+    /** Max concurrent asynchronous requests, see okhttp3.Dispatcher */
+    private int maxRequests = 64;
+
+    /** Max concurrent asynchronous requests per host, see okhttp3.Dispatcher */
+    private int maxRequestsPerHost = 5;
+
+    /** Max idle connections that are kept in the pool */
+    private int maxIdleConnections = 5;
+
+    private Duration keepAlive = Duration.ofMinutes(5);
+
+    private Duration connectTimeout = Duration.ofSeconds(10);
+
+    private Duration readTimeout = Duration.ofSeconds(10);
+
+    private Duration writeTimeout = Duration.ofSeconds(10);
+
+    /** Zero means no timeout */
+    private Duration callTimeout = Duration.ZERO;
+
+    /** Negotiate HTTP/2 via ALPN where the server supports it */
+    private boolean http2 = true;
+
+    private boolean followRedirects = true;
+
+    public HttpClientConfig(@Parameter String name) {
+        this.name = name;
+    }
+}
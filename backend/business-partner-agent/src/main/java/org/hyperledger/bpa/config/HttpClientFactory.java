@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020-2021 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Factory;
+import jakarta.annotation.PreDestroy;
+import lombok.NonNull;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Central place where all outbound {@link OkHttpClient}s are created. Clients
+ * are injected by their target name e.g.
+ * {@code @Named(HttpClientFactory.ACAPY) OkHttpClient}. Note that the
+ * dispatcher limits only apply to asynchronous calls, synchronous calls are
+ * bound by the connection pool and the calling thread pool.
+ */
+@Factory
+public class HttpClientFactory {
+
+    public static final String ACAPY = "acapy";
+    public static final String WEBHOOK = "webhook";
+    public static final String DID_RESOLUTION = "did-resolution";
+    public static final String LEDGER_EXPLORER = "ledger-explorer";
+
+    private final Map<String, OkHttpClient> clients = new ConcurrentHashMap<>();
+
+    @EachBean(HttpClientConfig.class)
+    public OkHttpClient okHttpClient(@NonNull HttpClientConfig config, @NonNull HttpClientMetrics metrics) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+        OkHttpClient client = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(),
+                        config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS))
+                .protocols(config.isHttp2() ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                        : List.of(Protocol.HTTP_1_1))
+                .connectTimeout(config.getConnectTimeout())
+                .readTimeout(config.getReadTimeout())
+                .writeTimeout(config.getWriteTimeout())
+                .callTimeout(config.getCallTimeout())
+                .followRedirects(config.isFollowRedirects())
+                .eventListenerFactory(metrics.listenerFor(config.getName()))
+                .build();
+        clients.put(config.getName(), client);
+        return client;
+    }
+
+    @PreDestroy
+    void close() {
+        clients.values().forEach(c -> {
+            c.dispatcher().executorService().shutdown();
+            c.connectionPool().evictAll();
+        });
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020-2021 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import okhttp3.Call;
+import okhttp3.Connection;
+import okhttp3.EventListener;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.hyperledger.bpa.impl.profile.Profiler;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Collects per target call latency, connection acquisition (pool wait) and
+ * error statistics of all clients created by the {@link HttpClientFactory}.
+ * Errors are transport failures and responses with a 5xx status code. Calls to
+ * aca-py are additionally timed per operation, the operation is the http method
+ * and the path with ids replaced, so that it stays low cardinality.
+ */
+@Singleton
+public class HttpClientMetrics implements MeterBinder {
+
+    private static final Pattern UUID = Pattern
+            .compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    private final Map<String, TargetStats> targets = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    EventListener.Factory listenerFor(@NonNull String target) {
+        TargetStats stats = stats(target);
+        boolean perOperation = HttpClientFactory.ACAPY.equals(target);
+        return call -> new CallListener(target, stats, perOperation ? this : null);
+    }
+
+    public TargetStats stats(@NonNull String target) {
+        return targets.computeIfAbsent(target, k -> bind(k, new TargetStats()));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+        targets.forEach(this::bind);
+    }
+
+    private TargetStats bind(String target, TargetStats stats) {
+        MeterRegistry r = registry;
+        if (r == null) {
+            return stats;
+        }
+        Tags tags = Tags.of("client", target);
+        FunctionTimer.builder("bpa.http.client.calls", stats, s -> s.calls.sum(), s -> s.latencyNanos.sum(),
+                TimeUnit.NANOSECONDS).tags(tags).register(r);
+        FunctionTimer.builder("bpa.http.client.pool.wait", stats, s -> s.calls.sum(), s -> s.poolWaitNanos.sum(),
+                TimeUnit.NANOSECONDS).tags(tags).register(r);
+        FunctionCounter.builder("bpa.http.client.errors", stats, s -> s.errors.sum()).tags(tags).register(r);
+        Gauge.builder("bpa.http.client.in.flight", stats, s -> s.inFlight.sum()).tags(tags).register(r);
+        return stats;
+    }
+
+    private void recordOperation(@NonNull String operation, long latency, boolean failed) {
+        MeterRegistry r = registry;
+        if (r == null) {
+            return;
+        }
+        Timer.builder("bpa.acapy.requests")
+                .tag("operation", operation)
+                .tag("outcome", failed ? "error" : "success")
+                .register(r)
+                .record(latency, TimeUnit.NANOSECONDS);
+        if (failed) {
+            r.counter("bpa.acapy.errors", "operation", operation).increment();
+        }
+    }
+
+    /**
+     * @param method       http method
+     * @param pathSegments url path segments
+     * @return e.g. GET /connections/{id}, ids are uuids, numbers, dids and other
+     *         long tokens without a separator
+     */
+    static String operation(@NonNull String method, @NonNull List<String> pathSegments) {
+        StringBuilder sb = new StringBuilder(method).append(' ');
+        for (String segment : pathSegments) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            sb.append('/').append(isId(segment) ? "{id}" : segment);
+        }
+        return sb.length() == method.length() + 1 ? sb.append('/').toString() : sb.toString();
+    }
+
+    private static boolean isId(String segment) {
+        if (segment.contains(":") || segment.contains("%3A") || UUID.matcher(segment).matches()
+                || segment.chars().allMatch(Character::isDigit)) {
+            return true;
+        }
+        return segment.length() >= 16 && segment.chars().anyMatch(Character::isDigit)
+                && segment.indexOf('-') < 0 && segment.indexOf('_') < 0;
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        return targets.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+    }
+
+    public static final class TargetStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder latencyNanos = new LongAdder();
+        private final AtomicLong maxLatencyNanos = new AtomicLong();
+        private final LongAdder poolWaitNanos = new LongAdder();
+        private final LongAdder inFlight = new LongAdder();
+
+        void record(long latency, long poolWait, boolean failed) {
+            calls.increment();
+            if (failed) {
+                errors.increment();
+            }
+            latencyNanos.add(latency);
+            poolWaitNanos.add(poolWait);
+            maxLatencyNanos.accumulateAndGet(latency, Math::max);
+        }
+
+        public long inFlight() {
+            return inFlight.sum();
+        }
+
+        Snapshot snapshot() {
+            long count = calls.sum();
+            return Snapshot.builder()
+                    .calls(count)
+                    .errors(errors.sum())
+                    .inFlight(inFlight.sum())
+                    .avgLatencyMillis(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(latencyNanos.sum() / count))
+                    .maxLatencyMillis(TimeUnit.NANOSECONDS.toMillis(maxLatencyNanos.get()))
+                    .avgPoolWaitMillis(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(poolWaitNanos.sum() / count))
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    public static final class Snapshot {
+        private long calls;
+        private long errors;
+        private long inFlight;
+        private long avgLatencyMillis;
+        private long maxLatencyMillis;
+        private long avgPoolWaitMillis;
+    }
+
+    /**
+     * One instance per call. Pool wait is the time from the start of the call until
+     * a connection was acquired, which includes connecting if the pool had no idle
+     * connection. Synchronous calls end on the calling thread, so they are added to
+     * the profile that runs there.
+     */
+    private static final class CallListener extends EventListener {
+        private final String target;
+        private final TargetStats stats;
+        private final HttpClientMetrics operations;
+        private long start;
+        private long acquired;
+        private boolean serverError;
+
+        CallListener(String target, TargetStats stats, HttpClientMetrics operations) {
+            this.target = target;
+            this.stats = stats;
+            this.operations = operations;
+        }
+
+        @Override
+        public void callStart(@NonNull Call call) {
+            start = System.nanoTime();
+            stats.inFlight.increment();
+        }
+
+        @Override
+        public void connectionAcquired(@NonNull Call call, @NonNull Connection connection) {
+            if (acquired == 0) {
+                acquired = System.nanoTime();
+            }
+        }
+
+        @Override
+        public void responseHeadersEnd(@NonNull Call call, @NonNull Response response) {
+            serverError = response.code() >= 500;
+        }
+
+        @Override
+        public void callEnd(@NonNull Call call) {
+            end(call, serverError);
+        }
+
+        @Override
+        public void callFailed(@NonNull Call call, @NonNull IOException ioe) {
+            end(call, true);
+        }
+
+        private void end(Call call, boolean failed) {
+            long now = System.nanoTime();
+            stats.inFlight.decrement();
+            stats.record(now - start, (acquired == 0 ? now : acquired) - start, failed);
+            Request request = call.request();
+            if (operations != null) {
+                String operation = operation(request.method(), request.url().encodedPathSegments());
+                operations.recordOperation(operation, now - start, failed);
+                Profiler.record(Profiler.ACAPY, operation, now - start);
+            } else if (Profiler.isActive()) {
+                Profiler.record(target, request.method() + " " + request.url().host(), now - start);
+            }
+        }
+    }
+}
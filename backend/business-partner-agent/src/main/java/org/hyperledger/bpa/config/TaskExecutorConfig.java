@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micronaut.context.annotation.EachProperty;
+import io.micronaut.context.annotation.Parameter;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Settings of one workload executor, configured under
+ * {@code bpa.executors.<name>}. For every configured name a bounded
+ * {@link java.util.concurrent.ExecutorService} is created by the
+ * {@link TaskExecutorFactory} which can be referenced via
+ * {@code @Async(TaskExecutorFactory.NOTIFICATIONS)}.
+ */
+@Getter
+@Setter
+@EachProperty("bpa.executors")
+public class TaskExecutorConfig {
+
+    public enum RejectionPolicy {
+        /** Run the task on the submitting thread, slows down the producer */
+        CALLER_RUNS,
+        /** Throw a RejectedExecutionException to the submitting thread */
+        ABORT,
+        /** Drop the task */
+        DISCARD,
+        /**
+         * Drop the oldest queued task and retry, same as DISCARD with virtual threads
+         */
+        DISCARD_OLDEST
+    }
+
+    private final String name;
+
+    /** Max tasks that run concurrently */
+    private int threads = 4;
+
+    /** Max tasks that wait for a free thread before the rejection policy applies */
+    private int queueSize = 1000;
+
+    private RejectionPolicy rejectionPolicy = RejectionPolicy.CALLER_RUNS;
+
+    /** Idle time after which threads are released */
+    private Duration keepAlive = Duration.ofSeconds(60);
+
+    /**
+     * Run every task on its own virtual thread, limits stay the same. Requires a
+     * JDK with virtual thread support, falls back to platform threads otherwise.
+     */
+    private boolean virtualThreads = false;
+
+    public TaskExecutorConfig(@Parameter String name) {
+        this.name = name;
+    }
+}
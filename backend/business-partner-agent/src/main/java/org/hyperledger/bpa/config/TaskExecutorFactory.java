@@ -0,0 +1,242 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micronaut.context.annotation.Bean;
+import io.micronaut.context.annotation.EachBean;
+import io.micronaut.context.annotation.Factory;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.config.TaskExecutorConfig.RejectionPolicy;
+import org.hyperledger.bpa.config.TaskExecutorMetrics.ExecutorStats;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Central place where the workload executors are created. Each workload gets
+ * its own bounded pool so that e.g. a burst of slow webhook calls can not
+ * starve the notification processing. Executors are referenced by their name
+ * e.g. {@code @Async(TaskExecutorFactory.OUTBOUND_HTTP)}.
+ */
+@Slf4j
+@Factory
+public class TaskExecutorFactory {
+
+    /** Event listeners that write activities and push websocket messages */
+    public static final String NOTIFICATIONS = "notifications";
+    /** Webhooks and did resolution */
+    public static final String OUTBOUND_HTTP = "outbound-http";
+    /** Ledger lookups that run in the background */
+    public static final String LEDGER = "ledger";
+    /** Signing of the public profile */
+    public static final String SIGNING = "signing";
+    /** Email outbox worker */
+    public static final String MAIL = "mail";
+    /** Trust pings of the current wheel slot */
+    public static final String PING = "ping";
+    /** Workers of the bulk imports and bulk sends */
+    public static final String BULK = "bulk";
+
+    @EachBean(TaskExecutorConfig.class)
+    @Bean(preDestroy = "shutdown")
+    public ExecutorService taskExecutor(@NonNull TaskExecutorConfig config, @NonNull TaskExecutorMetrics metrics) {
+        ExecutorStats stats = metrics.stats(config.getName());
+        if (config.isVirtualThreads()) {
+            Optional<ThreadFactory> factory = virtualThreadFactory(config.getName());
+            if (factory.isPresent()) {
+                return new VirtualThreadExecutor(config, factory.get(), stats);
+            }
+            log.warn("Virtual threads are not supported by this JDK, executor {} uses platform threads",
+                    config.getName());
+        }
+        return new MeteredThreadPoolExecutor(config, stats);
+    }
+
+    /**
+     * Thread.ofVirtual() is only available from JDK 21 (19 with preview enabled),
+     * so it is looked up reflectively.
+     */
+    static Optional<ThreadFactory> virtualThreadFactory(@NonNull String name) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, "bpa-" + name + "-", 1L);
+            return Optional.of((ThreadFactory) builderType.getMethod("factory").invoke(builder));
+        } catch (ReflectiveOperationException | UnsupportedOperationException e) {
+            return Optional.empty();
+        }
+    }
+
+    private static void onRejected(@NonNull TaskExecutorConfig config, @NonNull ExecutorStats stats) {
+        stats.rejected();
+        if (RejectionPolicy.CALLER_RUNS.equals(config.getRejectionPolicy())) {
+            log.debug("Executor {} is saturated, running task on the calling thread", config.getName());
+        } else {
+            log.warn("Executor {} is saturated, task rejected with policy {}", config.getName(),
+                    config.getRejectionPolicy());
+        }
+    }
+
+    /**
+     * Records the time a task waited in the queue and the time it ran
+     */
+    private record TimedTask(Runnable task, ExecutorStats stats, long enqueued) implements Runnable {
+
+        @Override
+        public void run() {
+            long start = System.nanoTime();
+            stats.started(start - enqueued);
+            try {
+                task.run();
+            } finally {
+                stats.finished(System.nanoTime() - start);
+            }
+        }
+    }
+
+    static final class MeteredThreadPoolExecutor extends ThreadPoolExecutor {
+
+        private final ExecutorStats stats;
+
+        MeteredThreadPoolExecutor(@NonNull TaskExecutorConfig config, @NonNull ExecutorStats stats) {
+            super(config.getThreads(), config.getThreads(),
+                    config.getKeepAlive().toMillis(), TimeUnit.MILLISECONDS,
+                    config.getQueueSize() > 0 ? new LinkedBlockingQueue<>(config.getQueueSize())
+                            : new SynchronousQueue<>(),
+                    platformThreadFactory(config.getName()),
+                    rejectionHandler(config, stats));
+            this.stats = stats;
+            allowCoreThreadTimeOut(true);
+            stats.queueDepth(() -> getQueue().size());
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            super.execute(new TimedTask(command, stats, System.nanoTime()));
+        }
+
+        private static ThreadFactory platformThreadFactory(String name) {
+            AtomicInteger count = new AtomicInteger();
+            return r -> new Thread(r, "bpa-" + name + "-" + count.incrementAndGet());
+        }
+
+        private static RejectedExecutionHandler rejectionHandler(TaskExecutorConfig config, ExecutorStats stats) {
+            RejectedExecutionHandler policy = switch (config.getRejectionPolicy()) {
+            case CALLER_RUNS -> new CallerRunsPolicy();
+            case ABORT -> new AbortPolicy();
+            case DISCARD -> new DiscardPolicy();
+            case DISCARD_OLDEST -> new DiscardOldestPolicy();
+            };
+            return (r, executor) -> {
+                onRejected(config, stats);
+                policy.rejectedExecution(r, executor);
+            };
+        }
+    }
+
+    /**
+     * Starts a virtual thread per task. The configured threads limit how many tasks
+     * run at the same time, waiting virtual threads make up the queue.
+     */
+    static final class VirtualThreadExecutor extends AbstractExecutorService {
+
+        private final TaskExecutorConfig config;
+        private final ThreadFactory factory;
+        private final ExecutorStats stats;
+        private final int capacity;
+        private final Semaphore accepted;
+        private final Semaphore running;
+        private volatile boolean shutdown;
+
+        VirtualThreadExecutor(@NonNull TaskExecutorConfig config, @NonNull ThreadFactory factory,
+                @NonNull ExecutorStats stats) {
+            this.config = config;
+            this.factory = factory;
+            this.stats = stats;
+            this.capacity = config.getThreads() + Math.max(config.getQueueSize(), 0);
+            this.accepted = new Semaphore(capacity);
+            this.running = new Semaphore(config.getThreads());
+            stats.queueDepth(() -> Math.max(0,
+                    capacity - accepted.availablePermits() - (config.getThreads() - running.availablePermits())));
+        }
+
+        @Override
+        public void execute(@NonNull Runnable command) {
+            if (shutdown) {
+                throw new RejectedExecutionException("Executor " + config.getName() + " is shut down");
+            }
+            TimedTask task = new TimedTask(command, stats, System.nanoTime());
+            if (!accepted.tryAcquire()) {
+                onRejected(config, stats);
+                switch (config.getRejectionPolicy()) {
+                case CALLER_RUNS -> task.run();
+                case ABORT -> throw new RejectedExecutionException("Executor " + config.getName() + " is saturated");
+                case DISCARD, DISCARD_OLDEST -> {
+                    // dropped, nothing queued that could be evicted instead
+                }
+                }
+                return;
+            }
+            factory.newThread(() -> {
+                running.acquireUninterruptibly();
+                try {
+                    task.run();
+                } finally {
+                    running.release();
+                    accepted.release();
+                }
+            }).start();
+        }
+
+        @Override
+        public void shutdown() {
+            shutdown = true;
+        }
+
+        @Override
+        public List<Runnable> shutdownNow() {
+            shutdown = true;
+            return List.of();
+        }
+
+        @Override
+        public boolean isShutdown() {
+            return shutdown;
+        }
+
+        @Override
+        public boolean isTerminated() {
+            return shutdown && accepted.availablePermits() == capacity;
+        }
+
+        @Override
+        public boolean awaitTermination(long timeout, @NonNull TimeUnit unit) throws InterruptedException {
+            long deadline = System.nanoTime() + unit.toNanos(timeout);
+            while (!isTerminated()) {
+                if (System.nanoTime() > deadline) {
+                    return false;
+                }
+                TimeUnit.MILLISECONDS.sleep(10);
+            }
+            return true;
+        }
+    }
+}
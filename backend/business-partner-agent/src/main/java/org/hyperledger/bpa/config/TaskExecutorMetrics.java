@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.inject.Singleton;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntSupplier;
+import java.util.stream.Collectors;
+
+/**
+ * Collects per executor queue depth, queue wait, run time and rejection
+ * statistics of all executors created by the {@link TaskExecutorFactory}.
+ * Micronaut's executor binder is disabled, as it can not see the queue of the
+ * virtual thread executor, the statistics are published from here instead.
+ */
+@Singleton
+public class TaskExecutorMetrics implements MeterBinder {
+
+    private final Map<String, ExecutorStats> executors = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    public ExecutorStats stats(@NonNull String executor) {
+        return executors.computeIfAbsent(executor, k -> bind(k, new ExecutorStats()));
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+        executors.forEach(this::bind);
+    }
+
+    private ExecutorStats bind(String executor, ExecutorStats stats) {
+        MeterRegistry r = registry;
+        if (r == null) {
+            return stats;
+        }
+        Tags tags = Tags.of("executor", executor);
+        Gauge.builder("bpa.executor.queued", stats, ExecutorStats::queued).tags(tags).register(r);
+        Gauge.builder("bpa.executor.active", stats, s -> s.active.sum()).tags(tags).register(r);
+        FunctionCounter.builder("bpa.executor.rejected", stats, s -> s.rejected.sum()).tags(tags).register(r);
+        FunctionTimer.builder("bpa.executor.queue.wait", stats, s -> s.executed.sum(), s -> s.queueWaitNanos.sum(),
+                TimeUnit.NANOSECONDS).tags(tags).register(r);
+        FunctionTimer.builder("bpa.executor.run", stats, s -> s.executed.sum(), s -> s.runNanos.sum(),
+                TimeUnit.NANOSECONDS).tags(tags).register(r);
+        return stats;
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        return executors.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+    }
+
+    public static final class ExecutorStats {
+        private final LongAdder executed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        private final LongAdder active = new LongAdder();
+        private final LongAdder queueWaitNanos = new LongAdder();
+        private final AtomicLong maxQueueWaitNanos = new AtomicLong();
+        private final LongAdder runNanos = new LongAdder();
+        private volatile IntSupplier queued = () -> 0;
+
+        void queueDepth(@NonNull IntSupplier queued) {
+            this.queued = queued;
+        }
+
+        void started(long queueWait) {
+            active.increment();
+            queueWaitNanos.add(queueWait);
+            maxQueueWaitNanos.accumulateAndGet(queueWait, Math::max);
+        }
+
+        void finished(long runTime) {
+            active.decrement();
+            executed.increment();
+            runNanos.add(runTime);
+        }
+
+        void rejected() {
+            rejected.increment();
+        }
+
+        public int queued() {
+            return queued.getAsInt();
+        }
+
+        Snapshot snapshot() {
+            long count = executed.sum();
+            return Snapshot.builder()
+                    .executed(count)
+                    .rejected(rejected.sum())
+                    .active(active.sum())
+                    .queued(queued())
+                    .avgQueueWaitMillis(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(queueWaitNanos.sum() / count))
+                    .maxQueueWaitMillis(TimeUnit.NANOSECONDS.toMillis(maxQueueWaitNanos.get()))
+                    .avgRunMillis(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(runNanos.sum() / count))
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    public static final class Snapshot {
+        private long executed;
+        private long rejected;
+        private long active;
+        private int queued;
+        private long avgQueueWaitMillis;
+        private long maxQueueWaitMillis;
+        private long avgRunMillis;
+    }
+}
@@ -32,12 +32,14 @@ import org.hyperledger.bpa.controller.api.activity.ActivitySearchParameters;
 import org.hyperledger.bpa.impl.ActivityManager;
 
 import javax.validation.Valid;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import java.util.List;
 
 @Controller("/api/activities")
 @Tag(name = "Activities")
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class ActivitiesController {
 
     @Inject
@@ -31,6 +31,7 @@ import io.micronaut.security.rules.SecurityRule;
 import io.swagger.v3.oas.annotations.Hidden;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.impl.profile.Profiled;
 
 /**
  * Hack to make page refresh work on the VUE single page app, so that there are
@@ -46,6 +47,7 @@ import lombok.extern.slf4j.Slf4j;
 @Controller
 @ExecuteOn(TaskExecutors.IO)
 @Slf4j
+@Profiled(Profiled.REQUEST)
 public class AppController {
 
     @Inject
@@ -29,10 +29,8 @@ import io.swagger.v3.oas.annotations.Hidden;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
-import org.hyperledger.aries.webhook.EventHandler;
 import org.hyperledger.bpa.config.acapy.AcaPyAuthFetcher;
-
-import java.util.List;
+import org.hyperledger.bpa.impl.aries.AriesEventDispatcher;
 
 /**
  * Handles incoming aca-py webhook events
@@ -48,7 +46,7 @@ public class AriesWebhookController {
     public static final String WEBHOOK_CONTROLLER_PATH = "/log/topic";
 
     @Inject
-    List<EventHandler> handlers;
+    AriesEventDispatcher dispatcher;
 
     @Secured({ AcaPyAuthFetcher.ROLE_ACA_PY })
     @Post(WEBHOOK_CONTROLLER_PATH + "/{eventType}")
@@ -56,8 +54,6 @@ public class AriesWebhookController {
             @PathVariable String eventType,
             @Body String eventBody) {
 
-        log.info("Webhook received, type: {}", eventType);
-
-        handlers.forEach(eventHandler -> eventHandler.handleEvent(eventType, eventBody));
+        dispatcher.dispatch(eventType, eventBody);
     }
 }
@@ -35,6 +35,7 @@ import org.hyperledger.bpa.controller.api.invitation.AcceptInvitationRequest;
 import org.hyperledger.bpa.controller.api.invitation.CheckInvitationRequest;
 import org.hyperledger.bpa.controller.api.partner.CreatePartnerInvitationRequest;
 import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
+import org.hyperledger.bpa.impl.profile.Profiled;
 
 @Slf4j
 @Controller("/api/invitations")
@@ -42,6 +43,7 @@ import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class InvitationController {
 
     @Inject
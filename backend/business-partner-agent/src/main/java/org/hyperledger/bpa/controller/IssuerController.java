@@ -43,6 +43,7 @@ import org.hyperledger.bpa.impl.aries.credential.OOBCredentialOffer;
 import org.hyperledger.bpa.impl.aries.schema.SchemaService;
 
 import javax.validation.Valid;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import java.util.List;
 import java.util.UUID;
 
@@ -53,6 +54,7 @@ import static org.hyperledger.bpa.controller.IssuerController.ISSUER_CONTROLLER_
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class IssuerController {
 
     public static final String ISSUER_CONTROLLER_BASE_URL = "/api/issuer";
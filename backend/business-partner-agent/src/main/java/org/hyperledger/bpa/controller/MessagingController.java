@@ -28,13 +28,17 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperledger.bpa.controller.api.messaging.AdHocMessageRequest;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationRequest;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationStatus;
 import org.hyperledger.bpa.controller.api.messaging.MessageTemplateCmd;
 import org.hyperledger.bpa.controller.api.messaging.MessageTriggerConfigCmd;
 import org.hyperledger.bpa.controller.api.messaging.MessageUserInfoCmd;
 import org.hyperledger.bpa.impl.messaging.MessagingManager;
 
 import javax.validation.Valid;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -43,6 +47,7 @@ import java.util.UUID;
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class MessagingController {
 
     @Inject
@@ -213,4 +218,31 @@ public class MessagingController {
         messaging.sendMessage(request);
         return HttpResponse.ok();
     }
+
+    /**
+     * Create an invitation for every recipient and send its url by email. Runs in
+     * the background, use the returned id to track progress.
+     *
+     * @param request {@link BulkInvitationRequest}
+     * @return {@link BulkInvitationStatus}
+     */
+    @Post("/send-invitation/bulk")
+    public HttpResponse<BulkInvitationStatus> sendBulkInvitationMail(@Valid @Body BulkInvitationRequest request) {
+        return HttpResponse.accepted().body(messaging.sendBulkInvitation(request));
+    }
+
+    /**
+     * Progress of a bulk invitation, including the state of every recipient
+     *
+     * @param requestId bulk invitation id
+     * @return {@link BulkInvitationStatus}
+     */
+    @Get("/send-invitation/bulk/{requestId}")
+    public HttpResponse<BulkInvitationStatus> getBulkInvitationStatus(@PathVariable UUID requestId) {
+        Optional<BulkInvitationStatus> status = messaging.getBulkInvitationStatus(requestId);
+        if (status.isPresent()) {
+            return HttpResponse.ok(status.get());
+        }
+        return HttpResponse.notFound();
+    }
 }
@@ -18,6 +18,9 @@
 package org.hyperledger.bpa.controller;
 
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.http.HttpHeaders;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.*;
 import io.micronaut.scheduling.TaskExecutors;
@@ -32,9 +35,11 @@ import jakarta.inject.Inject;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.api.PartnerListItem;
 import org.hyperledger.bpa.api.aries.AriesProofExchange;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
 import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.controller.api.PaginationCommand;
 import org.hyperledger.bpa.controller.api.partner.*;
 import org.hyperledger.bpa.controller.api.proof.PresentationRequestVersion;
 import org.hyperledger.bpa.impl.PartnerManager;
@@ -45,8 +50,11 @@ import org.hyperledger.bpa.impl.aries.chat.ChatMessageService;
 import org.hyperledger.bpa.impl.aries.credential.HolderManager;
 import org.hyperledger.bpa.impl.aries.proof.ProofManager;
 import org.hyperledger.bpa.impl.aries.prooftemplates.ProofTemplateManager;
+import org.hyperledger.bpa.impl.profile.Profiled;
+import org.hyperledger.bpa.impl.util.Pair;
 import org.hyperledger.bpa.persistence.model.ChatMessage;
 
+import javax.validation.Valid;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -57,6 +65,7 @@ import java.util.UUID;
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class PartnerController {
 
     @Inject
@@ -102,18 +111,41 @@ public class PartnerController {
     }
 
     /**
-     * Get partner by id
+     * Search partners, paginated and filtered on the server side
      *
-     * @param id {@link UUID} the partner id
-     * @return partner
+     * @param pc     {@link PaginationCommand} page and size, sorting is ignored
+     * @param search {@link PartnerSearchParameters}
+     * @return page of {@link PartnerListItem}
+     */
+    @Get("/search{?pc*}")
+    public HttpResponse<Page<PartnerListItem>> searchPartners(
+            @Valid @Nullable PaginationCommand pc,
+            @RequestBean PartnerSearchParameters search) {
+        return HttpResponse.ok(pm.searchPartners(search, pc != null ? pc.toPageable() : Pageable.unpaged()));
+    }
+
+    /**
+     * Get partner by id, the ETag is the version that is sent with websocket
+     * notifications
+     *
+     * @param id          {@link UUID} the partner id
+     * @param ifNoneMatch version the client has cached
+     * @return partner, or 304 if the client version is current
      */
     @Get("/{id}")
-    public HttpResponse<PartnerAPI> getPartnerById(@PathVariable UUID id) {
-        Optional<PartnerAPI> partner = pm.getPartnerById(id);
-        if (partner.isPresent()) {
-            return HttpResponse.ok(partner.get());
+    public HttpResponse<PartnerAPI> getPartnerById(@PathVariable UUID id,
+            @Parameter(hidden = true) @Nullable @Header(HttpHeaders.IF_NONE_MATCH) String ifNoneMatch) {
+        String cached = ifNoneMatch != null ? StringUtils.strip(ifNoneMatch, "\"") : null;
+        Optional<Pair<String, Optional<PartnerAPI>>> partner = pm.getPartnerIfModified(id, cached);
+        if (partner.isEmpty()) {
+            return HttpResponse.notFound();
         }
-        return HttpResponse.notFound();
+        String eTag = "\"" + partner.get().getLeft() + "\"";
+        return partner.get().getRight()
+                .map(p -> HttpResponse.ok(p)
+                        .header(HttpHeaders.ETAG, eTag)
+                        .header(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .orElseGet(() -> HttpResponse.<PartnerAPI>notModified().header(HttpHeaders.ETAG, eTag));
     }
 
     /**
@@ -175,6 +207,33 @@ public class PartnerController {
         return HttpResponse.created(pm.addPartnerFlow(request));
     }
 
+    /**
+     * Add multiple partners at once. Runs in the background, use the returned id to
+     * track progress.
+     *
+     * @param request {@link ImportPartnersRequest}
+     * @return {@link PartnerImportStatus}
+     */
+    @Post("/import")
+    public HttpResponse<PartnerImportStatus> importPartners(@Body ImportPartnersRequest request) {
+        return HttpResponse.accepted().body(pm.importPartners(request));
+    }
+
+    /**
+     * Progress of a partner import, including the result of every row
+     *
+     * @param importId partner import id
+     * @return {@link PartnerImportStatus}
+     */
+    @Get("/import/{importId}")
+    public HttpResponse<PartnerImportStatus> getImportStatus(@PathVariable UUID importId) {
+        Optional<PartnerImportStatus> status = pm.getImportStatus(importId);
+        if (status.isPresent()) {
+            return HttpResponse.ok(status.get());
+        }
+        return HttpResponse.notFound();
+    }
+
     /**
      * Manual connection flow. Accept partner connection request
      *
@@ -318,14 +377,17 @@ public class PartnerController {
     }
 
     /**
-     * Get chat messages for partner
+     * Get chat messages for partner, keyset paginated. Without a cursor the latest
+     * page is returned, pages are always sorted oldest message first.
      *
-     * @param id {@link UUID} the partner id
-     * @return HTTP status
+     * @param id   {@link UUID} the partner id
+     * @param page {@link ChatHistoryParameters}
+     * @return list of {@link ChatMessage}
      */
     @Get("/{id}/messages")
     public HttpResponse<List<ChatMessage>> getMessagesForPartner(
-            @PathVariable UUID id) {
-        return HttpResponse.ok(chatMessageService.getMessagesForPartner(id));
+            @PathVariable UUID id,
+            @RequestBean ChatHistoryParameters page) {
+        return HttpResponse.ok(chatMessageService.getMessagesForPartner(id, page));
     }
 }
@@ -41,6 +41,7 @@ import org.hyperledger.bpa.controller.api.proof.PresentationRequestCredentials;
 import org.hyperledger.bpa.impl.aries.proof.ProofManager;
 
 import javax.validation.Valid;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import java.util.List;
 import java.util.UUID;
 
@@ -50,6 +51,7 @@ import java.util.UUID;
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class ProofExchangeController {
 
     @Inject
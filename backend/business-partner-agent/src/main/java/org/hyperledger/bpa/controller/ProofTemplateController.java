@@ -26,8 +26,11 @@ import io.micronaut.security.rules.SecurityRule;
 import io.micronaut.validation.Validated;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequest;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequestStatus;
 import org.hyperledger.bpa.controller.api.prooftemplates.ProofTemplate;
 import org.hyperledger.bpa.impl.aries.prooftemplates.ProofTemplateManager;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import org.hyperledger.bpa.persistence.model.BPAProofTemplate;
 import org.hyperledger.bpa.persistence.model.prooftemplate.ValueOperators;
 
@@ -43,6 +46,7 @@ import java.util.stream.Collectors;
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class ProofTemplateController {
 
     @Inject
@@ -94,6 +98,35 @@ public class ProofTemplateController {
         }
     }
 
+    /**
+     * Send a proof request based on this template to many partners, selected by id
+     * and/or tag. Runs in the background, use the returned id to track progress.
+     *
+     * @param id      proof template id
+     * @param request {@link BulkProofRequest}
+     * @return {@link BulkProofRequestStatus}
+     */
+    @Post("/{id}/bulk-proof-request")
+    public HttpResponse<BulkProofRequestStatus> invokeBulkProofRequest(@PathVariable UUID id,
+            @Body BulkProofRequest request) {
+        return HttpResponse.accepted().body(proofTemplateManager.invokeProofRequestByTemplate(id, request));
+    }
+
+    /**
+     * Progress of a bulk proof request
+     *
+     * @param requestId bulk proof request id
+     * @return {@link BulkProofRequestStatus}
+     */
+    @Get("/bulk-proof-request/{requestId}")
+    public HttpResponse<BulkProofRequestStatus> getBulkProofRequestStatus(@PathVariable UUID requestId) {
+        Optional<BulkProofRequestStatus> status = proofTemplateManager.getBulkProofRequestStatus(requestId);
+        if (status.isPresent()) {
+            return HttpResponse.ok(status.get());
+        }
+        return HttpResponse.notFound();
+    }
+
     // TODO add possibility to update a template, because we might refer to
     // templates via FK, updates have to create new entities.
 
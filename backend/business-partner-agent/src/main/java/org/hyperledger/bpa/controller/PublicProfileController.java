@@ -32,6 +32,7 @@ import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
 import org.hyperledger.aries.api.resolver.DIDDocument;
 import org.hyperledger.bpa.impl.DidDocManager;
 import org.hyperledger.bpa.impl.aries.jsonld.VPManager;
+import org.hyperledger.bpa.impl.profile.Profiled;
 
 import java.util.Optional;
 
@@ -40,6 +41,7 @@ import java.util.Optional;
 @Validated
 @Secured(SecurityRule.IS_ANONYMOUS)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class PublicProfileController {
 
     @Inject
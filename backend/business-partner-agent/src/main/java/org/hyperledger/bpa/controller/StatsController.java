@@ -20,6 +20,7 @@ package org.hyperledger.bpa.controller;
 import io.micronaut.http.HttpResponse;
 import io.micronaut.http.annotation.Controller;
 import io.micronaut.http.annotation.Get;
+import io.micronaut.http.annotation.RequestBean;
 import io.micronaut.scheduling.TaskExecutors;
 import io.micronaut.scheduling.annotation.ExecuteOn;
 import io.micronaut.security.annotation.Secured;
@@ -27,12 +28,21 @@ import io.micronaut.security.rules.SecurityRule;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 import org.hyperledger.bpa.controller.api.stats.BPAStats;
+import org.hyperledger.bpa.controller.api.stats.LatencyParameters;
+import org.hyperledger.bpa.controller.api.stats.OperationProfile;
+import org.hyperledger.bpa.controller.api.stats.StageLatency;
+import org.hyperledger.bpa.controller.api.stats.StatsBucket;
+import org.hyperledger.bpa.controller.api.stats.StatsRangeParameters;
 import org.hyperledger.bpa.impl.StatsService;
+import org.hyperledger.bpa.impl.profile.Profiled;
+
+import java.util.List;
 
 @Controller("/api/status")
 @Tag(name = "BPA Status")
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class StatsController {
 
     @Inject
@@ -47,4 +57,37 @@ public class StatsController {
     public HttpResponse<BPAStats> getStats() {
         return HttpResponse.ok(stats.collectStats());
     }
+
+    /**
+     * Usage statistics for a date range, answered from the daily rollup
+     *
+     * @param range {@link StatsRangeParameters}
+     * @return list of {@link StatsBucket} per period and dimension
+     */
+    @Get("/history")
+    public HttpResponse<List<StatsBucket>> getStatsHistory(@RequestBean StatsRangeParameters range) {
+        return HttpResponse.ok(stats.collectStats(range));
+    }
+
+    /**
+     * Latency percentiles per exchange stage since the last restart
+     *
+     * @param params {@link LatencyParameters}
+     * @return list of {@link StageLatency}
+     */
+    @Get("/latency")
+    public HttpResponse<List<StageLatency>> getLatencies(@RequestBean LatencyParameters params) {
+        return HttpResponse.ok(stats.collectLatencies(params));
+    }
+
+    /**
+     * Time per endpoint and aca-py event, broken down into database, aca-py, did
+     * resolution, conversion and cache calls
+     *
+     * @return list of {@link OperationProfile}
+     */
+    @Get("/profiles")
+    public HttpResponse<List<OperationProfile>> getProfiles() {
+        return HttpResponse.ok(stats.collectProfiles());
+    }
 }
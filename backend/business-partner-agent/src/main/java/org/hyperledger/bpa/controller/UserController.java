@@ -36,6 +36,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.inject.Inject;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import org.hyperledger.bpa.persistence.model.BPAUser;
 import org.hyperledger.bpa.persistence.repository.BPAUserRepository;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -51,6 +52,7 @@ import java.util.Optional;
 @Hidden
 @Tag(name = "User")
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class UserController {
 
     @Value("${bpa.imprint.url}")
@@ -41,6 +41,7 @@ import org.hyperledger.bpa.impl.MyDocumentManager;
 import org.hyperledger.bpa.impl.aries.credential.HolderManager;
 
 import javax.validation.Valid;
+import org.hyperledger.bpa.impl.profile.Profiled;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -49,6 +50,7 @@ import java.util.UUID;
 @Validated
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class WalletController {
 
     @Inject
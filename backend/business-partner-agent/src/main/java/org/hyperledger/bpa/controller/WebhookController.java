@@ -28,6 +28,7 @@ import jakarta.inject.Inject;
 import org.hyperledger.bpa.core.RegisteredWebhook;
 import org.hyperledger.bpa.core.RegisteredWebhook.RegisteredWebhookResponse;
 import org.hyperledger.bpa.impl.WebhookService;
+import org.hyperledger.bpa.impl.profile.Profiled;
 
 import java.util.List;
 import java.util.Optional;
@@ -42,6 +43,7 @@ import java.util.UUID;
 @Tag(name = "Webhook")
 @Secured(SecurityRule.IS_AUTHENTICATED)
 @ExecuteOn(TaskExecutors.IO)
+@Profiled(Profiled.REQUEST)
 public class WebhookController {
 
     @Inject
@@ -19,7 +19,7 @@ package org.hyperledger.bpa.controller.api;
 
 import io.micronaut.core.annotation.Nullable;
 import lombok.*;
-import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.api.PartnerSummary;
 import org.hyperledger.bpa.persistence.model.ChatMessage;
 
 /**
@@ -30,6 +30,13 @@ import org.hyperledger.bpa.persistence.model.ChatMessage;
 @RequiredArgsConstructor(staticName = "of")
 public class WebSocketMessageBody {
 
+    /**
+     * 2: the partner is a {@link PartnerSummary}, the full partner is fetched by id
+     */
+    public static final int PROTOCOL_VERSION = 2;
+
+    private final int version = PROTOCOL_VERSION;
+
     private final long id = System.nanoTime();
 
     private final long timestamp = System.currentTimeMillis();
@@ -45,7 +52,7 @@ public class WebSocketMessageBody {
         private WebSocketMessageType type;
         private String linkId;
         private Object info;
-        private PartnerAPI partner;
+        private PartnerSummary partner;
     }
 
     public enum WebSocketMessageType {
@@ -70,7 +77,7 @@ public class WebSocketMessageBody {
         TASK_COMPLETED
     }
 
-    public static WebSocketMessageBody message(PartnerAPI partner, ChatMessage message) {
+    public static WebSocketMessageBody message(PartnerSummary partner, ChatMessage message) {
         return notificationEvent(WebSocketMessageType.ON_MESSAGE_RECEIVED,
                 partner.getId(),
                 PartnerMessage.builder()
@@ -84,7 +91,7 @@ public class WebSocketMessageBody {
     public static WebSocketMessageBody notificationEvent(@NonNull WebSocketMessageType type,
             @Nullable String linkId,
             @Nullable Object info,
-            @Nullable PartnerAPI partner) {
+            @Nullable PartnerSummary partner) {
         return WebSocketMessageBody.of(WebSocketMessage
                 .builder()
                 .type(type)
@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.messaging;
+
+import io.micronaut.core.annotation.Introspected;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hyperledger.bpa.persistence.model.Tag;
+
+import javax.annotation.Nullable;
+import javax.validation.constraints.NotEmpty;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Creates one invitation per recipient and sends its url by email. If no
+ * template id is provided the bpa falls back to default.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Introspected
+public class BulkInvitationRequest {
+
+    // invalid emails are reported per recipient and do not fail the request
+    @NotEmpty
+    private List<Recipient> recipients;
+
+    // if null, falling back to template defaults
+    @Nullable
+    private UUID templateId;
+
+    // applied to every created partner
+    @Nullable
+    private List<Tag> tag;
+    @Nullable
+    private Boolean trustPing;
+    @Nullable
+    private Boolean useOutOfBand;
+    @Nullable
+    private Boolean usePublicDid;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Introspected
+    public static class Recipient {
+        private String email;
+        // alias of the partner, if null the email is used
+        @Nullable
+        private String alias;
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.messaging;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BulkInvitationStatus {
+    private String id;
+    private State state;
+    /** recipients in the request */
+    private int total;
+    /** invitations created and mails handed to the outbox */
+    private int queued;
+    /** recipients that appear more than once */
+    private int skipped;
+    /**
+     * includes the recipients whose invitation was created but whose mail was not
+     * queued
+     */
+    private int failed;
+    private Long startedAt;
+    private Long finishedAt;
+    private List<Row> recipients;
+
+    public enum State {
+        RUNNING,
+        DONE
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder(toBuilder = true)
+    public static class Row {
+        private String email;
+        private String alias;
+        private RowState state;
+        private String partnerId;
+        private String message;
+    }
+
+    public enum RowState {
+        PENDING,
+        QUEUED,
+        DUPLICATE,
+        /** the invitation exists, see partnerId, but its mail could not be queued */
+        NOT_SENT,
+        FAILED
+    }
+}
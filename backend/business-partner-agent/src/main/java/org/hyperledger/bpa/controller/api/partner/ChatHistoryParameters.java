@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.partner;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.annotation.QueryValue;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+/**
+ * Keyset page of a chat history, without a cursor the latest messages are
+ * returned. Cursors are message ids of the same partner and are exclusive, an
+ * unknown cursor is not found.
+ */
+@Data
+@NoArgsConstructor
+@Introspected
+public class ChatHistoryParameters {
+    /** Messages older than this message */
+    @Nullable
+    @QueryValue
+    private UUID before;
+    /** Messages newer than this message */
+    @Nullable
+    @QueryValue
+    private UUID after;
+    @Nullable
+    @QueryValue
+    private Integer size;
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.partner;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PartnerImportStatus {
+    private String id;
+    private State state;
+    /** rows in the request */
+    private int total;
+    private int imported;
+    /** rows that are already a partner, or a duplicate within the request */
+    private int skipped;
+    private int failed;
+    private Long startedAt;
+    private Long finishedAt;
+    private List<Row> rows;
+
+    public enum State {
+        RUNNING,
+        DONE
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder(toBuilder = true)
+    public static class Row {
+        private String did;
+        private String alias;
+        private RowState state;
+        private String partnerId;
+        private String message;
+    }
+
+    public enum RowState {
+        PENDING,
+        IMPORTED,
+        EXISTS,
+        DUPLICATE,
+        FAILED
+    }
+}
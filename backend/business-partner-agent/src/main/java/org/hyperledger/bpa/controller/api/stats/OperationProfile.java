@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.stats;
+
+import io.micronaut.core.annotation.Introspected;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Map;
+
+/**
+ * Where the time of an endpoint or aca-py event went since the last restart.
+ * The breakdown is the average time per call and category, without the time of
+ * nested calls, so that it adds up to the average.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Introspected
+public class OperationProfile {
+    /** route, e.g. GET /api/partners/{id}, or event topic */
+    private String name;
+    private Long count;
+    /** calls that exceeded the slow operation threshold */
+    private Long slow;
+    private Long avgMillis;
+    private Long maxMillis;
+    /** category, e.g. db, acapy or self, to average millis */
+    private Map<String, Double> breakdown;
+}
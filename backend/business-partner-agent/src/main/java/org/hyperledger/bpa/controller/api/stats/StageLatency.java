@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.stats;
+
+import io.micronaut.core.annotation.Introspected;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Latency percentiles of one exchange stage, the time between reaching the from
+ * state and reaching the to state. Whose turn it was follows from the states,
+ * e.g. request_received to credential_issued is our agent and aca-py,
+ * offer_sent to request_received is the counterparty.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Introspected
+public class StageLatency {
+    private LifecycleExchange exchange;
+    /** aries protocol version, empty for connections */
+    private String version;
+    private String role;
+    private String from;
+    private String to;
+    /** samples within the window */
+    private Integer count;
+    private Long p50Millis;
+    private Long p90Millis;
+    private Long p99Millis;
+    private Long maxMillis;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.stats;
+
+/**
+ * What the daily rollup counts, the dimensions per metric are:
+ * <ul>
+ * <li>CREDENTIAL_EXCHANGE: credential type, exchange state and role</li>
+ * <li>PRESENTATION_EXCHANGE: exchange state and role</li>
+ * <li>PARTNER: ARIES or WEB, connection state and INCOMING or OUTGOING</li>
+ * <li>ACTIVITY: activity type, OPEN or COMPLETED and role</li>
+ * </ul>
+ */
+public enum StatsMetric {
+    CREDENTIAL_EXCHANGE,
+    PRESENTATION_EXCHANGE,
+    PARTNER,
+    ACTIVITY
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller.api.stats;
+
+import io.micronaut.core.annotation.Introspected;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.convert.format.Format;
+import io.micronaut.http.annotation.QueryValue;
+import io.swagger.v3.oas.annotations.Parameter;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@Introspected
+public class StatsRangeParameters {
+    @Nullable
+    @Parameter(description = "first day, defaults to 30 days before to")
+    @QueryValue
+    @Format("yyyy-MM-dd")
+    private LocalDate from;
+    @Nullable
+    @Parameter(description = "last day (inclusive), defaults to today")
+    @QueryValue
+    @Format("yyyy-MM-dd")
+    private LocalDate to;
+    @Nullable
+    @Parameter(description = "defaults to DAY")
+    @QueryValue
+    private StatsGranularity granularity;
+    @Nullable
+    @Parameter(description = "all metrics if not set")
+    @QueryValue
+    private StatsMetric metric;
+}
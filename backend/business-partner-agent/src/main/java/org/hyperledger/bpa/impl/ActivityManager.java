@@ -99,7 +99,7 @@ public class ActivityManager {
                     .completed(false)
                     .build();
             activityRepository.save(a);
-            eventPublisher.publishEventAsync(TaskAddedEvent.builder().activity(a).build());
+            eventPublisher.publishEvent(TaskAddedEvent.builder().activity(a).build());
         }
     }
 
@@ -111,7 +111,7 @@ public class ActivityManager {
                     activity.setState(ActivityState.CONNECTION_REQUEST_ACCEPTED);
                     activity.setCompleted(true);
                     activityRepository.update(activity);
-                    eventPublisher.publishEventAsync(TaskCompletedEvent.builder().activity(activity).build());
+                    eventPublisher.publishEvent(TaskCompletedEvent.builder().activity(activity).build());
                 }, () -> {
                     // add in a completed activity
                     Activity a = Activity.builder()
@@ -134,7 +134,7 @@ public class ActivityManager {
                         activity.setState(ActivityState.CREDENTIAL_EXCHANGE_ACCEPTED);
                         activity.setCompleted(true);
                         activityRepository.update(activity);
-                        eventPublisher.publishEventAsync(TaskCompletedEvent.builder().activity(activity).build());
+                        eventPublisher.publishEvent(TaskCompletedEvent.builder().activity(activity).build());
                     },
                             () -> {
                                 Activity a = Activity.builder()
@@ -147,7 +147,7 @@ public class ActivityManager {
                                         .build();
                                 activityRepository.save(a);
                                 eventPublisher
-                                        .publishEventAsync(ActivityNotificationEvent.builder().activity(a).build());
+                                        .publishEvent(ActivityNotificationEvent.builder().activity(a).build());
                             });
         });
     }
@@ -167,7 +167,7 @@ public class ActivityManager {
                         .completed(false)
                         .build();
                 activityRepository.save(a);
-                eventPublisher.publishEventAsync(TaskAddedEvent.builder().activity(a).build());
+                eventPublisher.publishEvent(TaskAddedEvent.builder().activity(a).build());
             }
         });
     }
@@ -212,7 +212,7 @@ public class ActivityManager {
                         activity.setCompleted(true);
                         activityRepository.update(activity);
                         eventPublisher
-                                .publishEventAsync(ActivityNotificationEvent.builder().activity(activity).build());
+                                .publishEvent(ActivityNotificationEvent.builder().activity(activity).build());
                     },
                             () -> {
                                 Activity a = Activity.builder()
@@ -225,7 +225,7 @@ public class ActivityManager {
                                         .build();
                                 activityRepository.save(a);
                                 eventPublisher
-                                        .publishEventAsync(ActivityNotificationEvent.builder().activity(a).build());
+                                        .publishEvent(ActivityNotificationEvent.builder().activity(a).build());
                             });
         });
     }
@@ -244,7 +244,7 @@ public class ActivityManager {
                     .completed(true)
                     .build();
             activityRepository.save(a);
-            eventPublisher.publishEventAsync(ActivityNotificationEvent.builder().activity(a).build());
+            eventPublisher.publishEvent(ActivityNotificationEvent.builder().activity(a).build());
         }
     }
 
@@ -266,7 +266,7 @@ public class ActivityManager {
                             .completed(true)
                             .build();
                     activityRepository.save(a);
-                    eventPublisher.publishEventAsync(ActivityNotificationEvent.builder().activity(a).build());
+                    eventPublisher.publishEvent(ActivityNotificationEvent.builder().activity(a).build());
                 });
     }
 
@@ -293,9 +293,9 @@ public class ActivityManager {
 
                 if (!a.isCompleted()) {
                     // this looks like we created a task!
-                    eventPublisher.publishEventAsync(TaskAddedEvent.builder().activity(a).build());
+                    eventPublisher.publishEvent(TaskAddedEvent.builder().activity(a).build());
                 } else {
-                    eventPublisher.publishEventAsync(ActivityNotificationEvent.builder().activity(a).build());
+                    eventPublisher.publishEvent(ActivityNotificationEvent.builder().activity(a).build());
                 }
             }
         });
@@ -315,7 +315,7 @@ public class ActivityManager {
                         activity.setCompleted(true);
                         activityRepository.update(activity);
 
-                        eventPublisher.publishEventAsync(TaskCompletedEvent.builder().activity(activity).build());
+                        eventPublisher.publishEvent(TaskCompletedEvent.builder().activity(activity).build());
                     }, () -> {
                         // add in a completed activity
                         Activity a = Activity.builder()
@@ -342,7 +342,7 @@ public class ActivityManager {
                         activity.setState(ActivityState.PRESENTATION_EXCHANGE_DECLINED);
                         activity.setCompleted(true);
                         activityRepository.update(activity);
-                        eventPublisher.publishEventAsync(TaskCompletedEvent.builder().activity(activity).build());
+                        eventPublisher.publishEvent(TaskCompletedEvent.builder().activity(activity).build());
                     });
         });
     }
@@ -353,15 +353,27 @@ public class ActivityManager {
                 ActivityType.PRESENTATION_EXCHANGE,
                 role).ifPresent(activity -> {
                     activityRepository.delete(activity);
-                    eventPublisher.publishEventAsync(TaskCompletedEvent.builder().activity(activity).build());
+                    eventPublisher.publishEvent(TaskCompletedEvent.builder().activity(activity).build());
                 });
     }
 
     private ActivityItem convert(Activity activity) {
+        ActivityItem item = toNotificationItem(activity);
+        item.setPartner(converter.toAPIObject(activity.getPartner()));
+        return item;
+    }
+
+    /**
+     * Activity without the partner, notifications carry the partner as
+     * {@link org.hyperledger.bpa.api.PartnerSummary}
+     *
+     * @param activity {@link Activity}
+     * @return {@link ActivityItem}
+     */
+    public ActivityItem toNotificationItem(@NonNull Activity activity) {
         return ActivityItem.builder()
                 .id(activity.getId().toString())
                 .linkId(activity.getLinkId().toString())
-                .partner(converter.toAPIObject(activity.getPartner()))
                 .role(activity.getRole())
                 .state(activity.getState())
                 .type(activity.getType())
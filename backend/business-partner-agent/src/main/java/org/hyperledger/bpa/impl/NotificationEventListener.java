@@ -24,9 +24,10 @@ import jakarta.inject.Singleton;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperledger.aries.api.present_proof.PresentationExchangeRole;
-import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.api.PartnerSummary;
 import org.hyperledger.bpa.api.notification.*;
 import org.hyperledger.bpa.config.ActivityLogConfig;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.controller.api.WebSocketMessageBody;
 import org.hyperledger.bpa.impl.messaging.websocket.MessageService;
 import org.hyperledger.bpa.impl.util.Converter;
@@ -57,13 +58,14 @@ public class NotificationEventListener {
     ActivityManager activityManager;
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onCredentialAddedEvent(CredentialAddedEvent event) {
         log.debug("onCredentialAddedEvent");
         // we have the connection id, but not the partner, will need to look up
         // partner...
-        PartnerAPI partnerAPI = partnerManager.getPartnerByConnectionId(event.getCredential().getConnectionId());
-        if (partnerAPI != null) {
+        PartnerSummary partner = partnerManager
+                .getPartnerSummaryByConnectionId(event.getCredential().getConnectionId());
+        if (partner != null) {
             // if we auto respond to credential offers, and it is added, push up a
             // notification
             if (this.activityLogConfig.getAcaPyConfig().getAutoRespondCredentialOffer()) {
@@ -71,7 +73,7 @@ public class NotificationEventListener {
                         WebSocketMessageBody.WebSocketMessageType.ON_CREDENTIAL_ADDED,
                         event.getCredential().getId().toString(),
                         event.getCredential(),
-                        partnerAPI);
+                        partner);
                 messageService.sendMessage(message);
             }
             // if we auto-responded to the offer then this creates a completed activity
@@ -82,26 +84,27 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onCredentialOfferedEvent(CredentialOfferedEvent event) {
         log.debug("onCredentialOfferedEvent");
         // we have the connection id, but not the partner, will need to look up
         // partner...
-        PartnerAPI partnerAPI = partnerManager.getPartnerByConnectionId(event.getCredential().getConnectionId());
-        if (partnerAPI != null
+        PartnerSummary partner = partnerManager
+                .getPartnerSummaryByConnectionId(event.getCredential().getConnectionId());
+        if (partner != null
                 && activityLogConfig.getCredentialExchangeStatesForTasks().contains(event.getCredential().getState())) {
             WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                     WebSocketMessageBody.WebSocketMessageType.ON_CREDENTIAL_OFFERED,
                     event.getCredential().getId().toString(),
                     event.getCredential(),
-                    partnerAPI);
+                    partner);
             messageService.sendMessage(message);
             activityManager.addCredentialOfferedTask(event.getCredential());
         }
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onCredentialIssuedEvent(CredentialIssuedEvent event) {
         log.debug("onCredentialIssuedEvent");
         // this is for the issuer - we issued a credential...
@@ -111,53 +114,55 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onCredentialAcceptedEvent(CredentialAcceptedEvent event) {
         log.debug("onCredentialAcceptedEvent");
-        PartnerAPI partnerAPI = partnerManager.getPartnerByConnectionId(event.getCredential().getConnectionId());
-        if (partnerAPI != null) {
+        PartnerSummary partner = partnerManager
+                .getPartnerSummaryByConnectionId(event.getCredential().getConnectionId());
+        if (partner != null) {
             WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                     WebSocketMessageBody.WebSocketMessageType.ON_CREDENTIAL_ACCEPTED,
                     event.getCredential().getId().toString(),
                     event.getCredential(),
-                    partnerAPI);
+                    partner);
             messageService.sendMessage(message);
             activityManager.addCredentialAcceptedActivity(event.getCredential());
         }
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onCredentialProblemEvent(CredentialProblemEvent event) {
         log.debug("onCredentialProblemEvent");
-        PartnerAPI partnerAPI = partnerManager.getPartnerByConnectionId(event.getCredential().getConnectionId());
-        if (partnerAPI != null) {
+        PartnerSummary partner = partnerManager
+                .getPartnerSummaryByConnectionId(event.getCredential().getConnectionId());
+        if (partner != null) {
             WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                     WebSocketMessageBody.WebSocketMessageType.ON_CREDENTIAL_PROBLEM,
                     event.getCredential().getId().toString(),
                     event.getCredential(),
-                    partnerAPI);
+                    partner);
             messageService.sendMessage(message);
             activityManager.addCredentialProblemActivity(event.getCredential());
         }
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPartnerRequestCompletedEvent(PartnerRequestCompletedEvent event) {
         log.debug("onPartnerRequestCompletedEvent");
         WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.ON_PARTNER_REQUEST_COMPLETED,
                 event.getPartner().getId().toString(),
                 null,
-                conv.toAPIObject(event.getPartner()));
+                PartnerSummary.from(event.getPartner()));
         messageService.sendMessage(message);
 
         activityManager.completePartnerRequestTask(event.getPartner());
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPartnerRequestReceivedEvent(PartnerRequestReceivedEvent event) {
         log.debug("onPartnerRequestReceivedEvent");
         // only notify if this is a task (requires manual intervention)
@@ -169,57 +174,57 @@ public class NotificationEventListener {
                     WebSocketMessageBody.WebSocketMessageType.ON_PARTNER_REQUEST_RECEIVED,
                     event.getPartner().getId().toString(),
                     null,
-                    conv.toAPIObject(event.getPartner()));
+                    PartnerSummary.from(event.getPartner()));
             messageService.sendMessage(message);
         }
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPartnerAddedEvent(PartnerAddedEvent event) {
         log.debug("onPartnerAddedEvent");
         WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.ON_PARTNER_ADDED,
                 event.getPartner().getId().toString(),
                 null,
-                conv.toAPIObject(event.getPartner()));
+                PartnerSummary.from(event.getPartner()));
         messageService.sendMessage(message);
 
         activityManager.addPartnerAddedActivity(event.getPartner());
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPartnerAcceptedEvent(PartnerAcceptedEvent event) {
         log.debug("onPartnerAcceptedEvent");
         WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.ON_PARTNER_ACCEPTED,
                 event.getPartner().getId().toString(),
                 null,
-                conv.toAPIObject(event.getPartner()));
+                PartnerSummary.from(event.getPartner()));
         messageService.sendMessage(message);
 
         activityManager.addPartnerAcceptedActivity(event.getPartner());
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPartnerRemovedEvent(PartnerRemovedEvent event) {
         log.debug("onPartnerRemovedEvent");
         WebSocketMessageBody message = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.ON_PARTNER_REMOVED,
                 event.getPartner().getId().toString(),
                 null,
-                conv.toAPIObject(event.getPartner()));
+                PartnerSummary.from(event.getPartner()));
         messageService.sendMessage(message);
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPresentationRequestCompletedEvent(PresentationRequestCompletedEvent event) {
         log.debug("onPresentationRequestCompletedEvent");
         // we have the partner id, but not the partner, will need to look up partner...
-        partnerManager.getPartnerById(event.getPartnerProof().getPartnerId()).ifPresent(p -> {
+        partnerManager.getPartnerSummaryById(event.getPartnerProof().getPartnerId()).ifPresent(p -> {
             WebSocketMessageBody message;
             if (PresentationExchangeRole.PROVER.equals(event.getPartnerProof().getRole())) {
                 message = WebSocketMessageBody.notificationEvent(
@@ -240,7 +245,7 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPresentationRequestDeclinedEvent(PresentationRequestDeclinedEvent event) {
         log.debug("onPresentationRequestDeclinedEvent");
         handlePresentationRequestEvent(event.getPartnerProof(),
@@ -249,7 +254,7 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPresentationRequestDeletedEvent(PresentationRequestDeletedEvent event) {
         log.debug("onPresentationRequestDeletedEvent");
         handlePresentationRequestEvent(event.getPartnerProof(),
@@ -258,7 +263,7 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPresentationRequestReceivedEvent(PresentationRequestReceivedEvent event) {
         log.debug("onPresentationRequestReceivedEvent");
         handlePresentationRequestEvent(event.getPartnerProof(),
@@ -266,7 +271,7 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPresentationRequestSentEvent(PresentationRequestSentEvent event) {
         log.debug("onPresentationRequestSentEvent");
         handlePresentationRequestEvent(event.getPartnerProof(),
@@ -274,46 +279,46 @@ public class NotificationEventListener {
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onActivityNotificationEvent(ActivityNotificationEvent event) {
         log.debug("onActivityNotificationEvent");
         WebSocketMessageBody msg = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.ACTIVITY_NOTIFICATION,
                 event.getActivity().getId().toString(),
-                event.getActivity(),
-                conv.toAPIObject(event.getActivity().getPartner()));
+                activityManager.toNotificationItem(event.getActivity()),
+                PartnerSummary.from(event.getActivity().getPartner()));
         messageService.sendMessage(msg);
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onTaskAddedEvent(TaskAddedEvent event) {
         log.debug("onTaskAddedEvent");
         WebSocketMessageBody task = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.TASK_ADDED,
                 event.getActivity().getId().toString(),
-                event.getActivity(),
-                conv.toAPIObject(event.getActivity().getPartner()));
+                activityManager.toNotificationItem(event.getActivity()),
+                PartnerSummary.from(event.getActivity().getPartner()));
         messageService.sendMessage(task);
     }
 
     @EventListener
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onTaskCompletedEvent(TaskCompletedEvent event) {
         log.debug("onTaskCompletedEvent");
         WebSocketMessageBody task = WebSocketMessageBody.notificationEvent(
                 WebSocketMessageBody.WebSocketMessageType.TASK_COMPLETED,
                 event.getActivity().getId().toString(),
-                event.getActivity(),
-                conv.toAPIObject(event.getActivity().getPartner()));
+                activityManager.toNotificationItem(event.getActivity()),
+                PartnerSummary.from(event.getActivity().getPartner()));
         messageService.sendMessage(task);
     }
 
     private void handlePresentationRequestEvent(@NonNull PartnerProof partnerProof,
             WebSocketMessageBody.WebSocketMessageType messageType) {
-        Optional<PartnerAPI> partnerAPI = partnerManager.getPartnerById(partnerProof.getPartnerId());
-        if (partnerAPI.isPresent()) {
-            PartnerAPI p = partnerAPI.get();
+        Optional<PartnerSummary> partner = partnerManager.getPartnerSummaryById(partnerProof.getPartnerId());
+        if (partner.isPresent()) {
+            PartnerSummary p = partner.get();
 
             activityManager.addPresentationExchangeTask(partnerProof);
 
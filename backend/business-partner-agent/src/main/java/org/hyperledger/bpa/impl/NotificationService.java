@@ -22,9 +22,9 @@ import jakarta.inject.Singleton;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.api.PartnerSummary;
 import org.hyperledger.bpa.controller.api.WebSocketMessageBody;
 import org.hyperledger.bpa.impl.messaging.websocket.MessageService;
-import org.hyperledger.bpa.impl.util.Converter;
 import org.hyperledger.bpa.persistence.model.ChatMessage;
 import org.hyperledger.bpa.persistence.model.Partner;
 
@@ -36,12 +36,9 @@ public class NotificationService {
     @Inject
     MessageService messageService;
 
-    @Inject
-    Converter conv;
-
     public void newIncomingMessage(@NonNull Partner partner, @NonNull ChatMessage chatMessage) {
         // package and convert data to become a socket message
-        WebSocketMessageBody message = WebSocketMessageBody.message(conv.toAPIObject(partner), chatMessage);
+        WebSocketMessageBody message = WebSocketMessageBody.message(PartnerSummary.from(partner), chatMessage);
         // let message service queue and deliver the message
         messageService.sendMessage(message);
     }
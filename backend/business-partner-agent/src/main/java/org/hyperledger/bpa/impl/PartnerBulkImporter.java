@@ -0,0 +1,208 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
+import org.hyperledger.bpa.controller.api.partner.AddPartnerRequest;
+import org.hyperledger.bpa.controller.api.partner.PartnerImportStatus;
+import org.hyperledger.bpa.controller.api.partner.PartnerImportStatus.RowState;
+import org.hyperledger.bpa.core.RegisteredWebhook.WebhookEventType;
+import org.hyperledger.bpa.impl.activity.PartnerCredDefLookup;
+import org.hyperledger.bpa.impl.activity.PartnerLookup;
+import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
+import org.hyperledger.bpa.impl.util.BulkJobs;
+import org.hyperledger.bpa.impl.util.BulkRowJob;
+import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.impl.util.RatePacer;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Adds many partners at once. Dids that are already a partner are filtered with
+ * one query up front, a fixed number of workers then resolve the remaining dids
+ * in parallel and create the aca-py connections, paced so that the agent is not
+ * flooded. Like a single add, each partner is saved as soon as its connection
+ * exists, so that the connection events of aca-py find it. The ledger scan for
+ * the supported credentials runs once when the import is done instead of once
+ * per partner.
+ */
+@Slf4j
+@Singleton
+public class PartnerBulkImporter {
+
+    static final String IMPORT_CACHE = "partner-import-cache";
+
+    @Value("${bpa.did.prefix}")
+    String ledgerPrefix;
+
+    @Value("${bpa.partner.import.concurrency:8}")
+    int concurrency;
+
+    @Value("${bpa.partner.import.connections-per-second:10}")
+    int connectionsPerSecond;
+
+    @Inject
+    @Named(TaskExecutorFactory.BULK)
+    ExecutorService executor;
+
+    @Inject
+    PartnerRepository repo;
+
+    @Inject
+    Converter converter;
+
+    @Inject
+    ConnectionManager cm;
+
+    @Inject
+    PartnerCredDefLookup credLookup;
+
+    @Inject
+    PartnerLookup partnerLookup;
+
+    @Inject
+    WebhookService webhook;
+
+    @Inject
+    CacheManager<?> cacheManager;
+
+    private final RatePacer pacer = new RatePacer();
+
+    private BulkJobs<Job> jobs;
+
+    @PostConstruct
+    void init() {
+        jobs = new BulkJobs<>(cacheManager, IMPORT_CACHE, Job.class, executor);
+    }
+
+    PartnerImportStatus start(@NonNull List<AddPartnerRequest> partners) {
+        Job job = new Job(partners);
+        Map<String, Integer> byDid = new HashMap<>();
+        for (int i = 0; i < partners.size(); i++) {
+            String did = partners.get(i).getDid();
+            if (StringUtils.isBlank(did)) {
+                job.fail(i, "did must not be empty");
+            } else if (byDid.putIfAbsent(did, i) != null) {
+                job.skip(i, RowState.DUPLICATE, null);
+            }
+        }
+        if (!byDid.isEmpty()) {
+            repo.findByDidIn(new ArrayList<>(byDid.keySet()))
+                    .forEach(p -> job.skip(byDid.remove(p.getDid()), RowState.EXISTS, p.getId()));
+        }
+        Queue<Integer> queue = new ConcurrentLinkedQueue<>(new TreeSet<>(byDid.values()));
+        log.info("Partner import: {}, rows: {}, to import: {}", job.getId(), job.getTotal(), queue.size());
+
+        return jobs.run(job, queue, concurrency, i -> importPartner(i, job), () -> {
+            if (job.ledgerDid.get()) {
+                credLookup.lookupTypesForAllPartnersAsync();
+            }
+            log.info("Partner import: {} done, imported: {}, skipped: {}, failed: {}",
+                    job.getId(), job.getSucceeded(), job.getSkipped(), job.getFailed());
+        }).status();
+    }
+
+    Optional<PartnerImportStatus> status(@NonNull UUID id) {
+        return jobs.get(id).map(Job::status);
+    }
+
+    private void importPartner(int i, Job job) {
+        AddPartnerRequest req = job.requests.get(i);
+        try {
+            PartnerAPI lookupP = partnerLookup.lookupPartner(req.getDid());
+            Partner partner = PartnerManager.newPartner(converter, req, lookupP);
+            pacer.acquire(connectionsPerSecond);
+            cm.createConnection(req.getDid()).ifPresent(c -> partner.setConnectionId(c.getConnectionId()));
+            Partner saved = save(job, partner);
+            job.succeed(i, RowState.IMPORTED, saved.getId());
+            if (req.getDid().startsWith(ledgerPrefix)) {
+                job.ledgerDid.set(true);
+            }
+            webhook.convertAndSend(WebhookEventType.PARTNER_ADD, converter.toAPIObject(saved));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(i, "interrupted");
+        } catch (Exception e) {
+            job.fail(i, e.getMessage());
+            log.warn("Partner import: {}, could not add partner: {}, {}", job.getId(), req.getDid(), e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the partner, if that fails its connection is removed again so that it
+     * is not left behind in aca-py
+     */
+    private Partner save(Job job, Partner partner) {
+        try {
+            return repo.save(partner);
+        } catch (RuntimeException e) {
+            if (partner.getConnectionId() != null) {
+                log.warn("Partner import: {}, removing connection of unsaved partner: {}", job.getId(),
+                        partner.getDid());
+                cm.removeConnection(partner.getConnectionId());
+            }
+            throw e;
+        }
+    }
+
+    private static final class Job extends BulkRowJob<RowState, PartnerImportStatus> {
+        private final List<AddPartnerRequest> requests;
+        private final AtomicBoolean ledgerDid = new AtomicBoolean();
+
+        Job(List<AddPartnerRequest> requests) {
+            super(requests.size(), RowState.PENDING, RowState.FAILED);
+            this.requests = List.copyOf(requests);
+        }
+
+        @Override
+        protected PartnerImportStatus toStatus() {
+            return PartnerImportStatus.builder()
+                    .id(getId().toString())
+                    .state(isDone() ? PartnerImportStatus.State.DONE : PartnerImportStatus.State.RUNNING)
+                    .total(getTotal())
+                    .imported(getSucceeded())
+                    .skipped(getSkipped())
+                    .failed(getFailed())
+                    .startedAt(startedAtMillis())
+                    .finishedAt(finishedAtMillis())
+                    .rows(rows((i, state, partnerId, message) -> PartnerImportStatus.Row.builder()
+                            .did(requests.get(i).getDid())
+                            .alias(requests.get(i).getAlias())
+                            .state(state)
+                            .partnerId(partnerId)
+                            .message(message)
+                            .build()))
+                    .build();
+        }
+    }
+}
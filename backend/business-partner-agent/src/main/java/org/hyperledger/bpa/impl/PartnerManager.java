@@ -20,25 +20,35 @@ package org.hyperledger.bpa.impl;
 import io.micronaut.cache.annotation.CacheInvalidate;
 import io.micronaut.context.annotation.Value;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.NonNull;
 import org.apache.commons.lang3.StringUtils;
 import org.hyperledger.aries.api.connection.ConnectionState;
 import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.api.PartnerListItem;
+import org.hyperledger.bpa.api.PartnerSummary;
 import org.hyperledger.bpa.api.exception.EntityNotFoundException;
 import org.hyperledger.bpa.api.exception.PartnerException;
+import org.hyperledger.bpa.api.exception.WrongApiUsageException;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.partner.AddPartnerRequest;
+import org.hyperledger.bpa.controller.api.partner.ImportPartnersRequest;
+import org.hyperledger.bpa.controller.api.partner.PartnerImportStatus;
+import org.hyperledger.bpa.controller.api.partner.PartnerSearchParameters;
 import org.hyperledger.bpa.controller.api.partner.UpdatePartnerRequest;
 import org.hyperledger.bpa.core.RegisteredWebhook.WebhookEventType;
 import org.hyperledger.bpa.impl.activity.PartnerCredDefLookup;
 import org.hyperledger.bpa.impl.activity.PartnerLookup;
 import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
 import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.impl.util.Pair;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.hyperledger.bpa.persistence.repository.HolderCredExRepository;
 import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.hyperledger.bpa.persistence.repository.PartnerSearchRepository;
 import org.hyperledger.bpa.persistence.repository.TagRepository;
 
 import java.util.*;
@@ -51,9 +61,21 @@ public class PartnerManager {
     @Value("${bpa.did.prefix}")
     String ledgerPrefix;
 
+    @Value("${bpa.partner.import.max-rows:5000}")
+    int importMaxRows;
+
+    @Value("${bpa.partner.search.max-page-size:200}")
+    int searchMaxPageSize;
+
+    @Value("${bpa.partner.search.count-cap:10000}")
+    int searchCountCap;
+
     @Inject
     PartnerRepository repo;
 
+    @Inject
+    PartnerSearchRepository searchRepo;
+
     @Inject
     Converter converter;
 
@@ -78,12 +100,68 @@ public class PartnerManager {
     @Inject
     BPAMessageSource.DefaultMessageSource ms;
 
+    @Inject
+    PartnerBulkImporter importer;
+
     public List<PartnerAPI> getPartners() {
         return StreamSupport.stream(repo.findAll().spliterator(), false)
                 .map(converter::toAPIObject)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Server side partner search. Results are flat rows without tags and profile,
+     * sorted by creation date, newest first. The total is exact up to the
+     * configured count cap, above it the planner estimate is used if there is no
+     * filter, otherwise the cap.
+     *
+     * @param search   {@link PartnerSearchParameters}
+     * @param pageable {@link Pageable}, the page size is capped
+     * @return {@link Page} of {@link PartnerListItem}
+     */
+    public Page<PartnerListItem> searchPartners(@NonNull PartnerSearchParameters search,
+            @NonNull Pageable pageable) {
+        int size = pageable.getSize() < 1 ? searchMaxPageSize : Math.min(pageable.getSize(), searchMaxPageSize);
+        Pageable page = Pageable.from(Math.max(pageable.getNumber(), 0), size);
+
+        Boolean ariesSupport = search.getAriesSupport();
+        PartnerCredDefLookup.IssuerFilter issuer = new PartnerCredDefLookup.IssuerFilter(null, null, null);
+        if (StringUtils.isNotBlank(search.getIssuerOf())) {
+            Optional<PartnerCredDefLookup.IssuerFilter> filter = credLookup.issuerFilterFor(search.getIssuerOf());
+            if (filter.isEmpty() || (filter.get().ariesSupport() != null && ariesSupport != null
+                    && !ariesSupport.equals(filter.get().ariesSupport()))) {
+                return Page.of(List.of(), page, 0);
+            }
+            issuer = filter.get();
+            if (issuer.ariesSupport() != null) {
+                ariesSupport = issuer.ariesSupport();
+            }
+        }
+        String pattern = StringUtils.isNotBlank(search.getText())
+                ? "%" + escapeLike(search.getText().trim()) + "%"
+                : null;
+
+        PartnerSearchRepository.Filter filter = new PartnerSearchRepository.Filter(search.getState(), ariesSupport,
+                search.getTag(), issuer.seqNo(), issuer.configuredIssuersOf(), pattern);
+
+        List<PartnerListItem> content = searchRepo.search(filter, size, page.getOffset());
+        long total;
+        if (content.size() < size && (!content.isEmpty() || page.getNumber() == 0)) {
+            // last page, no need to count
+            total = page.getOffset() + content.size();
+        } else {
+            total = searchRepo.countSearch(filter, searchCountCap);
+            if (total >= searchCountCap && filter.isEmpty()) {
+                total = Math.max(total, repo.estimateCount());
+            }
+        }
+        return Page.of(content, page, total);
+    }
+
+    private static String escapeLike(@NonNull String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
     public Optional<PartnerAPI> getPartnerById(@NonNull UUID id) {
         return repo.findById(id).map(converter::toAPIObject);
     }
@@ -98,6 +176,34 @@ public class PartnerManager {
         return repo.findByConnectionId(id).map(converter::toAPIObject).orElse(null);
     }
 
+    public Optional<PartnerSummary> getPartnerSummaryById(@NonNull UUID id) {
+        return repo.findById(id).map(PartnerSummary::from);
+    }
+
+    @Nullable
+    public PartnerSummary getPartnerSummaryByConnectionId(@NonNull String id) {
+        return repo.findByConnectionId(id).map(PartnerSummary::from).orElse(null);
+    }
+
+    /**
+     * Loads the partner once, it is only converted if the client does not already
+     * have the current version
+     *
+     * @param id      {@link UUID} the partner id
+     * @param version the version the client has cached
+     * @return the current version, with the partner if the client version is
+     *         outdated
+     */
+    public Optional<Pair<String, Optional<PartnerAPI>>> getPartnerIfModified(@NonNull UUID id,
+            @Nullable String version) {
+        return repo.findById(id).map(p -> {
+            String current = PartnerSummary.versionOf(p);
+            return new Pair<>(current, current.equals(version)
+                    ? Optional.empty()
+                    : Optional.of(converter.toAPIObject(p)));
+        });
+    }
+
     public void removePartnerById(@NonNull UUID id) {
         repo.findById(id).ifPresent(p -> {
             if (p.getConnectionId() != null) {
@@ -114,12 +220,7 @@ public class PartnerManager {
         }
         PartnerAPI lookupP = partnerLookup.lookupPartner(req.getDid());
 
-        Partner partner = converter.toModelObject(req.getDid(), lookupP)
-                .setAriesSupport(lookupP.getAriesSupport())
-                .setAlias(req.getAlias())
-                .setTags(req.getTag() != null ? new HashSet<>(req.getTag()) : null)
-                .pushStates(ConnectionState.REQUEST)
-                .setTrustPing(req.getTrustPing() != null ? req.getTrustPing() : Boolean.TRUE);
+        Partner partner = newPartner(converter, req, lookupP);
 
         cm.createConnection(req.getDid()).ifPresent(c -> partner.setConnectionId(c.getConnectionId()));
         Partner result = repo.save(partner);
@@ -133,6 +234,26 @@ public class PartnerManager {
         return apiPartner;
     }
 
+    /**
+     * Add multiple partners in the background, use the returned id to track the
+     * progress. Dids that are already a partner are skipped.
+     *
+     * @param req {@link ImportPartnersRequest}
+     * @return {@link PartnerImportStatus}
+     */
+    public PartnerImportStatus importPartners(@NonNull ImportPartnersRequest req) {
+        List<AddPartnerRequest> partners = req.getPartners() != null ? req.getPartners() : List.of();
+        if (partners.size() > importMaxRows) {
+            throw new WrongApiUsageException(ms.getMessage("api.partner.import.too.many",
+                    Map.of("max", importMaxRows)));
+        }
+        return importer.start(partners);
+    }
+
+    public Optional<PartnerImportStatus> getImportStatus(@NonNull UUID importId) {
+        return importer.status(importId);
+    }
+
     public Optional<PartnerAPI> updatePartner(@NonNull UUID id, @NonNull UpdatePartnerRequest req) {
         Optional<PartnerAPI> result = Optional.empty();
         final Optional<Partner> dbP = repo.findById(id);
@@ -170,6 +291,16 @@ public class PartnerManager {
      * @param id the id
      * @return {@link PartnerAPI}
      */
+    static Partner newPartner(@NonNull Converter converter, @NonNull AddPartnerRequest req,
+            @NonNull PartnerAPI lookupP) {
+        return converter.toModelObject(req.getDid(), lookupP)
+                .setAriesSupport(lookupP.getAriesSupport())
+                .setAlias(req.getAlias())
+                .setTags(req.getTag() != null ? new HashSet<>(req.getTag()) : null)
+                .pushStates(ConnectionState.REQUEST)
+                .setTrustPing(req.getTrustPing() != null ? req.getTrustPing() : Boolean.TRUE);
+    }
+
     public Optional<PartnerAPI> refreshPartner(@NonNull UUID id) {
         Optional<PartnerAPI> result = Optional.empty();
         final Optional<Partner> dbPartner = repo.findById(id);
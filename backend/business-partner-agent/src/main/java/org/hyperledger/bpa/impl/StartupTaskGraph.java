@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.stream.Collectors;
+
+/**
+ * Minimal dependency graph of startup tasks. A task is scheduled when it is
+ * added and starts as soon as all the tasks it depends on have finished
+ * successfully, tasks without a dependency between them run in parallel. If a
+ * task fails, all tasks that depend on it are skipped.
+ */
+@Slf4j
+class StartupTaskGraph {
+
+    private final Executor executor;
+
+    private final Map<String, CompletableFuture<Void>> tasks = new LinkedHashMap<>();
+
+    private final Map<String, Duration> timings = new ConcurrentHashMap<>();
+
+    private final Map<String, Throwable> failures = new ConcurrentHashMap<>();
+
+    StartupTaskGraph(@NonNull Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Adds a task, dependencies have to be added before the task that depends on
+     * them.
+     *
+     * @param name      task name, used for logging and timings
+     * @param task      the task
+     * @param dependsOn names of the tasks that need to finish first
+     * @return this
+     */
+    StartupTaskGraph task(@NonNull String name, @NonNull Runnable task, String... dependsOn) {
+        CompletableFuture<?>[] deps = List.of(dependsOn).stream()
+                .map(d -> {
+                    CompletableFuture<Void> dep = tasks.get(d);
+                    if (dep == null) {
+                        throw new IllegalArgumentException("Unknown startup task dependency: " + d);
+                    }
+                    return dep;
+                })
+                .toArray(CompletableFuture[]::new);
+        tasks.put(name, CompletableFuture.allOf(deps).thenRunAsync(() -> {
+            long start = System.nanoTime();
+            try {
+                task.run();
+            } catch (RuntimeException e) {
+                failures.put(name, e);
+                log.error("Startup task {} failed", name, e);
+                throw e;
+            } finally {
+                timings.put(name, Duration.ofNanos(System.nanoTime() - start));
+            }
+        }, executor));
+        return this;
+    }
+
+    /**
+     * @return future that completes when all tasks have either run, failed or were
+     *         skipped, never completes exceptionally
+     */
+    CompletableFuture<Void> run() {
+        return CompletableFuture.allOf(tasks.values().stream()
+                .map(f -> f.handle((r, e) -> null))
+                .toArray(CompletableFuture[]::new));
+    }
+
+    Map<String, Duration> getTimings() {
+        return Collections.unmodifiableMap(timings);
+    }
+
+    Map<String, String> getFailures() {
+        return failures.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> String.valueOf(e.getValue().getMessage())));
+    }
+
+    List<String> getSkipped() {
+        return tasks.entrySet().stream()
+                .filter(e -> e.getValue().isCompletedExceptionally())
+                .map(Map.Entry::getKey)
+                .filter(name -> !timings.containsKey(name))
+                .toList();
+    }
+}
@@ -23,8 +23,11 @@ import io.micronaut.context.env.Environment;
 import io.micronaut.context.event.ApplicationEventPublisher;
 import io.micronaut.context.event.StartupEvent;
 import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.TaskExecutors;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperledger.aries.AriesClient;
@@ -38,7 +41,11 @@ import org.hyperledger.bpa.persistence.repository.BPAStateRepository;
 
 import java.time.Duration;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Singleton
@@ -49,12 +56,28 @@ public class StartupTasks {
     public static final class AcaPyReady {
     }
 
+    private static final String ACAPY_READY = "acapy-ready";
+    private static final String DEFAULT_TAGS = "default-tags";
+    private static final String DEFAULT_SCHEMAS = "default-schemas";
+    private static final String MODE_TASKS = "mode-tasks";
+    private static final String PUBLIC_PROFILE = "public-profile";
+    private static final String LEDGER_SCAN = "ledger-scan";
+
     @Value("${bpa.web.only}")
     Boolean envState;
 
     @Value("${bpa.host}")
     String host;
 
+    @Value("${bpa.acapy.ready-timeout:60s}")
+    Duration acaPyReadyTimeout;
+
+    @Value("${bpa.acapy.ready-retry-backoff:5s}")
+    Duration acaPyRetryBackoff;
+
+    @Value("${bpa.acapy.ready-retry-max-backoff:2m}")
+    Duration acaPyRetryMaxBackoff;
+
     @Inject
     BPAStateRepository stateRepo;
 
@@ -82,16 +105,100 @@ public class StartupTasks {
     @Inject
     ApplicationEventPublisher<AcaPyReady> eventPublisher;
 
+    @Inject
+    @Named(TaskExecutors.IO)
+    ExecutorService executor;
+
+    @Getter
+    private volatile StartupState startupState = StartupState.RUNNING;
+
+    private StartupTaskGraph graph;
+
+    public enum StartupState {
+        RUNNING,
+        DONE,
+        FAILED
+    }
+
+    /**
+     * Only the mode check runs on the startup thread, as a mode change has to stop
+     * the application. Everything else runs as a task graph in the background, so
+     * that the http server is up immediately. The {@link StartupReadinessCheck}
+     * reports ready once all tasks are done.
+     */
     @EventListener
     public void onServiceStartedEvent(@SuppressWarnings("unused") StartupEvent startEvent) {
-        checkModeChange();
+        BPAState state = checkModeChange();
+
+        long start = System.nanoTime();
+        graph = new StartupTaskGraph(executor)
+                .task(ACAPY_READY, () -> {
+                    waitForAcaPy();
+                    eventPublisher.publishEvent(new AcaPyReady());
+                })
+                .task(DEFAULT_TAGS, this::createDefaultTags)
+                .task(DEFAULT_SCHEMAS, () -> createDefaultSchemas(state), ACAPY_READY)
+                .task(MODE_TASKS, this::runModeTasks, ACAPY_READY)
+                .task(PUBLIC_PROFILE, this::createDefaultProfile, DEFAULT_SCHEMAS, MODE_TASKS)
+                .task(LEDGER_SCAN, credLookup::lookupTypesForAllPartnersAsync, DEFAULT_SCHEMAS);
+        graph.run().thenRun(() -> {
+            startupState = graph.getFailures().isEmpty() ? StartupState.DONE : StartupState.FAILED;
+            log.info("Startup tasks finished in {}ms, state: {}, task timings: {}, failed: {}, skipped: {}",
+                    Duration.ofNanos(System.nanoTime() - start).toMillis(), startupState,
+                    getTimings(), graph.getFailures().keySet(), graph.getSkipped());
+        });
+    }
+
+    /**
+     * @return startup task name to the time it took in ms
+     */
+    public Map<String, Long> getTimings() {
+        return graph == null ? Map.of()
+                : graph.getTimings().entrySet().stream()
+                        .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().toMillis()));
+    }
 
-        ac.statusWaitUntilReady(Duration.ofSeconds(60));
-        eventPublisher.publishEvent(new AcaPyReady());
+    /**
+     * @return failed startup task name to its error message
+     */
+    public Map<String, String> getFailures() {
+        return graph == null ? Map.of() : graph.getFailures();
+    }
 
-        createDefaultSchemas();
-        createDefaultTags();
+    /**
+     * @return startup tasks that did not run because a task they depend on failed
+     */
+    public List<String> getSkipped() {
+        return graph == null ? List.of() : graph.getSkipped();
+    }
 
+    /**
+     * aca-py might come up after the bpa, so instead of failing the task, and with
+     * it readiness for the lifetime of the process, the check is retried with a
+     * doubling backoff until aca-py answers.
+     */
+    void waitForAcaPy() {
+        Duration backoff = acaPyRetryBackoff;
+        for (int attempt = 1;; attempt++) {
+            try {
+                ac.statusWaitUntilReady(acaPyReadyTimeout);
+                return;
+            } catch (RuntimeException e) {
+                log.warn("aca-py is not ready after attempt {}, retrying in {}s: {}", attempt,
+                        backoff.toSeconds(), e.getMessage());
+            }
+            try {
+                Thread.sleep(backoff.toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while waiting for aca-py", e);
+            }
+            backoff = backoff.multipliedBy(2).compareTo(acaPyRetryMaxBackoff) > 0 ? acaPyRetryMaxBackoff
+                    : backoff.multipliedBy(2);
+        }
+    }
+
+    private void runModeTasks() {
         if (envState) {
             log.info("Running in Web Only mode.");
             webTasks.ifPresent(WebStartupTasks::onServiceStartedEvent);
@@ -99,7 +206,9 @@ public class StartupTasks {
             log.info("Running in Indy mode");
             indyTasks.ifPresent(IndyStartupTasks::onServiceStartedEvent);
         }
+    }
 
+    private void createDefaultProfile() {
         vpMgmt
                 .getVerifiablePresentation()
                 .ifPresentOrElse(
@@ -108,11 +217,9 @@ public class StartupTasks {
                             log.info("Creating default public profile for host: {}", host);
                             vpMgmt.recreateVerifiablePresentation();
                         });
-
-        credLookup.lookupTypesForAllPartnersAsync();
     }
 
-    private void checkModeChange() {
+    private BPAState checkModeChange() {
         Optional<BPAState> dbState = getState();
         if (dbState.isPresent()) {
             Boolean state = dbState.get().getWebOnly();
@@ -127,9 +234,9 @@ public class StartupTasks {
                 throw new RuntimeException(msg);
             }
             log.debug("Mode check succeeded");
-        } else {
-            stateRepo.save(new BPAState(envState));
+            return dbState.get();
         }
+        return stateRepo.save(new BPAState(envState));
     }
 
     private Optional<BPAState> getState() {
@@ -144,9 +251,16 @@ public class StartupTasks {
         return result;
     }
 
-    private void createDefaultSchemas() {
+    private void createDefaultSchemas(BPAState state) {
+        String hash = schemaService.configuredSchemasHash();
+        if (hash != null && hash.equals(state.getSchemasHash())) {
+            log.debug("Default schema configuration did not change, skipping.");
+            return;
+        }
         log.debug("Purging and re-setting default schemas.");
-        schemaService.resetWriteOnlySchemas();
+        if (schemaService.resetWriteOnlySchemas()) {
+            stateRepo.updateSchemasHash(state.getId(), hash);
+        }
     }
 
     private void createDefaultTags() {
@@ -17,31 +17,53 @@
  */
 package org.hyperledger.bpa.impl;
 
+import io.micronaut.context.annotation.Value;
+import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.hyperledger.aries.api.connection.ConnectionState;
-import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeRole;
-import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeState;
-import org.hyperledger.aries.api.present_proof.PresentationExchangeState;
 import org.hyperledger.bpa.api.CredentialType;
+import org.hyperledger.bpa.api.exception.WrongApiUsageException;
+import org.hyperledger.bpa.api.notification.*;
+import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.stats.BPAStats;
 import org.hyperledger.bpa.controller.api.stats.DashboardCounts;
+import org.hyperledger.bpa.controller.api.stats.LatencyParameters;
+import org.hyperledger.bpa.controller.api.stats.OperationProfile;
+import org.hyperledger.bpa.controller.api.stats.StageLatency;
+import org.hyperledger.bpa.controller.api.stats.StatsBucket;
+import org.hyperledger.bpa.controller.api.stats.StatsGranularity;
+import org.hyperledger.bpa.controller.api.stats.StatsRangeParameters;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.aries.wallet.Identity;
-import org.hyperledger.bpa.persistence.repository.*;
+import org.hyperledger.bpa.impl.profile.ProfileRecorder;
+import org.hyperledger.bpa.persistence.model.DashboardCounter;
+import org.hyperledger.bpa.persistence.repository.DashboardCounterRepository;
+import org.hyperledger.bpa.persistence.repository.MyDocumentRepository;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
+/**
+ * Dashboard statistics. The counts are read from counters that the database
+ * maintains with triggers, so a dashboard load does not depend on the size of
+ * the counted tables. The result is kept for a short time and dropped whenever
+ * an event indicates that a counted entity changed.
+ */
 @Slf4j
 @Singleton
 public class StatsService {
 
     @Inject
-    PartnerRepository partnerRepo;
-
-    @Inject
-    HolderCredExRepository holderCredExRepo;
+    DashboardCounterRepository counterRepo;
 
     @Inject
     MyDocumentRepository docRepo;
@@ -50,51 +72,171 @@ public class StatsService {
     Identity identity;
 
     @Inject
-    ActivityRepository activityRepository;
+    ExchangeLifecycleTracker lifecycle;
 
     @Inject
-    PartnerProofRepository proofRepository;
+    ProfileRecorder profiler;
 
-    public BPAStats collectStats() {
-        DashboardCounts totals = DashboardCounts
-                .builder()
-                .credentialsSent(holderCredExRepo.countByRoleEqualsAndStateEquals(
-                        CredentialExchangeRole.ISSUER,
-                        CredentialExchangeState.CREDENTIAL_ACKED))
-                .credentialsReceived(holderCredExRepo.countByRoleEqualsAndStateEquals(
-                        CredentialExchangeRole.HOLDER, CredentialExchangeState.CREDENTIAL_ACKED))
-                .tasks(activityRepository.countByCompletedFalse())
-                .partners(partnerRepo.countByStateNotEquals(ConnectionState.INVITATION))
-                .presentationRequestsSent(proofRepository.countByStateEquals(PresentationExchangeState.REQUEST_SENT))
-                .presentationRequestsReceived(
-                        proofRepository.countByStateEquals(PresentationExchangeState.PRESENTATION_RECEIVED))
-                .build();
+    @Inject
+    BPAMessageSource.DefaultMessageSource ms;
 
-        // for now, let's just get new data created today.
-        // we could maybe pass in a date from the ux for different filter/period (last
-        // week, last month, ???)
-        Instant yesterday = Instant.now().minus(1, ChronoUnit.DAYS);
-        DashboardCounts periodTotals = DashboardCounts
-                .builder()
-                .credentialsSent(holderCredExRepo.countByRoleEqualsAndStateEqualsAndCreatedAtAfter(
-                        CredentialExchangeRole.ISSUER, CredentialExchangeState.CREDENTIAL_ACKED, yesterday))
-                .credentialsReceived(holderCredExRepo.countByRoleEqualsAndStateEqualsAndCreatedAtAfter(
-                        CredentialExchangeRole.HOLDER, CredentialExchangeState.CREDENTIAL_ACKED, yesterday))
-                .tasks(activityRepository.countByCompletedFalseAndCreatedAtAfter(yesterday))
-                .partners(partnerRepo.countByStateNotEqualsAndCreatedAtAfter(ConnectionState.INVITATION, yesterday))
-                .presentationRequestsSent(proofRepository
-                        .countByStateEqualsAndCreatedAtAfter(PresentationExchangeState.REQUEST_SENT, yesterday))
-                .presentationRequestsReceived(proofRepository.countByStateEqualsAndCreatedAtAfter(
-                        PresentationExchangeState.PRESENTATION_RECEIVED, yesterday))
-                .build();
+    @Value("${bpa.stats.snapshot-ttl:10s}")
+    Duration snapshotTtl;
+
+    private volatile Snapshot snapshot;
 
-        return BPAStats
+    public BPAStats collectStats() {
+        Snapshot current = snapshot;
+        if (current != null && current.expiresAt().isAfter(Instant.now())) {
+            return current.stats();
+        }
+        // the 24 hour period is rounded to the hour, as the counters are bucketed
+        // by the hour
+        Instant yesterday = Instant.now().minus(1, ChronoUnit.DAYS).truncatedTo(ChronoUnit.HOURS);
+        BPAStats stats = BPAStats
                 .builder()
                 .did(identity.getMyDid())
                 .profile(docRepo
                         .existsByTypeEqualsAndIsPublicTrue(CredentialType.ORGANIZATIONAL_PROFILE_CREDENTIAL))
-                .totals(totals)
-                .periodTotals(periodTotals)
+                .totals(toCounts(counterRepo.findAll()))
+                .periodTotals(toCounts(counterRepo.findCreatedSince(yesterday)))
+                .build();
+        snapshot = new Snapshot(stats, Instant.now().plus(snapshotTtl));
+        return stats;
+    }
+
+    /**
+     * Counts per period from the daily rollup, days are those of the timezone the
+     * timestamps are stored in
+     *
+     * @param range {@link StatsRangeParameters}
+     * @return list of {@link StatsBucket}
+     */
+    public List<StatsBucket> collectStats(@NonNull StatsRangeParameters range) {
+        LocalDate to = range.getTo() != null ? range.getTo() : LocalDate.now(ZoneId.systemDefault());
+        LocalDate from = range.getFrom() != null ? range.getFrom() : to.minusDays(30);
+        if (from.isAfter(to)) {
+            throw new WrongApiUsageException(ms.getMessage("api.stats.range.invalid"));
+        }
+        StatsGranularity granularity = range.getGranularity() != null ? range.getGranularity()
+                : StatsGranularity.DAY;
+        return counterRepo.findDailyStats(granularity.getField(), from, to, range.getMetric());
+    }
+
+    /**
+     * Stage latencies of the exchanges, only covers what happened since the last
+     * restart and at most the configured number of samples per stage
+     *
+     * @param params {@link LatencyParameters}
+     * @return list of {@link StageLatency}, slowest stage first per exchange
+     */
+    public List<StageLatency> collectLatencies(@NonNull LatencyParameters params) {
+        Duration window = params.getWindow() != null ? params.getWindow() : Duration.ofDays(1);
+        if (window.isNegative() || window.isZero()) {
+            throw new WrongApiUsageException(ms.getMessage("api.stats.window.invalid"));
+        }
+        return lifecycle.latencies(window, params.getExchange());
+    }
+
+    /**
+     * @return where the time of the endpoints and aca-py events went since the last
+     *         restart
+     */
+    public List<OperationProfile> collectProfiles() {
+        return profiler.profiles();
+    }
+
+    /**
+     * Rebuilds the counters from the counted tables, corrects any drift, e.g. from
+     * manual changes to the database. The daily rollup is only rebuilt for the last
+     * two days, older days do not change anymore.
+     */
+    @Scheduled(cron = "0 30 3 ? * *")
+    void reconcile() {
+        try {
+            counterRepo.reconcile();
+            counterRepo.rebuildDailyStats(LocalDate.now(ZoneId.systemDefault()).minusDays(1));
+            invalidate();
+        } catch (Exception e) {
+            log.error("Could not reconcile the dashboard counters", e);
+        }
+    }
+
+    void invalidate() {
+        snapshot = null;
+    }
+
+    // events of entities that are counted
+
+    @EventListener
+    void onActivity(@SuppressWarnings("unused") ActivityNotificationEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onTaskAdded(@SuppressWarnings("unused") TaskAddedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onTaskCompleted(@SuppressWarnings("unused") TaskCompletedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onPartnerAdded(@SuppressWarnings("unused") PartnerAddedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onPartnerAccepted(@SuppressWarnings("unused") PartnerAcceptedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onPartnerRequestCompleted(@SuppressWarnings("unused") PartnerRequestCompletedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onPartnerRemoved(@SuppressWarnings("unused") PartnerRemovedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onCredentialAdded(@SuppressWarnings("unused") CredentialAddedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onCredentialIssued(@SuppressWarnings("unused") CredentialIssuedEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onPresentationRequestSent(@SuppressWarnings("unused") PresentationRequestSentEvent event) {
+        invalidate();
+    }
+
+    @EventListener
+    void onPresentationRequestReceived(@SuppressWarnings("unused") PresentationRequestReceivedEvent event) {
+        invalidate();
+    }
+
+    private static DashboardCounts toCounts(Iterable<DashboardCounter> counters) {
+        Map<String, Long> byName = new HashMap<>();
+        counters.forEach(c -> byName.put(c.getName(), c.getValue()));
+        return DashboardCounts
+                .builder()
+                .credentialsSent(byName.getOrDefault("credentialsSent", 0L))
+                .credentialsReceived(byName.getOrDefault("credentialsReceived", 0L))
+                .presentationRequestsSent(byName.getOrDefault("presentationRequestsSent", 0L))
+                .presentationRequestsReceived(byName.getOrDefault("presentationRequestsReceived", 0L))
+                .partners(byName.getOrDefault("partners", 0L))
+                .tasks(byName.getOrDefault("tasks", 0L))
                 .build();
     }
+
+    private record Snapshot(BPAStats stats, Instant expiresAt) {
+    }
 }
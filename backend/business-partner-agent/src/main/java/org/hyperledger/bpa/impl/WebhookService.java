@@ -21,11 +21,14 @@ import io.micronaut.core.util.StringUtils;
 import io.micronaut.data.exceptions.DataAccessException;
 import io.micronaut.scheduling.annotation.Async;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
+import org.hyperledger.bpa.config.HttpClientFactory;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.core.RegisteredWebhook;
 import org.hyperledger.bpa.core.RegisteredWebhook.RegisteredWebhookResponse;
 import org.hyperledger.bpa.core.RegisteredWebhook.WebhookCredentials;
@@ -48,7 +51,9 @@ public class WebhookService {
 
     static final MediaType JSON_TYPE = MediaType.get("application/json; charset=utf-8");
 
-    private final OkHttpClient okClient = new OkHttpClient();
+    @Inject
+    @Named(HttpClientFactory.WEBHOOK)
+    OkHttpClient okClient;
 
     @Inject
     Converter conv;
@@ -98,7 +103,7 @@ public class WebhookService {
         repo.deleteById(id);
     }
 
-    @Async
+    @Async(TaskExecutorFactory.OUTBOUND_HTTP)
     public void convertAndSend(@NonNull WebhookEventType eventType, @NonNull Object msg) {
         // Not a parallel stream for now to keep it simple
         repo.findByEventType(eventType).forEach(e -> {
@@ -31,6 +31,7 @@ import org.hyperledger.aries.api.resolver.DIDDocument;
 import org.hyperledger.bpa.api.PartnerAPI;
 import org.hyperledger.bpa.api.exception.PartnerException;
 import org.hyperledger.bpa.client.DidDocClient;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.core.RegisteredWebhook;
 import org.hyperledger.bpa.impl.WebhookService;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
@@ -71,7 +72,7 @@ public class DidResolver {
      *
      * @param pp {@link PartnerProof}
      */
-    @Async
+    @Async(TaskExecutorFactory.OUTBOUND_HTTP)
     public void resolveDid(PartnerProof pp, @NonNull List<PresentationExchangeRecord.Identifier> identifiers) {
         Optional<PresentationExchangeRecord.Identifier> cr = identifiers.stream()
                 .filter(i -> StringUtils.isNotEmpty(i.getSchemaId()))
@@ -118,7 +119,7 @@ public class DidResolver {
      *
      * @param p {@link Partner}
      */
-    @Async
+    @Async(TaskExecutorFactory.OUTBOUND_HTTP)
     public void lookupIncoming(Partner p) {
         lookupPartnerSave(p.getDid()).ifPresentOrElse(pAPI -> {
             partnerRepo.updateVerifiablePresentation(
@@ -18,6 +18,7 @@
 package org.hyperledger.bpa.impl.activity;
 
 import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.scheduling.annotation.Async;
 import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Inject;
@@ -25,6 +26,7 @@ import jakarta.inject.Singleton;
 import lombok.*;
 import org.hyperledger.bpa.api.PartnerAPI;
 import org.hyperledger.bpa.client.LedgerExplorerClient;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.controller.api.partner.PartnerCredentialType;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
 import org.hyperledger.bpa.impl.util.Converter;
@@ -79,6 +81,36 @@ public class PartnerCredDefLookup {
         return result;
     }
 
+    /**
+     * Same rules as {@link #getIssuersFor(String)}, but expressed as filter of the
+     * partner search instead of loading and converting all matching partners.
+     *
+     * @param schemaId the schema id
+     * @return {@link IssuerFilter}, empty if the schema is not known
+     */
+    public Optional<IssuerFilter> issuerFilterFor(@NonNull String schemaId) {
+        return schemaRepo.findBySchemaId(schemaId).map(s -> {
+            if (ledger.isEmpty()) {
+                return new IssuerFilter(null, schemaId, null);
+            }
+            if (s.typeIsIndy()) {
+                return new IssuerFilter(s.getSeqNo().toString(), null, null);
+            }
+            return new IssuerFilter(null, null, Boolean.TRUE);
+        });
+    }
+
+    /**
+     * @param seqNo               partners that support a credential definition of
+     *                            the schema with this sequence number
+     * @param configuredIssuersOf partners whose did is a configured issuer of this
+     *                            schema id
+     * @param ariesSupport        partners that support aries
+     */
+    public record IssuerFilter(@Nullable String seqNo, @Nullable String configuredIssuersOf,
+            @Nullable Boolean ariesSupport) {
+    }
+
     /**
      * If a ledger explorer is configured. Find partners that can issue credentials
      * that are based on the schema id.
@@ -145,7 +177,7 @@ public class PartnerCredDefLookup {
         });
     }
 
-    @Async
+    @Async(TaskExecutorFactory.LEDGER)
     public void lookupTypesForAllPartnersAsync() {
         lookupTypesForAllPartners();
     }
@@ -0,0 +1,276 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micronaut.context.BeanProvider;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.aries.api.connection.ConnectionRecord;
+import org.hyperledger.aries.api.discover_features.DiscoverFeatureEvent;
+import org.hyperledger.aries.api.endorser.EndorseTransactionRecord;
+import org.hyperledger.aries.api.issue_credential_v1.V1CredentialExchange;
+import org.hyperledger.aries.api.issue_credential_v2.V20CredExRecord;
+import org.hyperledger.aries.api.issue_credential_v2.V2IssueIndyCredentialEvent;
+import org.hyperledger.aries.api.issue_credential_v2.V2IssueLDCredentialEvent;
+import org.hyperledger.aries.api.message.BasicMessage;
+import org.hyperledger.aries.api.message.ProblemReport;
+import org.hyperledger.aries.api.present_proof.PresentationExchangeRecord;
+import org.hyperledger.aries.api.present_proof_v2.V20PresExRecord;
+import org.hyperledger.aries.api.revocation.RevocationEvent;
+import org.hyperledger.aries.api.revocation.RevocationNotificationEvent;
+import org.hyperledger.aries.api.trustping.PingEvent;
+import org.hyperledger.aries.webhook.EventHandler;
+import org.hyperledger.aries.webhook.EventParser;
+import org.hyperledger.bpa.impl.profile.ProfileRecorder;
+import org.hyperledger.bpa.impl.profile.Profiler;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Replaces {@link EventHandler#handleEvent(String, String)} for the webhook
+ * endpoint. The aries client parses the body once per handler, here it is
+ * parsed once per event and the typed record is shared by all handlers. Topics
+ * that no handler overrides are not parsed at all. The registry is looked up
+ * with the first event, the handlers depend on the caches, and the cache
+ * metrics need the registry while it is being built.
+ */
+@Slf4j
+@Singleton
+public class AriesEventDispatcher {
+
+    private static final EventParser PARSER = new EventParser();
+
+    private static final Map<String, Topic<?>> TOPICS = Map.ofEntries(
+            topic("connections", ConnectionRecord.class, "handleConnection", EventHandler::handleConnection),
+            topic("present_proof", PresentationExchangeRecord.class, "handleProof", EventHandler::handleProof,
+                    PARSER::parsePresentProof),
+            topic("present_proof_v2_0", V20PresExRecord.class, "handleProofV2", EventHandler::handleProofV2),
+            topic("issue_credential", V1CredentialExchange.class, "handleCredential",
+                    EventHandler::handleCredential),
+            topic("issue_credential_v2_0", V20CredExRecord.class, "handleCredentialV2",
+                    EventHandler::handleCredentialV2),
+            topic("issue_credential_v2_0_indy", V2IssueIndyCredentialEvent.class, "handleIssueCredentialV2Indy",
+                    EventHandler::handleIssueCredentialV2Indy),
+            topic("issue_credential_v2_0_ld_proof", V2IssueLDCredentialEvent.class, "handleIssueCredentialV2LD",
+                    EventHandler::handleIssueCredentialV2LD),
+            topic("basicmessages", BasicMessage.class, "handleBasicMessage", EventHandler::handleBasicMessage),
+            topic("ping", PingEvent.class, "handlePing", EventHandler::handlePing),
+            topic("issuer_cred_rev", RevocationEvent.class, "handleRevocation", EventHandler::handleRevocation),
+            topic("endorse_transaction", EndorseTransactionRecord.class, "handleEndorseTransaction",
+                    EventHandler::handleEndorseTransaction),
+            topic("problem_report", ProblemReport.class, "handleProblemReport", EventHandler::handleProblemReport),
+            topic("discover_feature", DiscoverFeatureEvent.class, "handleDiscoverFeature",
+                    EventHandler::handleDiscoverFeature),
+            topic("revocation-notification", RevocationNotificationEvent.class, "handleRevocationNotification",
+                    EventHandler::handleRevocationNotification));
+
+    @Inject
+    List<EventHandler> handlers;
+
+    @Inject
+    ProfileRecorder profiler;
+
+    @Inject
+    BeanProvider<MeterRegistry> registryProvider;
+
+    /** topic to the handlers that override its handle method */
+    private Map<String, List<EventHandler>> subscribers = Map.of();
+
+    /** handlers that override handleRaw */
+    private List<EventHandler> rawSubscribers = List.of();
+
+    private final Map<String, TopicStats> stats = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    private volatile boolean resolved;
+
+    @PostConstruct
+    void init() {
+        Map<String, List<EventHandler>> s = new HashMap<>();
+        TOPICS.forEach((name, topic) -> s.put(name, handlers.stream()
+                .filter(h -> overrides(h, topic.method, topic.type))
+                .toList()));
+        subscribers = s;
+        rawSubscribers = handlers.stream()
+                .filter(h -> overrides(h, "handleRaw", String.class, String.class))
+                .toList();
+    }
+
+    public void dispatch(@NonNull String topicName, @NonNull String body) {
+        rawSubscribers.forEach(h -> handleSafe(() -> h.handleRaw(topicName, body)));
+        Topic<?> topic = TOPICS.get(topicName);
+        TopicStats ts = stats.computeIfAbsent(topicName, k -> bind(k, new TopicStats()));
+        List<EventHandler> interested = topic != null ? subscribers.getOrDefault(topicName, List.of()) : List.of();
+        if (interested.isEmpty()) {
+            ts.skipped.increment();
+            log.debug("Webhook received, type: {}, no handler", topicName);
+            return;
+        }
+        log.debug("Webhook received, type: {}", topicName);
+        dispatch(topic, body, interested, ts);
+    }
+
+    private <T> void dispatch(Topic<T> topic, String body, List<EventHandler> interested, TopicStats ts) {
+        long start = System.nanoTime();
+        try (Profiler.Span ignored = profiler.start("event " + topic.name)) {
+            Optional<T> event;
+            try (Profiler.Span parse = Profiler.span(Profiler.CONVERT, "parse " + topic.name)) {
+                event = topic.parse.apply(body);
+            } catch (Exception e) {
+                log.error("Could not parse webhook event: {}", topic.name, e);
+                return;
+            } finally {
+                ts.record(System.nanoTime() - start, body.getBytes(StandardCharsets.UTF_8).length);
+            }
+            event.ifPresent(e -> interested.forEach(h -> handleSafe(() -> topic.handle.accept(h, e))));
+        }
+        ts.handled(System.nanoTime() - start);
+    }
+
+    private static void handleSafe(Runnable r) {
+        try {
+            r.run();
+        } catch (Throwable e) {
+            log.error("Error in webhook event handler:", e);
+        }
+    }
+
+    private static boolean overrides(EventHandler h, String method, Class<?>... parameterTypes) {
+        try {
+            return h.getClass().getMethod(method, parameterTypes).getDeclaringClass() != EventHandler.class;
+        } catch (NoSuchMethodException e) {
+            return false;
+        }
+    }
+
+    private MeterRegistry registry() {
+        if (!resolved) {
+            registry = registryProvider.isPresent() ? registryProvider.get() : null;
+            resolved = true;
+        }
+        return registry;
+    }
+
+    /**
+     * Only the known topics are published, so that a misbehaving agent can not
+     * create an unbounded number of series.
+     */
+    private TopicStats bind(String topic, TopicStats ts) {
+        MeterRegistry r = registry();
+        if (r == null || !TOPICS.containsKey(topic)) {
+            return ts;
+        }
+        Tags tags = Tags.of("topic", topic);
+        FunctionTimer.builder("bpa.webhook.events", ts, s -> s.handled.sum(), s -> s.handleNanos.sum(),
+                TimeUnit.NANOSECONDS).tags(tags).register(r);
+        FunctionTimer.builder("bpa.webhook.parse", ts, s -> s.events.sum(), s -> s.parseNanos.sum(),
+                TimeUnit.NANOSECONDS).tags(tags).register(r);
+        FunctionCounter.builder("bpa.webhook.skipped", ts, s -> s.skipped.sum()).tags(tags).register(r);
+        return ts;
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        return stats.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot()));
+    }
+
+    private static <T> Map.Entry<String, Topic<T>> topic(String name, Class<T> type, String method,
+            BiConsumer<EventHandler, T> handle) {
+        return topic(name, type, method, handle, body -> PARSER.parseValueSave(body, type));
+    }
+
+    private static <T> Map.Entry<String, Topic<T>> topic(String name, Class<T> type, String method,
+            BiConsumer<EventHandler, T> handle, Function<String, Optional<T>> parse) {
+        return Map.entry(name, new Topic<>(name, type, method, handle, parse));
+    }
+
+    private record Topic<T> (String name, Class<T> type, String method, BiConsumer<EventHandler, T> handle,
+            Function<String, Optional<T>> parse) {
+    }
+
+    private static final class TopicStats {
+        private final LongAdder events = new LongAdder();
+        private final LongAdder skipped = new LongAdder();
+        private final LongAdder parseNanos = new LongAdder();
+        private final AtomicLong maxParseNanos = new AtomicLong();
+        private final LongAdder bytes = new LongAdder();
+        private final AtomicLong maxBytes = new AtomicLong();
+        private final LongAdder handled = new LongAdder();
+        private final LongAdder handleNanos = new LongAdder();
+
+        void record(long nanos, long size) {
+            events.increment();
+            parseNanos.add(nanos);
+            maxParseNanos.accumulateAndGet(nanos, Math::max);
+            bytes.add(size);
+            maxBytes.accumulateAndGet(size, Math::max);
+        }
+
+        void handled(long nanos) {
+            handled.increment();
+            handleNanos.add(nanos);
+        }
+
+        Snapshot snapshot() {
+            long count = events.sum();
+            long h = handled.sum();
+            return Snapshot.builder()
+                    .events(count)
+                    .skipped(skipped.sum())
+                    .avgHandleMicros(h == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(handleNanos.sum() / h))
+                    .avgParseMicros(count == 0 ? 0 : TimeUnit.NANOSECONDS.toMicros(parseNanos.sum() / count))
+                    .maxParseMicros(TimeUnit.NANOSECONDS.toMicros(maxParseNanos.get()))
+                    .avgBytes(count == 0 ? 0 : bytes.sum() / count)
+                    .maxBytes(maxBytes.get())
+                    .build();
+        }
+    }
+
+    @Data
+    @Builder
+    public static final class Snapshot {
+        /** parsed and dispatched */
+        private long events;
+        /** received, but not parsed as no handler is interested */
+        private long skipped;
+        /** parse and all handlers */
+        private long avgHandleMicros;
+        private long avgParseMicros;
+        private long maxParseMicros;
+        private long avgBytes;
+        private long maxBytes;
+    }
+}
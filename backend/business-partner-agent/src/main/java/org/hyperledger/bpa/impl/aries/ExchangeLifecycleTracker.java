@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import lombok.Setter;
+import org.hyperledger.bpa.controller.api.stats.LifecycleExchange;
+import org.hyperledger.bpa.controller.api.stats.StageLatency;
+import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.model.PartnerProof;
+import org.hyperledger.bpa.persistence.model.StateChangeDecorator;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * Turns the state changes of connections, credential and presentation exchanges
+ * into stage durations. The managers hand over the entity once its new state is
+ * persisted, every first transition into a state is timed from the state that
+ * was reached before, per exchange, protocol version and role. The durations go
+ * into a prometheus histogram, and the last samples per stage are kept in
+ * memory to answer percentiles over a time window.
+ */
+@Singleton
+public class ExchangeLifecycleTracker implements MeterBinder {
+
+    static final String METRIC = "bpa.exchange.stage";
+
+    @Value("${bpa.stats.lifecycle.enabled:true}")
+    @Setter
+    boolean enabled;
+
+    @Value("${bpa.stats.lifecycle.samples:2048}")
+    @Setter
+    int samples;
+
+    private final Map<StageKey, Stage> stages = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    /**
+     * Records the transitions the entity went through since it was loaded or last
+     * tracked, call after the state is persisted
+     *
+     * @param entity connection, credential or presentation exchange
+     */
+    public void track(@Nullable StateChangeDecorator<?, ?> entity) {
+        StateChangeDecorator.StateToTimestamp<?> states = entity != null ? entity.getStateToTimestamp() : null;
+        if (states == null) {
+            return;
+        }
+        List<? extends StateChangeDecorator.Transition<?>> transitions = states.pollTransitions();
+        if (enabled) {
+            transitions.forEach(t -> record(entity, t.from(), t.to(), t.duration()));
+        }
+    }
+
+    void record(@NonNull StateChangeDecorator<?, ?> entity, @NonNull Enum<?> from, @NonNull Enum<?> to,
+            @NonNull Duration duration) {
+        StageKey key;
+        if (entity instanceof BPACredentialExchange ex) {
+            key = new StageKey(LifecycleExchange.CREDENTIAL, name(ex.getExchangeVersion()), name(ex.getRole()),
+                    from, to);
+        } else if (entity instanceof PartnerProof pp) {
+            key = new StageKey(LifecycleExchange.PRESENTATION, name(pp.getExchangeVersion()), name(pp.getRole()),
+                    from, to);
+        } else if (entity instanceof Partner p) {
+            key = new StageKey(LifecycleExchange.CONNECTION, "",
+                    Boolean.TRUE.equals(p.getIncoming()) ? "INCOMING" : "OUTGOING", from, to);
+        } else {
+            return;
+        }
+        stages.computeIfAbsent(key, k -> bind(k, new Stage(samples))).record(duration);
+    }
+
+    /**
+     * @param window   only samples that were recorded within the window, all kept
+     *                 samples if null
+     * @param exchange only stages of this exchange, all if null
+     * @return percentiles per stage that has samples within the window
+     */
+    public List<StageLatency> latencies(@Nullable Duration window, @Nullable LifecycleExchange exchange) {
+        long since = window != null ? Instant.now().minus(window).toEpochMilli() : Long.MIN_VALUE;
+        return stages.entrySet().stream()
+                .filter(e -> exchange == null || e.getKey().exchange == exchange)
+                .map(e -> e.getValue().latency(e.getKey(), since))
+                .filter(l -> l.getCount() > 0)
+                .sorted(Comparator.comparing(StageLatency::getExchange)
+                        .thenComparing(StageLatency::getVersion)
+                        .thenComparing(StageLatency::getRole)
+                        .thenComparing(StageLatency::getP50Millis, Comparator.reverseOrder()))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        this.registry = registry;
+        stages.forEach(this::bind);
+    }
+
+    private Stage bind(StageKey key, Stage stage) {
+        MeterRegistry r = registry;
+        if (r == null) {
+            return stage;
+        }
+        stage.timer = Timer.builder(METRIC)
+                .tags(Tags.of("exchange", key.exchange.name(), "version", key.version, "role", key.role,
+                        "from", StateChangeDecorator.toJsonKey(key.from),
+                        "to", StateChangeDecorator.toJsonKey(key.to)))
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(10))
+                .maximumExpectedValue(Duration.ofDays(7))
+                .register(r);
+        return stage;
+    }
+
+    private static String name(@Nullable Enum<?> e) {
+        return e != null ? e.name() : "";
+    }
+
+    private record StageKey(LifecycleExchange exchange, String version, String role, Enum<?> from, Enum<?> to) {
+    }
+
+    /**
+     * Ring buffer of the last samples, exchanges are not frequent enough to make
+     * the sort on read a problem.
+     */
+    private static final class Stage {
+        private final long[] recordedAt;
+        private final long[] millis;
+        private int next;
+        private int size;
+        private volatile Timer timer;
+
+        Stage(int capacity) {
+            recordedAt = new long[Math.max(1, capacity)];
+            millis = new long[recordedAt.length];
+        }
+
+        void record(Duration duration) {
+            Timer t = timer;
+            if (t != null) {
+                t.record(duration);
+            }
+            synchronized (this) {
+                recordedAt[next] = System.currentTimeMillis();
+                millis[next] = duration.toMillis();
+                next = (next + 1) % millis.length;
+                size = Math.min(size + 1, millis.length);
+            }
+        }
+
+        StageLatency latency(StageKey key, long since) {
+            long[] values = new long[millis.length];
+            int count = 0;
+            synchronized (this) {
+                for (int i = 0; i < size; i++) {
+                    if (recordedAt[i] >= since) {
+                        values[count++] = millis[i];
+                    }
+                }
+            }
+            Arrays.sort(values, 0, count);
+            return StageLatency.builder()
+                    .exchange(key.exchange)
+                    .version(key.version)
+                    .role(key.role)
+                    .from(StateChangeDecorator.toJsonKey(key.from))
+                    .to(StateChangeDecorator.toJsonKey(key.to))
+                    .count(count)
+                    .p50Millis(percentile(values, count, 50))
+                    .p90Millis(percentile(values, count, 90))
+                    .p99Millis(percentile(values, count, 99))
+                    .maxMillis(count == 0 ? 0 : values[count - 1])
+                    .build();
+        }
+
+        /** nearest rank on the sorted values */
+        private static long percentile(long[] sorted, int count, int p) {
+            if (count == 0) {
+                return 0;
+            }
+            int rank = (int) Math.ceil(p / 100.0 * count);
+            return sorted[Math.max(0, rank - 1)];
+        }
+    }
+}
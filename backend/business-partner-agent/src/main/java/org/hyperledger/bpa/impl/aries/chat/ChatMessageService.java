@@ -17,18 +17,28 @@
  */
 package org.hyperledger.bpa.impl.aries.chat;
 
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperledger.bpa.api.exception.DataPersistenceException;
+import org.hyperledger.bpa.api.exception.EntityNotFoundException;
+import org.hyperledger.bpa.api.exception.WrongApiUsageException;
 import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.controller.api.partner.ChatHistoryParameters;
 import org.hyperledger.bpa.persistence.model.ChatMessage;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.hyperledger.bpa.persistence.repository.ChatMessageRepository;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @Slf4j
@@ -42,8 +52,62 @@ public class ChatMessageService {
     @Inject
     BPAMessageSource.DefaultMessageSource ms;
 
-    public List<ChatMessage> getMessagesForPartner(@NonNull UUID partnerId) {
-        return chatMsgRepo.findByPartnerIdOrderByCreatedAtAsc(partnerId);
+    @Value("${bpa.chat.page-size:100}")
+    int defaultPageSize;
+
+    @Value("${bpa.chat.max-page-size:500}")
+    int maxPageSize;
+
+    @Value("${bpa.chat.retention.enabled:false}")
+    boolean retentionEnabled;
+
+    @Value("${bpa.chat.retention.max-age:365d}")
+    Duration retentionMaxAge;
+
+    @Value("${bpa.chat.retention.archive:true}")
+    boolean archive;
+
+    @Value("${bpa.chat.retention.batch-size:1000}")
+    int retentionBatchSize;
+
+    /**
+     * One page of the partners chat history, oldest message first
+     *
+     * @param partnerId the partner id
+     * @param page      {@link ChatHistoryParameters}
+     * @return list of {@link ChatMessage}, the partner only carries its id
+     * @throws EntityNotFoundException if the cursor is not a message of the
+     *                                 partner, e.g. because it was archived
+     */
+    public List<ChatMessage> getMessagesForPartner(@NonNull UUID partnerId, @NonNull ChatHistoryParameters page) {
+        if (page.getBefore() != null && page.getAfter() != null) {
+            throw new WrongApiUsageException(ms.getMessage("api.chat.cursor.exclusive"));
+        }
+        int size = page.getSize() == null ? defaultPageSize : Math.max(1, Math.min(page.getSize(), maxPageSize));
+        if (page.getAfter() != null) {
+            ChatMessage after = findCursor(partnerId, page.getAfter());
+            return chatMsgRepo.findAfter(partnerId, after.getCreatedAt(), after.getId(), size);
+        }
+        List<ChatMessage> newestFirst;
+        if (page.getBefore() != null) {
+            ChatMessage before = findCursor(partnerId, page.getBefore());
+            newestFirst = chatMsgRepo.findBefore(partnerId, before.getCreatedAt(), before.getId(), size);
+        } else {
+            newestFirst = chatMsgRepo.findLatest(partnerId, size);
+        }
+        List<ChatMessage> result = new ArrayList<>(newestFirst);
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * An unknown cursor must not look like the end of the history, so it is
+     * resolved once, within the partners messages, before the page is read
+     */
+    private ChatMessage findCursor(UUID partnerId, UUID id) {
+        return chatMsgRepo.findCursor(partnerId, id)
+                .orElseThrow(() -> new EntityNotFoundException(ms.getMessage("api.chat.cursor.not.found",
+                        Map.of("id", id))));
     }
 
     public ChatMessage saveIncomingMessage(@NonNull Partner partner, @NonNull String content) {
@@ -69,4 +133,34 @@ public class ChatMessageService {
     public void deletePartnerMessages(@NonNull Partner partner) {
         chatMsgRepo.deleteByPartnerId(partner.getId());
     }
+
+    /**
+     * Archives or deletes messages that are older than the configured max age. Runs
+     * in batches, so that a first run on a large table does not hold a single long
+     * transaction.
+     */
+    @Scheduled(cron = "0 45 2 ? * *")
+    void applyRetention() {
+        if (retentionEnabled) {
+            applyRetention(Instant.now().minus(retentionMaxAge));
+        }
+    }
+
+    long applyRetention(@NonNull Instant before) {
+        long batches = 0;
+        try {
+            while ((archive
+                    ? chatMsgRepo.archiveBefore(before, retentionBatchSize)
+                    : chatMsgRepo.deleteBefore(before, retentionBatchSize)).intValue() > 0) {
+                batches++;
+            }
+        } catch (Exception e) {
+            log.error("Chat message retention failed", e);
+        }
+        if (batches > 0) {
+            log.info("{} chat messages older than {} in {} batches", archive ? "Archived" : "Deleted",
+                    before, batches);
+        }
+        return batches;
+    }
 }
@@ -49,6 +49,7 @@ import org.hyperledger.bpa.controller.api.invitation.CheckInvitationResponse;
 import org.hyperledger.bpa.controller.api.partner.CreatePartnerInvitationRequest;
 import org.hyperledger.bpa.impl.activity.DidResolver;
 import org.hyperledger.bpa.impl.activity.PartnerCredDefLookup;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
 import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.Partner;
@@ -103,6 +104,9 @@ public class ConnectionManager {
     @Inject
     PartnerCredDefLookup partnerCredDefLookup;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     /**
      * Creates a connection invitation to be used within a barcode
      *
@@ -110,32 +114,40 @@ public class ConnectionManager {
      * @return {@link APICreateInvitationResponse}
      */
     public APICreateInvitationResponse createConnectionInvitation(@NonNull CreatePartnerInvitationRequest req) {
-        APICreateInvitationResponse.APICreateInvitationResponseBuilder invitation = APICreateInvitationResponse
-                .builder();
-        String connId = null;
-        String invMsgId = null;
-        InvitationRecord invitationRecord;
         try {
-            if (req.getUseOutOfBand()) {
-                invitationRecord = createOOBInvitation(req.getAlias(), req.getUsePublicDid());
-                invMsgId = invitationRecord.getInviMsgId();
-                invitation
-                        .invitationUrl(invitationRecord.getInvitationUrl())
-                        .invitationId(invMsgId);
-            } else {
-                CreateInvitationResponse conInvite = createInvitation(req.getAlias());
-                connId = conInvite.getConnectionId();
-                invitationRecord = InvitationRecord.builder().invitationUrl(conInvite.getInvitationUrl()).build();
-                invitation
-                        .invitationUrl(invitationRecord.getInvitationUrl())
-                        .invitationId(connId);
-            }
-            Partner partner = createNewPartner(req.getAlias(), connId, invMsgId, req.getTag(), req.getTrustPing(), invitationRecord);
-            invitation.partnerId(partner.getId().toString());
+            Partner partner = partnerRepo.save(prepareInvitation(req));
+            return APICreateInvitationResponse.builder()
+                    .invitationUrl(partner.getInvitationRecord().getInvitationUrl())
+                    .invitationId(req.getUseOutOfBand() ? partner.getInvitationMsgId() : partner.getConnectionId())
+                    .partnerId(partner.getId().toString())
+                    .build();
         } catch (IOException e) {
             throw new NetworkException("acapy.unavailable");
         }
-        return invitation.build();
+    }
+
+    /**
+     * Creates the invitation in aca-py and the matching partner. The partner is not
+     * saved, callers have to save it right away so that the connection events find
+     * it.
+     *
+     * @param req {@link CreatePartnerInvitationRequest}
+     * @return {@link Partner} in state invitation
+     * @throws IOException if aca-py is not reachable
+     */
+    public Partner prepareInvitation(@NonNull CreatePartnerInvitationRequest req) throws IOException {
+        String connId = null;
+        String invMsgId = null;
+        InvitationRecord invitationRecord;
+        if (req.getUseOutOfBand()) {
+            invitationRecord = createOOBInvitation(req.getAlias(), req.getUsePublicDid());
+            invMsgId = invitationRecord.getInviMsgId();
+        } else {
+            CreateInvitationResponse conInvite = createInvitation(req.getAlias());
+            connId = conInvite.getConnectionId();
+            invitationRecord = InvitationRecord.builder().invitationUrl(conInvite.getInvitationUrl()).build();
+        }
+        return newPartner(req.getAlias(), connId, invMsgId, req.getTag(), req.getTrustPing(), invitationRecord);
     }
 
     public CheckInvitationResponse checkReceivedInvitation(@NonNull String invitationUri) {
@@ -232,9 +244,9 @@ public class ConnectionManager {
                         partnerRepo.updateStateAndLabel(
                                 dbP.getId(), dbP.getState(), dbP.getStateToTimestamp(), record.getTheirLabel());
                     } else {
-                        partnerRepo.updateState(
-                                dbP.getId(), dbP.getState(), dbP.getStateToTimestamp());
+                        partnerRepo.appendState(dbP);
                     }
+                    lifecycle.track(dbP);
                     if (record.stateIsRequest()) {
                         eventPublisher.publishEventAsync(PartnerAddedEvent.builder().partner(dbP).build());
                     } else if (record.stateIsResponse() || record.stateIsCompleted()) {
@@ -265,6 +277,7 @@ public class ConnectionManager {
                     }
                     dbP.pushStates(record.getState(), record.getUpdatedAt());
                     partnerRepo.update(dbP);
+                    lifecycle.track(dbP);
                     resolveAndSend(record, dbP);
                 },
                 () -> {
@@ -314,6 +327,7 @@ public class ConnectionManager {
             dbP.setDid(resolveDidFromRecord(record));
             dbP.setLabel(record.getTheirLabel());
             partnerRepo.update(dbP);
+            lifecycle.track(dbP);
             resolveAndSend(record, dbP);
         });
     }
@@ -438,12 +452,12 @@ public class ConnectionManager {
 
     private Partner createNewPartner(String alias, String invMsgId, List<Tag> tag,
             Boolean trustPing) {
-        return createNewPartner(alias, null, invMsgId, tag, trustPing, null);
+        return partnerRepo.save(newPartner(alias, null, invMsgId, tag, trustPing, null));
     }
 
-    private Partner createNewPartner(String alias, String connectionId, String invMsgId, List<Tag> tag,
+    private Partner newPartner(String alias, String connectionId, String invMsgId, List<Tag> tag,
             Boolean trustPing, InvitationRecord invitationRecord) {
-                return partnerRepo.save(Partner
+        return Partner
                 .builder()
                 .ariesSupport(Boolean.TRUE)
                 .alias(StringUtils.trimToNull(alias))
@@ -456,6 +470,6 @@ public class ConnectionManager {
                 .incoming(Boolean.TRUE)
                 .tags(tag != null ? new HashSet<>(tag) : null)
                 .trustPing(trustPing != null ? trustPing : Boolean.FALSE)
-                .build());
+                .build();
     }
 }
@@ -35,11 +35,11 @@ import okhttp3.Response;
 import org.apache.commons.lang3.StringUtils;
 import org.hyperledger.aries.api.connection.ReceiveInvitationRequest;
 import org.hyperledger.aries.api.out_of_band.InvitationMessage;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.api.exception.InvitationException;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.invitation.CheckInvitationResponse;
 import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 
 import java.net.URI;
 import java.net.URISyntaxException;
@@ -146,8 +146,8 @@ public class InvitationParser {
                     if (CONNECTION_INVITATION_TYPES.contains(type)) {
                         // Invitation
                         try {
-                            Gson gson = GsonConfig.defaultConfig();
-                            ReceiveInvitationRequest r = gson.fromJson(decodedBlock, ReceiveInvitationRequest.class);
+                            ReceiveInvitationRequest r = JsonCodec.GSON.fromJson(decodedBlock,
+                                    ReceiveInvitationRequest.class);
                             invitation.setInvitationRequest(r);
                         } catch (Exception e) {
                             String msg = ms.getMessage("api.invitation.decoding.error.not.v1");
@@ -158,7 +158,7 @@ public class InvitationParser {
                     } else if (OOB_INVITATION_TYPES.contains(type)) {
                         invitation.setOob(true);
 
-                        Gson gson = GsonConfig.defaultConfig();
+                        Gson gson = JsonCodec.GSON;
                         try {
                             InvitationMessage<InvitationMessage.InvitationMessageService> im = gson
                                     .fromJson(decodedBlock, InvitationMessage.RFC0067_TYPE);
@@ -18,12 +18,15 @@
 package org.hyperledger.bpa.impl.aries.connection;
 
 import io.micronaut.context.annotation.Requires;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.context.env.Environment;
 import io.micronaut.core.util.CollectionUtils;
 import io.micronaut.core.util.StringUtils;
 import io.micronaut.scheduling.annotation.Scheduled;
 import jakarta.inject.Inject;
+import jakarta.inject.Named;
 import jakarta.inject.Singleton;
+import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 import org.hyperledger.aries.AriesClient;
 import org.hyperledger.aries.api.connection.ConnectionState;
@@ -31,17 +34,33 @@ import org.hyperledger.aries.api.exception.AriesException;
 import org.hyperledger.aries.api.trustping.PingEvent;
 import org.hyperledger.aries.api.trustping.PingEventState;
 import org.hyperledger.aries.api.trustping.PingRequest;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
+import org.hyperledger.bpa.impl.util.RatePacer;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.hyperledger.bpa.persistence.repository.PartnerRepository;
 
 import java.io.IOException;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutorService;
 import java.util.stream.StreamSupport;
 
+/**
+ * Sends trust pings to all active partners that have the ping feature enabled.
+ * Partners are spread over a wheel of {@code bpa.ping.slots} slots by their
+ * connection id, and on every tick only the partners of the current slot are
+ * pinged. This means every partner is pinged once per rotation (tick * slots),
+ * while the load on aca-py is spread evenly over the rotation instead of being
+ * sent as one burst. Pings of a slot are sent concurrently on the ping
+ * executor, bound by its threads and paced by {@code bpa.ping.rate-per-second}.
+ * Responses are evaluated one rotation later and written back with one batched
+ * update per resulting state.
+ */
 @Slf4j
 @Singleton
 @Requires(notEnv = { Environment.TEST })
@@ -57,15 +76,22 @@ public class PingManager {
     @Inject
     PartnerRepository repo;
 
-    private boolean firstRun;
+    @Value("${bpa.ping.slots:6}")
+    int slots;
 
-    public PingManager() {
-        super();
-        this.firstRun = true;
-    }
+    @Value("${bpa.ping.rate-per-second:100}")
+    int ratePerSecond;
+
+    @Inject
+    @Named(TaskExecutorFactory.PING)
+    ExecutorService executor;
 
-    // threadId, connectionId
-    private final Map<String, String> sent = new ConcurrentHashMap<>();
+    private final RatePacer pacer = new RatePacer();
+
+    private int currentSlot;
+
+    // threadId, sent ping
+    private final Map<String, SentPing> sent = new ConcurrentHashMap<>();
 
     // threadId, state
     private final Map<String, PingEventState> received = new ConcurrentHashMap<>();
@@ -76,60 +102,115 @@ public class PingManager {
         }
     }
 
-    @Scheduled(fixedDelay = "1m", initialDelay = "90s") // init delay needs to be > than aca-py connection timeout
+    // init delay needs to be > than aca-py connection timeout
+    @Scheduled(fixedDelay = "${bpa.ping.tick:10s}", initialDelay = "90s")
     void checkConnections() {
         try {
+            int slot = nextSlot();
             List<String> connectionsToPing = repo
                     .findByStateInAndTrustPingTrueAndAriesSupportTrue(statesToFilter)
-                    .stream().map(Partner::getConnectionId).collect(Collectors.toList());
+                    .stream()
+                    .map(Partner::getConnectionId)
+                    .filter(Objects::nonNull)
+                    .filter(connectionId -> slotOf(connectionId) == slot)
+                    .toList();
+            setNewState(slot);
             if (CollectionUtils.isNotEmpty(connectionsToPing)) {
-                if (!firstRun) {
-                    setNewState();
-                }
-                sendPingToConnections(connectionsToPing);
-            }
-            if (firstRun) {
-                firstRun = false;
+                sendPingToConnections(connectionsToPing, slot);
             }
         } catch (Exception e) {
             log.error("Trust ping job failed.", e);
         }
     }
 
-    private void setNewState() {
-        sent.forEach((k, v) -> {
-            ConnectionState state;
-            if (received.containsKey(k)) {
-                state = ConnectionState.PING_RESPONSE;
-                repo.updateStateAndLastSeenByConnectionId(v, state, Instant.now());
+    /**
+     * Evaluates the pings that were sent to the given slot one rotation ago, and
+     * writes the resulting states back in batches. Rows that are already in the
+     * target state are filtered by the database.
+     *
+     * @param slot the wheel slot
+     */
+    private void setNewState(int slot) {
+        List<String> responded = new ArrayList<>();
+        List<String> notResponded = new ArrayList<>();
+        sent.entrySet().removeIf(e -> {
+            if (e.getValue().slot() != slot) {
+                return false;
+            }
+            if (received.remove(e.getKey()) != null) {
+                responded.add(e.getValue().connectionId());
             } else {
-                state = ConnectionState.PING_NO_RESPONSE;
-                repo.updateStateByConnectionId(v, state);
+                notResponded.add(e.getValue().connectionId());
             }
+            return true;
         });
-        sent.clear();
-        received.clear();
+        // responses to pings we do not know (anymore)
+        received.keySet().removeIf(threadId -> !sent.containsKey(threadId));
+        updateStates(responded, notResponded);
     }
 
-    private void sendPingToConnections(List<String> connectionsToPing) {
-        try {
-            for (String connectionId : connectionsToPing) {
-                log.debug("Sending ping to: {}", connectionId);
-                try {
-                    aries.connectionsSendPing(connectionId, new PingRequest(connectionId))
-                            .ifPresent(resp -> sent.put(resp.getThreadId(), connectionId));
-                } catch (AriesException e) {
-                    if (e.getCode() == 404) {
-                        log.error("Connection id {} exists in the BPA but not in aca-py", connectionId);
-                        repo.updateStateByConnectionId(connectionId, ConnectionState.PING_NO_RESPONSE);
-                    } else {
-                        log.error("Could not send ping request to connection {}", connectionId, e);
+    private void updateStates(List<String> responded, List<String> notResponded) {
+        if (CollectionUtils.isNotEmpty(responded)) {
+            repo.updateStateAndLastSeenByConnectionIdIn(responded, ConnectionState.PING_RESPONSE, Instant.now());
+        }
+        if (CollectionUtils.isNotEmpty(notResponded)) {
+            repo.updateStateByConnectionIdIn(notResponded, ConnectionState.PING_NO_RESPONSE);
+        }
+    }
+
+    private void sendPingToConnections(List<String> connectionsToPing, int slot) {
+        List<String> unknown = new ArrayList<>();
+        CompletableFuture.allOf(connectionsToPing
+                .stream()
+                .map(connectionId -> CompletableFuture.runAsync(() -> {
+                    if (!sendPing(connectionId, slot)) {
+                        synchronized (unknown) {
+                            unknown.add(connectionId);
+                        }
                     }
-                }
+                }, executor))
+                .toArray(CompletableFuture[]::new))
+                .join();
+        updateStates(List.of(), unknown);
+    }
+
+    /**
+     * @param connectionId the connection to ping
+     * @param slot         the wheel slot the connection belongs to
+     * @return false if the connection does not exist in aca-py
+     */
+    private boolean sendPing(@NonNull String connectionId, int slot) {
+        log.debug("Sending ping to: {}", connectionId);
+        try {
+            pacer.acquire(ratePerSecond);
+            aries.connectionsSendPing(connectionId, new PingRequest(connectionId))
+                    .ifPresent(resp -> sent.put(resp.getThreadId(), new SentPing(connectionId, slot)));
+        } catch (AriesException e) {
+            if (e.getCode() == 404) {
+                log.error("Connection id {} exists in the BPA but not in aca-py", connectionId);
+                return false;
             }
+            log.error("Could not send ping request to connection {}", connectionId, e);
         } catch (IOException e) {
-            log.error("Could not ping active connections, because aca-py is not available", e);
+            log.error("Could not ping connection {}, because aca-py is not available", connectionId, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        return true;
+    }
+
+    private synchronized int nextSlot() {
+        int slot = currentSlot % wheelSize();
+        currentSlot = (slot + 1) % wheelSize();
+        return slot;
+    }
+
+    int slotOf(@NonNull String connectionId) {
+        return Math.floorMod(connectionId.hashCode(), wheelSize());
+    }
+
+    private int wheelSize() {
+        return Math.max(1, slots);
     }
 
     int getSentSize() {
@@ -163,4 +244,7 @@ public class PingManager {
         }
 
     }
+
+    private record SentPing(String connectionId, int slot) {
+    }
 }
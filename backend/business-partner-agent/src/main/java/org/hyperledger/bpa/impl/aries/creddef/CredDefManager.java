@@ -29,6 +29,7 @@ import org.hyperledger.bpa.api.aries.SchemaAPI;
 import org.hyperledger.bpa.api.exception.IssuerException;
 import org.hyperledger.bpa.api.exception.NetworkException;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
+import org.hyperledger.bpa.client.CachingAriesClient;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.config.RuntimeConfig;
 import org.hyperledger.bpa.controller.api.issuer.CredDef;
@@ -48,6 +49,9 @@ public class CredDefManager {
     @Inject
     AriesClient ac;
 
+    @Inject
+    CachingAriesClient acaCache;
+
     @Inject
     SchemaService schemaService;
 
@@ -74,7 +78,7 @@ public class CredDefManager {
         try {
             String sId = StringUtils.strip(schemaId);
             String t = StringUtils.trim(tag);
-            Optional<SchemaSendResponse.Schema> ariesSchema = ac.schemasGetById(sId);
+            Optional<SchemaSendResponse.Schema> ariesSchema = acaCache.schemasGetById(sId);
             if (ariesSchema.isEmpty()) {
                 throw new WrongApiUsageException(msg.getMessage("api.schema.restriction.schema.not.found.on.ledger",
                         Map.of("id", sId)));
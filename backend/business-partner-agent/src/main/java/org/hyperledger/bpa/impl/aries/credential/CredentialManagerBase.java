@@ -34,6 +34,7 @@ import org.hyperledger.bpa.api.exception.EntityNotFoundException;
 import org.hyperledger.bpa.api.exception.NetworkException;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.issuer.CredEx;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.util.Converter;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.Partner;
@@ -64,6 +65,9 @@ public abstract class CredentialManagerBase {
     @Inject
     Converter conv;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     /**
      * If there is a problem during the credential exchange and aca-py is started
      * without the option to preserve exchange records, the record is deleted
@@ -87,6 +91,7 @@ public abstract class CredentialManagerBase {
                 credEx.pushStates(CredentialExchangeState.PROBLEM, Instant.now());
                 issuerCredExRepo.updateAfterEventNoRevocationInfo(credEx.getId(), credEx.getState(),
                         credEx.getStateToTimestamp(), msg.getMessage("api.credential.no.match"));
+                lifecycle.track(credEx);
                 throw new EntityNotFoundException();
             }
             throw e;
@@ -40,6 +40,7 @@ import org.hyperledger.aries.api.issue_credential_v2.V2CredentialExchangeFree;
 import org.hyperledger.aries.api.issue_credential_v2.V2ToV1IndyCredentialConverter;
 import org.hyperledger.bpa.api.aries.SchemaAPI;
 import org.hyperledger.bpa.impl.activity.LabelStrategy;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.aries.schema.SchemaService;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.BPASchema;
@@ -67,6 +68,9 @@ public class HolderIndyManager {
     @Inject
     LabelStrategy labelStrategy;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     @Inject
     @Setter(AccessLevel.PACKAGE)
     SchemaService schemaService;
@@ -122,6 +126,7 @@ public class HolderIndyManager {
                         cred.pushStates(CredentialExchangeState.CREDENTIAL_REVOKED, Instant.now());
                         holderCredExRepo.updateRevoked(cred.getId(), Boolean.TRUE, cred.getState(),
                                 cred.getStateToTimestamp());
+                        lifecycle.track(cred);
                         log.debug("Credential with referent id: {} has been revoked", cred.getReferent());
                     }
                 });
@@ -150,6 +155,7 @@ public class HolderIndyManager {
                             .setLabel(label)
                             .setIssuer(issuer);
                     holderCredExRepo.update(dbCred);
+                    lifecycle.track(dbCred);
 
                 });
     }
@@ -39,7 +39,6 @@ import org.hyperledger.aries.api.issue_credential_v2.V2ToV1IndyCredentialConvert
 import org.hyperledger.aries.api.jsonld.VerifiableCredential;
 import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
 import org.hyperledger.aries.api.revocation.RevocationNotificationEvent;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.api.CredentialType;
 import org.hyperledger.bpa.api.aries.AriesCredential;
 import org.hyperledger.bpa.api.aries.ProfileVC;
@@ -54,7 +53,7 @@ import org.hyperledger.bpa.impl.aries.jsonld.VPManager;
 import org.hyperledger.bpa.impl.aries.wallet.Identity;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
 import org.hyperledger.bpa.impl.util.Converter;
-import org.hyperledger.bpa.impl.util.CryptoUtil;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.BPASchema;
@@ -185,6 +184,7 @@ public class HolderManager extends CredentialManagerBase {
         BPACredentialExchange dbEx = getCredentialExchange(id);
         dbEx.pushStates(CredentialExchangeState.DECLINED, Instant.now());
         holderCredExRepo.updateStates(dbEx.getId(), dbEx.getState(), dbEx.getStateToTimestamp(), message);
+        lifecycle.track(dbEx);
         declineCredentialExchange(dbEx, message);
     }
 
@@ -281,6 +281,7 @@ public class HolderManager extends CredentialManagerBase {
                     .setIssuer(resolveIssuer(db.getPartner()))
                     .pushStates(credEx.getState(), TimeUtil.fromISOInstant(credEx.getUpdatedAt()));
             holderCredExRepo.update(db);
+            lifecycle.track(db);
             fireCredentialAddedEvent(db);
         });
     }
@@ -304,8 +305,9 @@ public class HolderManager extends CredentialManagerBase {
         holderCredExRepo.findByCredentialExchangeId(credExBase.getCredentialExchangeId()).ifPresentOrElse(db -> {
             db.pushStates(credExBase.getState());
             holderCredExRepo.updateOnCredentialOfferEvent(db.getId(), db.getState(), db.getStateToTimestamp(), payload);
+            lifecycle.track(db);
             // if offer equals proposal send request immediately
-            if (CryptoUtil.hashCompare(db.getCredentialProposal(), payload)) {
+            if (db.getCredentialProposal() != null && db.getCredentialProposal().sameAttributes(payload)) {
                 sendCredentialRequest(db.getId());
             }
         }, () -> partnerRepo.findByConnectionId(credExBase.getConnectionId()).ifPresent(p -> {
@@ -355,7 +357,8 @@ public class HolderManager extends CredentialManagerBase {
                         ? CredentialExchangeState.PROBLEM
                         : state;
                 db.pushStates(s, updatedAt);
-                holderCredExRepo.updateStates(db.getId(), db.getState(), db.getStateToTimestamp(), errorMsg);
+                holderCredExRepo.appendStates(db, errorMsg);
+                lifecycle.track(db);
             }
         });
     }
@@ -368,6 +371,7 @@ public class HolderManager extends CredentialManagerBase {
                     credEx.pushStates(CredentialExchangeState.CREDENTIAL_REVOKED, Instant.now());
                     holderCredExRepo.updateRevoked(credEx.getId(), true, credEx.getState(),
                             credEx.getStateToTimestamp());
+                    lifecycle.track(credEx);
                 });
     }
 
@@ -410,7 +414,7 @@ public class HolderManager extends CredentialManagerBase {
                 Optional<VerifiableCredential.VerifiableIndyCredential> profile = vp.getVerifiableCredential()
                         .stream().filter(ic -> ic.getType().contains("OrganizationalProfileCredential")).findAny();
                 if (profile.isPresent() && profile.get().getCredentialSubject() != null) {
-                    ProfileVC pVC = GsonConfig.jacksonBehaviour().fromJson(profile.get().getCredentialSubject(),
+                    ProfileVC pVC = JsonCodec.GSON_JACKSON.fromJson(profile.get().getCredentialSubject(),
                             ProfileVC.class);
                     issuer = pVC.getLegalName();
                 }
@@ -44,6 +44,7 @@ import org.hyperledger.bpa.api.exception.WrongApiUsageException;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.issuer.CredEx;
 import org.hyperledger.bpa.controller.api.issuer.IssueCredentialRequest;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.util.Converter;
 import org.hyperledger.bpa.persistence.model.BPACredentialDefinition;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
@@ -79,6 +80,9 @@ public class IssuerIndyManager {
     @Inject
     IssuerCredExRepository issuerCredExRepo;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     @Inject
     Converter conv;
 
@@ -181,6 +185,7 @@ public class IssuerIndyManager {
             credEx.setRevoked(Boolean.TRUE);
             credEx.pushStates(CredentialExchangeState.CREDENTIAL_REVOKED);
             issuerCredExRepo.update(credEx);
+            lifecycle.track(credEx);
             return CredEx.from(credEx);
         } catch (IOException e) {
             throw new NetworkException(msg.getMessage("acapy.unavailable"), e);
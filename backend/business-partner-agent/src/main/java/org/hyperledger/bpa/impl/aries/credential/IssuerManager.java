@@ -185,6 +185,7 @@ public class IssuerManager extends CredentialManagerBase {
                 credEx.pushStates(CredentialExchangeState.PROBLEM);
                 issuerCredExRepo.updateAfterEventNoRevocationInfo(
                         credEx.getId(), credEx.getState(), credEx.getStateToTimestamp(), message);
+                lifecycle.track(credEx);
                 throw new WrongApiUsageException(message);
             }
             throw e;
@@ -206,6 +207,7 @@ public class IssuerManager extends CredentialManagerBase {
         issuerCredExRepo.updateAfterEventNoRevocationInfo(credEx.getId(), credEx.getState(),
                 credEx.getStateToTimestamp(),
                 message);
+        lifecycle.track(credEx);
         declineCredentialExchange(credEx, message);
     }
 
@@ -291,12 +293,14 @@ public class IssuerManager extends CredentialManagerBase {
                 if (notDeclined) {
                     issuerCredExRepo.updateAfterEventNoRevocationInfo(bpaEx.getId(),
                             bpaEx.getState(), bpaEx.getStateToTimestamp(), ex.getErrorMsg());
+                    lifecycle.track(bpaEx);
                     fireCredentialProblemEvent(bpaEx);
                 }
             } else {
                 issuerCredExRepo.updateAfterEventWithRevocationInfo(bpaEx.getId(),
                         bpaEx.getState(), bpaEx.getStateToTimestamp(),
                         ex.getRevocRegId(), ex.getRevocationId(), ex.getErrorMsg());
+                lifecycle.track(bpaEx);
             }
             if (ex.stateIsCredentialAcked() && ex.autoIssueEnabled()) {
                 ex.findAttributesInCredentialOfferDict().ifPresent(
@@ -326,6 +330,7 @@ public class IssuerManager extends CredentialManagerBase {
                 db.pushStates(ex.getState(), ex.getUpdatedAt());
                 issuerCredExRepo.updateAfterEventNoRevocationInfo(db.getId(),
                         db.getState(), db.getStateToTimestamp(), ex.getErrorMsg());
+                lifecycle.track(db);
             } catch (IOException e) {
                 log.error(msg.getMessage("acapy.unavailable"));
             }
@@ -359,6 +364,7 @@ public class IssuerManager extends CredentialManagerBase {
                         bpaEx.pushStates(state, ex.getUpdatedAt());
                         issuerCredExRepo.updateAfterEventNoRevocationInfo(bpaEx.getId(),
                                 bpaEx.getState(), bpaEx.getStateToTimestamp(), ex.getErrorMsg());
+                        lifecycle.track(bpaEx);
                         if (ex.stateIsCredentialIssued() && ex.autoIssueEnabled()) {
                             if (ex.payloadIsIndy()) {
                                 ex.getByFormat().findValuesInIndyCredIssue().ifPresent(
@@ -30,7 +30,6 @@ import org.hyperledger.aries.api.credentials.Credential;
 import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeRole;
 import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeState;
 import org.hyperledger.aries.api.issue_credential_v1.V1CredentialFreeOfferHelper;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.api.exception.EntityNotFoundException;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
 import org.hyperledger.bpa.config.BPAMessageSource;
@@ -40,6 +39,7 @@ import org.hyperledger.bpa.controller.api.issuer.IssueOOBCredentialRequest;
 import org.hyperledger.bpa.impl.activity.DocumentValidator;
 import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
 import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 import org.hyperledger.bpa.persistence.model.BPACredentialDefinition;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.Partner;
@@ -114,7 +114,7 @@ public class OOBCredentialOffer {
         V1CredentialFreeOfferHelper.CredentialFreeOffer freeOffer = h
                 .buildFreeOffer(dbCredDef.getCredentialDefinitionId(), document);
 
-        log.debug("{}", GsonConfig.defaultNoEscaping().toJson(freeOffer));
+        log.debug("{}", JsonCodec.GSON_NO_ESCAPING.toJson(freeOffer));
 
         Partner p = persistPartner(freeOffer.getInvitationRecord(), req.getAlias(), req.getTrustPing(), req.getTag());
         persistCredentialExchange(freeOffer, document, dbCredDef, p);
@@ -144,7 +144,7 @@ public class OOBCredentialOffer {
         }
         // getInvitationUrl() has an encoding issue
         byte[] envelopeBase64 = Base64.getEncoder().encode(
-                GsonConfig.defaultNoEscaping().toJson(
+                JsonCodec.GSON_NO_ESCAPING.toJson(
                         ex.getInvitationRecord().getInvitation()).getBytes(StandardCharsets.UTF_8));
         return "didcomm://" + host + "?oob=" + new String(envelopeBase64, StandardCharsets.UTF_8);
     }
@@ -33,6 +33,7 @@ import org.hyperledger.aries.api.issue_credential_v2.V2CredentialExchangeFree;
 import org.hyperledger.bpa.api.CredentialType;
 import org.hyperledger.bpa.api.aries.SchemaAPI;
 import org.hyperledger.bpa.impl.activity.LabelStrategy;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.aries.schema.SchemaService;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.BPASchema;
@@ -67,6 +68,9 @@ public class HolderLDManager {
     @Inject
     LabelStrategy labelStrategy;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     @Inject
     LDContextHelper ldHelper;
 
@@ -121,5 +125,6 @@ public class HolderLDManager {
                 .setIssuer(issuer)
                 .setLabel(label);
         holderCredExRepo.update(dbCred);
+        lifecycle.track(dbCred);
     }
 }
\ No newline at end of file
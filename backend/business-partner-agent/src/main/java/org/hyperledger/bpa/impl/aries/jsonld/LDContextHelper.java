@@ -25,12 +25,12 @@ import lombok.NonNull;
 import org.hyperledger.aries.api.issue_credential_v2.V20CredExRecordByFormat;
 import org.hyperledger.aries.api.issue_credential_v2.V2CredentialExchangeFree;
 import org.hyperledger.aries.api.jsonld.VerifiableCredential;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.api.CredentialType;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.impl.activity.DocumentValidator;
 import org.hyperledger.bpa.impl.aries.wallet.Identity;
 import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.BPARestrictions;
 import org.hyperledger.bpa.persistence.model.BPASchema;
@@ -86,7 +86,7 @@ public class LDContextHelper {
                 .ldProof(V2CredentialExchangeFree.LDProofVCDetail.builder()
                         .credential(VerifiableCredential.builder()
                                 .context(List.of(CredentialType.JSON_LD.getContext().get(0), bpaSchema.getSchemaId()))
-                                .credentialSubject(GsonConfig.defaultConfig().toJsonTree(document).getAsJsonObject())
+                                .credentialSubject(JsonCodec.GSON.toJsonTree(document).getAsJsonObject())
                                 .issuanceDate(TimeUtil.toISOInstantTruncated(Instant.now()))
                                 .issuer(issuer ? identity.getMyDid() : findIssuerDidOrFallback(bpaSchema))
                                 .type(List.of(CredentialType.JSON_LD.getType().get(0),
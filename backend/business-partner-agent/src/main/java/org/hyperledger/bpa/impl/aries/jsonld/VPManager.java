@@ -34,14 +34,15 @@ import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCrede
 import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCredential.VerifiableIndyCredentialBuilder;
 import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
 import org.hyperledger.aries.api.jsonld.VerifiablePresentation.VerifiablePresentationBuilder;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.aries.config.TimeUtil;
 import org.hyperledger.bpa.api.ApiConstants;
 import org.hyperledger.bpa.api.CredentialType;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.impl.aries.schema.SchemaService;
 import org.hyperledger.bpa.impl.aries.wallet.Identity;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
 import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.DidDocWeb;
 import org.hyperledger.bpa.persistence.model.MyDocument;
@@ -96,7 +97,7 @@ public class VPManager {
         signVP(vcs);
     }
 
-    @Async
+    @Async(TaskExecutorFactory.SIGNING)
     public void signVP(List<VerifiableIndyCredential> vcs) {
         final VerifiablePresentationBuilder<VerifiableIndyCredential> vpBuilder = VerifiablePresentation.builder();
         if (vcs.size() > 0) {
@@ -120,7 +121,7 @@ public class VPManager {
 
         // this is needed because the java client serializes with GSON
         // and cannot handle Jackson ObjectNode
-        JsonObject subj = GsonConfig.defaultConfig().fromJson(on.toString(), JsonObject.class);
+        JsonObject subj = JsonCodec.toGsonObject(on);
 
         List<String> types = new ArrayList<>(doc.getType().getType());
         if (doc.typeIsJsonLd() && doc.getSchema() != null && doc.getSchema().getLdType() != null) {
@@ -165,7 +166,7 @@ public class VPManager {
                 .credDefId(ariesCred.getCredentialDefinitionId())
                 .label(cred.getLabel())
                 .indyIssuer(id.getDidPrefix() + AriesStringUtil.credDefIdGetDid(ariesCred.getCredentialDefinitionId()))
-                .credentialSubject(GsonConfig.defaultConfig().toJsonTree(ariesCred.getAttrs()).getAsJsonObject());
+                .credentialSubject(JsonCodec.GSON.toJsonTree(ariesCred.getAttrs()).getAsJsonObject());
         return builder.build();
     }
 
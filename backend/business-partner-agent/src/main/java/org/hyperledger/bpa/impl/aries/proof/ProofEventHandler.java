@@ -31,6 +31,7 @@ import org.hyperledger.bpa.api.notification.PresentationRequestCompletedEvent;
 import org.hyperledger.bpa.api.notification.PresentationRequestDeclinedEvent;
 import org.hyperledger.bpa.api.notification.PresentationRequestReceivedEvent;
 import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.PartnerProof;
 import org.hyperledger.bpa.persistence.repository.PartnerProofRepository;
@@ -52,6 +53,9 @@ public class ProofEventHandler {
     @Inject
     ProofManager proofManager;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     @Inject
     ApplicationEventPublisher eventPublisher;
 
@@ -85,7 +89,8 @@ public class ProofEventHandler {
                 pp -> {
                     if (exchange.getState() != null) {
                         pp.pushStates(exchange.getState(), exchange.getUpdatedAt());
-                        pProofRepo.update(pp);
+                        pProofRepo.appendState(pp);
+                        lifecycle.track(pp);
                     }
                 },
                 () -> partnerRepo.findByConnectionId(exchange.getConnectionId())
@@ -131,7 +136,8 @@ public class ProofEventHandler {
                                         "Present_Proof: state=request_received on PresentationExchange where " +
                                                 "initator=self, responding immediately");
                                 pProof.pushStates(proof.getState(), proof.getUpdatedAt());
-                                pProofRepo.update(pProof);
+                                pProofRepo.appendState(pProof);
+                                lifecycle.track(pProof);
                                 if (proof.getAutoPresent() == null || !proof.getAutoPresent()) {
                                     proofManager.presentProofAcceptSelected(proof, null, pProof.getExchangeVersion());
                                 }
@@ -163,6 +169,7 @@ public class ProofEventHandler {
             pp.pushStates(PresentationExchangeState.DECLINED, exchange.getUpdatedAt());
             pp.setProblemReport(errorMsg);
             pProofRepo.update(pp);
+            lifecycle.track(pp);
             eventPublisher.publishEventAsync(
                     PresentationRequestDeclinedEvent.builder().partnerProof(pp).build());
         });
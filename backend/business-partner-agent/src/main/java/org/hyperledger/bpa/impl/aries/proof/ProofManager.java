@@ -41,11 +41,13 @@ import org.hyperledger.bpa.api.aries.AriesProofExchange;
 import org.hyperledger.bpa.api.exception.*;
 import org.hyperledger.bpa.api.notification.PresentationRequestDeclinedEvent;
 import org.hyperledger.bpa.api.notification.PresentationRequestSentEvent;
+import org.hyperledger.bpa.client.CachingAriesClient;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.partner.ApproveProofRequest;
 import org.hyperledger.bpa.controller.api.partner.RequestProofRequest;
 import org.hyperledger.bpa.controller.api.proof.PresentationRequestCredentials;
 import org.hyperledger.bpa.impl.activity.DidResolver;
+import org.hyperledger.bpa.impl.aries.ExchangeLifecycleTracker;
 import org.hyperledger.bpa.impl.aries.credential.CredentialInfoResolver;
 import org.hyperledger.bpa.impl.aries.prooftemplates.ProofTemplateConversion;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
@@ -74,6 +76,9 @@ public class ProofManager {
     @Inject
     AriesClient ac;
 
+    @Inject
+    CachingAriesClient acaCache;
+
     @Inject
     PartnerRepository partnerRepo;
 
@@ -89,6 +94,9 @@ public class ProofManager {
     @Inject
     DidResolver didRes;
 
+    @Inject
+    ExchangeLifecycleTracker lifecycle;
+
     @Inject
     ApplicationEventPublisher eventPublisher;
 
@@ -109,9 +117,21 @@ public class ProofManager {
     // request proof from partner via proof template
     public void sendPresentProofRequest(@NonNull UUID partnerId, @NonNull @Valid BPAProofTemplate proofTemplate,
             @NonNull ExchangeVersion version) {
+        sendPresentProofRequest(partnerId,
+                proofTemplateConversion.proofRequestViaVisitorFrom(partnerId, proofTemplate), proofTemplate, version);
+    }
+
+    // request proof from an already loaded partner via proof template, used for
+    // bulk requests
+    public void sendPresentProofRequest(@NonNull Partner partner, @NonNull @Valid BPAProofTemplate proofTemplate,
+            @NonNull ExchangeVersion version) {
+        sendPresentProofRequest(partner.getId(),
+                proofTemplateConversion.proofRequestFor(partner, proofTemplate), proofTemplate, version);
+    }
+
+    private void sendPresentProofRequest(@NonNull UUID partnerId, @NonNull PresentProofRequest proofRequest,
+            @NonNull BPAProofTemplate proofTemplate, @NonNull ExchangeVersion version) {
         try {
-            PresentProofRequest proofRequest = proofTemplateConversion.proofRequestViaVisitorFrom(partnerId,
-                    proofTemplate);
             // the proofTemplate does not contain the proof request Non-Revocation value, if
             // that was not part of the template and set during proof request creation.
             // using null for issuerId and schemaId because the template could have multiple
@@ -145,7 +165,7 @@ public class ProofManager {
             }
             if (req.isRequestBySchema()) {
                 String schemaId = req.getRequestBySchema().getSchemaId();
-                final Schema schema = ac.schemasGetById(schemaId)
+                final Schema schema = acaCache.schemasGetById(schemaId)
                         .orElseThrow(() -> new PartnerException(ms
                                 .getMessage("api.schema.restriction.schema.not.found.on.ledger",
                                         Map.of("id", schemaId))));
@@ -245,6 +265,7 @@ public class ProofManager {
                 }
                 proofEx.pushStates(PresentationExchangeState.DECLINED);
                 pProofRepo.update(proofEx);
+                lifecycle.track(proofEx);
                 sendPresentProofProblemReport(proofEx.getPresentationExchangeId(), message,
                         proofEx.getExchangeVersion());
                 eventPublisher
@@ -344,6 +365,7 @@ public class ProofManager {
                         ? conv.toMap(proof.findRevealedAttributeGroups())
                         : conv.revealedAttrsToGroup(proof.findRevealedAttributedFull(), proof.getIdentifiers()));
         final PartnerProof savedProof = pProofRepo.update(pp);
+        lifecycle.track(pp);
         didRes.resolveDid(savedProof, proof.getIdentifiers());
         return savedProof;
     }
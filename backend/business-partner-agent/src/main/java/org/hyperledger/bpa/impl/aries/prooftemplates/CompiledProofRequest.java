@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.prooftemplates;
+
+import io.micronaut.core.annotation.NonNull;
+import org.hyperledger.aries.api.present_proof.PresentProofRequest.ProofRequest;
+import org.hyperledger.aries.api.present_proof.PresentProofRequest.ProofRequest.ProofNonRevoked;
+import org.hyperledger.aries.api.present_proof.PresentProofRequest.ProofRequest.ProofRequestedAttributes;
+import org.hyperledger.aries.api.present_proof.PresentProofRequest.ProofRequest.ProofRequestedPredicates;
+import org.hyperledger.bpa.persistence.model.BPAProofTemplate;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Proof request skeleton of a {@link BPAProofTemplate}, everything except the
+ * non-revocation timestamp is resolved once. Entries that do not request
+ * non-revocation are shared between all requests that are created from it.
+ */
+class CompiledProofRequest {
+
+    private final ProofRequest skeleton;
+
+    CompiledProofRequest(@NonNull ProofRequest skeleton) {
+        this.skeleton = skeleton;
+    }
+
+    /**
+     * @param timestamp epoch seconds of the non-revocation interval
+     * @return {@link ProofRequest} that can be sent to a partner
+     */
+    ProofRequest apply(long timestamp) {
+        ProofNonRevoked nonRevoked = ProofNonRevoked.builder().from(timestamp).to(timestamp).build();
+        return new ProofRequest(
+                skeleton.getName(),
+                skeleton.getVersion(),
+                skeleton.getNonce(),
+                skeleton.getNonRevoked() != null ? nonRevoked : null,
+                applyToAttributes(nonRevoked),
+                applyToPredicates(nonRevoked));
+    }
+
+    private Map<String, ProofRequestedAttributes> applyToAttributes(ProofNonRevoked nonRevoked) {
+        if (skeleton.getRequestedAttributes() == null) {
+            return null;
+        }
+        Map<String, ProofRequestedAttributes> result = new LinkedHashMap<>();
+        skeleton.getRequestedAttributes().forEach((k, a) -> result.put(k, a.getNonRevoked() == null ? a
+                : new ProofRequestedAttributes(a.getName(), a.getNames(), nonRevoked, a.getRestrictions())));
+        return result;
+    }
+
+    private Map<String, ProofRequestedPredicates> applyToPredicates(ProofNonRevoked nonRevoked) {
+        if (skeleton.getRequestedPredicates() == null) {
+            return null;
+        }
+        Map<String, ProofRequestedPredicates> result = new LinkedHashMap<>();
+        skeleton.getRequestedPredicates().forEach((k, p) -> result.put(k, p.getNonRevoked() == null ? p
+                : new ProofRequestedPredicates(p.getName(), nonRevoked, p.getPType(), p.getPValue(),
+                        p.getRestrictions())));
+        return result;
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.prooftemplates;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.util.CollectionUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.aries.api.ExchangeVersion;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequest;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequestStatus;
+import org.hyperledger.bpa.impl.aries.proof.ProofManager;
+import org.hyperledger.bpa.impl.util.BulkJob;
+import org.hyperledger.bpa.impl.util.BulkJobs;
+import org.hyperledger.bpa.persistence.model.BPAProofTemplate;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Sends one proof template to many partners. The template is compiled once, a
+ * fixed number of workers then take partners from a shared queue, so at most
+ * concurrency requests are in flight against aca-py at any time.
+ */
+@Slf4j
+@Singleton
+public class ProofTemplateBulkSender {
+
+    static final String BULK_REQUEST_CACHE = "proof-bulk-request-cache";
+
+    @Value("${bpa.proof.bulk.concurrency:8}")
+    int concurrency;
+
+    @Inject
+    @Named(TaskExecutorFactory.BULK)
+    ExecutorService executor;
+
+    @Inject
+    PartnerRepository partnerRepo;
+
+    @Inject
+    ProofManager proofManager;
+
+    @Inject
+    CacheManager<?> cacheManager;
+
+    private BulkJobs<Job> jobs;
+
+    @PostConstruct
+    void init() {
+        jobs = new BulkJobs<>(cacheManager, BULK_REQUEST_CACHE, Job.class, executor);
+    }
+
+    BulkProofRequestStatus start(@NonNull BPAProofTemplate template, @NonNull BulkProofRequest request) {
+        Map<UUID, Partner> partners = new LinkedHashMap<>();
+        if (CollectionUtils.isNotEmpty(request.getPartnerIds())) {
+            partnerRepo.findByIdIn(request.getPartnerIds()).forEach(p -> partners.put(p.getId(), p));
+        }
+        if (CollectionUtils.isNotEmpty(request.getTagIds())) {
+            partnerRepo.findByTagIdIn(request.getTagIds()).forEach(p -> partners.putIfAbsent(p.getId(), p));
+        }
+        Queue<Partner> queue = new ConcurrentLinkedQueue<>();
+        partners.values().stream().filter(Partner::hasConnectionId).forEach(queue::add);
+
+        ExchangeVersion version = request.getExchangeVersion() != null ? request.getExchangeVersion()
+                : ExchangeVersion.V1;
+        Job job = new Job(template.getId(), queue.size(), partners.size() - queue.size());
+        log.info("Bulk proof request: {}, template: {}, partners: {}, skipped: {}",
+                job.getId(), template.getId(), job.getTotal(), job.getSkipped());
+
+        return jobs.run(job, queue, concurrency, p -> send(p, template, version, job),
+                () -> log.info("Bulk proof request: {} done, sent: {}, failed: {}",
+                        job.getId(), job.getSucceeded(), job.getFailed()))
+                .status();
+    }
+
+    Optional<BulkProofRequestStatus> status(@NonNull UUID id) {
+        return jobs.get(id).map(Job::status);
+    }
+
+    private void send(Partner p, BPAProofTemplate template, ExchangeVersion version, Job job) {
+        try {
+            proofManager.sendPresentProofRequest(p, template, version);
+            job.sent();
+        } catch (Exception e) {
+            job.failed();
+            log.warn("Bulk proof request: {}, could not send to partner: {}, {}", job.getId(), p.getId(),
+                    e.getMessage());
+        }
+    }
+
+    private static final class Job extends BulkJob<BulkProofRequestStatus> {
+        private final UUID templateId;
+
+        Job(UUID templateId, int total, int skipped) {
+            super(total);
+            this.templateId = templateId;
+            countSkipped(skipped);
+        }
+
+        void sent() {
+            countSucceeded();
+        }
+
+        void failed() {
+            countFailed();
+        }
+
+        @Override
+        protected BulkProofRequestStatus toStatus() {
+            return BulkProofRequestStatus.builder()
+                    .id(getId().toString())
+                    .templateId(templateId.toString())
+                    .state(isDone() ? BulkProofRequestStatus.State.DONE : BulkProofRequestStatus.State.RUNNING)
+                    .total(getTotal())
+                    .sent(getSucceeded())
+                    .failed(getFailed())
+                    .skipped(getSkipped())
+                    .startedAt(startedAtMillis())
+                    .finishedAt(finishedAtMillis())
+                    .build();
+        }
+    }
+}
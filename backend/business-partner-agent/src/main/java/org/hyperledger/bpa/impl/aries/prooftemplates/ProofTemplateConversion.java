@@ -17,6 +17,7 @@
  */
 package org.hyperledger.bpa.impl.aries.prooftemplates;
 
+import io.micronaut.cache.CacheManager;
 import io.micronaut.core.annotation.NonNull;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -36,15 +37,22 @@ import org.jetbrains.annotations.NotNull;
 
 import javax.validation.Valid;
 import java.time.Clock;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 @Slf4j
 @Singleton
 public class ProofTemplateConversion {
 
+    public static final String PROOF_REQUEST_CACHE = "proof-request-cache";
+
+    @Inject
+    CacheManager<?> cacheManager;
+
     @Inject
     PartnerRepository partnerRepo;
 
@@ -63,25 +71,59 @@ public class ProofTemplateConversion {
         final Partner partner = partnerRepo.findById(partnerId)
                 .orElseThrow(
                         () -> new PartnerException(ms.getMessage("api.partner.not.found", Map.of("id", partnerId))));
+        return proofRequestFor(partner, proofTemplate);
+    }
+
+    /**
+     * Applies the partner's connection id and the current non-revocation timestamp
+     * to the compiled template
+     *
+     * @param partner       {@link Partner}
+     * @param proofTemplate {@link BPAProofTemplate}
+     * @return {@link PresentProofRequest}
+     */
+    @NonNull
+    public PresentProofRequest proofRequestFor(@NonNull Partner partner,
+            @NonNull @Valid BPAProofTemplate proofTemplate) {
         if (!partner.hasConnectionId()) {
             throw new PartnerException(ms.getMessage("api.partner.no.connection"));
         }
+        return PresentProofRequest.builder()
+                .proofRequest(compile(proofTemplate).apply(new RevocationTimeStampProvider(clock).get()))
+                .connectionId(partner.getConnectionId())
+                .build();
+    }
+
+    /**
+     * Templates are immutable, so a persisted template is only compiled once.
+     * Unsaved templates are compiled on every call.
+     */
+    CompiledProofRequest compile(@NonNull BPAProofTemplate proofTemplate) {
+        if (proofTemplate.getId() == null) {
+            return doCompile(proofTemplate);
+        }
+        return cacheManager.getCache(PROOF_REQUEST_CACHE)
+                .get(proofTemplate.getId(), CompiledProofRequest.class, () -> doCompile(proofTemplate));
+    }
+
+    private CompiledProofRequest doCompile(@NonNull BPAProofTemplate proofTemplate) {
+        // every attribute group is visited twice, resolve its schema only once
+        Map<String, Optional<String>> ledgerSchemaIds = new HashMap<>();
+        Function<String, Optional<String>> resolve = id -> ledgerSchemaIds.computeIfAbsent(id,
+                this::resolveLedgerSchemaId);
 
         ProofTemplateElementVisitor proofTemplateElementVisitor = new ProofTemplateElementVisitor(
-                this::resolveLedgerSchemaId,
+                resolve,
                 new RevocationTimeStampProvider(clock));
 
         proofTemplateElementVisitor.visit(proofTemplate);
         proofTemplate.streamAttributeGroups()
                 .forEach(proofTemplateElementVisitor::visit);
         proofTemplate.streamAttributeGroups()
-                .flatMap(this::pairSchemaIdWithAttributes)
+                .flatMap(ag -> pairSchemaIdWithAttributes(ag, resolve))
                 .forEach(proofTemplateElementVisitor::visit);
 
-        return PresentProofRequest.builder()
-                .proofRequest(proofTemplateElementVisitor.getResult())
-                .connectionId(partner.getConnectionId())
-                .build();
+        return new CompiledProofRequest(proofTemplateElementVisitor.getResult());
     }
 
     private Optional<String> resolveLedgerSchemaId(String databaseSchemaId) {
@@ -89,8 +131,9 @@ public class ProofTemplateConversion {
     }
 
     @NotNull
-    private Stream<Pair<String, BPAAttribute>> pairSchemaIdWithAttributes(@NonNull BPAAttributeGroup ag) {
-        Optional<Pair.PairBuilder<String, BPAAttribute>> pairBuilder = resolveLedgerSchemaId(ag.getSchemaId())
+    private Stream<Pair<String, BPAAttribute>> pairSchemaIdWithAttributes(@NonNull BPAAttributeGroup ag,
+            @NonNull Function<String, Optional<String>> resolveLedgerSchemaId) {
+        Optional<Pair.PairBuilder<String, BPAAttribute>> pairBuilder = resolveLedgerSchemaId.apply(ag.getSchemaId())
                 .map(Pair.<String, BPAAttribute>builder()::left);
         return pairBuilder.map(
                 pair -> ag.getAttributes().stream()
@@ -17,6 +17,7 @@
  */
 package org.hyperledger.bpa.impl.aries.prooftemplates;
 
+import io.micronaut.cache.annotation.CacheInvalidate;
 import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.exceptions.DataAccessException;
 import jakarta.inject.Inject;
@@ -27,6 +28,8 @@ import org.hyperledger.aries.api.ExchangeVersion;
 import org.hyperledger.bpa.api.exception.DataPersistenceException;
 import org.hyperledger.bpa.api.exception.ProofTemplateException;
 import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequest;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequestStatus;
 import org.hyperledger.bpa.impl.aries.proof.ProofManager;
 import org.hyperledger.bpa.persistence.model.BPAProofTemplate;
 import org.hyperledger.bpa.persistence.model.prooftemplate.ValueOperators;
@@ -50,6 +53,9 @@ public class ProofTemplateManager {
     @Inject
     BPAMessageSource.DefaultMessageSource ms;
 
+    @Inject
+    ProofTemplateBulkSender bulkSender;
+
     public void invokeProofRequestByTemplate(@NonNull UUID id, @NonNull UUID partnerId) {
         invokeProofRequestByTemplate(id, partnerId, null);
     }
@@ -63,6 +69,17 @@ public class ProofTemplateManager {
         proofManager.sendPresentProofRequest(partnerId, proofTemplate, version);
     }
 
+    public BulkProofRequestStatus invokeProofRequestByTemplate(@NonNull UUID id, @NonNull BulkProofRequest request) {
+        BPAProofTemplate proofTemplate = repo.findById(id)
+                .orElseThrow(() -> new ProofTemplateException(
+                        ms.getMessage("api.proof.template.not.found", Map.of("id", id))));
+        return bulkSender.start(proofTemplate, request);
+    }
+
+    public Optional<BulkProofRequestStatus> getBulkProofRequestStatus(@NonNull UUID id) {
+        return bulkSender.status(id);
+    }
+
     public Optional<BPAProofTemplate> getProofTemplate(@NonNull UUID id) {
         return repo.findById(id);
     }
@@ -75,6 +92,7 @@ public class ProofTemplateManager {
         return StreamSupport.stream(repo.findAll().spliterator(), false);
     }
 
+    @CacheInvalidate(ProofTemplateConversion.PROOF_REQUEST_CACHE)
     public void removeProofTemplate(@NonNull UUID templateId) {
         try {
             repo.deleteById(templateId);
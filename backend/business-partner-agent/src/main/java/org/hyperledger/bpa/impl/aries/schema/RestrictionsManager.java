@@ -27,10 +27,10 @@ import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.*;
 import lombok.extern.slf4j.Slf4j;
-import org.hyperledger.aries.AriesClient;
 import org.hyperledger.aries.api.exception.AriesException;
 import org.hyperledger.bpa.api.exception.EntityNotFoundException;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
+import org.hyperledger.bpa.client.CachingAriesClient;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.controller.api.admin.TrustedIssuer;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
@@ -57,7 +57,7 @@ public class RestrictionsManager {
 
     @Inject
     @Setter(AccessLevel.PACKAGE)
-    AriesClient ac;
+    CachingAriesClient ac;
 
     @Inject
     BPARestrictionsRepository repo;
@@ -36,11 +36,14 @@ import org.hyperledger.bpa.api.exception.EntityNotFoundException;
 import org.hyperledger.bpa.api.exception.NetworkException;
 import org.hyperledger.bpa.api.exception.SchemaException;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
+import org.hyperledger.bpa.client.CachingAriesClient;
 import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.config.SchemaConfig;
 import org.hyperledger.bpa.controller.api.admin.AddTrustedIssuerRequest;
 import org.hyperledger.bpa.impl.aries.wallet.Identity;
 import org.hyperledger.bpa.impl.util.AriesStringUtil;
+import org.hyperledger.bpa.impl.util.CryptoUtil;
+import org.hyperledger.bpa.impl.util.JsonCodec;
 import org.hyperledger.bpa.persistence.model.BPASchema;
 import org.hyperledger.bpa.persistence.repository.BPASchemaRepository;
 
@@ -61,6 +64,9 @@ public class SchemaService {
     @Inject
     AriesClient ac;
 
+    @Inject
+    CachingAriesClient acaCache;
+
     @Inject
     RestrictionsManager restrictionsManager;
 
@@ -131,7 +137,7 @@ public class SchemaService {
         }
 
         try {
-            Optional<SchemaSendResponse.Schema> ariesSchema = ac.schemasGetById(sId);
+            Optional<SchemaSendResponse.Schema> ariesSchema = acaCache.schemasGetById(sId);
             if (ariesSchema.isPresent()) {
                 LinkedHashSet<String> schemaAttributeNames = new LinkedHashSet<>(ariesSchema.get().getAttrNames());
                 validateDefaultAttribute(defaultAttributeName, schemaAttributeNames);
@@ -224,7 +230,7 @@ public class SchemaService {
     public Set<String> getSchemaAttributeNames(@NonNull String schemaId) {
         Set<String> result = new LinkedHashSet<>();
         try {
-            final Optional<SchemaSendResponse.Schema> schema = ac
+            final Optional<SchemaSendResponse.Schema> schema = acaCache
                     .schemasGetById(schemaId);
             if (schema.isPresent()) {
                 result = new LinkedHashSet<>(schema.get().getAttrNames());
@@ -248,23 +254,44 @@ public class SchemaService {
         return result;
     }
 
-    public void resetWriteOnlySchemas() {
+    /**
+     * Adds all configured schemas that do not exist yet.
+     *
+     * @return true if all configured schemas exist afterwards
+     */
+    public boolean resetWriteOnlySchemas() {
+        boolean complete = true;
         for (SchemaConfig schema : schemas) {
-            schemaRepo.findBySchemaId(schema.getId()).ifPresentOrElse(
-                    dbSchema -> log.debug("Schema with id {} already exists", schema.getId()),
-                    () -> {
-                        try {
-                            SchemaAPI schemaAPI = addIndySchema(schema.getId(), schema.getLabel(),
-                                    schema.getDefaultAttributeName());
-                            if (schemaAPI != null) {
-                                restrictionsManager.addRestriction(
-                                        schemaAPI.getId(), schema.getRestrictions());
-                            }
-                        } catch (Exception e) {
-                            log.warn("Could not add schema id: {}", schema.getId(), e);
-                        }
-                    });
+            if (schemaRepo.findBySchemaId(schema.getId()).isPresent()) {
+                log.debug("Schema with id {} already exists", schema.getId());
+                continue;
+            }
+            try {
+                SchemaAPI schemaAPI = addIndySchema(schema.getId(), schema.getLabel(),
+                        schema.getDefaultAttributeName());
+                if (schemaAPI != null) {
+                    restrictionsManager.addRestriction(
+                            schemaAPI.getId(), schema.getRestrictions());
+                } else {
+                    complete = false;
+                }
+            } catch (Exception e) {
+                log.warn("Could not add schema id: {}", schema.getId(), e);
+                complete = false;
+            }
         }
+        return complete;
+    }
+
+    /**
+     * @return hash over the configured schemas, changes if any schema, label or
+     *         restriction in the configuration changes
+     */
+    public @Nullable String configuredSchemasHash() {
+        List<SchemaConfig> sorted = schemas.stream()
+                .sorted(Comparator.comparing(SchemaConfig::getName))
+                .toList();
+        return CryptoUtil.toSHA256Hex(JsonCodec.GSON.toJson(sorted));
     }
 
     void validateDefaultAttribute(@Nullable String defaultAttributeName, @NonNull Set<String> attributes) {
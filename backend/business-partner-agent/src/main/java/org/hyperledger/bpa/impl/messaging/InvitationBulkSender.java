@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.messaging;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.context.annotation.Value;
+import jakarta.annotation.PostConstruct;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.lang3.StringUtils;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationRequest;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationStatus;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationStatus.RowState;
+import org.hyperledger.bpa.controller.api.partner.CreatePartnerInvitationRequest;
+import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
+import org.hyperledger.bpa.impl.messaging.email.EmailCmd;
+import org.hyperledger.bpa.impl.messaging.email.EmailOutbox;
+import org.hyperledger.bpa.impl.util.BulkJobs;
+import org.hyperledger.bpa.impl.util.BulkRowJob;
+import org.hyperledger.bpa.impl.util.RatePacer;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Invites many recipients by email. A fixed number of workers create the
+ * invitations in aca-py, paced so that the agent is not flooded. Each partner
+ * is saved right after its invitation was created, so that the connection
+ * events of aca-py find it instead of adding a second partner. Only the
+ * invitation mails are collected and handed to the {@link EmailOutbox} in
+ * batches, the outbox then sends them within the limits of the mail provider.
+ * If only the mails could not be handed over, the rows keep their partner so
+ * that the invitations can be sent again.
+ */
+@Slf4j
+@Singleton
+public class InvitationBulkSender {
+
+    static final String BULK_INVITATION_CACHE = "bulk-invitation-cache";
+
+    @Value("${bpa.invitation.bulk.concurrency:8}")
+    int concurrency;
+
+    @Value("${bpa.invitation.bulk.invitations-per-second:20}")
+    int invitationsPerSecond;
+
+    @Value("${bpa.invitation.bulk.batch-size:50}")
+    int batchSize;
+
+    @Inject
+    @Named(TaskExecutorFactory.BULK)
+    ExecutorService executor;
+
+    @Inject
+    ConnectionManager cm;
+
+    @Inject
+    PartnerRepository partnerRepo;
+
+    @Inject
+    EmailOutbox outbox;
+
+    @Inject
+    CacheManager<?> cacheManager;
+
+    private final RatePacer pacer = new RatePacer();
+
+    private BulkJobs<Job> jobs;
+
+    @PostConstruct
+    void init() {
+        jobs = new BulkJobs<>(cacheManager, BULK_INVITATION_CACHE, Job.class, executor);
+    }
+
+    /**
+     * @param request {@link BulkInvitationRequest}
+     * @param subject mail subject
+     * @param body    renders the mail body for an invitation url
+     * @return {@link BulkInvitationStatus}
+     */
+    BulkInvitationStatus start(@NonNull BulkInvitationRequest request, @NonNull String subject,
+            @NonNull UnaryOperator<String> body) {
+        Job job = new Job(request.getRecipients(), subject, body);
+        Set<String> seen = new HashSet<>();
+        Queue<Integer> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < job.recipients.size(); i++) {
+            String email = StringUtils.trimToNull(job.recipients.get(i).getEmail());
+            if (email == null || !email.contains("@")) {
+                job.fail(i, "invalid email");
+            } else if (!seen.add(email.toLowerCase(Locale.ROOT))) {
+                job.skip(i, RowState.DUPLICATE, null);
+            } else {
+                queue.add(i);
+            }
+        }
+        log.info("Bulk invitation: {}, recipients: {}, to invite: {}", job.getId(), job.getTotal(), queue.size());
+
+        return jobs.run(job, queue, concurrency, i -> invite(i, request, job), () -> {
+            List<Mail> rest = job.flush();
+            if (!rest.isEmpty()) {
+                enqueue(job, rest);
+            }
+            log.info("Bulk invitation: {} done, queued: {}, skipped: {}, failed: {}",
+                    job.getId(), job.getSucceeded(), job.getSkipped(), job.getFailed());
+        }).status();
+    }
+
+    Optional<BulkInvitationStatus> status(@NonNull UUID id) {
+        return jobs.get(id).map(Job::status);
+    }
+
+    private void invite(int i, BulkInvitationRequest request, Job job) {
+        BulkInvitationRequest.Recipient recipient = job.recipients.get(i);
+        try {
+            CreatePartnerInvitationRequest invitation = new CreatePartnerInvitationRequest();
+            invitation.setAlias(StringUtils.defaultIfBlank(recipient.getAlias(), recipient.getEmail().trim()));
+            invitation.setTag(request.getTag());
+            invitation.setTrustPing(request.getTrustPing());
+            invitation.setUseOutOfBand(request.getUseOutOfBand());
+            invitation.setUsePublicDid(request.getUsePublicDid());
+            pacer.acquire(invitationsPerSecond);
+            Partner partner = save(job, cm.prepareInvitation(invitation));
+            EmailCmd mail = EmailCmd.builder()
+                    .to(recipient.getEmail().trim())
+                    .subject(job.subject)
+                    .textBody(job.body.apply(partner.getInvitationRecord().getInvitationUrl()))
+                    .build();
+            List<Mail> full = job.buffer(new Mail(i, partner.getId(), mail), batchSize);
+            if (full != null) {
+                enqueue(job, full);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            job.fail(i, "interrupted");
+        } catch (Exception e) {
+            job.fail(i, e.getMessage());
+            log.warn("Bulk invitation: {}, could not create invitation: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Saves the partner, if that fails its connection is removed again so that it
+     * is not left behind in aca-py
+     */
+    private Partner save(Job job, Partner partner) {
+        try {
+            return partnerRepo.save(partner);
+        } catch (RuntimeException e) {
+            if (partner.getConnectionId() != null) {
+                log.warn("Bulk invitation: {}, removing connection of unsaved partner: {}", job.getId(),
+                        partner.getAlias());
+                cm.removeConnection(partner.getConnectionId());
+            }
+            throw e;
+        }
+    }
+
+    private void enqueue(Job job, List<Mail> mails) {
+        try {
+            outbox.enqueueAll(mails.stream().map(Mail::cmd).collect(Collectors.toList()));
+        } catch (Exception e) {
+            log.error("Bulk invitation: {}, saved {} invitations but could not queue their mails",
+                    job.getId(), mails.size(), e);
+            mails.forEach(m -> job.fail(m.row(), RowState.NOT_SENT, m.partnerId(), e.getMessage()));
+            return;
+        }
+        mails.forEach(m -> job.succeed(m.row(), RowState.QUEUED, m.partnerId()));
+    }
+
+    private record Mail(int row, UUID partnerId, EmailCmd cmd) {
+    }
+
+    private static final class Job extends BulkRowJob<RowState, BulkInvitationStatus> {
+        private final List<BulkInvitationRequest.Recipient> recipients;
+        private final String subject;
+        private final UnaryOperator<String> body;
+        private final List<Mail> unsent = new ArrayList<>();
+
+        Job(List<BulkInvitationRequest.Recipient> recipients, String subject, UnaryOperator<String> body) {
+            super(recipients.size(), RowState.PENDING, RowState.FAILED);
+            this.recipients = List.copyOf(recipients);
+            this.subject = subject;
+            this.body = body;
+        }
+
+        /**
+         * Adds a mail to the outbox buffer
+         *
+         * @return the mails to queue if the buffer reached the batch size, or null
+         */
+        synchronized List<Mail> buffer(Mail mail, int batchSize) {
+            unsent.add(mail);
+            return unsent.size() < batchSize ? null : flush();
+        }
+
+        /**
+         * @return the mails that are still in the outbox buffer
+         */
+        synchronized List<Mail> flush() {
+            List<Mail> batch = new ArrayList<>(unsent);
+            unsent.clear();
+            return batch;
+        }
+
+        @Override
+        protected BulkInvitationStatus toStatus() {
+            return BulkInvitationStatus.builder()
+                    .id(getId().toString())
+                    .state(isDone() ? BulkInvitationStatus.State.DONE : BulkInvitationStatus.State.RUNNING)
+                    .total(getTotal())
+                    .queued(getSucceeded())
+                    .skipped(getSkipped())
+                    .failed(getFailed())
+                    .startedAt(startedAtMillis())
+                    .finishedAt(finishedAtMillis())
+                    .recipients(rows((i, state, partnerId, message) -> BulkInvitationStatus.Row.builder()
+                            .email(recipients.get(i).getEmail())
+                            .alias(recipients.get(i).getAlias())
+                            .state(state)
+                            .partnerId(partnerId)
+                            .message(message)
+                            .build()))
+                    .build();
+        }
+    }
+}
@@ -19,9 +19,15 @@ package org.hyperledger.bpa.impl.messaging;
 
 import com.github.jknack.handlebars.Handlebars;
 import com.github.jknack.handlebars.Template;
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import io.micronaut.context.annotation.Value;
 import io.micronaut.core.annotation.Nullable;
+import io.micronaut.core.type.Argument;
 import io.micronaut.data.exceptions.DataAccessException;
 import io.micronaut.runtime.event.annotation.EventListener;
+import io.micronaut.scheduling.annotation.Async;
+import jakarta.annotation.PostConstruct;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
 import lombok.NonNull;
@@ -33,11 +39,15 @@ import org.hyperledger.bpa.api.notification.CredentialProposalEvent;
 import org.hyperledger.bpa.api.notification.PartnerRequestReceivedEvent;
 import org.hyperledger.bpa.api.notification.PresentationRequestReceivedEvent;
 import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.controller.api.messaging.AdHocMessageRequest;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationRequest;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationStatus;
 import org.hyperledger.bpa.controller.api.messaging.MessageTemplateCmd;
 import org.hyperledger.bpa.controller.api.messaging.MessageTriggerConfigCmd;
 import org.hyperledger.bpa.controller.api.messaging.MessageUserInfoCmd;
 import org.hyperledger.bpa.impl.messaging.email.EmailCmd;
+import org.hyperledger.bpa.impl.messaging.email.EmailOutbox;
 import org.hyperledger.bpa.impl.messaging.email.EmailService;
 import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.Partner;
@@ -51,6 +61,7 @@ import org.hyperledger.bpa.persistence.repository.messaging.MessageTriggerConfig
 import org.hyperledger.bpa.persistence.repository.messaging.MessageUserInfoRepository;
 
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -82,6 +93,28 @@ public class MessagingManager {
     @Inject
     PartnerRepository partnerRepo;
 
+    @Inject
+    EmailOutbox outbox;
+
+    @Inject
+    InvitationBulkSender bulkSender;
+
+    @Value("${bpa.invitation.bulk.max-recipients:5000}")
+    int bulkMaxRecipients;
+
+    @Inject
+    CacheManager<?> cacheManager;
+
+    private SyncCache<?> triggerCache;
+
+    private SyncCache<?> templateCache;
+
+    @PostConstruct
+    void init() {
+        triggerCache = cacheManager.getCache("mail-trigger-cache");
+        templateCache = cacheManager.getCache("mail-template-cache");
+    }
+
     // crud message templates
 
     public List<MessageTemplateCmd.ApiMessageTemplate> listMessageTemplates() {
@@ -101,11 +134,13 @@ public class MessagingManager {
 
     public void updateMessageTemplate(@NonNull UUID id, @Nullable String subject, @NonNull String template) {
         messageTemplate.updateTemplateInfo(id, subject, template);
+        invalidateCaches();
     }
 
     public void deleteTemplateInfo(@NonNull UUID id) {
         try {
             messageTemplate.deleteById(id);
+            invalidateCaches();
         } catch (DataAccessException e) {
             log.error("Could not delete message template", e);
             throw new WrongApiUsageException(ms.getMessage("mail.template.constrain.violation"));
@@ -130,11 +165,13 @@ public class MessagingManager {
 
     public void updateUserInfo(@NonNull UUID id, @Nullable String label, @NonNull String sendTo) {
         userInfo.updateUserInfo(id, label, sendTo);
+        triggerCache.invalidateAll();
     }
 
     public void deleteUserInfo(@NonNull UUID id) {
         try {
             userInfo.deleteById(id);
+            triggerCache.invalidateAll();
         } catch (DataAccessException e) {
             log.error("Could not delete user info", e);
             throw new WrongApiUsageException(ms.getMessage("mail.user.info.constrain.violation"));
@@ -151,12 +188,14 @@ public class MessagingManager {
 
     public MessageTriggerConfigCmd.ApiTriggerConfig addTriggerConfig(@NonNull MessageTrigger trigger,
             @Nullable UUID messageTemplateId, @NonNull UUID userInfoId) {
-        return MessageTriggerConfigCmd.ApiTriggerConfig.fromMessageTriggerConfig(triggerConfig.save(MessageTriggerConfig
+        MessageTriggerConfig saved = triggerConfig.save(MessageTriggerConfig
                 .builder()
                 .trigger(trigger)
                 .template(messageTemplateId != null ? MessageTemplate.builder().id(messageTemplateId).build() : null)
                 .userInfo(MessageUserInfo.builder().id(userInfoId).build())
-                .build()));
+                .build());
+        triggerCache.invalidateAll();
+        return MessageTriggerConfigCmd.ApiTriggerConfig.fromMessageTriggerConfig(saved);
     }
 
     public void updateTriggerConfig(@NonNull UUID id, @NonNull MessageTrigger trigger, @Nullable UUID messageTemplateId,
@@ -164,10 +203,12 @@ public class MessagingManager {
         triggerConfig.updateTriggerConfig(id, trigger,
                 MessageTemplate.builder().id(messageTemplateId).build(),
                 MessageUserInfo.builder().id(userInfoId).build());
+        triggerCache.invalidateAll();
     }
 
     public void deleteTriggerConfig(@NonNull UUID id) {
         triggerConfig.deleteById(id);
+        triggerCache.invalidateAll();
     }
 
     // invitation
@@ -213,30 +254,72 @@ public class MessagingManager {
                 .build());
     }
 
+    /**
+     * Creates an invitation for every recipient and queues the invitation mails,
+     * runs in the background.
+     *
+     * @param request {@link BulkInvitationRequest}
+     * @return {@link BulkInvitationStatus}
+     */
+    public BulkInvitationStatus sendBulkInvitation(@NonNull BulkInvitationRequest request) {
+        if (emailService.isEmpty()) {
+            throw new IllegalStateException(ms.getMessage("mail.error.no.email.provider"));
+        }
+        if (request.getRecipients().size() > bulkMaxRecipients) {
+            throw new WrongApiUsageException(ms.getMessage("mail.error.too.many.recipients",
+                    Map.of("max", bulkMaxRecipients)));
+        }
+        MessageTemplate t = null;
+        if (request.getTemplateId() != null) {
+            t = messageTemplate.findById(request.getTemplateId()).orElseThrow(EntityNotFoundException::new);
+        }
+        String subject = t != null && StringUtils.isNotEmpty(t.getSubject()) ? t.getSubject()
+                : ms.getMessage("mail.default.notification.subject");
+        MessageTemplate template = t;
+        return bulkSender.start(request, subject, uri -> resolveAdHocMessageBody(uri, template));
+    }
+
+    public Optional<BulkInvitationStatus> getBulkInvitationStatus(@NonNull UUID id) {
+        return bulkSender.status(id);
+    }
+
     // event handler
 
     @EventListener
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onCredentialProposalEvent(CredentialProposalEvent event) {
         findAndSend(MessageTrigger.CREDENTIAL_PROPOSAL);
     }
 
     @EventListener
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPresentationRequestEvent(PresentationRequestReceivedEvent event) {
         findAndSend(MessageTrigger.PRESENTATION_REQUEST);
     }
 
     @EventListener
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     public void onPartnerRequestEvent(PartnerRequestReceivedEvent event) {
         findAndSend(MessageTrigger.CONNECTION_REQUEST);
     }
 
     private void findAndSend(@NonNull MessageTrigger trigger) {
-        emailService.ifPresent(mailer -> {
-            String defaultSubject = ms.getMessage("mail.default.event.subject");
-            triggerConfig.findByTrigger(trigger)
-                    .parallelStream()
-                    .forEach(t -> mailer.send(t.toEmailCmd(defaultSubject, resolveEventMessageBody(trigger, t))));
-        });
+        if (emailService.isEmpty()) {
+            return;
+        }
+        String defaultSubject = ms.getMessage("mail.default.event.subject");
+        findTriggerConfigs(trigger)
+                .forEach(t -> outbox.enqueue(t.toEmailCmd(defaultSubject, resolveEventMessageBody(trigger, t)), true));
+    }
+
+    List<MessageTriggerConfig> findTriggerConfigs(@NonNull MessageTrigger trigger) {
+        return triggerCache.get(trigger, Argument.listOf(MessageTriggerConfig.class),
+                () -> triggerConfig.findByTrigger(trigger));
+    }
+
+    private void invalidateCaches() {
+        triggerCache.invalidateAll();
+        templateCache.invalidateAll();
     }
 
     private String resolveEventMessageBody(@NonNull MessageTrigger trigger, @NonNull MessageTriggerConfig t) {
@@ -260,10 +343,24 @@ public class MessagingManager {
     private String compileTemplate(@NonNull MessageTemplate t, @NonNull Map<String, Object> model,
             @NonNull String defaultBody) {
         try {
-            Template template = handlebars.compileInline(t.getTemplate());
+            Template template = templateCache.get(new TemplateKey(t.getId(), t.getUpdatedAt(), t.getTemplate()),
+                    Template.class, () -> {
+                        try {
+                            return handlebars.compileInline(t.getTemplate());
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
             return template.apply(model);
-        } catch (IOException e) {
+        } catch (IOException | UncheckedIOException e) {
             return defaultBody;
         }
     }
+
+    /**
+     * Compiled templates are cached per id and version, the source is part of the
+     * key because partial updates do not necessarily bump the update timestamp.
+     */
+    private record TemplateKey(@Nullable UUID id, @Nullable Instant version, @Nullable String source) {
+    }
 }
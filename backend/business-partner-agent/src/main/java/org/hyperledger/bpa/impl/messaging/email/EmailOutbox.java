@@ -0,0 +1,304 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.messaging.email;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.scheduling.annotation.Scheduled;
+import jakarta.inject.Inject;
+import jakarta.inject.Named;
+import jakarta.inject.Singleton;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
+import org.hyperledger.bpa.impl.util.RatePacer;
+import org.hyperledger.bpa.persistence.model.messaging.EmailOutboxEntry;
+import org.hyperledger.bpa.persistence.repository.messaging.EmailOutboxRepository;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Persistent queue of outgoing emails. Callers only write to the outbox, the
+ * mails are sent by a single worker on the {@link TaskExecutorFactory#MAIL}
+ * executor, so a slow or unavailable mail provider never blocks event
+ * processing. Failed mails are retried with exponential backoff until the max
+ * attempts are reached. In digest mode, mails to the same recipient that are
+ * enqueued within the digest window are merged into one mail.
+ */
+@Slf4j
+@Singleton
+public class EmailOutbox implements MeterBinder {
+
+    private static final Duration MAX_BACKOFF = Duration.ofHours(6);
+
+    @Value("${bpa.mail.outbox.batch-size:50}")
+    int batchSize;
+
+    @Value("${bpa.mail.outbox.max-attempts:8}")
+    int maxAttempts;
+
+    @Value("${bpa.mail.outbox.retry-backoff:1m}")
+    Duration retryBackoff;
+
+    /** How long a claimed mail is hidden from other workers */
+    @Value("${bpa.mail.outbox.lease:5m}")
+    Duration lease;
+
+    /** Mail provider limit, 0 means no limit */
+    @Value("${bpa.mail.outbox.rate-per-second:0}")
+    int ratePerSecond;
+
+    @Value("${bpa.mail.digest.enabled:false}")
+    boolean digestEnabled;
+
+    @Value("${bpa.mail.digest.window:5m}")
+    Duration digestWindow;
+
+    @Inject
+    Optional<EmailService> emailService;
+
+    @Inject
+    EmailOutboxRepository repo;
+
+    @Inject
+    BPAMessageSource.DefaultMessageSource ms;
+
+    @Inject
+    @Named(TaskExecutorFactory.MAIL)
+    ExecutorService executor;
+
+    private final RatePacer pacer = new RatePacer();
+
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final AtomicBoolean requested = new AtomicBoolean();
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder merged = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    /**
+     * Queues the mail and triggers the worker
+     *
+     * @param cmd    {@link EmailCmd}
+     * @param digest if the mail may be merged with other mails to the same
+     *               recipient, only has an effect if digest mode is enabled
+     */
+    public void enqueue(@NonNull EmailCmd cmd, boolean digest) {
+        Instant now = Instant.now();
+        String digestKey = digest && digestEnabled ? cmd.getTo() : null;
+        Instant due = digestKey == null ? now
+                : repo.findPendingDigest(digestKey).orElse(now.plus(digestWindow));
+        repo.save(EmailOutboxEntry.builder()
+                .sendTo(cmd.getTo())
+                .subject(cmd.getSubject())
+                .textBody(cmd.getTextBody())
+                .digestKey(digestKey)
+                .nextAttemptAt(due)
+                .build());
+        if (digestKey == null) {
+            trigger();
+        }
+    }
+
+    /**
+     * Queues many mails with one insert and triggers the worker once, mails queued
+     * this way are never merged into a digest.
+     *
+     * @param cmds {@link EmailCmd}s
+     */
+    public void enqueueAll(@NonNull List<EmailCmd> cmds) {
+        if (cmds.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        repo.saveAll(cmds.stream()
+                .map(cmd -> EmailOutboxEntry.builder()
+                        .sendTo(cmd.getTo())
+                        .subject(cmd.getSubject())
+                        .textBody(cmd.getTextBody())
+                        .nextAttemptAt(now)
+                        .build())
+                .collect(Collectors.toList()));
+        trigger();
+    }
+
+    @Scheduled(fixedDelay = "${bpa.mail.outbox.poll:15s}", initialDelay = "${bpa.mail.outbox.poll:15s}")
+    void poll() {
+        trigger();
+    }
+
+    @Scheduled(fixedDelay = "6h", initialDelay = "10m")
+    void deleteFailed() {
+        repo.deleteFailedBefore(Instant.now().minus(Duration.ofDays(30)));
+    }
+
+    /**
+     * Starts the worker if it is not running, otherwise makes the running worker do
+     * another round.
+     */
+    void trigger() {
+        if (emailService.isEmpty()) {
+            return;
+        }
+        requested.set(true);
+        if (draining.compareAndSet(false, true)) {
+            try {
+                executor.execute(this::work);
+            } catch (RejectedExecutionException e) {
+                draining.set(false);
+                log.warn("Mail worker could not be started: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void work() {
+        try {
+            while (requested.getAndSet(false)) {
+                drain();
+            }
+        } catch (Exception e) {
+            log.error("Draining the email outbox failed", e);
+        } finally {
+            draining.set(false);
+        }
+        if (requested.get()) {
+            trigger();
+        }
+    }
+
+    void drain() {
+        EmailService mailer = emailService.orElseThrow();
+        List<EmailOutboxEntry> due;
+        boolean progress;
+        do {
+            due = repo.findDue(Instant.now(), batchSize);
+            progress = false;
+            Map<String, List<EmailOutboxEntry>> digests = new LinkedHashMap<>();
+            for (EmailOutboxEntry e : due) {
+                if (!claim(e)) {
+                    continue;
+                }
+                progress = true;
+                if (e.getDigestKey() == null) {
+                    send(mailer, List.of(e));
+                } else {
+                    digests.computeIfAbsent(e.getDigestKey(), k -> new ArrayList<>()).add(e);
+                }
+            }
+            digests.values().forEach(d -> send(mailer, d));
+        } while (progress && due.size() == batchSize);
+    }
+
+    private boolean claim(@NonNull EmailOutboxEntry e) {
+        boolean claimed = repo.claim(e.getId(), e.getNextAttemptAt(), Instant.now().plus(lease)).intValue() == 1;
+        if (claimed) {
+            e.setAttempts(e.getAttempts() + 1);
+        }
+        return claimed;
+    }
+
+    private void send(@NonNull EmailService mailer, @NonNull List<EmailOutboxEntry> entries) {
+        try {
+            pacer.acquire(ratePerSecond);
+        } catch (InterruptedException e) {
+            // the claim expires and the mail is picked up again
+            Thread.currentThread().interrupt();
+            return;
+        }
+        try {
+            mailer.send(entries.size() == 1 ? entries.get(0).toEmailCmd() : merge(entries));
+            repo.deleteAll(entries);
+            sent.increment();
+            merged.add(entries.size() - 1L);
+        } catch (Exception ex) {
+            entries.forEach(e -> onFailure(e, ex));
+        }
+    }
+
+    EmailCmd merge(@NonNull List<EmailOutboxEntry> entries) {
+        return EmailCmd.builder()
+                .to(entries.get(0).getSendTo())
+                .subject(ms.getMessage("mail.digest.subject", Map.of("count", entries.size())))
+                .textBody(entries.stream()
+                        .sorted(Comparator.comparing(EmailOutboxEntry::getCreatedAt,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
+                        .map(EmailOutboxEntry::getTextBody)
+                        .collect(Collectors.joining("\n\n")))
+                .build();
+    }
+
+    private void onFailure(@NonNull EmailOutboxEntry e, @NonNull Exception ex) {
+        Instant next = null;
+        if (e.getAttempts() < maxAttempts) {
+            next = Instant.now().plus(backoff(e.getAttempts()));
+            retried.increment();
+            log.warn("Sending mail {} failed, attempt {} of {}: {}", e.getId(), e.getAttempts(), maxAttempts,
+                    ex.getMessage());
+        } else {
+            failed.increment();
+            log.error("Sending mail {} failed, giving up after {} attempts", e.getId(), e.getAttempts(), ex);
+        }
+        repo.updateFailed(e.getId(), next, String.valueOf(ex.getMessage()));
+    }
+
+    Duration backoff(int attempts) {
+        Duration d = retryBackoff.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 16));
+        return d.compareTo(MAX_BACKOFF) > 0 ? MAX_BACKOFF : d;
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        FunctionCounter.builder("bpa.mail.sent", sent, LongAdder::sum).register(registry);
+        FunctionCounter.builder("bpa.mail.merged", merged, LongAdder::sum).register(registry);
+        FunctionCounter.builder("bpa.mail.retried", retried, LongAdder::sum).register(registry);
+        FunctionCounter.builder("bpa.mail.failed", failed, LongAdder::sum).register(registry);
+    }
+
+    public Snapshot snapshot() {
+        return Snapshot.builder()
+                .sent(sent.sum())
+                .merged(merged.sum())
+                .retried(retried.sum())
+                .failed(failed.sum())
+                .build();
+    }
+
+    @Data
+    @Builder
+    public static final class Snapshot {
+        private long sent;
+        /** mails that were merged into a digest instead of being sent on their own */
+        private long merged;
+        private long retried;
+        private long failed;
+    }
+}
@@ -18,9 +18,6 @@
 package org.hyperledger.bpa.impl.messaging.websocket;
 
 import io.micronaut.context.annotation.Requires;
-import io.micronaut.core.util.CollectionUtils;
-import io.micronaut.scheduling.annotation.Scheduled;
-import io.micronaut.websocket.WebSocketBroadcaster;
 import io.micronaut.websocket.WebSocketSession;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -31,18 +28,13 @@ import org.hyperledger.bpa.impl.util.Converter;
 import org.hyperledger.bpa.persistence.repository.MessageQueueRepository;
 import org.slf4j.Logger;
 
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
-
 @Slf4j
 @Singleton
 @Requires(missingProperty = "micronaut.session.http.redis.enabled")
 public final class InMemoryMessageService implements MessageService {
 
     @Inject
-    WebSocketBroadcaster broadcaster;
+    WebSocketOutbox outbox;
 
     @Inject
     @Getter
@@ -52,39 +44,23 @@ public final class InMemoryMessageService implements MessageService {
     @Getter
     Converter conv;
 
-    private final Map<String, WebSocketSession> connected = new ConcurrentHashMap<>();
-
     public void subscribe(WebSocketSession session) {
-        connected.put(session.getId(), session);
+        outbox.register(session);
     }
 
     public void unsubscribe(WebSocketSession session) {
-        connected.remove(session.getId());
+        outbox.remove(session);
     }
 
     public boolean hasConnectedSessions() {
-        return CollectionUtils.isNotEmpty(connected);
+        return outbox.hasSessions();
     }
 
     public void send(WebSocketMessageBody message) {
-        broadcaster.broadcastSync(message);
+        outbox.offer(message);
     }
 
     public Logger getLog() {
         return log;
     }
-
-    @SuppressWarnings("unused")
-    @Scheduled(fixedDelay = "1h", initialDelay = "2m")
-    void cleanupStaleSessions() {
-        log.debug("Cleaning up stale websocket sessions.");
-        List<String> stale = new ArrayList<>();
-        connected.forEach((k, v) -> {
-            if (!v.isOpen()) {
-                stale.add(k);
-            }
-        });
-        log.debug("Found {} session(s), {} of them are stale.", connected.size(), stale.size());
-        stale.forEach(connected::remove);
-    }
-}
\ No newline at end of file
+}
@@ -19,6 +19,7 @@ package org.hyperledger.bpa.impl.messaging.websocket;
 
 import io.micronaut.scheduling.annotation.Async;
 import io.micronaut.websocket.WebSocketSession;
+import org.hyperledger.bpa.config.TaskExecutorFactory;
 import org.hyperledger.bpa.controller.api.WebSocketMessageBody;
 import org.hyperledger.bpa.impl.util.Converter;
 import org.hyperledger.bpa.persistence.model.MessageQueue;
@@ -48,7 +49,7 @@ public interface MessageService {
     }
 
     /** Called by impl */
-    @Async
+    @Async(TaskExecutorFactory.NOTIFICATIONS)
     default void sendMessage(WebSocketMessageBody message) {
         try {
             if (hasConnectedSessions()) {
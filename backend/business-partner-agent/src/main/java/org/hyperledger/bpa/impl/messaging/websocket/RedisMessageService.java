@@ -25,7 +25,6 @@ import io.lettuce.core.pubsub.StatefulRedisPubSubConnection;
 import io.micronaut.context.annotation.Requires;
 import io.micronaut.context.event.StartupEvent;
 import io.micronaut.runtime.event.annotation.EventListener;
-import io.micronaut.websocket.WebSocketBroadcaster;
 import io.micronaut.websocket.WebSocketSession;
 import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
@@ -40,8 +39,9 @@ import org.slf4j.Logger;
 /**
  * Simple messaging service implementation that broadcasts incoming events to a
  * channel. Each bpa instance publishes/subscribes events to the same channel,
- * incoming channel events are then broadcast to all connected websockets. TODO:
- * for multi tenancy channels need to be separated by tenant id.
+ * incoming channel events are then queued for all websockets connected to this
+ * instance, see {@link WebSocketOutbox}. TODO: for multi tenancy channels need
+ * to be separated by tenant id.
  */
 @Slf4j
 @Singleton
@@ -49,7 +49,7 @@ import org.slf4j.Logger;
 public final class RedisMessageService implements MessageService {
 
     @Inject
-    WebSocketBroadcaster broadcaster;
+    WebSocketOutbox outbox;
 
     @Inject
     @Getter
@@ -75,7 +75,7 @@ public final class RedisMessageService implements MessageService {
                 .doOnNext(pm -> {
                     log.debug("Reactive handler sending to channel: {}, message, {}", pm.getChannel(), pm.getMessage());
                     if (StringUtils.equals(pm.getChannel(), baseChannel())) {
-                        broadcaster.broadcastSync(pm.getMessage());
+                        outbox.offer(pm.getMessage());
                     }
                 })
                 .doOnError(e -> log.error("Error in reactive observer", e))
@@ -83,10 +83,12 @@ public final class RedisMessageService implements MessageService {
     }
 
     public void subscribe(WebSocketSession session) {
+        outbox.register(session);
         redis.sync().hset(baseChannel(), session.getId(), null);
     }
 
     public void unsubscribe(WebSocketSession session) {
+        outbox.remove(session);
         redis.sync().hdel(baseChannel(), session.getId());
     }
 
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.messaging.websocket;
+
+import com.fasterxml.jackson.core.JacksonException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micronaut.context.annotation.Value;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.http.MediaType;
+import io.micronaut.scheduling.annotation.Scheduled;
+import io.micronaut.websocket.CloseReason;
+import io.micronaut.websocket.WebSocketSession;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.controller.api.WebSocketMessageBody;
+import org.hyperledger.bpa.controller.api.WebSocketMessageBody.WebSocketMessageType;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers websocket notifications to the sessions connected to this instance.
+ * Every session has its own bounded queue that is written asynchronously, one
+ * frame at a time, so a stalled browser tab never blocks the caller or the
+ * other sessions. Queued notifications of the same type and link id are
+ * replaced by the newer one. A session whose queue overflows, or whose oldest
+ * notification waits longer than the max lag, is closed and has to reconnect.
+ */
+@Slf4j
+@Singleton
+public class WebSocketOutbox implements MeterBinder {
+
+    @Value("${bpa.websocket.queue-size:256}")
+    int queueSize;
+
+    @Value("${bpa.websocket.max-lag:30s}")
+    Duration maxLag;
+
+    @Inject
+    ObjectMapper mapper;
+
+    private final Map<String, SessionQueue> sessions = new ConcurrentHashMap<>();
+
+    private final LongAdder evicted = new LongAdder();
+
+    /** notifications lost because their session was evicted */
+    private final LongAdder dropped = new LongAdder();
+
+    public void register(@NonNull WebSocketSession session) {
+        sessions.put(session.getId(), new SessionQueue(session));
+    }
+
+    public void remove(@NonNull WebSocketSession session) {
+        sessions.remove(session.getId());
+    }
+
+    public boolean hasSessions() {
+        return !sessions.isEmpty();
+    }
+
+    public void offer(@NonNull WebSocketMessageBody body) {
+        try {
+            WebSocketMessageBody.WebSocketMessage m = body.getMessage();
+            offer(coalesceKey(m.getType(), m.getLinkId(), body.getId()), mapper.writeValueAsString(body));
+        } catch (JacksonException e) {
+            log.error("Could not serialize websocket message", e);
+        }
+    }
+
+    /**
+     * @param json serialized {@link WebSocketMessageBody}, e.g. received from
+     *             another instance
+     */
+    public void offer(@NonNull String json) {
+        String key = json;
+        try {
+            JsonNode body = mapper.readTree(json);
+            JsonNode m = body.path("message");
+            key = coalesceKey(m.hasNonNull("type") ? WebSocketMessageType.valueOf(m.get("type").asText()) : null,
+                    m.hasNonNull("linkId") ? m.get("linkId").asText() : null,
+                    body.path("id").asLong());
+        } catch (JacksonException | IllegalArgumentException e) {
+            log.warn("Unknown websocket message, sending without coalescing: {}", e.getMessage());
+        }
+        offer(key, json);
+    }
+
+    private void offer(String key, String json) {
+        long now = System.nanoTime();
+        sessions.values().forEach(q -> {
+            if (!q.session.isOpen()) {
+                sessions.remove(q.session.getId());
+            } else if (!q.enqueue(key, json, now)) {
+                evict(q, now);
+            } else {
+                q.drain();
+            }
+        });
+    }
+
+    private void evict(SessionQueue q, long now) {
+        log.warn("Evicting slow websocket session: {}, queued: {}, lag: {}ms", q.session.getId(), q.size(),
+                Duration.ofNanos(q.lag(now)).toMillis());
+        sessions.remove(q.session.getId());
+        evicted.increment();
+        dropped.add(q.size() + 1L);
+        try {
+            q.session.close(CloseReason.TRY_AGAIN_LATER);
+        } catch (Exception e) {
+            log.debug("Could not close websocket session: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Chat messages share the partner id as link id and must never replace each
+     * other, everything else is a state notification where only the latest counts.
+     */
+    static String coalesceKey(@Nullable WebSocketMessageType type, @Nullable String linkId, long id) {
+        if (type == null || linkId == null || WebSocketMessageType.ON_MESSAGE_RECEIVED.equals(type)) {
+            return String.valueOf(id);
+        }
+        return type + "/" + linkId;
+    }
+
+    public long evicted() {
+        return evicted.sum();
+    }
+
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(@NonNull MeterRegistry registry) {
+        Gauge.builder("bpa.websocket.sessions", sessions, Map::size).register(registry);
+        Gauge.builder("bpa.websocket.queued", sessions,
+                s -> s.values().stream().mapToInt(SessionQueue::size).sum()).register(registry);
+        FunctionCounter.builder("bpa.websocket.evicted", evicted, LongAdder::sum).register(registry);
+        FunctionCounter.builder("bpa.websocket.dropped", dropped, LongAdder::sum).register(registry);
+    }
+
+    public Map<String, Snapshot> snapshot() {
+        long now = System.nanoTime();
+        return sessions.entrySet().stream()
+                .collect(Collectors.toMap(Map.Entry::getKey, e -> e.getValue().snapshot(now)));
+    }
+
+    @SuppressWarnings("unused")
+    @Scheduled(fixedDelay = "1h", initialDelay = "2m")
+    void cleanupStaleSessions() {
+        sessions.values().removeIf(q -> !q.session.isOpen());
+    }
+
+    @Data
+    @Builder
+    public static final class Snapshot {
+        private int queued;
+        private long lagMillis;
+        private long maxLagMillis;
+        private long sent;
+        private long coalesced;
+        private long failed;
+    }
+
+    private final class SessionQueue {
+        private final WebSocketSession session;
+        /** insertion ordered, replacing a key keeps its position */
+        private final LinkedHashMap<String, Pending> queue = new LinkedHashMap<>();
+        private final AtomicBoolean writing = new AtomicBoolean();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+        private final LongAdder failed = new LongAdder();
+        private final AtomicLong maxLagNanos = new AtomicLong();
+
+        SessionQueue(WebSocketSession session) {
+            this.session = session;
+        }
+
+        /** @return false if the session can not keep up */
+        synchronized boolean enqueue(String key, String json, long now) {
+            Pending existing = queue.get(key);
+            if (existing != null) {
+                existing.json = json;
+                coalesced.increment();
+                return lag(now) <= maxLag.toNanos();
+            }
+            if (queue.size() >= queueSize || lag(now) > maxLag.toNanos()) {
+                return false;
+            }
+            queue.put(key, new Pending(json, now));
+            return true;
+        }
+
+        synchronized Pending poll() {
+            Iterator<Pending> it = queue.values().iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            Pending next = it.next();
+            it.remove();
+            return next;
+        }
+
+        synchronized int size() {
+            return queue.size();
+        }
+
+        synchronized long lag(long now) {
+            Iterator<Pending> it = queue.values().iterator();
+            return it.hasNext() ? now - it.next().queuedAt : 0;
+        }
+
+        void drain() {
+            if (!writing.compareAndSet(false, true)) {
+                return;
+            }
+            Pending next = poll();
+            if (next == null) {
+                writing.set(false);
+                // an offer might have raced between poll and reset
+                if (size() > 0) {
+                    drain();
+                }
+                return;
+            }
+            session.sendAsync(next.json, MediaType.APPLICATION_JSON_TYPE).whenComplete((r, e) -> {
+                maxLagNanos.accumulateAndGet(System.nanoTime() - next.queuedAt, Math::max);
+                if (e != null) {
+                    failed.increment();
+                    log.debug("Could not write to websocket session: {}", session.getId(), e);
+                } else {
+                    sent.increment();
+                }
+                writing.set(false);
+                if (session.isOpen()) {
+                    drain();
+                } else {
+                    sessions.remove(session.getId());
+                }
+            });
+        }
+
+        Snapshot snapshot(long now) {
+            return Snapshot.builder()
+                    .queued(size())
+                    .lagMillis(Duration.ofNanos(lag(now)).toMillis())
+                    .maxLagMillis(Duration.ofNanos(maxLagNanos.get()).toMillis())
+                    .sent(sent.sum())
+                    .coalesced(coalesced.sum())
+                    .failed(failed.sum())
+                    .build();
+        }
+    }
+
+    private static final class Pending {
+        private volatile String json;
+        private final long queuedAt;
+
+        Pending(String json, long queuedAt) {
+            this.json = json;
+            this.queuedAt = queuedAt;
+        }
+    }
+}
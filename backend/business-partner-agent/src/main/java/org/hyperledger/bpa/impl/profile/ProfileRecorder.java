@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.profile;
+
+import io.micronaut.context.annotation.Value;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import lombok.Setter;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.controller.api.stats.OperationProfile;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Starts the profiles of requests and aca-py events and receives them once they
+ * are completed. Keeps the totals per endpoint and category, and logs the span
+ * tree of operations that took longer than the threshold.
+ */
+@Slf4j
+@Singleton
+public class ProfileRecorder implements Profiler.ProfileListener {
+
+    @Value("${bpa.profiler.enabled:true}")
+    @Setter
+    boolean enabled;
+
+    @Value("${bpa.profiler.slow-threshold:2s}")
+    @Setter
+    Duration slowThreshold;
+
+    private final Map<String, OperationStats> operations = new ConcurrentHashMap<>();
+
+    /**
+     * Starts a profile on the current thread, see {@link Profiler#start}
+     *
+     * @param name e.g. the endpoint
+     * @return span to close when the request is done, a no-op if disabled
+     */
+    public Profiler.Span start(@NonNull String name) {
+        return enabled ? Profiler.start(name, this) : Profiler.Span.NOOP;
+    }
+
+    @Override
+    public void completed(@NonNull Profiler.Profile profile) {
+        Map<String, Long> breakdown = profile.breakdown();
+        boolean slow = profile.getNanos() >= slowThreshold.toNanos();
+        operations.computeIfAbsent(profile.getName(), k -> new OperationStats())
+                .record(profile.getNanos(), breakdown, slow);
+        if (slow) {
+            log.warn("Slow operation: name=\"{}\" took={}ms {} spans=\"{}\"", profile.getName(),
+                    TimeUnit.NANOSECONDS.toMillis(profile.getNanos()), format(breakdown), profile);
+        }
+    }
+
+    /**
+     * @return profile per endpoint and event, most total time first
+     */
+    public List<OperationProfile> profiles() {
+        return operations.entrySet().stream()
+                .sorted(Comparator.comparingLong(e -> -e.getValue().nanos.sum()))
+                .map(e -> e.getValue().snapshot(e.getKey()))
+                .collect(Collectors.toList());
+    }
+
+    private static String format(Map<String, Long> breakdown) {
+        return breakdown.entrySet().stream()
+                .filter(e -> e.getValue() > 0)
+                .map(e -> e.getKey() + "=" + TimeUnit.NANOSECONDS.toMillis(e.getValue()) + "ms")
+                .collect(Collectors.joining(" "));
+    }
+
+    private static final class OperationStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder slow = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final Map<String, LongAdder> categories = new ConcurrentHashMap<>();
+
+        void record(long total, Map<String, Long> breakdown, boolean isSlow) {
+            count.increment();
+            if (isSlow) {
+                slow.increment();
+            }
+            nanos.add(total);
+            maxNanos.accumulateAndGet(total, Math::max);
+            breakdown.forEach((category, n) -> categories.computeIfAbsent(category, k -> new LongAdder()).add(n));
+        }
+
+        OperationProfile snapshot(String name) {
+            long c = count.sum();
+            Map<String, Double> avg = new TreeMap<>();
+            categories.forEach((category, n) -> avg.put(category,
+                    c == 0 ? 0 : n.sum() / (double) c / TimeUnit.MILLISECONDS.toNanos(1)));
+            return OperationProfile.builder()
+                    .name(name)
+                    .count(c)
+                    .slow(slow.sum())
+                    .avgMillis(c == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nanos.sum() / c))
+                    .maxMillis(TimeUnit.NANOSECONDS.toMillis(maxNanos.get()))
+                    .breakdown(avg)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.profile;
+
+import io.micronaut.aop.InterceptorBean;
+import io.micronaut.aop.MethodInterceptor;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.http.annotation.Controller;
+import io.micronaut.http.annotation.HttpMethodMapping;
+import io.micronaut.inject.ExecutableMethod;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Opens a span per call of a {@link Profiled} bean. Controller methods start
+ * the profile and are named after their route, e.g. GET /api/partners/{id},
+ * other beans are named after class and method.
+ */
+@Singleton
+@InterceptorBean(Profiled.class)
+public class ProfiledInterceptor implements MethodInterceptor<Object, Object> {
+
+    @Inject
+    ProfileRecorder recorder;
+
+    private final Map<ExecutableMethod<?, ?>, String> names = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(MethodInvocationContext<Object, Object> context) {
+        String category = context.stringValue(Profiled.class).orElse(Profiled.REQUEST);
+        String name = names.computeIfAbsent(context.getExecutableMethod(), m -> name(context, category));
+        try (Profiler.Span ignored = Profiled.REQUEST.equals(category)
+                ? recorder.start(name)
+                : Profiler.span(category, name)) {
+            return context.proceed();
+        }
+    }
+
+    static String name(@NonNull MethodInvocationContext<Object, Object> ctx, @NonNull String category) {
+        if (Profiled.REQUEST.equals(category)) {
+            String method = ctx.getAnnotationNameByStereotype(HttpMethodMapping.class).orElse(null);
+            if (method != null) {
+                String base = ctx.stringValue(Controller.class).orElse("");
+                String uri = ctx.stringValue(HttpMethodMapping.class).orElse("");
+                String path = (base + (uri.isEmpty() || uri.startsWith("/") ? uri : "/" + uri));
+                return method.substring(method.lastIndexOf('.') + 1).toUpperCase() + " "
+                        + (path.isEmpty() ? "/" : path);
+            }
+        }
+        return ctx.getDeclaringType().getSimpleName() + "." + ctx.getMethodName();
+    }
+}
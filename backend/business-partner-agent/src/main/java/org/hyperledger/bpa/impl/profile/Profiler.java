@@ -0,0 +1,279 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.profile;
+
+import lombok.NonNull;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread bound span tree of a single request or aca-py event. A profile is only
+ * collected while a root span, usually started by the {@link ProfileRecorder},
+ * is open on the current thread, otherwise spans cost a thread local lookup.
+ * Repeated calls with the same category and name below the same parent are
+ * merged into one node, so a loop over a repository is a single node with a
+ * count, and the tree stays small.
+ */
+public final class Profiler {
+
+    public static final String DB = "db";
+    public static final String ACAPY = "acapy";
+    public static final String CACHE = "cache";
+    public static final String CONVERT = "convert";
+    public static final String DID = "did";
+    /** time spent in the request or event itself, outside any span */
+    public static final String SELF = "self";
+
+    /** nodes per profile, further calls are attributed to their parent */
+    static final int MAX_NODES = 256;
+
+    private static final ThreadLocal<Profile> CURRENT = new ThreadLocal<>();
+
+    private Profiler() {
+    }
+
+    /**
+     * Starts a profile on the current thread, if one is already running this is a
+     * span within it.
+     *
+     * @param name     e.g. the endpoint
+     * @param listener receives the profile when the root span is closed
+     * @return span to close when the request is done
+     */
+    public static Span start(@NonNull String name, @NonNull ProfileListener listener) {
+        Profile current = CURRENT.get();
+        if (current != null) {
+            return current.open(SELF, name);
+        }
+        Profile p = new Profile(name, listener);
+        CURRENT.set(p);
+        return p;
+    }
+
+    /**
+     * @param category e.g. {@link #DB}
+     * @param name     e.g. repository and method
+     * @return span to close when the call is done, a no-op if no profile is running
+     *         on this thread
+     */
+    public static Span span(@NonNull String category, @NonNull String name) {
+        Profile current = CURRENT.get();
+        return current != null ? current.open(category, name) : Span.NOOP;
+    }
+
+    /**
+     * Adds a call that was timed elsewhere, e.g. by a http client event listener
+     * where open and close can not be paired with try with resources.
+     *
+     * @param category e.g. {@link #ACAPY}
+     * @param name     e.g. the operation
+     * @param nanos    duration of the call
+     */
+    public static void record(@NonNull String category, @NonNull String name, long nanos) {
+        Profile current = CURRENT.get();
+        if (current != null) {
+            current.leaf(category, name, nanos);
+        }
+    }
+
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    public interface Span extends AutoCloseable {
+
+        Span NOOP = () -> {
+        };
+
+        @Override
+        void close();
+    }
+
+    @FunctionalInterface
+    public interface ProfileListener {
+        void completed(@NonNull Profile profile);
+    }
+
+    public static final class Node {
+        private final String category;
+        private final String name;
+        private final Node parent;
+        private final List<Node> children = new ArrayList<>(4);
+        private long count;
+        private long nanos;
+
+        Node(String category, String name, Node parent) {
+            this.category = category;
+            this.name = name;
+            this.parent = parent;
+        }
+
+        public String getCategory() {
+            return category;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getNanos() {
+            return nanos;
+        }
+
+        public List<Node> getChildren() {
+            return children;
+        }
+
+        long selfNanos() {
+            long self = nanos;
+            for (Node child : children) {
+                self -= child.nanos;
+            }
+            return Math.max(0, self);
+        }
+
+        private Node child(String category, String name) {
+            for (Node child : children) {
+                if (child.name.equals(name) && child.category.equals(category)) {
+                    return child;
+                }
+            }
+            return null;
+        }
+
+        private void appendTo(StringBuilder sb) {
+            sb.append(category).append(' ').append(name).append(' ')
+                    .append(TimeUnit.NANOSECONDS.toMillis(nanos)).append("ms");
+            if (count > 1) {
+                sb.append(" x").append(count);
+            }
+            if (!children.isEmpty()) {
+                sb.append(" [");
+                for (int i = 0; i < children.size(); i++) {
+                    if (i > 0) {
+                        sb.append(", ");
+                    }
+                    children.get(i).appendTo(sb);
+                }
+                sb.append(']');
+            }
+        }
+    }
+
+    /**
+     * The root span, closing it completes the profile and hands it to the listener.
+     */
+    public static final class Profile implements Span {
+        private final ProfileListener listener;
+        private final Node root;
+        private final long started = System.nanoTime();
+        private Node current;
+        private int nodes = 1;
+
+        Profile(String name, ProfileListener listener) {
+            this.listener = listener;
+            this.root = new Node(SELF, name, null);
+            this.root.count = 1;
+            this.current = root;
+        }
+
+        public String getName() {
+            return root.name;
+        }
+
+        public long getNanos() {
+            return root.nanos;
+        }
+
+        public Node getRoot() {
+            return root;
+        }
+
+        /**
+         * @return time per category, without the time of nested spans, so that the
+         *         values add up to the total
+         */
+        public Map<String, Long> breakdown() {
+            Map<String, Long> result = new LinkedHashMap<>();
+            collect(root, result);
+            return result;
+        }
+
+        private static void collect(Node node, Map<String, Long> result) {
+            result.merge(node.category, node.selfNanos(), Long::sum);
+            node.children.forEach(c -> collect(c, result));
+        }
+
+        Span open(String category, String name) {
+            Node parent = current;
+            Node node = parent.child(category, name);
+            if (node == null) {
+                if (nodes >= MAX_NODES) {
+                    return Span.NOOP;
+                }
+                node = new Node(category, name, parent);
+                parent.children.add(node);
+                nodes++;
+            }
+            Node opened = node;
+            opened.count++;
+            current = opened;
+            long start = System.nanoTime();
+            return () -> {
+                opened.nanos += System.nanoTime() - start;
+                current = opened.parent;
+            };
+        }
+
+        void leaf(String category, String name, long nanos) {
+            Node node = current.child(category, name);
+            if (node == null) {
+                if (nodes >= MAX_NODES) {
+                    return;
+                }
+                node = new Node(category, name, current);
+                current.children.add(node);
+                nodes++;
+            }
+            node.count++;
+            node.nanos += nanos;
+        }
+
+        @Override
+        public void close() {
+            root.nanos = System.nanoTime() - started;
+            CURRENT.remove();
+            listener.completed(this);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            root.appendTo(sb);
+            return sb.toString();
+        }
+    }
+}
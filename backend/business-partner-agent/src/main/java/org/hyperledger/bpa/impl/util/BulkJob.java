@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import lombok.Getter;
+
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * State of a long-running bulk operation that is polled by the client. Keeps
+ * track of the timing and of how many items succeeded, were skipped or failed,
+ * subclasses turn that into their status object.
+ *
+ * @param <S> the status object
+ */
+public abstract class BulkJob<S> {
+
+    @Getter
+    private final UUID id = UUID.randomUUID();
+    @Getter
+    private final int total;
+    private final Instant startedAt = Instant.now();
+    private volatile Instant finishedAt;
+
+    private final AtomicInteger succeeded = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    protected BulkJob(int total) {
+        this.total = total;
+    }
+
+    /**
+     * @return a consistent snapshot of the job
+     */
+    public final synchronized S status() {
+        return toStatus();
+    }
+
+    protected abstract S toStatus();
+
+    public int getSucceeded() {
+        return succeeded.get();
+    }
+
+    public int getSkipped() {
+        return skipped.get();
+    }
+
+    public int getFailed() {
+        return failed.get();
+    }
+
+    public boolean isDone() {
+        return finishedAt != null;
+    }
+
+    protected long startedAtMillis() {
+        return startedAt.toEpochMilli();
+    }
+
+    protected Long finishedAtMillis() {
+        Instant finished = finishedAt;
+        return finished != null ? finished.toEpochMilli() : null;
+    }
+
+    protected void countSucceeded() {
+        succeeded.incrementAndGet();
+    }
+
+    protected void countSkipped(int count) {
+        skipped.addAndGet(count);
+    }
+
+    protected void countFailed() {
+        failed.incrementAndGet();
+    }
+
+    void finish() {
+        finishedAt = Instant.now();
+    }
+}
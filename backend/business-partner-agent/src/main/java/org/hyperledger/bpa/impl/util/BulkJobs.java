@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.hyperledger.bpa.api.exception.BulkJobRejectedException;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Consumer;
+
+/**
+ * Runs {@link BulkJob}s and keeps them in a cache so that their status can be
+ * polled. A fixed number of workers take the items from a shared queue, so at
+ * most concurrency items are processed at any time, no matter how large the
+ * request is. The executor has to reject instead of running the workers on the
+ * calling thread, a job that cannot start a single worker is refused, one that
+ * starts fewer workers than requested runs with those.
+ *
+ * @param <J> the job type
+ */
+@Slf4j
+public class BulkJobs<J extends BulkJob<?>> {
+
+    private final SyncCache<?> cache;
+    private final Class<J> type;
+    private final ExecutorService executor;
+
+    /**
+     * @param cacheManager {@link CacheManager}
+     * @param cacheName    configured cache, its expiry is how long a finished job
+     *                     can be polled
+     * @param type         the job type
+     * @param executor     runs the workers
+     */
+    public BulkJobs(@NonNull CacheManager<?> cacheManager, @NonNull String cacheName, @NonNull Class<J> type,
+            @NonNull ExecutorService executor) {
+        this.cache = cacheManager.getCache(cacheName);
+        this.type = type;
+        this.executor = executor;
+    }
+
+    /**
+     * Starts the workers and caches the job, the queue must not be changed by the
+     * caller afterwards
+     *
+     * @param job         {@link BulkJob}
+     * @param queue       the items to process
+     * @param concurrency maximum number of workers
+     * @param worker      processes one item and records its outcome in the job, a
+     *                    worker that sets the interrupt flag stops
+     * @param onDone      runs once all items are processed, before the job is
+     *                    marked as done
+     * @return the job
+     * @throws BulkJobRejectedException if no worker could be started
+     */
+    public <T> J run(@NonNull J job, @NonNull Queue<T> queue, int concurrency,
+            @NonNull Consumer<T> worker, @NonNull Runnable onDone) {
+        int workers = Math.max(1, Math.min(concurrency, queue.size()));
+        List<CompletableFuture<?>> running = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            try {
+                running.add(CompletableFuture.runAsync(() -> drain(queue, worker), executor));
+            } catch (RejectedExecutionException e) {
+                if (running.isEmpty()) {
+                    log.warn("Bulk job: {}, rejected, the executor is saturated", job.getId());
+                    throw new BulkJobRejectedException("Too many bulk jobs, try again later", e);
+                }
+                log.warn("Bulk job: {}, the executor is saturated, running with {} of {} workers",
+                        job.getId(), running.size(), workers);
+                break;
+            }
+        }
+        cache.put(job.getId(), job);
+        CompletableFuture.allOf(running.toArray(CompletableFuture[]::new)).whenComplete((r, e) -> {
+            if (e != null) {
+                log.error("Bulk job: {}, worker failed", job.getId(), e);
+            }
+            try {
+                onDone.run();
+            } catch (RuntimeException ex) {
+                log.error("Bulk job: {}, could not complete", job.getId(), ex);
+            } finally {
+                job.finish();
+            }
+        });
+        return job;
+    }
+
+    public Optional<J> get(@NonNull UUID id) {
+        return cache.get(id, type);
+    }
+
+    private static <T> void drain(Queue<T> queue, Consumer<T> worker) {
+        T item;
+        while (!Thread.currentThread().isInterrupted() && (item = queue.poll()) != null) {
+            worker.accept(item);
+        }
+    }
+}
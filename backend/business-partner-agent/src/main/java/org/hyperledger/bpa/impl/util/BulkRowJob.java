@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import io.micronaut.core.annotation.Nullable;
+import lombok.NonNull;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * {@link BulkJob} that reports the outcome of every row of the request.
+ *
+ * @param <E> the row states
+ * @param <S> the status object
+ */
+public abstract class BulkRowJob<E extends Enum<E>, S> extends BulkJob<S> {
+
+    private final E failedState;
+    private final E[] states;
+    private final String[] partnerIds;
+    private final String[] messages;
+
+    @SuppressWarnings("unchecked")
+    protected BulkRowJob(int total, @NonNull E pendingState, @NonNull E failedState) {
+        super(total);
+        this.failedState = failedState;
+        this.states = (E[]) Array.newInstance(pendingState.getDeclaringClass(), total);
+        Arrays.fill(states, pendingState);
+        this.partnerIds = new String[total];
+        this.messages = new String[total];
+    }
+
+    public synchronized void succeed(int row, @NonNull E state, @NonNull UUID partnerId) {
+        update(row, state, partnerId, null);
+        countSucceeded();
+    }
+
+    public synchronized void skip(int row, @NonNull E state, @Nullable UUID partnerId) {
+        update(row, state, partnerId, null);
+        countSkipped(1);
+    }
+
+    public void fail(int row, String message) {
+        fail(row, failedState, null, message);
+    }
+
+    /**
+     * Fails a row that got part of the way, e.g. the partner was saved but the
+     * follow-up step did not happen
+     */
+    public synchronized void fail(int row, @NonNull E state, @Nullable UUID partnerId, String message) {
+        update(row, state, partnerId, message);
+        countFailed();
+    }
+
+    /**
+     * @param mapper builds the status row
+     * @return all rows in request order, call from within {@link #toStatus()}
+     */
+    protected <R> List<R> rows(RowMapper<E, R> mapper) {
+        List<R> result = new ArrayList<>(states.length);
+        for (int i = 0; i < states.length; i++) {
+            result.add(mapper.map(i, states[i], partnerIds[i], messages[i]));
+        }
+        return result;
+    }
+
+    private void update(int row, E state, UUID partnerId, String message) {
+        states[row] = state;
+        partnerIds[row] = partnerId != null ? partnerId.toString() : null;
+        messages[row] = message;
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<E, R> {
+        R map(int row, E state, @Nullable String partnerId, @Nullable String message);
+    }
+}
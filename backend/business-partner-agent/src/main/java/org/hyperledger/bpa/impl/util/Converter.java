@@ -38,7 +38,6 @@ import org.apache.commons.lang3.StringUtils;
 import org.hyperledger.aries.api.jsonld.VerifiableCredential.VerifiableIndyCredential;
 import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
 import org.hyperledger.aries.api.present_proof.PresentationExchangeRecord;
-import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.api.CredentialType;
 import org.hyperledger.bpa.api.MyDocumentAPI;
 import org.hyperledger.bpa.api.PartnerAPI;
@@ -49,6 +48,8 @@ import org.hyperledger.bpa.config.BPAMessageSource;
 import org.hyperledger.bpa.impl.aries.credential.CredentialInfoResolver;
 import org.hyperledger.bpa.impl.aries.prooftemplates.ProofTemplateConversion;
 import org.hyperledger.bpa.impl.aries.schema.SchemaService;
+import org.hyperledger.bpa.impl.profile.Profiled;
+import org.hyperledger.bpa.impl.profile.Profiler;
 import org.hyperledger.bpa.persistence.model.MyDocument;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.hyperledger.bpa.persistence.model.PartnerProof;
@@ -61,6 +62,7 @@ import java.util.stream.Collectors;
 @Singleton
 @NoArgsConstructor
 @AllArgsConstructor
+@Profiled(Profiler.CONVERT)
 // TODO this is more a conversion service
 public class Converter {
 
@@ -108,12 +110,7 @@ public class Converter {
         List<PartnerCredential> pc = new ArrayList<>();
         if (partner.getVerifiableCredential() != null) {
             for (VerifiableIndyCredential c : partner.getVerifiableCredential()) {
-                JsonNode node;
-                try {
-                    node = mapper.readTree(c.getCredentialSubject().toString());
-                } catch (JsonProcessingException e) {
-                    throw new RuntimeException(e);
-                }
+                JsonNode node = JsonCodec.toJackson(c.getCredentialSubject());
 
                 boolean verifiedCredential = false;
                 if (CollectionUtils.isNotEmpty(c.getType())) {
@@ -332,7 +329,7 @@ public class Converter {
 
     private String getSchemaIdFromContext(VerifiableIndyCredential c) {
         String schemaId = null;
-        JsonArray ja = GsonConfig.defaultConfig().toJsonTree(c.getContext()).getAsJsonArray();
+        JsonArray ja = JsonCodec.GSON.toJsonTree(c.getContext()).getAsJsonArray();
         for (JsonElement je : ja) {
             if (je.isJsonObject()) {
                 JsonObject jo = je.getAsJsonObject();
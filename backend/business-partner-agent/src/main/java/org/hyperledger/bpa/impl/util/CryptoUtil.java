@@ -20,40 +20,86 @@ package org.hyperledger.bpa.impl.util;
 import io.micronaut.core.annotation.Nullable;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
-import org.hyperledger.aries.config.GsonConfig;
 import org.springframework.security.crypto.codec.Hex;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.security.DigestOutputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 
 @Slf4j
 public class CryptoUtil {
 
+    private static final String ALGORITHM = "SHA3-256";
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            log.error("SHA3-256 not available");
+            return null;
+        }
+    });
+
+    /**
+     * Compares the json representation of both objects by streaming them into a
+     * digest, the json is never materialised as a string.
+     *
+     * @param base  {@link Object}
+     * @param other {@link Object}
+     * @return true if both objects serialize to the same json
+     */
     public static boolean hashCompare(@Nullable Object base, @Nullable Object other) {
         if (base == null || other == null) {
             return false;
         }
-        return hashCompare(GsonConfig.defaultConfig().toJson(base), GsonConfig.defaultConfig().toJson(other));
+        if (base == other) {
+            return true;
+        }
+        byte[] b = digest(base);
+        byte[] o = digest(other);
+        if (b == null || o == null) {
+            return false;
+        }
+        return MessageDigest.isEqual(b, o);
     }
 
+    /**
+     * Equal strings have equal hashes, so the strings are compared directly.
+     *
+     * @param base  {@link String}
+     * @param other {@link String}
+     * @return true if both strings are equal
+     */
     public static boolean hashCompare(@NonNull String base, @NonNull String other) {
-        String b = toSHA256Hex(base);
-        String o = toSHA256Hex(other);
-        if (b == null || o == null) {
-            return false;
+        return base.equals(other);
+    }
+
+    public static @Nullable String toSHA256Hex(@NonNull String base) {
+        MessageDigest digest = DIGEST.get();
+        if (digest == null) {
+            return null;
         }
-        return b.equals(o);
+        return String.valueOf(Hex.encode(digest.digest(base.getBytes(StandardCharsets.UTF_8))));
     }
 
-    private static String toSHA256Hex(@NonNull String base) {
-        try {
-            MessageDigest digest = MessageDigest.getInstance("SHA3-256");
-            final byte[] hashBytes = digest.digest(base.getBytes(StandardCharsets.UTF_8));
-            return String.valueOf(Hex.encode(hashBytes));
-        } catch (NoSuchAlgorithmException e) {
-            log.error("SHA3-256 not available");
+    private static @Nullable byte[] digest(@NonNull Object o) {
+        MessageDigest digest = DIGEST.get();
+        if (digest == null) {
+            return null;
+        }
+        digest.reset();
+        try (Writer w = new OutputStreamWriter(
+                new DigestOutputStream(OutputStream.nullOutputStream(), digest), StandardCharsets.UTF_8)) {
+            JsonCodec.GSON.toJson(o, w);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
-        return null;
+        return digest.digest();
     }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.*;
+import io.micronaut.core.annotation.Nullable;
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+import org.hyperledger.aries.api.jsonld.VerifiableCredential;
+import org.hyperledger.aries.api.jsonld.VerifiablePresentation;
+import org.hyperledger.aries.config.GsonConfig;
+
+import java.math.BigInteger;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Shared gson instances and a direct tree bridge between jackson and gson.
+ * {@link GsonConfig} builds a new instance with all its type adapters on every
+ * call, so it should not be used inline. Jackson is covered by the application
+ * wide {@link com.fasterxml.jackson.databind.ObjectMapper} bean.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+public class JsonCodec {
+
+    /** Same as {@link GsonConfig#defaultConfig()} */
+    public static final Gson GSON = GsonConfig.defaultConfig();
+
+    /** Same as {@link GsonConfig#defaultNoEscaping()} */
+    public static final Gson GSON_NO_ESCAPING = GsonConfig.defaultNoEscaping();
+
+    /** Same as {@link GsonConfig#jacksonBehaviour()} */
+    public static final Gson GSON_JACKSON = GsonConfig.jacksonBehaviour();
+
+    static {
+        // resolve the reflective adapters of the hot types once upfront
+        GSON.getAdapter(VerifiableCredential.VerifiableIndyCredential.class);
+        GSON.getAdapter(VerifiablePresentation.class);
+        GSON.getAdapter(JsonObject.class);
+    }
+
+    /**
+     * Converts a jackson tree into a gson tree without going through a json string
+     *
+     * @param node {@link JsonNode}
+     * @return {@link JsonElement}, {@link JsonNull} if the node is null
+     */
+    public static JsonElement toGson(@Nullable JsonNode node) {
+        if (node == null || node.isNull() || node.isMissingNode()) {
+            return JsonNull.INSTANCE;
+        }
+        if (node.isObject()) {
+            JsonObject result = new JsonObject();
+            Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+            while (fields.hasNext()) {
+                Map.Entry<String, JsonNode> field = fields.next();
+                result.add(field.getKey(), toGson(field.getValue()));
+            }
+            return result;
+        }
+        if (node.isArray()) {
+            JsonArray result = new JsonArray(node.size());
+            node.forEach(n -> result.add(toGson(n)));
+            return result;
+        }
+        if (node.isTextual()) {
+            return new JsonPrimitive(node.textValue());
+        }
+        if (node.isNumber()) {
+            return new JsonPrimitive(node.numberValue());
+        }
+        if (node.isBoolean()) {
+            return new JsonPrimitive(node.booleanValue());
+        }
+        // binary and pojo nodes
+        return JsonParser.parseString(node.toString());
+    }
+
+    /**
+     * Converts a jackson object node into a gson object without going through a
+     * json string
+     *
+     * @param node {@link ObjectNode}
+     * @return {@link JsonObject}
+     */
+    public static JsonObject toGsonObject(ObjectNode node) {
+        return toGson(node).getAsJsonObject();
+    }
+
+    /**
+     * Converts a gson tree into a jackson tree without going through a json string,
+     * numbers are mapped to the same node types jackson would read them into.
+     *
+     * @param element {@link JsonElement}
+     * @return {@link JsonNode}, null node if the element is null
+     */
+    public static JsonNode toJackson(@Nullable JsonElement element) {
+        JsonNodeFactory f = JsonNodeFactory.instance;
+        if (element == null || element.isJsonNull()) {
+            return f.nullNode();
+        }
+        if (element.isJsonObject()) {
+            ObjectNode result = f.objectNode();
+            element.getAsJsonObject().entrySet().forEach(e -> result.set(e.getKey(), toJackson(e.getValue())));
+            return result;
+        }
+        if (element.isJsonArray()) {
+            ArrayNode result = f.arrayNode(element.getAsJsonArray().size());
+            element.getAsJsonArray().forEach(e -> result.add(toJackson(e)));
+            return result;
+        }
+        JsonPrimitive p = element.getAsJsonPrimitive();
+        if (p.isBoolean()) {
+            return f.booleanNode(p.getAsBoolean());
+        }
+        if (p.isNumber()) {
+            return toNumberNode(p.getAsString());
+        }
+        return f.textNode(p.getAsString());
+    }
+
+    private static JsonNode toNumberNode(String number) {
+        JsonNodeFactory f = JsonNodeFactory.instance;
+        if (number.indexOf('.') >= 0 || number.indexOf('e') >= 0 || number.indexOf('E') >= 0) {
+            return f.numberNode(Double.parseDouble(number));
+        }
+        if (number.length() < 19) {
+            long l = Long.parseLong(number);
+            return l == (int) l ? f.numberNode((int) l) : f.numberNode(l);
+        }
+        BigInteger big = new BigInteger(number);
+        return big.bitLength() < Long.SIZE ? f.numberNode(big.longValue()) : f.numberNode(big);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Simple pacing: every caller is granted the next free time slot and waits for
+ * it, so that no more than the given number of calls per second pass,
+ * regardless of how many threads call.
+ */
+public class RatePacer {
+
+    private long nextPermitAt;
+
+    /**
+     * @param ratePerSecond permits per second, no pacing if less than one
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public void acquire(int ratePerSecond) throws InterruptedException {
+        if (ratePerSecond <= 0) {
+            return;
+        }
+        long waitFor;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long permitAt = Math.max(now, nextPermitAt);
+            nextPermitAt = permitAt + TimeUnit.SECONDS.toNanos(1) / ratePerSecond;
+            waitFor = permitAt - now;
+        }
+        if (waitFor > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitFor);
+        }
+    }
+}
@@ -21,6 +21,7 @@ import io.micronaut.core.util.StringUtils;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
@@ -39,6 +40,17 @@ public class TimeUtil {
         return ISO_INSTANT_FORMATTER.format(instant.truncatedTo(ChronoUnit.SECONDS));
     }
 
+    /**
+     * Epoch seconds with nano precision, the representation jackson uses when
+     * writing an {@link Instant} into a json column
+     *
+     * @param instant {@link Instant}
+     * @return epoch seconds
+     */
+    public static BigDecimal toEpochSeconds(@NonNull Instant instant) {
+        return BigDecimal.valueOf(instant.getEpochSecond()).add(BigDecimal.valueOf(instant.getNano(), 9));
+    }
+
     public static Instant fromISOInstant(String ts) {
         if (StringUtils.isEmpty(ts)) {
             return Instant.ofEpochMilli(0);
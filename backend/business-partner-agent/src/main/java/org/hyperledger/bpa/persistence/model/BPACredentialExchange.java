@@ -38,7 +38,9 @@ import org.hyperledger.bpa.persistence.model.type.CredentialTypeTranslator;
 import javax.persistence.Id;
 import javax.persistence.*;
 import java.time.Instant;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -167,6 +169,30 @@ public class BPACredentialExchange
         public static ExchangePayload jsonLD(V20CredExRecordByFormat.LdProof ldProof) {
             return ExchangePayload.builder().ldProof(ldProof).type(CredentialType.JSON_LD).build();
         }
+
+        /**
+         * Structural comparison of the offered or proposed attributes, unlike comparing
+         * the json the order of the indy attributes does not matter as
+         * {@link V1CredentialExchange.CredentialProposalDict.CredentialProposal#getAttributes()}
+         * sorts them by name.
+         *
+         * @param other {@link ExchangePayload}
+         * @return true if both payloads carry the same attributes
+         */
+        public boolean sameAttributes(@Nullable ExchangePayload other) {
+            if (other == null || !Objects.equals(type, other.type)) {
+                return false;
+            }
+            if (typeIsJsonLd()) {
+                return Objects.equals(ldProof, other.ldProof);
+            }
+            List<CredentialAttributes> attrs = indy != null ? indy.getAttributes() : null;
+            List<CredentialAttributes> otherAttrs = other.indy != null ? other.indy.getAttributes() : null;
+            if (CollectionUtils.isEmpty(attrs) || CollectionUtils.isEmpty(otherAttrs)) {
+                return CollectionUtils.isEmpty(attrs) && CollectionUtils.isEmpty(otherAttrs);
+            }
+            return attrs.equals(otherAttrs);
+        }
     }
 
     public boolean checkIfPublic() {
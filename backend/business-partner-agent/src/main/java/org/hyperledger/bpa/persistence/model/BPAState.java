@@ -17,6 +17,7 @@
  */
 package org.hyperledger.bpa.persistence.model;
 
+import io.micronaut.core.annotation.Nullable;
 import io.micronaut.data.annotation.AutoPopulated;
 import io.micronaut.data.annotation.DateCreated;
 import lombok.AllArgsConstructor;
@@ -49,6 +50,10 @@ public class BPAState {
 
     private Boolean webOnly;
 
+    /** Hash of the configured default schemas that were successfully seeded */
+    @Nullable
+    private String schemasHash;
+
     public BPAState(Boolean webOnly) {
         super();
         this.webOnly = webOnly;
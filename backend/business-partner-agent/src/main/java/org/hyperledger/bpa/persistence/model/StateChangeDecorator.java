@@ -17,13 +17,15 @@
  */
 package org.hyperledger.bpa.persistence.model;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import io.micronaut.core.annotation.Nullable;
 import lombok.*;
 import org.hyperledger.bpa.impl.util.TimeUtil;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Decorator class for all database entities that deal with (connection,
@@ -43,37 +45,157 @@ public abstract class StateChangeDecorator<T extends StateChangeDecorator<T, S>,
 
     abstract public T setState(S state);
 
+    private static final Map<Enum<?>, String> JSON_KEYS = new ConcurrentHashMap<>();
+
+    /**
+     * The key jackson writes for the state, the aries states are mapped to their
+     * lower case representation.
+     *
+     * @param state the state
+     * @return json key
+     */
+    public static String toJsonKey(@NonNull Enum<?> state) {
+        return JSON_KEYS.computeIfAbsent(state, s -> {
+            try {
+                JsonProperty p = s.getDeclaringClass().getField(s.name()).getAnnotation(JsonProperty.class);
+                return p != null && !p.value().isEmpty() ? p.value() : s.name();
+            } catch (NoSuchFieldException e) {
+                return s.name();
+            }
+        });
+    }
+
     /**
      * Records the timestamps of the different state changes, important in the
-     * manual exchanges as they can take a while to happen.
+     * manual exchanges as they can take a while to happen. Serialized as
+     * {"stateToTimestamp":{"STATE":epochSeconds}}, a single state can therefore be
+     * appended with jsonb_set, see the appendState(s) repository methods.
      */
     @Data
     @NoArgsConstructor
-    @AllArgsConstructor
-    @Builder
     public static final class StateToTimestamp<S extends Enum<S>> {
 
         private Map<S, Instant> stateToTimestamp;
 
+        /** latest state by timestamp, null if not yet resolved */
+        @ToString.Exclude
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private transient S latest;
+
+        /** state of the last push, used to append it to the stored document */
+        @ToString.Exclude
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private transient S lastPushed;
+
+        /** transitions since the entity was loaded, see ExchangeLifecycleTracker */
+        @ToString.Exclude
+        @Getter(AccessLevel.NONE)
+        @Setter(AccessLevel.NONE)
+        private transient List<Transition<S>> transitions;
+
+        @Builder
+        public StateToTimestamp(Map<S, Instant> stateToTimestamp) {
+            this.stateToTimestamp = stateToTimestamp;
+        }
+
+        public void setStateToTimestamp(Map<S, Instant> stateToTimestamp) {
+            this.stateToTimestamp = stateToTimestamp;
+            this.latest = null;
+            this.lastPushed = null;
+            this.transitions = null;
+        }
+
         public Map<S, Long> toApi() {
-            return stateToTimestamp != null
-                    ? stateToTimestamp.entrySet()
-                            .stream()
-                            .sorted(Map.Entry.comparingByValue())
-                            .collect(Collectors.toMap(
-                                    Map.Entry::getKey, v -> v.getValue().toEpochMilli(), (v1, v2) -> v1,
-                                    LinkedHashMap::new))
-                    : Map.of();
+            if (stateToTimestamp == null) {
+                return Map.of();
+            }
+            List<S> states = new ArrayList<>(stateToTimestamp.keySet());
+            states.sort(Comparator.comparing(stateToTimestamp::get));
+            Map<S, Long> result = new LinkedHashMap<>(states.size() * 2);
+            states.forEach(s -> result.put(s, stateToTimestamp.get(s).toEpochMilli()));
+            return result;
         }
 
         public @Nullable Map.Entry<S, Instant> findLatestEntry() {
-            return stateToTimestamp != null
-                    ? stateToTimestamp.entrySet()
-                            .stream()
-                            .sorted(Map.Entry.comparingByValue(Comparator.comparing(Instant::toEpochMilli)))
-                            .min(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                            .orElse(null)
-                    : null;
+            if (latest == null) {
+                latest = scanLatest();
+            }
+            return latest != null ? Map.entry(latest, stateToTimestamp.get(latest)) : null;
+        }
+
+        /**
+         * @return the state and timestamp of the last push, empty if nothing was pushed
+         *         since the entity was loaded
+         */
+        public Optional<Map.Entry<S, Instant>> findLastPushed() {
+            return lastPushed != null
+                    ? Optional.of(Map.entry(lastPushed, stateToTimestamp.get(lastPushed)))
+                    : Optional.empty();
+        }
+
+        /**
+         * @return the transitions recorded since the last call, the first transition
+         *         into a state is timed from the latest state that was reached before.
+         *         Repeated states and events that arrive out of order are not reported.
+         */
+        public List<Transition<S>> pollTransitions() {
+            List<Transition<S>> result = transitions != null ? transitions : List.of();
+            transitions = null;
+            return result;
+        }
+
+        /**
+         * Records the state change and keeps track of the latest state, only scans all
+         * states if the current latest state is moved back in time.
+         *
+         * @param state the state
+         * @param ts    when the state was reached
+         * @return the latest state
+         */
+        S push(@NonNull S state, @NonNull Instant ts) {
+            if (!(stateToTimestamp instanceof EnumMap)) {
+                // first push, loaded from the db or immutable map from the builder
+                EnumMap<S, Instant> states = new EnumMap<>(state.getDeclaringClass());
+                if (stateToTimestamp != null) {
+                    states.putAll(stateToTimestamp);
+                }
+                stateToTimestamp = states;
+            }
+            if (latest == null) {
+                latest = scanLatest();
+            }
+            Instant latestTs = latest != null ? stateToTimestamp.get(latest) : null;
+            if (latestTs != null && !stateToTimestamp.containsKey(state) && !ts.isBefore(latestTs)) {
+                if (transitions == null) {
+                    transitions = new ArrayList<>(2);
+                }
+                transitions.add(new Transition<>(latest, state, Duration.between(latestTs, ts)));
+            }
+            stateToTimestamp.put(state, ts);
+            lastPushed = state;
+            if (latestTs == null || !ts.isBefore(latestTs)) {
+                latest = state;
+            } else if (state == latest) {
+                latest = scanLatest();
+            }
+            return latest;
+        }
+
+        private @Nullable S scanLatest() {
+            if (stateToTimestamp == null) {
+                return null;
+            }
+            S result = null;
+            Instant resultTs = null;
+            for (Map.Entry<S, Instant> e : stateToTimestamp.entrySet()) {
+                if (e.getValue() != null && (resultTs == null || !e.getValue().isBefore(resultTs))) {
+                    result = e.getKey();
+                    resultTs = e.getValue();
+                }
+            }
+            return result;
         }
     }
 
@@ -87,21 +209,13 @@ public abstract class StateChangeDecorator<T extends StateChangeDecorator<T, S>,
 
     @SuppressWarnings("unchecked")
     public T pushStates(@NonNull S state, @Nullable Instant ts) {
-        if (ts == null) {
-            ts = Instant.now();
-        }
-        if (getStateToTimestamp() == null || getStateToTimestamp().getStateToTimestamp() == null) {
-            Map<S, Instant> states = new HashMap<>();
-            states.put(state, ts);
-            setStateToTimestamp(StateToTimestamp
-                    .<S>builder()
-                    .stateToTimestamp(states)
-                    .build());
-        } else {
-            getStateToTimestamp().getStateToTimestamp().put(state, ts);
+        if (getStateToTimestamp() == null) {
+            setStateToTimestamp(new StateToTimestamp<>());
         }
-        S latest = Objects.requireNonNull(getStateToTimestamp().findLatestEntry()).getKey();
-        setState(Objects.requireNonNull(latest));
+        setState(getStateToTimestamp().push(state, ts != null ? ts : Instant.now()));
         return (T) this;
     }
+
+    public record Transition<S extends Enum<S>> (@NonNull S from, @NonNull S to, @NonNull Duration duration) {
+    }
 }
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.model.messaging;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.AutoPopulated;
+import io.micronaut.data.annotation.DateCreated;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hyperledger.bpa.impl.messaging.email.EmailCmd;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Email that still has to be sent, see
+ * {@link org.hyperledger.bpa.impl.messaging.email.EmailOutbox}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "email_outbox")
+public class EmailOutboxEntry {
+
+    @Id
+    @AutoPopulated
+    private UUID id;
+
+    @DateCreated
+    private Instant createdAt;
+
+    private String sendTo;
+
+    private String subject;
+
+    private String textBody;
+
+    /**
+     * Entries with the same key are merged into one mail, null if not part of a
+     * digest
+     */
+    @Nullable
+    private String digestKey;
+
+    @Builder.Default
+    private Integer attempts = 0;
+
+    /** null once all attempts failed */
+    @Nullable
+    private Instant nextAttemptAt;
+
+    @Nullable
+    private String lastError;
+
+    public EmailCmd toEmailCmd() {
+        return EmailCmd.builder()
+                .to(sendTo)
+                .subject(subject)
+                .textBody(textBody)
+                .build();
+    }
+}
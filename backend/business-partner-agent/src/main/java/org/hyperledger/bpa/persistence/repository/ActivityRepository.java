@@ -26,12 +26,12 @@ import org.hyperledger.bpa.controller.api.activity.ActivityRole;
 import org.hyperledger.bpa.controller.api.activity.ActivityType;
 import org.hyperledger.bpa.persistence.model.Activity;
 
-import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface ActivityRepository extends CrudRepository<Activity, UUID> {
 
     Optional<Activity> findByLinkIdAndTypeAndRole(@NonNull UUID linkId,
@@ -56,8 +56,4 @@ public interface ActivityRepository extends CrudRepository<Activity, UUID> {
     @Join(value = "partner", type = Join.Type.LEFT_FETCH)
     List<Activity> findByTypeAndCompletedTrueOrderByUpdatedAtDesc(@NonNull ActivityType type);
 
-    Long countByCompletedFalse();
-
-    Long countByCompletedFalseAndCreatedAtAfter(Instant createdAt);
-
 }
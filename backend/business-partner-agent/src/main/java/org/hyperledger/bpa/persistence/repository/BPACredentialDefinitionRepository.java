@@ -30,6 +30,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPACredentialDefinitionRepository extends CrudRepository<BPACredentialDefinition, UUID> {
 
     @NonNull
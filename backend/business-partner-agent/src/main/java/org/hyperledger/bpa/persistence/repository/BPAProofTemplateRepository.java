@@ -25,5 +25,6 @@ import org.hyperledger.bpa.persistence.model.BPAProofTemplate;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPAProofTemplateRepository extends CrudRepository<BPAProofTemplate, UUID> {
 }
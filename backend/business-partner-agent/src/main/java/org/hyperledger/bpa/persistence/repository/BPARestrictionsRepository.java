@@ -31,6 +31,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPARestrictionsRepository extends CrudRepository<BPARestrictions, UUID> {
 
     void updateLabel(@Id UUID id, @Nullable String label);
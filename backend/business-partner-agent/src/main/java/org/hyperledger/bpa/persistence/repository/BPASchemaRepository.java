@@ -31,6 +31,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPASchemaRepository extends CrudRepository<BPASchema, UUID> {
 
     Optional<BPASchema> findBySchemaId(String schemaId);
@@ -17,6 +17,8 @@
  */
 package org.hyperledger.bpa.persistence.repository;
 
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Id;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.model.query.builder.sql.Dialect;
 import io.micronaut.data.repository.CrudRepository;
@@ -25,5 +27,8 @@ import org.hyperledger.bpa.persistence.model.BPAState;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPAStateRepository extends CrudRepository<BPAState, UUID> {
+
+    void updateSchemasHash(@Id UUID id, @Nullable String schemasHash);
 }
@@ -27,6 +27,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPAUserRepository extends CrudRepository<BPAUser, UUID> {
 
     Optional<BPAUser> findByUsername(String username);
@@ -29,6 +29,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface BPAWebhookRepository extends CrudRepository<BPAWebhook, UUID> {
 
     @Query("SELECT * FROM bpa_webhook WHERE webhook->>'url' = :url ")
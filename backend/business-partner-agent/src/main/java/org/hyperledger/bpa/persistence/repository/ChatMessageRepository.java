@@ -18,20 +18,65 @@
 package org.hyperledger.bpa.persistence.repository;
 
 import io.micronaut.core.annotation.NonNull;
-import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.model.query.builder.sql.Dialect;
 import io.micronaut.data.repository.CrudRepository;
 import org.hyperledger.bpa.persistence.model.ChatMessage;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface ChatMessageRepository extends CrudRepository<ChatMessage, UUID> {
 
-    @Join(value = "partner", type = Join.Type.LEFT_FETCH)
-    List<ChatMessage> findByPartnerIdOrderByCreatedAtAsc(@NonNull UUID partnerId);
+    // Keyset pages, the partner is not joined and only carries its id. Cursors
+    // are messages of the same partner, (created_at, id) breaks ties between
+    // equal timestamps.
+
+    @Query("SELECT * FROM chat_message WHERE partner_id = :partnerId "
+            + "ORDER BY created_at DESC, id DESC LIMIT :size")
+    List<ChatMessage> findLatest(@NonNull UUID partnerId, int size);
+
+    @Query("SELECT * FROM chat_message WHERE id = :id AND partner_id = :partnerId")
+    Optional<ChatMessage> findCursor(@NonNull UUID partnerId, @NonNull UUID id);
+
+    @Query("SELECT * FROM chat_message WHERE partner_id = :partnerId "
+            + "AND (created_at, id) < (:createdAt, :id) "
+            + "ORDER BY created_at DESC, id DESC LIMIT :size")
+    List<ChatMessage> findBefore(@NonNull UUID partnerId, @NonNull Instant createdAt, @NonNull UUID id, int size);
+
+    @Query("SELECT * FROM chat_message WHERE partner_id = :partnerId "
+            + "AND (created_at, id) > (:createdAt, :id) "
+            + "ORDER BY created_at, id LIMIT :size")
+    List<ChatMessage> findAfter(@NonNull UUID partnerId, @NonNull Instant createdAt, @NonNull UUID id, int size);
+
+    /**
+     * Moves up to limit messages older than the given instant into the
+     * chat_message_archive table, one archive row per partner.
+     *
+     * @return number of archive rows written, 0 if there was nothing to move
+     */
+    @Query("WITH moved AS (DELETE FROM chat_message WHERE id IN "
+            + "(SELECT id FROM chat_message WHERE created_at < :before LIMIT :limit) "
+            + "RETURNING id, partner_id, content, incoming, created_at) "
+            + "INSERT INTO chat_message_archive (partner_id, first_created_at, last_created_at, message_count, "
+            + "messages, archived_at) "
+            + "SELECT partner_id, min(created_at), max(created_at), count(*), "
+            + "jsonb_agg(jsonb_build_object('id', id, 'content', content, 'incoming', incoming, "
+            + "'createdAt', created_at) ORDER BY created_at, id), now() "
+            + "FROM moved GROUP BY partner_id")
+    Number archiveBefore(@NonNull Instant before, int limit);
+
+    /**
+     * @return number of deleted messages
+     */
+    @Query("DELETE FROM chat_message WHERE id IN "
+            + "(SELECT id FROM chat_message WHERE created_at < :before LIMIT :limit)")
+    Number deleteBefore(@NonNull Instant before, int limit);
 
     void deleteByPartnerId(@NonNull UUID partnerId);
 }
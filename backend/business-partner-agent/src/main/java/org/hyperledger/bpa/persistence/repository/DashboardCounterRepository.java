@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micronaut.core.annotation.NonNull;
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+import org.hyperledger.bpa.controller.api.stats.StatsBucket;
+import org.hyperledger.bpa.controller.api.stats.StatsMetric;
+import org.hyperledger.bpa.persistence.model.DashboardCounter;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+@JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
+public interface DashboardCounterRepository extends CrudRepository<DashboardCounter, String> {
+
+    /**
+     * @param since start of the period, counters are bucketed by the hour
+     * @return counters of the rows that were created within the period
+     */
+    @Query("SELECT name, CAST(sum(value) AS bigint) AS value FROM dashboard_counter_hourly "
+            + "WHERE hour >= :since GROUP BY name")
+    List<DashboardCounter> findCreatedSince(@NonNull Instant since);
+
+    /**
+     * Rebuilds all counters from the counted tables
+     */
+    @Query("CALL dashboard_counter_reconcile()")
+    void reconcile();
+
+    // daily rollups, also maintained by triggers
+
+    /**
+     * @param unit   postgres date_trunc field the days are grouped by
+     * @param from   first day
+     * @param to     last day, inclusive
+     * @param metric {@link StatsMetric}, all if null
+     * @return non zero buckets, ordered by period
+     */
+    @Query("SELECT CAST(date_trunc(CAST(:unit AS text), CAST(day AS timestamp)) AS date) AS period, metric, "
+            + "type, state, role, CAST(sum(value) AS bigint) AS count FROM stats_daily "
+            + "WHERE day BETWEEN :from AND :to AND (CAST(:metric AS text) IS NULL OR metric = :metric) "
+            + "GROUP BY 1, 2, 3, 4, 5 HAVING sum(value) <> 0 ORDER BY 1, 2, 3, 4, 5")
+    List<StatsBucket> findDailyStats(@NonNull String unit, @NonNull LocalDate from, @NonNull LocalDate to,
+            @Nullable StatsMetric metric);
+
+    /**
+     * Rebuilds the rollup of all days from the given day on
+     */
+    @Query("CALL stats_daily_rebuild(:fromDay)")
+    void rebuildDailyStats(@NonNull LocalDate fromDay);
+}
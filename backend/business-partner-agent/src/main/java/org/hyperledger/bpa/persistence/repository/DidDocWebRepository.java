@@ -29,6 +29,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface DidDocWebRepository extends CrudRepository<DidDocWeb, UUID> {
 
     void updateDidDoc(@Id UUID id, Map<String, Object> didDoc);
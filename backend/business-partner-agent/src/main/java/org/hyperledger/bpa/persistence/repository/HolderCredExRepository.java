@@ -30,15 +30,17 @@ import io.micronaut.data.repository.PageableRepository;
 import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeRole;
 import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeState;
 import org.hyperledger.bpa.api.CredentialType;
+import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
 import org.hyperledger.bpa.persistence.model.StateChangeDecorator;
 
-import java.time.Instant;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface HolderCredExRepository extends PageableRepository<BPACredentialExchange, UUID> {
 
     // find
@@ -86,6 +88,29 @@ public interface HolderCredExRepository extends PageableRepository<BPACredential
     void updateStates(@Id UUID id, CredentialExchangeState state,
             StateChangeDecorator.StateToTimestamp<CredentialExchangeState> stateToTimestamp, @Nullable String errorMsg);
 
+    @Query("UPDATE bpa_credential_exchange SET state = :state, updated_at = now(), "
+            + "state_to_timestamp = jsonb_set(COALESCE(state_to_timestamp, "
+            + "jsonb_build_object('stateToTimestamp', jsonb_build_object())), '{stateToTimestamp}', "
+            + "COALESCE(state_to_timestamp -> 'stateToTimestamp', jsonb_build_object()) "
+            + "|| jsonb_build_object(CAST(:pushed AS text), CAST(:pushedAt AS numeric))), "
+            + "error_msg = :errorMsg WHERE id = :id")
+    void appendStates(UUID id, CredentialExchangeState state, String pushed, BigDecimal pushedAt,
+            @Nullable String errorMsg);
+
+    /**
+     * Like updateStates, but appends the last pushed state to the state history
+     * instead of rewriting the whole document.
+     *
+     * @param ex       {@link BPACredentialExchange}
+     * @param errorMsg error message
+     */
+    default void appendStates(@NonNull BPACredentialExchange ex, @Nullable String errorMsg) {
+        ex.getStateToTimestamp().findLastPushed().ifPresentOrElse(
+                pushed -> appendStates(ex.getId(), ex.getState(), StateChangeDecorator.toJsonKey(pushed.getKey()),
+                        TimeUtil.toEpochSeconds(pushed.getValue()), errorMsg),
+                () -> updateStates(ex.getId(), ex.getState(), ex.getStateToTimestamp(), errorMsg));
+    }
+
     void updateOnCredentialOfferEvent(@Id UUID id, CredentialExchangeState state,
             StateChangeDecorator.StateToTimestamp<CredentialExchangeState> stateToTimestamp,
             BPACredentialExchange.ExchangePayload credentialOffer);
@@ -104,11 +129,4 @@ public interface HolderCredExRepository extends PageableRepository<BPACredential
     @Query("UPDATE bpa_credential_exchange SET partner_id = null WHERE partner_id = :partnerId AND role = 'HOLDER'")
     Number setPartnerIdToNull(UUID partnerId);
 
-    // count
-
-    Long countByRoleEqualsAndStateEquals(CredentialExchangeRole role, CredentialExchangeState state);
-
-    Long countByRoleEqualsAndStateEqualsAndCreatedAtAfter(
-            CredentialExchangeRole role, CredentialExchangeState state, Instant issuedAt);
-
 }
@@ -38,6 +38,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface IssuerCredExRepository extends PageableRepository<BPACredentialExchange, UUID> {
 
     @Override
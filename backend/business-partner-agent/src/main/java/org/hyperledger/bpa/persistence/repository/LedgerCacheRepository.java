@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.Pageable;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+import org.hyperledger.bpa.persistence.model.LedgerCacheEntry;
+
+import java.time.Instant;
+import java.util.List;
+
+@JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
+public interface LedgerCacheRepository extends CrudRepository<LedgerCacheEntry, String> {
+
+    List<LedgerCacheEntry> findByKindIn(List<String> kind, Pageable pageable);
+
+    @Query("INSERT INTO ledger_cache (cache_key, kind, value, created_at, expires_at) "
+            + "VALUES (:cacheKey, :kind, :value, :createdAt, :expiresAt) "
+            + "ON CONFLICT (cache_key) DO UPDATE SET value = EXCLUDED.value, "
+            + "created_at = EXCLUDED.created_at, expires_at = EXCLUDED.expires_at")
+    void upsert(String cacheKey, String kind, String value, Instant createdAt, @Nullable Instant expiresAt);
+
+    void deleteByExpiresAtBefore(Instant expiresAt);
+}
@@ -25,5 +25,6 @@ import org.hyperledger.bpa.persistence.model.MessageQueue;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface MessageQueueRepository extends CrudRepository<MessageQueue, UUID> {
 }
@@ -34,6 +34,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface MyDocumentRepository extends PageableRepository<MyDocument, UUID> {
 
     @Override
@@ -20,19 +20,23 @@ package org.hyperledger.bpa.persistence.repository;
 import io.micronaut.core.annotation.NonNull;
 import io.micronaut.data.annotation.Id;
 import io.micronaut.data.annotation.Join;
+import io.micronaut.data.annotation.Query;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.model.query.builder.sql.Dialect;
 import io.micronaut.data.repository.CrudRepository;
 import org.hyperledger.aries.api.present_proof.PresentationExchangeState;
+import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.PartnerProof;
+import org.hyperledger.bpa.persistence.model.StateChangeDecorator;
 
-import java.time.Instant;
+import java.math.BigDecimal;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface PartnerProofRepository extends CrudRepository<PartnerProof, UUID> {
 
     @Override
@@ -63,13 +67,30 @@ public interface PartnerProofRepository extends CrudRepository<PartnerProof, UUI
 
     void updateState(@Id UUID id, PresentationExchangeState state);
 
+    @Query("UPDATE partner_proof SET state = :state, updated_at = now(), "
+            + "state_to_timestamp = jsonb_set(COALESCE(state_to_timestamp, "
+            + "jsonb_build_object('stateToTimestamp', jsonb_build_object())), '{stateToTimestamp}', "
+            + "COALESCE(state_to_timestamp -> 'stateToTimestamp', jsonb_build_object()) "
+            + "|| jsonb_build_object(CAST(:pushed AS text), CAST(:pushedAt AS numeric))) "
+            + "WHERE id = :id")
+    void appendState(UUID id, PresentationExchangeState state, String pushed, BigDecimal pushedAt);
+
+    /**
+     * Writes the state and appends the last pushed state to the state history,
+     * leaves the proof payload untouched.
+     *
+     * @param pp {@link PartnerProof}
+     */
+    default void appendState(@NonNull PartnerProof pp) {
+        pp.getStateToTimestamp().findLastPushed().ifPresentOrElse(
+                pushed -> appendState(pp.getId(), pp.getState(), StateChangeDecorator.toJsonKey(pushed.getKey()),
+                        TimeUtil.toEpochSeconds(pushed.getValue())),
+                () -> update(pp));
+    }
+
     void updateProblemReport(@Id UUID id, String problemReport);
 
     long updateReceivedProof(@Id UUID id, Boolean valid, PresentationExchangeState state,
             Map<String, Object> proof);
 
-    Long countByStateEquals(PresentationExchangeState state);
-
-    Long countByStateEqualsAndCreatedAtAfter(PresentationExchangeState state, Instant createdAt);
-
 }
@@ -27,9 +27,11 @@ import io.micronaut.data.model.query.builder.sql.Dialect;
 import io.micronaut.data.repository.CrudRepository;
 import org.hyperledger.acy_py.generated.model.InvitationRecord;
 import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.bpa.impl.util.TimeUtil;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.hyperledger.bpa.persistence.model.StateChangeDecorator;
 
+import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
 import java.util.Map;
@@ -37,6 +39,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface PartnerRepository extends CrudRepository<Partner, UUID> {
 
     // find
@@ -67,6 +70,12 @@ public interface PartnerRepository extends CrudRepository<Partner, UUID> {
 
     List<Partner> findByStateInAndTrustPingTrueAndAriesSupportTrue(List<ConnectionState> state);
 
+    List<Partner> findByIdIn(List<UUID> id);
+
+    @Query("SELECT DISTINCT partner.* FROM partner JOIN partner_tag ON partner_tag.partner_id = partner.id "
+            + "WHERE partner_tag.tag_id IN (:tagIds)")
+    List<Partner> findByTagIdIn(List<UUID> tagIds);
+
     // delete
 
     @Query("delete from partner_tag where partner_id = :id; delete from partner where id = :id")
@@ -74,11 +83,11 @@ public interface PartnerRepository extends CrudRepository<Partner, UUID> {
 
     // count
 
-    Long countByStateNotEquals(ConnectionState state);
-
-    Long countByCreatedAtAfter(Instant createdAt);
-
-    Long countByStateNotEqualsAndCreatedAtAfter(ConnectionState state, Instant createdAt);
+    /**
+     * @return the planners row estimate of the partner table
+     */
+    @Query("SELECT CAST(reltuples AS bigint) FROM pg_class WHERE oid = CAST('partner' AS regclass)")
+    long estimateCount();
 
     // update
 
@@ -88,6 +97,27 @@ public interface PartnerRepository extends CrudRepository<Partner, UUID> {
     void updateStateAndLabel(@Id UUID id, ConnectionState state,
             StateChangeDecorator.StateToTimestamp<ConnectionState> stateToTimestamp, @Nullable String label);
 
+    @Query("UPDATE partner SET state = :state, updated_at = now(), "
+            + "state_to_timestamp = jsonb_set(COALESCE(state_to_timestamp, "
+            + "jsonb_build_object('stateToTimestamp', jsonb_build_object())), '{stateToTimestamp}', "
+            + "COALESCE(state_to_timestamp -> 'stateToTimestamp', jsonb_build_object()) "
+            + "|| jsonb_build_object(CAST(:pushed AS text), CAST(:pushedAt AS numeric))) "
+            + "WHERE id = :id")
+    void appendState(UUID id, ConnectionState state, String pushed, BigDecimal pushedAt);
+
+    /**
+     * Writes the state and appends the last pushed state to the state history
+     * instead of rewriting the whole document.
+     *
+     * @param p {@link Partner}
+     */
+    default void appendState(@NonNull Partner p) {
+        p.getStateToTimestamp().findLastPushed().ifPresentOrElse(
+                pushed -> appendState(p.getId(), p.getState(), StateChangeDecorator.toJsonKey(pushed.getKey()),
+                        TimeUtil.toEpochSeconds(pushed.getValue())),
+                () -> updateState(p.getId(), p.getState(), p.getStateToTimestamp()));
+    }
+
     int updateAlias(@Id UUID id, @Nullable String alias, @Nullable Boolean trustPing);
 
     int updateDid(@Id UUID id, String did);
@@ -113,4 +143,14 @@ public interface PartnerRepository extends CrudRepository<Partner, UUID> {
     @Query("UPDATE partner SET state = :newState, last_seen = :lastSeen WHERE connection_id = :connectionId")
     void updateStateAndLastSeenByConnectionId(String connectionId, ConnectionState newState, Instant lastSeen);
 
+    // Batched variants of the above, used by the trust ping job to write the
+    // results of a whole ping cycle with one statement
+
+    @Query("UPDATE partner SET state = :newState WHERE connection_id IN (:connectionIds) AND (state IS NULL OR state != :newState)")
+    void updateStateByConnectionIdIn(List<String> connectionIds, ConnectionState newState);
+
+    @Query("UPDATE partner SET state = :newState, last_seen = :lastSeen WHERE connection_id IN (:connectionIds)")
+    void updateStateAndLastSeenByConnectionIdIn(List<String> connectionIds, ConnectionState newState,
+            Instant lastSeen);
+
 }
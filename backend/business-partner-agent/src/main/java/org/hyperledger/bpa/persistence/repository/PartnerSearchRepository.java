@@ -0,0 +1,190 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.jdbc.runtime.JdbcOperations;
+import io.micronaut.transaction.annotation.ReadOnly;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.bpa.api.PartnerListItem;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Server side partner search. The WHERE clause only contains the filters that
+ * are set. A catch-all predicate like {@code (:x IS NULL OR ...)} gets one plan
+ * for all parameter values, which keeps postgres from using the trigram index
+ * of the text search.
+ */
+@Singleton
+public class PartnerSearchRepository {
+
+    /** Has to match the expression of partner_search_text_trgm_idx */
+    static final String SEARCH_TEXT = "(coalesce(alias, '') || ' ' || coalesce(label, '') || ' ' "
+            + "|| coalesce(did, ''))";
+
+    @Inject
+    JdbcOperations jdbc;
+
+    /**
+     * @param filter {@link Filter}
+     * @param limit  max rows
+     * @param offset rows to skip
+     * @return matching partners, newest first
+     */
+    @ReadOnly
+    public List<PartnerListItem> search(@NonNull Filter filter, int limit, long offset) {
+        Where where = Where.of(filter);
+        String sql = "SELECT id, did, alias, label, state, aries_support, incoming, valid, trust_ping, last_seen, "
+                + "created_at, updated_at FROM partner" + where.sql()
+                + " ORDER BY created_at DESC, id LIMIT ? OFFSET ?";
+        return jdbc.prepareStatement(sql, ps -> {
+            int i = where.bind(ps);
+            ps.setInt(i++, limit);
+            ps.setLong(i, offset);
+            List<PartnerListItem> result = new ArrayList<>();
+            try (ResultSet rs = ps.executeQuery()) {
+                while (rs.next()) {
+                    result.add(toListItem(rs));
+                }
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Counts the matches of the partner search, but stops at the cap
+     *
+     * @param filter {@link Filter}
+     * @param cap    max count
+     * @return number of matches up to the cap
+     */
+    @ReadOnly
+    public long countSearch(@NonNull Filter filter, int cap) {
+        Where where = Where.of(filter);
+        String sql = "SELECT count(*) FROM (SELECT 1 FROM partner" + where.sql() + " LIMIT ?) AS matches";
+        return jdbc.prepareStatement(sql, ps -> {
+            ps.setInt(where.bind(ps), cap);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() ? rs.getLong(1) : 0L;
+            }
+        });
+    }
+
+    private static PartnerListItem toListItem(ResultSet rs) throws SQLException {
+        String state = rs.getString("state");
+        return PartnerListItem.builder()
+                .id(rs.getObject("id", UUID.class))
+                .did(rs.getString("did"))
+                .alias(rs.getString("alias"))
+                .label(rs.getString("label"))
+                .state(state != null ? ConnectionState.valueOf(state) : null)
+                .ariesSupport(rs.getObject("aries_support", Boolean.class))
+                .incoming(rs.getObject("incoming", Boolean.class))
+                .valid(rs.getObject("valid", Boolean.class))
+                .trustPing(rs.getObject("trust_ping", Boolean.class))
+                .lastSeen(toInstant(rs.getTimestamp("last_seen")))
+                .createdAt(toInstant(rs.getTimestamp("created_at")))
+                .updatedAt(toInstant(rs.getTimestamp("updated_at")))
+                .build();
+    }
+
+    private static @Nullable Instant toInstant(@Nullable Timestamp ts) {
+        return ts != null ? ts.toInstant() : null;
+    }
+
+    /**
+     * Filters of the partner search, a null value disables the filter
+     *
+     * @param state        connection state
+     * @param ariesSupport aries or web partner
+     * @param tagId        partners with this tag
+     * @param seqNo        partners that support the credential definition with this
+     *                     schema sequence number
+     * @param issuerOf     partners that are configured as issuer of this schema
+     * @param pattern      ILIKE pattern over alias, label and did, already escaped
+     */
+    public record Filter(@Nullable ConnectionState state, @Nullable Boolean ariesSupport, @Nullable UUID tagId,
+            @Nullable String seqNo, @Nullable String issuerOf, @Nullable String pattern) {
+
+        public boolean isEmpty() {
+            return state == null && ariesSupport == null && tagId == null && seqNo == null && issuerOf == null
+                    && pattern == null;
+        }
+    }
+
+    /**
+     * WHERE clause with its parameters in binding order
+     */
+    record Where(String sql, List<Object> params) {
+
+        static Where of(@NonNull Filter filter) {
+            List<String> predicates = new ArrayList<>();
+            List<Object> params = new ArrayList<>();
+            if (filter.state() != null) {
+                predicates.add("state = ?");
+                params.add(filter.state().name());
+            }
+            if (filter.ariesSupport() != null) {
+                predicates.add("aries_support = ?");
+                params.add(filter.ariesSupport());
+            }
+            if (filter.tagId() != null) {
+                predicates.add("EXISTS (SELECT 1 FROM partner_tag WHERE partner_tag.partner_id = partner.id "
+                        + "AND partner_tag.tag_id = ?)");
+                params.add(filter.tagId());
+            }
+            if (filter.seqNo() != null) {
+                predicates.add("supported_credentials -> 'wrapped' "
+                        + "@> jsonb_build_array(jsonb_build_object('seqno', CAST(? AS text)))");
+                params.add(filter.seqNo());
+            }
+            if (filter.issuerOf() != null) {
+                predicates.add("did IN (SELECT bpa_restrictions.issuer_did FROM bpa_restrictions "
+                        + "JOIN bpa_schema ON bpa_schema.id = bpa_restrictions.schema_id "
+                        + "WHERE bpa_schema.schema_id = ?)");
+                params.add(filter.issuerOf());
+            }
+            if (filter.pattern() != null) {
+                predicates.add(SEARCH_TEXT + " ILIKE ?");
+                params.add(filter.pattern());
+            }
+            return new Where(predicates.isEmpty() ? "" : " WHERE " + String.join(" AND ", predicates), params);
+        }
+
+        /**
+         * @return the index of the next parameter
+         */
+        int bind(@NonNull PreparedStatement ps) throws SQLException {
+            for (int i = 0; i < params.size(); i++) {
+                ps.setObject(i + 1, params.get(i));
+            }
+            return params.size() + 1;
+        }
+    }
+}
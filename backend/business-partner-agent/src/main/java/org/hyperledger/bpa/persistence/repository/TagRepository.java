@@ -33,6 +33,7 @@ import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
 public interface TagRepository extends CrudRepository<Tag, UUID> {
 
     @Join(value = "partners", type = Join.Type.LEFT_FETCH)
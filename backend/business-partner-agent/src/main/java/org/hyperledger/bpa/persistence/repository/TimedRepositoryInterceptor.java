@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micronaut.aop.InterceptorBean;
+import io.micronaut.aop.MethodInterceptor;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.context.BeanProvider;
+import io.micronaut.inject.ExecutableMethod;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import lombok.NonNull;
+import org.hyperledger.bpa.impl.profile.Profiler;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records a timer per repository method and outcome, and a span if a profile is
+ * running. The registry is looked up on the first call, as binding the registry
+ * creates beans that depend on repositories. If metrics are disabled only the
+ * span is recorded.
+ */
+@Singleton
+@InterceptorBean(TimedRepository.class)
+public class TimedRepositoryInterceptor implements MethodInterceptor<Object, Object> {
+
+    static final String METRIC = "bpa.repository.calls";
+
+    @Inject
+    BeanProvider<MeterRegistry> registryProvider;
+
+    private final Map<ExecutableMethod<?, ?>, Calls> calls = new ConcurrentHashMap<>();
+
+    private volatile MeterRegistry registry;
+
+    private volatile boolean resolved;
+
+    @Override
+    public Object intercept(MethodInvocationContext<Object, Object> context) {
+        Calls c = calls.computeIfAbsent(context.getExecutableMethod(), m -> calls(registry(), context));
+        long start = System.nanoTime();
+        try (Profiler.Span ignored = Profiler.span(Profiler.DB, c.name)) {
+            Object result = context.proceed();
+            c.record(c.success, start);
+            return result;
+        } catch (RuntimeException e) {
+            c.record(c.error, start);
+            throw e;
+        }
+    }
+
+    private MeterRegistry registry() {
+        if (!resolved) {
+            registry = registryProvider.isPresent() ? registryProvider.get() : null;
+            resolved = true;
+        }
+        return registry;
+    }
+
+    private static Calls calls(MeterRegistry r, @NonNull MethodInvocationContext<Object, Object> ctx) {
+        String repository = repositoryName(ctx);
+        String method = ctx.getMethodName();
+        return new Calls(repository + "." + method,
+                r != null ? timer(r, repository, method, "success") : null,
+                r != null ? timer(r, repository, method, "error") : null);
+    }
+
+    private static Timer timer(MeterRegistry r, String repository, String method, String outcome) {
+        return Timer.builder(METRIC)
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("outcome", outcome)
+                .register(r);
+    }
+
+    /**
+     * Inherited methods like save are declared by the CrudRepository, so the name
+     * is taken from the annotated interface the target implements.
+     */
+    static String repositoryName(@NonNull MethodInvocationContext<Object, Object> ctx) {
+        Object target = ctx.getTarget();
+        if (target != null) {
+            return Arrays.stream(target.getClass().getInterfaces())
+                    .filter(i -> i.isAnnotationPresent(TimedRepository.class))
+                    .findFirst()
+                    .map(Class::getSimpleName)
+                    .orElseGet(() -> ctx.getDeclaringType().getSimpleName());
+        }
+        return ctx.getDeclaringType().getSimpleName();
+    }
+
+    /**
+     * timers are null if metrics are disabled, the name is still used by the
+     * profiler
+     */
+    private record Calls(String name, Timer success, Timer error) {
+
+        void record(Timer timer, long start) {
+            if (timer != null) {
+                timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository.messaging;
+
+import io.micronaut.core.annotation.Nullable;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.jdbc.annotation.JdbcRepository;
+import io.micronaut.data.model.query.builder.sql.Dialect;
+import io.micronaut.data.repository.CrudRepository;
+import org.hyperledger.bpa.persistence.model.messaging.EmailOutboxEntry;
+import org.hyperledger.bpa.persistence.repository.TimedRepository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@JdbcRepository(dialect = Dialect.POSTGRES)
+@TimedRepository
+public interface EmailOutboxRepository extends CrudRepository<EmailOutboxEntry, UUID> {
+
+    @Query("SELECT * FROM email_outbox WHERE next_attempt_at <= :now ORDER BY next_attempt_at LIMIT :limit")
+    List<EmailOutboxEntry> findDue(Instant now, int limit);
+
+    /**
+     * @param digestKey {@link EmailOutboxEntry#getDigestKey()}
+     * @return when the pending digest of the key is sent, empty if there is none
+     */
+    @Query("SELECT next_attempt_at FROM email_outbox WHERE digest_key = :digestKey AND attempts = 0 "
+            + "AND next_attempt_at IS NOT NULL ORDER BY next_attempt_at LIMIT 1")
+    Optional<Instant> findPendingDigest(String digestKey);
+
+    /**
+     * Claims the entry by moving its next attempt, only one caller wins if several
+     * instances drain the outbox at the same time.
+     *
+     * @return 1 if claimed, 0 otherwise
+     */
+    @Query("UPDATE email_outbox SET next_attempt_at = :lease, attempts = attempts + 1 "
+            + "WHERE id = :id AND next_attempt_at = :expected")
+    Number claim(UUID id, Instant expected, Instant lease);
+
+    @Query("UPDATE email_outbox SET next_attempt_at = :nextAttemptAt, last_error = :lastError WHERE id = :id")
+    Number updateFailed(UUID id, @Nullable Instant nextAttemptAt, String lastError);
+
+    @Query("DELETE FROM email_outbox WHERE next_attempt_at IS NULL AND created_at < :before")
+    Number deleteFailedBefore(Instant before);
+}
@@ -22,10 +22,12 @@ import io.micronaut.data.annotation.Id;
 import io.micronaut.data.jdbc.annotation.JdbcRepository;
 import io.micronaut.data.repository.CrudRepository;
 import org.hyperledger.bpa.persistence.model.messaging.MessageTemplate;
+import org.hyperledger.bpa.persistence.repository.TimedRepository;
 
 import java.util.UUID;
 
 @JdbcRepository
+@TimedRepository
 public interface MessageTemplateRepository extends CrudRepository<MessageTemplate, UUID> {
 
     Number updateTemplateInfo(@Id UUID id, @Nullable String subject, String template);
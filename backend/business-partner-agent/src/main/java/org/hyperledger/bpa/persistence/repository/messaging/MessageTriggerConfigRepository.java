@@ -27,12 +27,14 @@ import org.hyperledger.bpa.persistence.model.messaging.MessageTemplate;
 import org.hyperledger.bpa.persistence.model.messaging.MessageTrigger;
 import org.hyperledger.bpa.persistence.model.messaging.MessageTriggerConfig;
 import org.hyperledger.bpa.persistence.model.messaging.MessageUserInfo;
+import org.hyperledger.bpa.persistence.repository.TimedRepository;
 
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @JdbcRepository
+@TimedRepository
 public interface MessageTriggerConfigRepository extends CrudRepository<MessageTriggerConfig, UUID> {
 
     @Override
@@ -0,0 +1,10 @@
+CREATE TABLE ledger_cache (
+    cache_key character varying(1024) PRIMARY KEY,
+    kind character varying(255) NOT NULL,
+    value text NOT NULL,
+    created_at timestamp without time zone NOT NULL,
+    expires_at timestamp without time zone
+);
+
+CREATE INDEX ledger_cache_created_at_idx ON ledger_cache (created_at DESC);
+CREATE INDEX ledger_cache_expires_at_idx ON ledger_cache (expires_at) WHERE expires_at IS NOT NULL;
@@ -0,0 +1 @@
+ALTER TABLE bpa_state ADD COLUMN schemas_hash character varying(255);
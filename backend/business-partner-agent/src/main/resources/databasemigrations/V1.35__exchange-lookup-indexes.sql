@@ -0,0 +1,24 @@
+-- every aca-py event resolves its entity by one of these columns
+
+-- partner
+CREATE INDEX partner_connection_id_idx ON partner (connection_id) WHERE connection_id IS NOT NULL;
+CREATE INDEX partner_invitation_msg_id_idx ON partner (invitation_msg_id) WHERE invitation_msg_id IS NOT NULL;
+CREATE INDEX partner_did_idx ON partner (did);
+-- trust ping job
+CREATE INDEX partner_trust_ping_state_idx ON partner (state) WHERE trust_ping = true AND aries_support = true;
+
+-- credential exchange (holder and issuer)
+CREATE INDEX bpa_credential_exchange_credential_exchange_id_idx ON bpa_credential_exchange (credential_exchange_id);
+CREATE INDEX bpa_credential_exchange_referent_idx ON bpa_credential_exchange (referent) WHERE referent IS NOT NULL;
+CREATE INDEX bpa_credential_exchange_revocation_idx ON bpa_credential_exchange (rev_reg_id, cred_rev_id)
+    WHERE rev_reg_id IS NOT NULL;
+CREATE INDEX bpa_credential_exchange_partner_id_idx ON bpa_credential_exchange (partner_id);
+
+-- presentation exchange
+CREATE INDEX partner_proof_presentation_exchange_id_idx ON partner_proof (presentation_exchange_id);
+CREATE INDEX partner_proof_thread_id_idx ON partner_proof (thread_id) WHERE thread_id IS NOT NULL;
+CREATE INDEX partner_proof_partner_id_idx ON partner_proof (partner_id);
+
+-- activity, one row per exchange and role
+CREATE INDEX activity_link_id_type_role_idx ON activity (link_id, type, role);
+CREATE INDEX activity_completed_updated_at_idx ON activity (completed, updated_at DESC);
@@ -0,0 +1,14 @@
+CREATE TABLE email_outbox (
+    id uuid PRIMARY KEY,
+    created_at timestamp without time zone NOT NULL,
+    send_to character varying(255) NOT NULL,
+    subject text NOT NULL,
+    text_body text NOT NULL,
+    digest_key character varying(255),
+    attempts integer NOT NULL DEFAULT 0,
+    next_attempt_at timestamp without time zone,
+    last_error text
+);
+
+CREATE INDEX email_outbox_next_attempt_at_idx ON email_outbox (next_attempt_at) WHERE next_attempt_at IS NOT NULL;
+CREATE INDEX email_outbox_digest_key_idx ON email_outbox (digest_key) WHERE digest_key IS NOT NULL;
@@ -0,0 +1,20 @@
+CREATE INDEX chat_message_partner_id_created_at_idx ON chat_message (partner_id, created_at, id);
+
+-- one row per partner and retention run, the messages are kept as a json array
+CREATE TABLE chat_message_archive (
+    id bigserial PRIMARY KEY,
+    partner_id uuid NOT NULL,
+    first_created_at timestamp without time zone NOT NULL,
+    last_created_at timestamp without time zone NOT NULL,
+    message_count integer NOT NULL,
+    messages jsonb NOT NULL,
+    archived_at timestamp without time zone NOT NULL
+);
+
+CREATE INDEX chat_message_archive_partner_id_idx ON chat_message_archive (partner_id, last_created_at);
+
+ALTER TABLE chat_message_archive
+    ADD CONSTRAINT chat_message_archive_partner_fk_1
+        FOREIGN KEY (partner_id)
+            REFERENCES partner(id)
+            ON DELETE CASCADE;
@@ -0,0 +1,19 @@
+-- server side partner search, free text over alias, label and did
+-- pg_trgm is only a trusted extension from postgres 13 on. On postgres 12 and
+-- older creating it needs a superuser, if the bpa database user is none the
+-- extension has to be created upfront by one: CREATE EXTENSION pg_trgm;
+-- IF NOT EXISTS then turns this statement into a no-op.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX partner_search_text_trgm_idx ON partner
+    USING gin ((coalesce(alias, '') || ' ' || coalesce(label, '') || ' ' || coalesce(did, '')) gin_trgm_ops);
+
+-- default sort order of the search
+CREATE INDEX partner_created_at_idx ON partner (created_at DESC, id);
+
+-- tag filter, the primary key only covers lookups by partner
+CREATE INDEX partner_tag_tag_id_idx ON partner_tag (tag_id);
+
+-- issuer of schema filter if a ledger explorer is configured
+CREATE INDEX partner_supported_credentials_idx ON partner
+    USING gin ((supported_credentials -> 'wrapped') jsonb_path_ops);
@@ -0,0 +1,132 @@
+-- dashboard counters, maintained by triggers on the counted tables
+CREATE TABLE dashboard_counter (
+    name character varying(64) PRIMARY KEY,
+    value bigint NOT NULL
+);
+
+-- same counters bucketed by the hour the counted row was created, only the
+-- last two days are kept to answer the 24 hour period totals
+CREATE TABLE dashboard_counter_hourly (
+    name character varying(64) NOT NULL,
+    hour timestamp without time zone NOT NULL,
+    value bigint NOT NULL,
+    PRIMARY KEY (name, hour)
+);
+
+-- what is counted, used to (re)build the counters. The trigger functions below
+-- have to follow the same rules.
+CREATE VIEW dashboard_counter_source AS
+    SELECT CASE role WHEN 'ISSUER' THEN 'credentialsSent' ELSE 'credentialsReceived' END AS name, created_at
+        FROM bpa_credential_exchange WHERE state = 'CREDENTIAL_ACKED' AND role IN ('ISSUER', 'HOLDER')
+    UNION ALL
+    SELECT CASE state WHEN 'REQUEST_SENT' THEN 'presentationRequestsSent' ELSE 'presentationRequestsReceived' END,
+            created_at
+        FROM partner_proof WHERE state IN ('REQUEST_SENT', 'PRESENTATION_RECEIVED')
+    UNION ALL
+    SELECT 'partners', created_at FROM partner WHERE state <> 'INVITATION'
+    UNION ALL
+    SELECT 'tasks', created_at FROM activity WHERE completed = false;
+
+CREATE FUNCTION dashboard_counter_move(was text, is_now text, old_created timestamp, new_created timestamp)
+    RETURNS void AS $$
+BEGIN
+    IF was IS NOT DISTINCT FROM is_now THEN
+        RETURN;
+    END IF;
+    IF was IS NOT NULL THEN
+        INSERT INTO dashboard_counter (name, value) VALUES (was, -1)
+            ON CONFLICT (name) DO UPDATE SET value = dashboard_counter.value - 1;
+        IF old_created >= localtimestamp - interval '2 days' THEN
+            INSERT INTO dashboard_counter_hourly (name, hour, value) VALUES (was, date_trunc('hour', old_created), -1)
+                ON CONFLICT (name, hour) DO UPDATE SET value = dashboard_counter_hourly.value - 1;
+        END IF;
+    END IF;
+    IF is_now IS NOT NULL THEN
+        INSERT INTO dashboard_counter (name, value) VALUES (is_now, 1)
+            ON CONFLICT (name) DO UPDATE SET value = dashboard_counter.value + 1;
+        IF new_created >= localtimestamp - interval '2 days' THEN
+            INSERT INTO dashboard_counter_hourly (name, hour, value) VALUES (is_now, date_trunc('hour', new_created), 1)
+                ON CONFLICT (name, hour) DO UPDATE SET value = dashboard_counter_hourly.value + 1;
+        END IF;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+-- OLD is null in insert and NEW is null in delete triggers
+
+CREATE FUNCTION bpa_credential_exchange_count() RETURNS trigger AS $$
+BEGIN
+    PERFORM dashboard_counter_move(
+        CASE WHEN OLD.state = 'CREDENTIAL_ACKED' THEN
+            CASE OLD.role WHEN 'ISSUER' THEN 'credentialsSent' WHEN 'HOLDER' THEN 'credentialsReceived' END END,
+        CASE WHEN NEW.state = 'CREDENTIAL_ACKED' THEN
+            CASE NEW.role WHEN 'ISSUER' THEN 'credentialsSent' WHEN 'HOLDER' THEN 'credentialsReceived' END END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION partner_proof_count() RETURNS trigger AS $$
+BEGIN
+    PERFORM dashboard_counter_move(
+        CASE OLD.state WHEN 'REQUEST_SENT' THEN 'presentationRequestsSent'
+            WHEN 'PRESENTATION_RECEIVED' THEN 'presentationRequestsReceived' END,
+        CASE NEW.state WHEN 'REQUEST_SENT' THEN 'presentationRequestsSent'
+            WHEN 'PRESENTATION_RECEIVED' THEN 'presentationRequestsReceived' END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION partner_count() RETURNS trigger AS $$
+BEGIN
+    PERFORM dashboard_counter_move(
+        CASE WHEN OLD.state <> 'INVITATION' THEN 'partners' END,
+        CASE WHEN NEW.state <> 'INVITATION' THEN 'partners' END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION activity_count() RETURNS trigger AS $$
+BEGIN
+    PERFORM dashboard_counter_move(
+        CASE WHEN OLD.completed = false THEN 'tasks' END,
+        CASE WHEN NEW.completed = false THEN 'tasks' END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bpa_credential_exchange_count_trg
+    AFTER INSERT OR DELETE OR UPDATE OF state, role ON bpa_credential_exchange
+    FOR EACH ROW EXECUTE FUNCTION bpa_credential_exchange_count();
+
+CREATE TRIGGER partner_proof_count_trg
+    AFTER INSERT OR DELETE OR UPDATE OF state ON partner_proof
+    FOR EACH ROW EXECUTE FUNCTION partner_proof_count();
+
+CREATE TRIGGER partner_count_trg
+    AFTER INSERT OR DELETE OR UPDATE OF state ON partner
+    FOR EACH ROW EXECUTE FUNCTION partner_count();
+
+CREATE TRIGGER activity_count_trg
+    AFTER INSERT OR DELETE OR UPDATE OF completed ON activity
+    FOR EACH ROW EXECUTE FUNCTION activity_count();
+
+-- rebuilds both tables from the source, the lock makes triggers of concurrent
+-- transactions wait, so that no change is lost or counted twice
+CREATE PROCEDURE dashboard_counter_reconcile() AS $$
+BEGIN
+    LOCK TABLE dashboard_counter, dashboard_counter_hourly IN EXCLUSIVE MODE;
+    DELETE FROM dashboard_counter;
+    DELETE FROM dashboard_counter_hourly;
+    INSERT INTO dashboard_counter (name, value)
+        SELECT name, count(*) FROM dashboard_counter_source GROUP BY name;
+    INSERT INTO dashboard_counter_hourly (name, hour, value)
+        SELECT name, date_trunc('hour', created_at), count(*) FROM dashboard_counter_source
+        WHERE created_at >= localtimestamp - interval '2 days' GROUP BY name, date_trunc('hour', created_at);
+END;
+$$ LANGUAGE plpgsql;
+
+CALL dashboard_counter_reconcile();
@@ -0,0 +1,131 @@
+-- daily rollup of the exchange, partner and activity tables. A row counts the
+-- entities that were created on that day and are currently in that type, state
+-- and role, so a state change moves the count between rows of the same day.
+-- Dimensions that do not apply are empty, never null.
+CREATE TABLE stats_daily (
+    day date NOT NULL,
+    metric character varying(32) NOT NULL,
+    type character varying(64) NOT NULL,
+    state character varying(64) NOT NULL,
+    role character varying(64) NOT NULL,
+    value bigint NOT NULL,
+    PRIMARY KEY (day, metric, type, state, role)
+);
+
+CREATE INDEX stats_daily_metric_day_idx ON stats_daily (metric, day);
+
+CREATE VIEW stats_daily_source AS
+    SELECT CAST(created_at AS date) AS day, 'CREDENTIAL_EXCHANGE' AS metric, coalesce(type, '') AS type,
+            coalesce(state, '') AS state, coalesce(role, '') AS role
+        FROM bpa_credential_exchange
+    UNION ALL
+    SELECT CAST(created_at AS date), 'PRESENTATION_EXCHANGE', '', coalesce(state, ''), coalesce(role, '')
+        FROM partner_proof
+    UNION ALL
+    SELECT CAST(created_at AS date), 'PARTNER', CASE WHEN aries_support THEN 'ARIES' ELSE 'WEB' END,
+            coalesce(state, ''), CASE incoming WHEN true THEN 'INCOMING' WHEN false THEN 'OUTGOING' ELSE '' END
+        FROM partner
+    UNION ALL
+    SELECT CAST(created_at AS date), 'ACTIVITY', coalesce(type, ''),
+            CASE WHEN completed THEN 'COMPLETED' ELSE 'OPEN' END, coalesce(role, '')
+        FROM activity;
+
+-- keys are {type, state, role}, null if there is no old or new row
+CREATE FUNCTION stats_daily_move(metric text, old_key text[], new_key text[], old_created timestamp,
+        new_created timestamp) RETURNS void AS $$
+BEGIN
+    IF old_key IS NOT DISTINCT FROM new_key
+            AND CAST(old_created AS date) IS NOT DISTINCT FROM CAST(new_created AS date) THEN
+        RETURN;
+    END IF;
+    IF old_key IS NOT NULL AND old_created IS NOT NULL THEN
+        INSERT INTO stats_daily (day, metric, type, state, role, value)
+            VALUES (CAST(old_created AS date), metric, old_key[1], old_key[2], old_key[3], -1)
+            ON CONFLICT (day, metric, type, state, role) DO UPDATE SET value = stats_daily.value - 1;
+    END IF;
+    IF new_key IS NOT NULL AND new_created IS NOT NULL THEN
+        INSERT INTO stats_daily (day, metric, type, state, role, value)
+            VALUES (CAST(new_created AS date), metric, new_key[1], new_key[2], new_key[3], 1)
+            ON CONFLICT (day, metric, type, state, role) DO UPDATE SET value = stats_daily.value + 1;
+    END IF;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION bpa_credential_exchange_stats_daily() RETURNS trigger AS $$
+BEGIN
+    PERFORM stats_daily_move('CREDENTIAL_EXCHANGE',
+        CASE WHEN TG_OP <> 'INSERT' THEN
+            ARRAY[coalesce(OLD.type, ''), coalesce(OLD.state, ''), coalesce(OLD.role, '')] END,
+        CASE WHEN TG_OP <> 'DELETE' THEN
+            ARRAY[coalesce(NEW.type, ''), coalesce(NEW.state, ''), coalesce(NEW.role, '')] END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION partner_proof_stats_daily() RETURNS trigger AS $$
+BEGIN
+    PERFORM stats_daily_move('PRESENTATION_EXCHANGE',
+        CASE WHEN TG_OP <> 'INSERT' THEN ARRAY['', coalesce(OLD.state, ''), coalesce(OLD.role, '')] END,
+        CASE WHEN TG_OP <> 'DELETE' THEN ARRAY['', coalesce(NEW.state, ''), coalesce(NEW.role, '')] END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION partner_stats_daily() RETURNS trigger AS $$
+BEGIN
+    PERFORM stats_daily_move('PARTNER',
+        CASE WHEN TG_OP <> 'INSERT' THEN
+            ARRAY[CASE WHEN OLD.aries_support THEN 'ARIES' ELSE 'WEB' END, coalesce(OLD.state, ''),
+                CASE OLD.incoming WHEN true THEN 'INCOMING' WHEN false THEN 'OUTGOING' ELSE '' END] END,
+        CASE WHEN TG_OP <> 'DELETE' THEN
+            ARRAY[CASE WHEN NEW.aries_support THEN 'ARIES' ELSE 'WEB' END, coalesce(NEW.state, ''),
+                CASE NEW.incoming WHEN true THEN 'INCOMING' WHEN false THEN 'OUTGOING' ELSE '' END] END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE FUNCTION activity_stats_daily() RETURNS trigger AS $$
+BEGIN
+    PERFORM stats_daily_move('ACTIVITY',
+        CASE WHEN TG_OP <> 'INSERT' THEN ARRAY[coalesce(OLD.type, ''),
+            CASE WHEN OLD.completed THEN 'COMPLETED' ELSE 'OPEN' END, coalesce(OLD.role, '')] END,
+        CASE WHEN TG_OP <> 'DELETE' THEN ARRAY[coalesce(NEW.type, ''),
+            CASE WHEN NEW.completed THEN 'COMPLETED' ELSE 'OPEN' END, coalesce(NEW.role, '')] END,
+        OLD.created_at, NEW.created_at);
+    RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER bpa_credential_exchange_stats_daily_trg
+    AFTER INSERT OR DELETE OR UPDATE OF type, state, role, created_at ON bpa_credential_exchange
+    FOR EACH ROW EXECUTE FUNCTION bpa_credential_exchange_stats_daily();
+
+CREATE TRIGGER partner_proof_stats_daily_trg
+    AFTER INSERT OR DELETE OR UPDATE OF state, role, created_at ON partner_proof
+    FOR EACH ROW EXECUTE FUNCTION partner_proof_stats_daily();
+
+CREATE TRIGGER partner_stats_daily_trg
+    AFTER INSERT OR DELETE OR UPDATE OF aries_support, state, incoming, created_at ON partner
+    FOR EACH ROW EXECUTE FUNCTION partner_stats_daily();
+
+CREATE TRIGGER activity_stats_daily_trg
+    AFTER INSERT OR DELETE OR UPDATE OF type, completed, role, created_at ON activity
+    FOR EACH ROW EXECUTE FUNCTION activity_stats_daily();
+
+-- rebuilds all days from the given day on, see dashboard_counter_reconcile()
+-- for the lock
+CREATE PROCEDURE stats_daily_rebuild(from_day date) AS $$
+BEGIN
+    LOCK TABLE stats_daily IN EXCLUSIVE MODE;
+    DELETE FROM stats_daily WHERE day >= from_day;
+    INSERT INTO stats_daily (day, metric, type, state, role, value)
+        SELECT day, metric, type, state, role, count(*) FROM stats_daily_source
+        WHERE day >= from_day GROUP BY day, metric, type, state, role;
+END;
+$$ LANGUAGE plpgsql;
+
+-- backfill from history
+CALL stats_daily_rebuild(CAST('-infinity' AS date));
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.client;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import org.hyperledger.aries.AriesClient;
+import org.hyperledger.aries.api.exception.AriesException;
+import org.hyperledger.aries.api.ledger.DidVerkeyResponse;
+import org.hyperledger.aries.api.schema.SchemaSendResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class CachingAriesClientTest {
+
+    private final AriesClient ac = Mockito.mock(AriesClient.class);
+
+    private final PersistentLedgerCache persistentCache = Mockito.mock(PersistentLedgerCache.class);
+
+    private CachingAriesClient cache;
+
+    @BeforeEach
+    void setup() {
+        cache = client(ac, persistentCache);
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    static CachingAriesClient client(AriesClient ac, PersistentLedgerCache persistentCache) {
+        CacheManager cm = mock(CacheManager.class);
+        SyncCache ledger = mapBackedCache();
+        SyncCache miss = mapBackedCache();
+        when(cm.getCache(CachingAriesClient.LEDGER_CACHE)).thenReturn(ledger);
+        when(cm.getCache(CachingAriesClient.LEDGER_MISS_CACHE)).thenReturn(miss);
+
+        CachingAriesClient client = new CachingAriesClient();
+        client.setAc(ac);
+        client.setCacheManager(cm);
+        client.setPersistentCache(persistentCache);
+        client.setEnabled(true);
+        client.init();
+        return client;
+    }
+
+    @Test
+    void testSchemaIsOnlyFetchedOnce() throws Exception {
+        when(ac.schemasGetById("1")).thenReturn(Optional.of(SchemaSendResponse.Schema.builder().id("1").build()));
+
+        Assertions.assertEquals("1", cache.schemasGetById("1").orElseThrow().getId());
+        Assertions.assertEquals("1", cache.schemasGetById("1").orElseThrow().getId());
+
+        verify(ac, times(1)).schemasGetById("1");
+        CachingAriesClient.MethodStatsSnapshot stats = cache.stats().get("schemasGetById");
+        Assertions.assertEquals(1, stats.getHits());
+        Assertions.assertEquals(1, stats.getMisses());
+        Assertions.assertEquals(0.5, stats.getHitRate());
+    }
+
+    @Test
+    void testNotFoundIsCachedNegative() throws Exception {
+        when(ac.ledgerDidVerkey("did")).thenThrow(new AriesException(404, "not found"));
+
+        Assertions.assertTrue(cache.ledgerDidVerkey("did").isEmpty());
+        Assertions.assertTrue(cache.ledgerDidVerkey("did").isEmpty());
+
+        verify(ac, times(1)).ledgerDidVerkey("did");
+        Assertions.assertEquals(1, cache.stats().get("ledgerDidVerkey").getNegativeHits());
+    }
+
+    @Test
+    void testOtherErrorsAreNotCached() throws Exception {
+        when(ac.ledgerDidVerkey("did"))
+                .thenThrow(new AriesException(500, "error"))
+                .thenReturn(Optional.of(new DidVerkeyResponse("verkey")));
+
+        Assertions.assertThrows(AriesException.class, () -> cache.ledgerDidVerkey("did"));
+        Assertions.assertTrue(cache.ledgerDidVerkey("did").isPresent());
+    }
+
+    @Test
+    void testPersistentTierIsUsedBeforeAcaPy() throws Exception {
+        when(persistentCache.get(eq("schemasGetById:1"), any()))
+                .thenReturn(Optional.of(SchemaSendResponse.Schema.builder().id("1").build()));
+
+        Assertions.assertEquals("1", cache.schemasGetById("1").orElseThrow().getId());
+        Assertions.assertEquals("1", cache.schemasGetById("1").orElseThrow().getId());
+
+        verify(ac, never()).schemasGetById("1");
+        verify(persistentCache, times(1)).get(eq("schemasGetById:1"), any());
+        Assertions.assertEquals(1, cache.stats().get("schemasGetById").getPersistentHits());
+    }
+
+    @Test
+    void testFetchedValueIsPersisted() throws Exception {
+        SchemaSendResponse.Schema schema = SchemaSendResponse.Schema.builder().id("1").build();
+        when(ac.schemasGetById("1")).thenReturn(Optional.of(schema));
+
+        cache.schemasGetById("1");
+
+        verify(persistentCache, times(1)).put("schemasGetById", "schemasGetById:1", schema, null);
+    }
+
+    @Test
+    void testDisabled() throws Exception {
+        cache.setEnabled(false);
+        when(ac.schemasGetById("1")).thenReturn(Optional.empty());
+
+        cache.schemasGetById("1");
+        cache.schemasGetById("1");
+
+        verify(ac, times(2)).schemasGetById("1");
+    }
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private static SyncCache mapBackedCache() {
+        Map<Object, Object> store = new HashMap<>();
+        SyncCache c = mock(SyncCache.class);
+        when(c.get(any(), any(Class.class))).thenAnswer(inv -> Optional.ofNullable(store.get(inv.getArgument(0))));
+        doAnswer(inv -> store.put(inv.getArgument(0), inv.getArgument(1))).when(c).put(any(), any());
+        return c;
+    }
+}
@@ -17,6 +17,7 @@
  */
 package org.hyperledger.bpa.client;
 
+import okhttp3.OkHttpClient;
 import org.hyperledger.bpa.BaseTest;
 import org.hyperledger.bpa.controller.api.partner.PartnerCredentialType;
 import org.junit.jupiter.api.Disabled;
@@ -34,6 +35,7 @@ class LedgerExplorerClientTest extends BaseTest {
         LedgerExplorerClient c = new LedgerExplorerClient();
         c.setUrl("https://indy-test.bosch-digital.de");
         c.setMapper(mapper);
+        c.setOk(new OkHttpClient());
 
         final Optional<List<PartnerCredentialType>> credDefIds = c.queryCredentialDefinitions(
                 "CHysca6fY8n8ytCDLAJGZj");
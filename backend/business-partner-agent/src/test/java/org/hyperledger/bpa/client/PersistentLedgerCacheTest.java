@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.client;
+
+import io.micronaut.data.model.Pageable;
+import org.hyperledger.aries.AriesClient;
+import org.hyperledger.aries.api.schema.SchemaSendResponse;
+import org.hyperledger.bpa.impl.util.JsonCodec;
+import org.hyperledger.bpa.persistence.model.LedgerCacheEntry;
+import org.hyperledger.bpa.persistence.repository.LedgerCacheRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.lang.reflect.Type;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class PersistentLedgerCacheTest {
+
+    private static final String KIND = "schemasGetById";
+
+    private static final Map<String, Type> KINDS = Map.of(KIND, SchemaSendResponse.Schema.class);
+
+    private final LedgerCacheRepository repo = Mockito.mock(LedgerCacheRepository.class);
+
+    private PersistentLedgerCache cache;
+
+    @BeforeEach
+    void setup() {
+        cache = new PersistentLedgerCache();
+        cache.repo = repo;
+        cache.setEnabled(true);
+        cache.warmupSize = 5000;
+        cache.warmupTimeout = Duration.ofSeconds(10);
+    }
+
+    @Test
+    void testWarmupIsBoundBySize() {
+        cache.warmupSize = 3;
+        when(repo.findByKindIn(anyList(), any(Pageable.class))).thenAnswer(inv -> entries(3));
+        Map<String, Object> loaded = new HashMap<>();
+
+        Assertions.assertEquals(3, cache.warmup(KINDS, loaded::put));
+
+        Assertions.assertEquals(3, loaded.size());
+        Assertions.assertEquals("2", ((SchemaSendResponse.Schema) loaded.get(KIND + ":2")).getId());
+        verify(repo, times(1)).findByKindIn(eq(List.of(KIND)), argThat(p -> p.getSize() == 3));
+    }
+
+    @Test
+    void testWarmupPagesUntilAShortPage() {
+        when(repo.findByKindIn(anyList(), any(Pageable.class)))
+                .thenReturn(entries(500))
+                .thenReturn(entries(10));
+
+        Assertions.assertEquals(510, cache.warmup(KINDS, (k, v) -> {
+        }));
+        verify(repo, times(2)).findByKindIn(anyList(), any(Pageable.class));
+    }
+
+    @Test
+    void testWarmupIsBoundByTime() {
+        cache.warmupTimeout = Duration.ZERO;
+
+        Assertions.assertEquals(0, cache.warmup(KINDS, (k, v) -> {
+        }));
+        verify(repo, never()).findByKindIn(anyList(), any(Pageable.class));
+    }
+
+    @Test
+    void testWarmupKeepsWhatWasLoadedBeforeAnError() {
+        when(repo.findByKindIn(anyList(), any(Pageable.class)))
+                .thenReturn(entries(500))
+                .thenThrow(new IllegalStateException("db down"));
+
+        Assertions.assertEquals(500, cache.warmup(KINDS, (k, v) -> {
+        }));
+    }
+
+    @Test
+    void testExpiredEntryIsAMiss() {
+        when(repo.findById(KIND + ":1")).thenReturn(Optional.of(entry(1, Instant.now().minusSeconds(1))));
+        when(repo.findById(KIND + ":2")).thenReturn(Optional.of(entry(2, Instant.now().plusSeconds(60))));
+        when(repo.findById(KIND + ":3")).thenReturn(Optional.of(entry(3, null)));
+
+        Assertions.assertTrue(cache.get(KIND + ":1", SchemaSendResponse.Schema.class).isEmpty());
+        Assertions.assertTrue(cache.get(KIND + ":2", SchemaSendResponse.Schema.class).isPresent());
+        Assertions.assertTrue(cache.get(KIND + ":3", SchemaSendResponse.Schema.class).isPresent());
+    }
+
+    @Test
+    void testPutSetsTheExpiry() {
+        cache.put(KIND, KIND + ":1", SchemaSendResponse.Schema.builder().id("1").build(), Duration.ofHours(1));
+        cache.put(KIND, KIND + ":2", SchemaSendResponse.Schema.builder().id("2").build(), null);
+
+        verify(repo).upsert(eq(KIND + ":1"), eq(KIND), anyString(), any(Instant.class),
+                argThat(i -> i != null && i.isAfter(Instant.now().plusSeconds(3500))));
+        verify(repo).upsert(eq(KIND + ":2"), eq(KIND), anyString(), any(Instant.class), isNull());
+    }
+
+    @Test
+    void testRepositoryErrorsAreMisses() {
+        when(repo.findById(anyString())).thenThrow(new IllegalStateException("db down"));
+        doThrow(new IllegalStateException("db down")).when(repo)
+                .upsert(anyString(), anyString(), anyString(), any(), any());
+
+        Assertions.assertTrue(cache.get(KIND + ":1", SchemaSendResponse.Schema.class).isEmpty());
+        Assertions.assertDoesNotThrow(() -> cache.put(KIND, KIND + ":1",
+                SchemaSendResponse.Schema.builder().id("1").build(), null));
+    }
+
+    @Test
+    void testLedgerIsAskedWhenThePersistentTierFails() throws Exception {
+        when(repo.findById(anyString())).thenThrow(new IllegalStateException("db down"));
+        AriesClient ac = mock(AriesClient.class);
+        when(ac.schemasGetById("1")).thenReturn(Optional.of(SchemaSendResponse.Schema.builder().id("1").build()));
+        CachingAriesClient client = CachingAriesClientTest.client(ac, cache);
+
+        Assertions.assertEquals("1", client.schemasGetById("1").orElseThrow().getId());
+        verify(ac, times(1)).schemasGetById("1");
+    }
+
+    @Test
+    void testDisabled() {
+        cache.setEnabled(false);
+
+        Assertions.assertTrue(cache.get(KIND + ":1", SchemaSendResponse.Schema.class).isEmpty());
+        Assertions.assertEquals(0, cache.warmup(KINDS, (k, v) -> {
+        }));
+        cache.put(KIND, KIND + ":1", SchemaSendResponse.Schema.builder().id("1").build(), null);
+        verifyNoInteractions(repo);
+    }
+
+    private static List<LedgerCacheEntry> entries(int count) {
+        return IntStream.range(0, count).mapToObj(i -> entry(i, null)).collect(Collectors.toList());
+    }
+
+    private static LedgerCacheEntry entry(int id, Instant expiresAt) {
+        return LedgerCacheEntry.builder()
+                .cacheKey(KIND + ":" + id)
+                .kind(KIND)
+                .value(JsonCodec.GSON.toJson(SchemaSendResponse.Schema.builder().id(String.valueOf(id)).build()))
+                .createdAt(Instant.now())
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
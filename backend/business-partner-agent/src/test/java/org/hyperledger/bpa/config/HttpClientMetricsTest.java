@@ -0,0 +1,118 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HttpClientMetricsTest {
+
+    private MockWebServer server;
+
+    @BeforeEach
+    void setup() throws Exception {
+        server = new MockWebServer();
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    @Test
+    void testCallsAndErrorsAreRecordedPerTarget() throws Exception {
+        HttpClientMetrics metrics = new HttpClientMetrics();
+        HttpClientConfig config = new HttpClientConfig("test");
+        config.setHttp2(false);
+        OkHttpClient client = new HttpClientFactory().okHttpClient(config, metrics);
+
+        server.enqueue(new MockResponse().setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(503));
+
+        Request request = new Request.Builder().url(server.url("/")).build();
+        try (Response ignored = client.newCall(request).execute()) {
+            // no body
+        }
+        try (Response ignored = client.newCall(request).execute()) {
+            // no body
+        }
+
+        HttpClientMetrics.Snapshot snapshot = metrics.snapshot().get("test");
+        assertEquals(2, snapshot.getCalls());
+        assertEquals(1, snapshot.getErrors());
+        assertEquals(0, snapshot.getInFlight());
+    }
+
+    @Test
+    void testAcaPyCallsAreTimedPerOperation() throws Exception {
+        PrometheusMeterRegistry registry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        HttpClientMetrics metrics = new HttpClientMetrics();
+        metrics.bindTo(registry);
+        HttpClientConfig config = new HttpClientConfig(HttpClientFactory.ACAPY);
+        config.setHttp2(false);
+        OkHttpClient client = new HttpClientFactory().okHttpClient(config, metrics);
+
+        server.enqueue(new MockResponse().setResponseCode(200));
+        server.enqueue(new MockResponse().setResponseCode(500));
+
+        for (String path : List.of("/connections/3fa85f64-5717-4562-b3fc-2c963f66afa6/send-ping",
+                "/connections/0b6e2e2a-7f7c-4b4e-9d5c-0c8a3f1c2d4e/send-ping")) {
+            Request request = new Request.Builder().url(server.url(path)).build();
+            try (Response ignored = client.newCall(request).execute()) {
+                // no body
+            }
+        }
+
+        String scrape = registry.scrape();
+        assertTrue(scrape.contains("bpa_acapy_requests_seconds_count{operation=\"GET /connections/{id}/send-ping\","
+                + "outcome=\"success\",} 1.0"), scrape);
+        assertTrue(scrape.contains("bpa_acapy_errors_total{operation=\"GET /connections/{id}/send-ping\",} 1.0"),
+                scrape);
+        assertTrue(scrape.contains("bpa_http_client_calls_seconds_count{client=\"acapy\",} 2.0"), scrape);
+    }
+
+    @Test
+    void testOperationIdsAreReplaced() {
+        assertEquals("GET /schemas/{id}",
+                HttpClientMetrics.operation("GET", List.of("schemas", "M6Mbe3qx7vB4wpZF4sBRjt:2:bank_account:1.0")));
+        assertEquals("GET /ledger/did-verkey",
+                HttpClientMetrics.operation("GET", List.of("ledger", "did-verkey")));
+        assertEquals("POST /issue-credential-2.0/records/{id}/send-offer",
+                HttpClientMetrics.operation("POST", List.of("issue-credential-2.0", "records",
+                        "3fa85f64-5717-4562-b3fc-2c963f66afa6", "send-offer")));
+        assertEquals("GET /wallet/did/{id}",
+                HttpClientMetrics.operation("GET", List.of("wallet", "did", "V4SGRU86Z58d6TV7PBUe6f")));
+        assertEquals("GET /revocation/registry/{id}",
+                HttpClientMetrics.operation("GET", List.of("revocation", "registry", "42")));
+        assertEquals("GET /", HttpClientMetrics.operation("GET", List.of("")));
+    }
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.context.env.Environment;
+import org.hyperledger.bpa.impl.aries.AriesEventDispatcher;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Builds the meter registry, and with it every meter binder, without a
+ * database. Catches binders that pull in a bean graph which needs the registry
+ * itself, e.g. through the cache metrics.
+ */
+class MetricsStartupTest {
+
+    @Test
+    void testRegistryAndBindersStart() {
+        try (ApplicationContext ctx = ApplicationContext.builder()
+                .environments(Environment.TEST)
+                .properties(Map.of(
+                        "micronaut.metrics.enabled", true,
+                        // no connection is made up front
+                        "datasources.*.url", "jdbc:postgresql://localhost:1/bpa",
+                        "datasources.*.driverClassName", "org.postgresql.Driver",
+                        "flyway.datasources.*.enabled", false))
+                .start()) {
+            MeterRegistry registry = ctx.getBean(MeterRegistry.class);
+            assertNotNull(registry);
+            assertNotNull(ctx.getBean(AriesEventDispatcher.class));
+        }
+    }
+}
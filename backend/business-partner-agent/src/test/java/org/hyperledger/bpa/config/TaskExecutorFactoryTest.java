@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskExecutorFactoryTest {
+
+    @Test
+    void testQueueIsBoundedAndCallerRuns() throws Exception {
+        TaskExecutorMetrics metrics = new TaskExecutorMetrics();
+        ExecutorService executor = create("test", TaskExecutorConfig.RejectionPolicy.CALLER_RUNS, metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        executor.execute(() -> {
+            started.countDown();
+            await(release);
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        executor.execute(() -> {
+        });
+        assertEquals(1, metrics.snapshot().get("test").getQueued());
+
+        AtomicReference<String> ranOn = new AtomicReference<>();
+        executor.execute(() -> ranOn.set(Thread.currentThread().getName()));
+        assertEquals(Thread.currentThread().getName(), ranOn.get());
+
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+
+        TaskExecutorMetrics.Snapshot snapshot = metrics.snapshot().get("test");
+        assertEquals(3, snapshot.getExecuted());
+        assertEquals(1, snapshot.getRejected());
+        assertEquals(0, snapshot.getActive());
+        assertEquals(0, snapshot.getQueued());
+    }
+
+    @Test
+    void testAbortPolicy() throws Exception {
+        TaskExecutorMetrics metrics = new TaskExecutorMetrics();
+        ExecutorService executor = create("abort", TaskExecutorConfig.RejectionPolicy.ABORT, metrics);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.execute(() -> await(release));
+        executor.execute(() -> await(release));
+        assertThrows(RejectedExecutionException.class, () -> executor.execute(() -> {
+        }));
+        release.countDown();
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        assertEquals(1, metrics.snapshot().get("abort").getRejected());
+    }
+
+    @Test
+    void testThreadsAreNamedAfterTheExecutor() throws Exception {
+        ExecutorService executor = create("named", TaskExecutorConfig.RejectionPolicy.ABORT,
+                new TaskExecutorMetrics());
+        assertTrue(executor.submit(() -> Thread.currentThread().getName()).get().startsWith("bpa-named-"));
+        executor.shutdown();
+    }
+
+    @Test
+    void testVirtualThreadsFallBackOnOlderJdks() throws Exception {
+        TaskExecutorConfig config = new TaskExecutorConfig("virtual");
+        config.setVirtualThreads(true);
+        ExecutorService executor = new TaskExecutorFactory().taskExecutor(config, new TaskExecutorMetrics());
+        assertEquals(Runtime.version().feature() >= 21,
+                TaskExecutorFactory.virtualThreadFactory("virtual").isPresent());
+        assertEquals(42, executor.submit(() -> 42).get(5, TimeUnit.SECONDS));
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+    }
+
+    private static ExecutorService create(String name, TaskExecutorConfig.RejectionPolicy policy,
+            TaskExecutorMetrics metrics) {
+        TaskExecutorConfig config = new TaskExecutorConfig(name);
+        config.setThreads(1);
+        config.setQueueSize(1);
+        config.setRejectionPolicy(policy);
+        return new TaskExecutorFactory().taskExecutor(config, metrics);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
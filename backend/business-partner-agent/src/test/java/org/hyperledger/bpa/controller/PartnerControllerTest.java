@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.controller;
+
+import io.micronaut.http.HttpHeaders;
+import io.micronaut.http.HttpRequest;
+import io.micronaut.http.HttpResponse;
+import io.micronaut.http.HttpStatus;
+import io.micronaut.http.MutableHttpRequest;
+import io.micronaut.http.client.HttpClient;
+import io.micronaut.http.client.annotation.Client;
+import io.micronaut.http.client.exceptions.HttpClientResponseException;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+@MicronautTest
+public class PartnerControllerTest extends BaseControllerTest {
+
+    private final HttpClient client;
+
+    @Inject
+    PartnerRepository partnerRepo;
+
+    public PartnerControllerTest(@Client("/api/partners") HttpClient client) {
+        super(client);
+        this.client = client;
+    }
+
+    @Test
+    void testGetPartnerReturnsETag() {
+        Partner p = partnerRepo.save(partner());
+
+        HttpResponse<PartnerAPI> res = get(p.getId(), null);
+
+        Assertions.assertEquals(HttpStatus.OK, res.getStatus());
+        Assertions.assertEquals(p.getDid(), res.body().getDid());
+        Assertions.assertTrue(res.header(HttpHeaders.ETAG).matches("\"[0-9a-f]+\""));
+    }
+
+    @Test
+    void testGetPartnerNotModified() {
+        Partner p = partnerRepo.save(partner());
+        String eTag = get(p.getId(), null).header(HttpHeaders.ETAG);
+
+        HttpResponse<PartnerAPI> res = get(p.getId(), eTag);
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, res.getStatus());
+        Assertions.assertEquals(eTag, res.header(HttpHeaders.ETAG));
+        Assertions.assertTrue(res.getBody().isEmpty());
+    }
+
+    @Test
+    void testGetPartnerETagChangesWithPartner() {
+        Partner p = partnerRepo.save(partner());
+        String eTag = get(p.getId(), null).header(HttpHeaders.ETAG);
+
+        partnerRepo.updateAlias(p.getId(), "renamed", null);
+        HttpResponse<PartnerAPI> res = get(p.getId(), eTag);
+
+        Assertions.assertEquals(HttpStatus.OK, res.getStatus());
+        Assertions.assertEquals("renamed", res.body().getAlias());
+        Assertions.assertNotEquals(eTag, res.header(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void testGetUnknownPartner() {
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, get(UUID.randomUUID(), null).getStatus());
+    }
+
+    private HttpResponse<PartnerAPI> get(UUID id, String ifNoneMatch) {
+        MutableHttpRequest<?> req = HttpRequest.GET("/" + id);
+        if (ifNoneMatch != null) {
+            req.header(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        try {
+            return client.toBlocking().exchange(req, PartnerAPI.class);
+        } catch (HttpClientResponseException e) {
+            return HttpResponse.status(e.getStatus());
+        }
+    }
+
+    private static Partner partner() {
+        return Partner
+                .builder()
+                .ariesSupport(Boolean.TRUE)
+                .did("did:indy:" + UUID.randomUUID())
+                .alias("alias")
+                .build();
+    }
+}
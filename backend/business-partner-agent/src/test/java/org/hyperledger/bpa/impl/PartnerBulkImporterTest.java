@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import org.hyperledger.aries.api.connection.ConnectionRecord;
+import org.hyperledger.bpa.api.PartnerAPI;
+import org.hyperledger.bpa.controller.api.partner.AddPartnerRequest;
+import org.hyperledger.bpa.controller.api.partner.PartnerImportStatus;
+import org.hyperledger.bpa.controller.api.partner.PartnerImportStatus.RowState;
+import org.hyperledger.bpa.impl.activity.PartnerCredDefLookup;
+import org.hyperledger.bpa.impl.activity.PartnerLookup;
+import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
+import org.hyperledger.bpa.impl.util.Converter;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PartnerBulkImporterTest {
+
+    @Mock
+    private PartnerRepository repo;
+
+    @Mock
+    private Converter converter;
+
+    @Mock
+    private ConnectionManager cm;
+
+    @Mock
+    private PartnerCredDefLookup credLookup;
+
+    @Mock
+    private PartnerLookup partnerLookup;
+
+    @Mock
+    private WebhookService webhook;
+
+    @Mock
+    private CacheManager<?> cacheManager;
+
+    @Mock
+    private SyncCache<?> cache;
+
+    @InjectMocks
+    private PartnerBulkImporter importer;
+
+    private final Map<Object, Object> jobs = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        importer.executor = Executors.newFixedThreadPool(4);
+        importer.ledgerPrefix = "did:sov:";
+        importer.concurrency = 4;
+        importer.connectionsPerSecond = 0;
+
+        doReturn(cache).when(cacheManager).getCache(PartnerBulkImporter.IMPORT_CACHE);
+        doAnswer(inv -> jobs.put(inv.getArgument(0), inv.getArgument(1))).when(cache).put(any(), any());
+        when(cache.get(any(), any(Class.class)))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.getArgument(0))));
+        importer.init();
+
+        when(partnerLookup.lookupPartner(anyString())).thenAnswer(inv -> {
+            if (inv.getArgument(0).equals("did:sov:broken")) {
+                throw new IllegalStateException("no did document");
+            }
+            return new PartnerAPI();
+        });
+        when(converter.toModelObject(anyString(), any(PartnerAPI.class)))
+                .thenAnswer(inv -> Partner.builder().did(inv.getArgument(0)).build());
+        when(cm.createConnection(anyString())).thenAnswer(inv -> {
+            ConnectionRecord c = new ConnectionRecord();
+            c.setConnectionId("c-" + inv.getArgument(0));
+            return Optional.of(c);
+        });
+        when(repo.save(any(Partner.class))).thenAnswer(inv -> {
+            Partner p = inv.getArgument(0);
+            p.setId(UUID.randomUUID());
+            return p;
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        importer.executor.shutdownNow();
+    }
+
+    @Test
+    void testImport() throws Exception {
+        Partner existing = Partner.builder().id(UUID.randomUUID()).did("did:sov:existing").build();
+        when(repo.findByDidIn(anyList())).thenReturn(List.of(existing));
+
+        PartnerImportStatus started = importer.start(List.of(
+                request("did:sov:1"),
+                request("did:sov:existing"),
+                request("did:sov:2"),
+                request("did:sov:1"),
+                request(""),
+                request("did:sov:broken"),
+                request("did:web:3")));
+        assertEquals(7, started.getTotal());
+
+        PartnerImportStatus status = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(3, status.getImported());
+        assertEquals(2, status.getSkipped());
+        assertEquals(2, status.getFailed());
+        assertEquals(List.of(RowState.IMPORTED, RowState.EXISTS, RowState.IMPORTED, RowState.DUPLICATE,
+                RowState.FAILED, RowState.FAILED, RowState.IMPORTED),
+                status.getRows().stream().map(PartnerImportStatus.Row::getState).collect(Collectors.toList()));
+        assertEquals(existing.getId().toString(), status.getRows().get(1).getPartnerId());
+
+        verify(repo, times(3)).save(argThat(p -> p.getConnectionId().equals("c-" + p.getDid())));
+        verify(cm, times(3)).createConnection(anyString());
+        verify(webhook, times(3)).convertAndSend(any(), any());
+        verify(credLookup, times(1)).lookupTypesForAllPartnersAsync();
+    }
+
+    @Test
+    void testNothingToImport() throws Exception {
+        when(repo.findByDidIn(anyList())).thenReturn(List.of(
+                Partner.builder().id(UUID.randomUUID()).did("did:web:1").build()));
+
+        PartnerImportStatus started = importer.start(List.of(request("did:web:1")));
+
+        PartnerImportStatus status = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(1, status.getSkipped());
+        verify(repo, never()).save(any(Partner.class));
+        verify(credLookup, never()).lookupTypesForAllPartnersAsync();
+    }
+
+    @Test
+    void testSaveFailedRemovesConnection() throws Exception {
+        when(repo.save(argThat(p -> p != null && p.getDid().equals("did:web:2"))))
+                .thenThrow(new IllegalStateException("db down"));
+
+        PartnerImportStatus started = importer.start(List.of(request("did:web:1"), request("did:web:2")));
+
+        PartnerImportStatus status = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(1, status.getImported());
+        assertEquals(1, status.getFailed());
+        assertEquals(RowState.FAILED, status.getRows().get(1).getState());
+        assertEquals("db down", status.getRows().get(1).getMessage());
+        verify(cm, times(1)).removeConnection("c-did:web:2");
+        verify(webhook, times(1)).convertAndSend(any(), any());
+    }
+
+    private PartnerImportStatus awaitDone(UUID id) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < until) {
+            PartnerImportStatus status = importer.status(id).orElseThrow();
+            if (status.getState() == PartnerImportStatus.State.DONE) {
+                return status;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        throw new AssertionError("import did not finish");
+    }
+
+    private static AddPartnerRequest request(String did) {
+        AddPartnerRequest req = new AddPartnerRequest();
+        req.setDid(did);
+        return req;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import io.micronaut.data.model.Page;
+import io.micronaut.data.model.Pageable;
+import org.hyperledger.bpa.api.PartnerListItem;
+import org.hyperledger.bpa.controller.api.partner.PartnerSearchParameters;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.hyperledger.bpa.persistence.repository.PartnerSearchRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class PartnerManagerSearchTest {
+
+    @Mock
+    private PartnerRepository repo;
+
+    @Mock
+    private PartnerSearchRepository searchRepo;
+
+    @InjectMocks
+    private PartnerManager pm;
+
+    @BeforeEach
+    void setup() {
+        pm.searchMaxPageSize = 200;
+        pm.searchCountCap = 10_000;
+        when(searchRepo.search(any(), anyInt(), anyLong())).thenReturn(List.of());
+    }
+
+    @Test
+    void testLikeWildcardsAreEscaped() {
+        assertEquals("%50\\%\\_off%", searchPattern("50%_off"));
+    }
+
+    @Test
+    void testEscapeCharacterIsEscaped() {
+        assertEquals("%a\\\\b%", searchPattern("a\\b"));
+    }
+
+    @Test
+    void testTextIsTrimmed() {
+        assertEquals("%acme corp%", searchPattern("  acme corp "));
+    }
+
+    @Test
+    void testBlankTextDisablesTheFilter() {
+        assertNull(searchPattern("  "));
+    }
+
+    @Test
+    void testEstimateIsOnlyUsedWithoutFilter() {
+        pm.searchCountCap = 2;
+        when(searchRepo.search(any(), anyInt(), anyLong()))
+                .thenReturn(List.of(new PartnerListItem(), new PartnerListItem()));
+        when(searchRepo.countSearch(any(), anyInt())).thenReturn(2L);
+        when(repo.estimateCount()).thenReturn(50_000L);
+
+        assertEquals(50_000, pm.searchPartners(new PartnerSearchParameters(), Pageable.from(0, 2))
+                .getTotalSize());
+        assertEquals(2, pm.searchPartners(search("acme"), Pageable.from(0, 2)).getTotalSize());
+        verify(repo, times(1)).estimateCount();
+    }
+
+    private String searchPattern(String text) {
+        Page<PartnerListItem> page = pm.searchPartners(search(text), Pageable.from(0, 10));
+        assertEquals(0, page.getTotalSize());
+
+        ArgumentCaptor<PartnerSearchRepository.Filter> filter = ArgumentCaptor
+                .forClass(PartnerSearchRepository.Filter.class);
+        verify(searchRepo).search(filter.capture(), eq(10), eq(0L));
+        return filter.getValue().pattern();
+    }
+
+    private static PartnerSearchParameters search(String text) {
+        PartnerSearchParameters search = new PartnerSearchParameters();
+        search.setText(text);
+        return search;
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import io.micronaut.health.HealthStatus;
+import io.micronaut.management.health.indicator.HealthResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StartupReadinessCheckTest {
+
+    @Mock
+    private StartupTasks startupTasks;
+
+    @InjectMocks
+    private StartupReadinessCheck check;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @BeforeEach
+    void setup() {
+        check.setExecutorService(executor);
+        when(startupTasks.getTimings()).thenReturn(Map.of("acapy-ready", 10L));
+        when(startupTasks.getFailures()).thenReturn(Map.of("default-schemas", "ledger not reachable"));
+        when(startupTasks.getSkipped()).thenReturn(List.of("public-profile"));
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testDownWhileRunning() {
+        when(startupTasks.getStartupState()).thenReturn(StartupTasks.StartupState.RUNNING);
+        assertEquals(HealthStatus.DOWN, result().getStatus());
+    }
+
+    @Test
+    void testUpWhenDone() {
+        when(startupTasks.getStartupState()).thenReturn(StartupTasks.StartupState.DONE);
+        HealthResult result = result();
+        assertEquals(HealthStatus.UP, result.getStatus());
+        assertFalse(details(result).containsKey("failed"));
+    }
+
+    @Test
+    void testFailedTasksDoNotKeepTheAgentDown() {
+        when(startupTasks.getStartupState()).thenReturn(StartupTasks.StartupState.FAILED);
+        HealthResult result = result();
+        assertEquals(HealthStatus.UP, result.getStatus());
+        assertEquals(Map.of("default-schemas", "ledger not reachable"), details(result).get("failed"));
+        assertEquals(List.of("public-profile"), details(result).get("skipped"));
+    }
+
+    private HealthResult result() {
+        return Mono.from(check.getResult()).block();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> details(HealthResult result) {
+        return (Map<String, Object>) result.getDetails();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+class StartupTaskGraphTest {
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testDependenciesRunInOrderAndIndependentTasksInParallel() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        Runnable parallel = () -> {
+            bothStarted.countDown();
+            try {
+                Assertions.assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        };
+
+        StartupTaskGraph graph = new StartupTaskGraph(executor)
+                .task("a", () -> order.add("a"))
+                .task("b", parallel, "a")
+                .task("c", parallel, "a")
+                .task("d", () -> order.add("d"), "b", "c");
+        graph.run().get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of("a", "d"), order);
+        Assertions.assertEquals(4, graph.getTimings().size());
+        Assertions.assertTrue(graph.getFailures().isEmpty());
+    }
+
+    @Test
+    void testFailedTaskSkipsDependents() throws Exception {
+        List<String> order = new CopyOnWriteArrayList<>();
+        StartupTaskGraph graph = new StartupTaskGraph(executor)
+                .task("a", () -> {
+                    throw new IllegalStateException("boom");
+                })
+                .task("b", () -> order.add("b"), "a")
+                .task("c", () -> order.add("c"));
+        graph.run().get(10, TimeUnit.SECONDS);
+
+        Assertions.assertEquals(List.of("c"), order);
+        Assertions.assertEquals("boom", graph.getFailures().get("a"));
+        Assertions.assertEquals(List.of("b"), graph.getSkipped());
+    }
+
+    @Test
+    void testUnknownDependency() {
+        StartupTaskGraph graph = new StartupTaskGraph(executor);
+        Assertions.assertThrows(IllegalArgumentException.class, () -> graph.task("a", () -> {
+        }, "x"));
+    }
+}
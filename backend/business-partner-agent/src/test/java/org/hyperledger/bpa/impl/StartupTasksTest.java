@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl;
+
+import org.hyperledger.aries.AriesClient;
+import org.hyperledger.aries.api.exception.AriesException;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+
+import static org.mockito.Mockito.*;
+
+class StartupTasksTest {
+
+    private final AriesClient ac = Mockito.mock(AriesClient.class);
+
+    private final StartupTasks tasks = new StartupTasks();
+
+    @BeforeEach
+    void setup() {
+        tasks.ac = ac;
+        tasks.acaPyReadyTimeout = Duration.ofSeconds(1);
+        tasks.acaPyRetryBackoff = Duration.ofMillis(1);
+        tasks.acaPyRetryMaxBackoff = Duration.ofMillis(4);
+    }
+
+    @Test
+    void testAcaPyReadyIsRetriedUntilItAnswers() {
+        doThrow(new AriesException(0, "Timeout while waiting for aca-py"))
+                .doThrow(new IllegalStateException("connection refused"))
+                .doNothing()
+                .when(ac).statusWaitUntilReady(any(Duration.class));
+
+        tasks.waitForAcaPy();
+
+        verify(ac, times(3)).statusWaitUntilReady(Duration.ofSeconds(1));
+    }
+
+    @Test
+    void testWaitingStopsWhenInterrupted() {
+        doThrow(new AriesException(0, "Timeout while waiting for aca-py"))
+                .when(ac).statusWaitUntilReady(any(Duration.class));
+
+        Thread.currentThread().interrupt();
+        Assertions.assertThrows(IllegalStateException.class, tasks::waitForAcaPy);
+        Assertions.assertTrue(Thread.interrupted());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.context.BeanProvider;
+import org.hyperledger.aries.api.connection.ConnectionRecord;
+import org.hyperledger.aries.api.trustping.PingEvent;
+import org.hyperledger.aries.webhook.EventHandler;
+import org.hyperledger.bpa.impl.profile.ProfileRecorder;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AriesEventDispatcherTest {
+
+    private static final MeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    void testParsedOnceAndDeliveredToAllSubscribers() {
+        ConnectionHandler h1 = new ConnectionHandler();
+        ConnectionHandler h2 = new ConnectionHandler();
+        AriesEventDispatcher d = dispatcher(h1, h2, new PingHandler());
+
+        d.dispatch("connections", "{\"connection_id\":\"123\",\"state\":\"active\"}");
+
+        assertEquals(1, h1.received.size());
+        assertEquals("123", h1.received.get(0).getConnectionId());
+        assertSame(h1.received.get(0), h2.received.get(0));
+        assertEquals(1, d.snapshot().get("connections").getEvents());
+        // the registry is resolved with the first event
+        assertTrue(registry.get("bpa.webhook.events").tag("topic", "connections").functionTimer().count() >= 1);
+    }
+
+    @Test
+    void testTopicWithoutSubscriberIsSkipped() {
+        ConnectionHandler h = new ConnectionHandler();
+        AriesEventDispatcher d = dispatcher(h);
+
+        d.dispatch("ping", "{\"thread_id\":\"1\"}");
+        d.dispatch("unknown_topic", "{}");
+
+        assertTrue(h.received.isEmpty());
+        assertEquals(0, d.snapshot().get("ping").getEvents());
+        assertEquals(1, d.snapshot().get("ping").getSkipped());
+        assertEquals(1, d.snapshot().get("unknown_topic").getSkipped());
+    }
+
+    @Test
+    void testFailingHandlerDoesNotStopOthers() {
+        ConnectionHandler ok = new ConnectionHandler();
+        AriesEventDispatcher d = dispatcher(new EventHandler() {
+            @Override
+            public void handleConnection(ConnectionRecord connection) {
+                throw new IllegalStateException("expected");
+            }
+        }, ok);
+
+        d.dispatch("connections", "{\"connection_id\":\"123\"}");
+
+        assertEquals(1, ok.received.size());
+    }
+
+    @SuppressWarnings("unchecked")
+    private static AriesEventDispatcher dispatcher(EventHandler... handlers) {
+        AriesEventDispatcher d = new AriesEventDispatcher();
+        d.handlers = List.of(handlers);
+        d.registryProvider = mock(BeanProvider.class);
+        when(d.registryProvider.isPresent()).thenReturn(Boolean.TRUE);
+        when(d.registryProvider.get()).thenReturn(registry);
+        d.profiler = new ProfileRecorder();
+        d.init();
+        return d;
+    }
+
+    private static class ConnectionHandler extends EventHandler {
+        final List<ConnectionRecord> received = new ArrayList<>();
+
+        @Override
+        public void handleConnection(ConnectionRecord connection) {
+            received.add(connection);
+        }
+    }
+
+    private static class PingHandler extends EventHandler {
+        @Override
+        public void handlePing(PingEvent ping) {
+            // subscribed, but not used
+        }
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.hyperledger.aries.api.ExchangeVersion;
+import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeRole;
+import org.hyperledger.aries.api.issue_credential_v1.CredentialExchangeState;
+import org.hyperledger.aries.api.present_proof.PresentationExchangeRole;
+import org.hyperledger.aries.api.present_proof.PresentationExchangeState;
+import org.hyperledger.bpa.controller.api.stats.LifecycleExchange;
+import org.hyperledger.bpa.controller.api.stats.StageLatency;
+import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.model.PartnerProof;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+public class ExchangeLifecycleTrackerTest {
+
+    private final Instant start = Instant.ofEpochMilli(1633426742074L);
+
+    private ExchangeLifecycleTracker tracker;
+
+    @BeforeEach
+    void setup() {
+        tracker = new ExchangeLifecycleTracker();
+        tracker.setEnabled(true);
+        tracker.setSamples(100);
+    }
+
+    @Test
+    void testStagesOfACredentialExchange() {
+        BPACredentialExchange ex = BPACredentialExchange.builder()
+                .role(CredentialExchangeRole.ISSUER)
+                .exchangeVersion(ExchangeVersion.V2)
+                .pushStateChange(CredentialExchangeState.OFFER_SENT, start)
+                .build();
+        ex.pushStates(CredentialExchangeState.REQUEST_RECEIVED, start.plusMillis(300));
+        ex.pushStates(CredentialExchangeState.CREDENTIAL_ISSUED, start.plusMillis(350));
+        // redelivered event, already reached
+        ex.pushStates(CredentialExchangeState.REQUEST_RECEIVED, start.plusMillis(900));
+        tracker.track(ex);
+
+        List<StageLatency> latencies = tracker.latencies(null, LifecycleExchange.CREDENTIAL);
+        Assertions.assertEquals(2, latencies.size());
+        StageLatency slowest = latencies.get(0);
+        Assertions.assertEquals("V2", slowest.getVersion());
+        Assertions.assertEquals("ISSUER", slowest.getRole());
+        Assertions.assertEquals("offer_sent", slowest.getFrom());
+        Assertions.assertEquals("request_received", slowest.getTo());
+        Assertions.assertEquals(1, slowest.getCount());
+        Assertions.assertEquals(300L, slowest.getP50Millis());
+        Assertions.assertEquals("credential_issued", latencies.get(1).getTo());
+        Assertions.assertEquals(50L, latencies.get(1).getMaxMillis());
+    }
+
+    @Test
+    void testOutOfOrderEventIsNotTimed() {
+        tracker.track(new PartnerProof()
+                .setRole(PresentationExchangeRole.VERIFIER)
+                .pushStates(PresentationExchangeState.REQUEST_SENT, start)
+                .pushStates(PresentationExchangeState.VERIFIED, start.plusMillis(20))
+                .pushStates(PresentationExchangeState.PRESENTATION_RECEIVED, start.plusMillis(10)));
+
+        List<StageLatency> latencies = tracker.latencies(null, null);
+        Assertions.assertEquals(1, latencies.size());
+        Assertions.assertEquals(LifecycleExchange.PRESENTATION, latencies.get(0).getExchange());
+        Assertions.assertEquals("V1", latencies.get(0).getVersion());
+        Assertions.assertEquals("verified", latencies.get(0).getTo());
+    }
+
+    @Test
+    void testPercentiles() {
+        for (int i = 1; i <= 100; i++) {
+            tracker.track(new Partner()
+                    .setIncoming(Boolean.TRUE)
+                    .pushStates(ConnectionState.REQUEST, start)
+                    .pushStates(ConnectionState.ACTIVE, start.plusMillis(i)));
+        }
+        StageLatency l = tracker.latencies(Duration.ofMinutes(1), null).get(0);
+        Assertions.assertEquals("INCOMING", l.getRole());
+        Assertions.assertEquals(100, l.getCount());
+        Assertions.assertEquals(50L, l.getP50Millis());
+        Assertions.assertEquals(90L, l.getP90Millis());
+        Assertions.assertEquals(99L, l.getP99Millis());
+        Assertions.assertEquals(100L, l.getMaxMillis());
+    }
+
+    @Test
+    void testOnlyTheLastSamplesAreKept() {
+        tracker.setSamples(10);
+        for (int i = 1; i <= 30; i++) {
+            tracker.track(new Partner()
+                    .pushStates(ConnectionState.REQUEST, start)
+                    .pushStates(ConnectionState.ACTIVE, start.plusMillis(i)));
+        }
+        StageLatency l = tracker.latencies(null, LifecycleExchange.CONNECTION).get(0);
+        Assertions.assertEquals(10, l.getCount());
+        Assertions.assertEquals(25L, l.getP50Millis());
+        Assertions.assertEquals(30L, l.getMaxMillis());
+    }
+
+    @Test
+    void testStagesArePublishedAsTimers() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        tracker.bindTo(registry);
+        tracker.track(new Partner()
+                .pushStates(ConnectionState.INVITATION, start)
+                .pushStates(ConnectionState.REQUEST, start.plusSeconds(2)));
+
+        Timer timer = registry.get(ExchangeLifecycleTracker.METRIC)
+                .tag("exchange", "CONNECTION")
+                .tag("role", "OUTGOING")
+                .tag("from", "invitation")
+                .tag("to", "request")
+                .timer();
+        Assertions.assertEquals(1, timer.count());
+        Assertions.assertEquals(2000, timer.totalTime(TimeUnit.MILLISECONDS), 0.1);
+    }
+
+    @Test
+    void testTransitionsAreOnlyTrackedOnce() {
+        Partner p = new Partner()
+                .pushStates(ConnectionState.REQUEST, start)
+                .pushStates(ConnectionState.RESPONSE, start.plusMillis(10));
+        tracker.track(p);
+        // saved again without a new state
+        tracker.track(p);
+        p.pushStates(ConnectionState.ACTIVE, start.plusMillis(30));
+        tracker.track(p);
+
+        List<StageLatency> latencies = tracker.latencies(null, LifecycleExchange.CONNECTION);
+        Assertions.assertEquals(2, latencies.size());
+        latencies.forEach(l -> Assertions.assertEquals(1, l.getCount()));
+        Assertions.assertEquals(20L, latencies.get(0).getP50Millis());
+        Assertions.assertEquals("active", latencies.get(0).getTo());
+    }
+
+    @Test
+    void testNothingIsTrackedWithoutTheTracker() {
+        new Partner()
+                .pushStates(ConnectionState.REQUEST, start)
+                .pushStates(ConnectionState.ACTIVE, start.plusMillis(10));
+        Assertions.assertTrue(tracker.latencies(null, null).isEmpty());
+    }
+
+    @Test
+    void testDisabled() {
+        tracker.setEnabled(false);
+        tracker.track(new Partner()
+                .pushStates(ConnectionState.REQUEST, start)
+                .pushStates(ConnectionState.ACTIVE, start.plusMillis(10)));
+        Assertions.assertTrue(tracker.latencies(null, null).isEmpty());
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.chat;
+
+import org.hyperledger.bpa.api.exception.EntityNotFoundException;
+import org.hyperledger.bpa.config.BPAMessageSource;
+import org.hyperledger.bpa.controller.api.partner.ChatHistoryParameters;
+import org.hyperledger.bpa.persistence.model.ChatMessage;
+import org.hyperledger.bpa.persistence.repository.ChatMessageRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ChatMessageServiceTest {
+
+    private static final UUID PARTNER = UUID.randomUUID();
+
+    @Mock
+    private ChatMessageRepository chatMsgRepo;
+
+    @Mock
+    private BPAMessageSource.DefaultMessageSource ms;
+
+    @InjectMocks
+    private ChatMessageService service;
+
+    @BeforeEach
+    void setup() {
+        service.defaultPageSize = 100;
+        service.maxPageSize = 500;
+    }
+
+    @Test
+    void testPageBeforeCursor() {
+        ChatMessage cursor = message(Instant.parse("2022-01-01T00:05:00Z"));
+        ChatMessage newer = message(Instant.parse("2022-01-01T00:04:00Z"));
+        ChatMessage older = message(Instant.parse("2022-01-01T00:03:00Z"));
+        when(chatMsgRepo.findCursor(PARTNER, cursor.getId())).thenReturn(Optional.of(cursor));
+        when(chatMsgRepo.findBefore(PARTNER, cursor.getCreatedAt(), cursor.getId(), 10))
+                .thenReturn(List.of(newer, older));
+
+        List<ChatMessage> page = service.getMessagesForPartner(PARTNER, page(cursor.getId(), null, 10));
+
+        assertEquals(List.of(older, newer), page);
+    }
+
+    @Test
+    void testPageAfterCursor() {
+        ChatMessage cursor = message(Instant.parse("2022-01-01T00:05:00Z"));
+        ChatMessage newer = message(Instant.parse("2022-01-01T00:06:00Z"));
+        when(chatMsgRepo.findCursor(PARTNER, cursor.getId())).thenReturn(Optional.of(cursor));
+        when(chatMsgRepo.findAfter(PARTNER, cursor.getCreatedAt(), cursor.getId(), 100))
+                .thenReturn(List.of(newer));
+
+        assertEquals(List.of(newer), service.getMessagesForPartner(PARTNER, page(null, cursor.getId(), null)));
+    }
+
+    @Test
+    void testUnknownCursorIsNotAnEmptyPage() {
+        // e.g. a message that was archived, or one of another partner
+        when(chatMsgRepo.findCursor(any(UUID.class), any(UUID.class))).thenReturn(Optional.empty());
+
+        assertThrows(EntityNotFoundException.class,
+                () -> service.getMessagesForPartner(PARTNER, page(UUID.randomUUID(), null, null)));
+        assertThrows(EntityNotFoundException.class,
+                () -> service.getMessagesForPartner(PARTNER, page(null, UUID.randomUUID(), null)));
+        verify(chatMsgRepo, never()).findBefore(any(), any(), any(), anyInt());
+        verify(chatMsgRepo, never()).findAfter(any(), any(), any(), anyInt());
+    }
+
+    private static ChatMessage message(Instant createdAt) {
+        return ChatMessage.builder().id(UUID.randomUUID()).createdAt(createdAt).build();
+    }
+
+    private static ChatHistoryParameters page(UUID before, UUID after, Integer size) {
+        ChatHistoryParameters page = new ChatHistoryParameters();
+        page.setBefore(before);
+        page.setAfter(after);
+        page.setSize(size);
+        return page;
+    }
+}
@@ -20,12 +20,15 @@ package org.hyperledger.bpa.impl.aries.connection;
 import lombok.NonNull;
 import org.hyperledger.aries.AriesClient;
 import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.aries.api.exception.AriesException;
 import org.hyperledger.aries.api.trustping.PingEvent;
 import org.hyperledger.aries.api.trustping.PingEventState;
 import org.hyperledger.aries.api.trustping.PingRequest;
 import org.hyperledger.aries.api.trustping.PingResponse;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -35,6 +38,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.Executors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.*;
@@ -52,6 +56,18 @@ class PingManagerTest {
     @InjectMocks
     private PingManager ping;
 
+    @BeforeEach
+    void setup() {
+        ping.slots = 1;
+        ping.executor = Executors.newFixedThreadPool(2);
+        ping.ratePerSecond = 0;
+    }
+
+    @AfterEach
+    void tearDown() {
+        ping.executor.shutdownNow();
+    }
+
     @Test
     void testHappyFlow() throws Exception {
         ping.checkConnections();
@@ -75,8 +91,8 @@ class PingManagerTest {
         ping.checkConnections();
 
         verify(repo, times(2)).findByStateInAndTrustPingTrueAndAriesSupportTrue(PingManager.statesToFilter);
-        verify(repo, never()).updateStateByConnectionId(anyString(), any(ConnectionState.class));
-        verify(repo, never()).updateStateAndLastSeenByConnectionId(any(), any(), any());
+        verify(repo, never()).updateStateByConnectionIdIn(anyList(), any(ConnectionState.class));
+        verify(repo, never()).updateStateAndLastSeenByConnectionIdIn(anyList(), any(), any());
 
         assertEquals(2, ping.getSentSize());
         assertEquals(0, ping.getReceivedSize());
@@ -84,9 +100,10 @@ class PingManagerTest {
         ping.checkConnections();
 
         verify(repo, times(3)).findByStateInAndTrustPingTrueAndAriesSupportTrue(PingManager.statesToFilter);
-        verify(repo, times(1)).updateStateByConnectionId("1", ConnectionState.PING_NO_RESPONSE);
-        verify(repo, times(1)).updateStateByConnectionId("2", ConnectionState.PING_NO_RESPONSE);
-        verify(repo, never()).updateStateAndLastSeenByConnectionId(any(), any(), any());
+        verify(repo, times(1)).updateStateByConnectionIdIn(
+                argThat(a -> a.size() == 2 && a.containsAll(List.of("1", "2"))),
+                eq(ConnectionState.PING_NO_RESPONSE));
+        verify(repo, never()).updateStateAndLastSeenByConnectionIdIn(anyList(), any(), any());
 
         assertEquals(2, ping.getSentSize());
         assertEquals(0, ping.getReceivedSize());
@@ -99,12 +116,8 @@ class PingManagerTest {
 
         ping.checkConnections();
 
-        verify(repo, times(1)).updateStateAndLastSeenByConnectionId(
-                argThat(a -> a.equals("1")),
-                argThat(a -> a.equals(ConnectionState.PING_RESPONSE)),
-                argThat(a -> a.isBefore(Instant.now())));
-        verify(repo, times(1)).updateStateAndLastSeenByConnectionId(
-                argThat(a -> a.equals("2")),
+        verify(repo, times(1)).updateStateAndLastSeenByConnectionIdIn(
+                argThat(a -> a.size() == 2 && a.containsAll(List.of("1", "2"))),
                 argThat(a -> a.equals(ConnectionState.PING_RESPONSE)),
                 argThat(a -> a.isBefore(Instant.now())));
 
@@ -119,8 +132,54 @@ class PingManagerTest {
                         createPartner("2")));
 
         ping.checkConnections();
-        verify(repo, never()).updateStateByConnectionId(anyString(), any(ConnectionState.class));
+        verify(repo, never()).updateStateByConnectionIdIn(anyList(), any(ConnectionState.class));
+
+        assertEquals(0, ping.getSentSize());
+    }
+
+    @Test
+    void testWheelPingsEverySlotOncePerRotation() throws Exception {
+        ping.slots = 3;
+        List<Partner> partners = List.of(
+                createPartner("1"), createPartner("2"), createPartner("3"),
+                createPartner("4"), createPartner("5"), createPartner("6"));
+        when(repo.findByStateInAndTrustPingTrueAndAriesSupportTrue(PingManager.statesToFilter))
+                .thenReturn(partners);
+        when(aries.connectionsSendPing(anyString(), any(PingRequest.class)))
+                .thenAnswer(inv -> Optional.of(new PingResponse("t" + inv.getArgument(0))));
+
+        for (int i = 0; i < 3; i++) {
+            ping.checkConnections();
+        }
+
+        for (Partner p : partners) {
+            verify(aries, times(1)).connectionsSendPing(eq(p.getConnectionId()), any(PingRequest.class));
+        }
+        assertEquals(6, ping.getSentSize());
+        verify(repo, never()).updateStateByConnectionIdIn(anyList(), any(ConnectionState.class));
+
+        ping.checkConnections(); // slot 0 again, evaluates the first tick
+
+        // "3" and "6" hash into slot 0 of a three slot wheel
+        List<String> firstSlot = List.of("3", "6");
+        assertEquals(firstSlot, partners.stream().map(Partner::getConnectionId)
+                .filter(c -> ping.slotOf(c) == 0).toList());
+        verify(repo, times(1)).updateStateByConnectionIdIn(
+                argThat(a -> a.size() == 2 && a.containsAll(firstSlot)),
+                eq(ConnectionState.PING_NO_RESPONSE));
+        assertEquals(6, ping.getSentSize());
+    }
+
+    @Test
+    void testUnknownConnectionIsBatchedAsNoResponse() throws Exception {
+        when(repo.findByStateInAndTrustPingTrueAndAriesSupportTrue(PingManager.statesToFilter))
+                .thenReturn(List.of(createPartner("1")));
+        when(aries.connectionsSendPing(anyString(), any(PingRequest.class)))
+                .thenThrow(new AriesException(404, "not found"));
+
+        ping.checkConnections();
 
+        verify(repo, times(1)).updateStateByConnectionIdIn(List.of("1"), ConnectionState.PING_NO_RESPONSE);
         assertEquals(0, ping.getSentSize());
     }
 
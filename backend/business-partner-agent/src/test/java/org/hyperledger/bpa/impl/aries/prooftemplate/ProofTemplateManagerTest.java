@@ -79,7 +79,7 @@ class ProofTemplateManagerTest {
         repo.findById(template.getId()).map(BPAProofTemplate::getCreatedAt).ifPresent(template::setCreatedAt);
         doNothing().when(proofManager).sendPresentProofRequest(eq(partnerId), eq(template));
 
-        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg);
+        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg, null);
         sut.invokeProofRequestByTemplate(template.getId(), partnerId);
 
         verify(proofManager, times(1)).sendPresentProofRequest(partnerId, template, ExchangeVersion.V1);
@@ -87,7 +87,7 @@ class ProofTemplateManagerTest {
 
     @Test
     void testThatProofManagerIsNotInvokedIfProofTemplateDoesNotExist() {
-        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg);
+        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg, null);
 
         Assertions.assertThrows(
                 ProofTemplateException.class,
@@ -105,7 +105,7 @@ class ProofTemplateManagerTest {
                                 .build())
                 .build();
 
-        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg);
+        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg, null);
 
         Assertions.assertEquals(0, repo.count(), "There should be no templates initially.");
         BPAProofTemplate expected = sut.addProofTemplate(template);
@@ -125,7 +125,7 @@ class ProofTemplateManagerTest {
 
         Assertions.assertThrows(
                 ConstraintViolationException.class,
-                () -> new ProofTemplateManager(repo, proofManager, msg).addProofTemplate(template),
+                () -> new ProofTemplateManager(repo, proofManager, msg, null).addProofTemplate(template),
                 "ProofTemplateManager#addProofTemplate should reject invalid templates with a ConstraintViolationException");
         Assertions.assertEquals(0, repo.count(), "There should be no templates persisted.");
     }
@@ -144,7 +144,7 @@ class ProofTemplateManagerTest {
                 .name("mySecondTemplate")
                 .build());
 
-        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg);
+        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg, null);
 
         List<String> allTemplates = sut.listProofTemplates().map(BPAProofTemplate::getName).toList();
         assertEquals(2, allTemplates.size(), "Expected exactly 2 persisted proof templates.");
@@ -164,7 +164,7 @@ class ProofTemplateManagerTest {
                         .build())
                 .getId();
 
-        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg);
+        ProofTemplateManager sut = new ProofTemplateManager(repo, proofManager, msg, null);
         assertTrue(repo.findById(templateId).isPresent(), "The to-be-removed proof template should exist.");
         sut.removeProofTemplate(templateId);
         assertTrue(repo.findById(templateId).isEmpty(), "The proof template was not removed.");
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.prooftemplates;
+
+import org.hyperledger.acy_py.generated.model.IndyProofReqPredSpec;
+import org.hyperledger.aries.api.present_proof.PresentProofRequest.ProofRequest;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompiledProofRequestTest {
+
+    @Test
+    void testOnlyNonRevocationIsAppliedPerRequest() {
+        ProofRequest.ProofNonRevoked compiledAt = ProofRequest.ProofNonRevoked.builder().from(1L).to(1L).build();
+        ProofRequest.ProofRequestedAttributes plain = ProofRequest.ProofRequestedAttributes.builder()
+                .names(List.of("name"))
+                .build();
+        ProofRequest skeleton = ProofRequest.builder()
+                .name("template")
+                .requestedAttribute("plain", plain)
+                .requestedAttribute("revocable", ProofRequest.ProofRequestedAttributes.builder()
+                        .names(List.of("iban"))
+                        .nonRevoked(compiledAt)
+                        .build())
+                .requestedPredicate("age", ProofRequest.ProofRequestedPredicates.builder()
+                        .name("age")
+                        .pType(IndyProofReqPredSpec.PTypeEnum.GREATER_THAN_OR_EQUAL_TO)
+                        .pValue(18)
+                        .nonRevoked(compiledAt)
+                        .build())
+                .build();
+
+        CompiledProofRequest compiled = new CompiledProofRequest(skeleton);
+        ProofRequest first = compiled.apply(100L);
+        ProofRequest second = compiled.apply(200L);
+
+        assertEquals("template", first.getName());
+        assertSame(plain, first.getRequestedAttributes().get("plain"));
+        assertSame(plain, second.getRequestedAttributes().get("plain"));
+        assertEquals(100L, first.getRequestedAttributes().get("revocable").getNonRevoked().getTo());
+        assertEquals(200L, second.getRequestedAttributes().get("revocable").getNonRevoked().getTo());
+        assertEquals(List.of("iban"), second.getRequestedAttributes().get("revocable").getNames());
+        assertEquals(200L, second.getRequestedPredicates().get("age").getNonRevoked().getFrom());
+        assertEquals(18, second.getRequestedPredicates().get("age").getPValue());
+        assertNull(second.getNonRevoked());
+        // the skeleton is never modified
+        assertEquals(1L, skeleton.getRequestedAttributes().get("revocable").getNonRevoked().getTo());
+    }
+}
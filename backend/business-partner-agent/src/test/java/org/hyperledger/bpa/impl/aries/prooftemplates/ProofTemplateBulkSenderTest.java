@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.aries.prooftemplates;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import org.hyperledger.aries.api.ExchangeVersion;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequest;
+import org.hyperledger.bpa.controller.api.prooftemplates.BulkProofRequestStatus;
+import org.hyperledger.bpa.impl.aries.proof.ProofManager;
+import org.hyperledger.bpa.persistence.model.BPAProofTemplate;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class ProofTemplateBulkSenderTest {
+
+    @Mock
+    private PartnerRepository partnerRepo;
+
+    @Mock
+    private ProofManager proofManager;
+
+    @Mock
+    private CacheManager<?> cacheManager;
+
+    @Mock
+    private SyncCache<?> cache;
+
+    @InjectMocks
+    private ProofTemplateBulkSender sender;
+
+    private final Map<Object, Object> jobs = new ConcurrentHashMap<>();
+
+    private final BPAProofTemplate template = BPAProofTemplate.builder().id(UUID.randomUUID()).build();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        sender.executor = Executors.newFixedThreadPool(4);
+        sender.concurrency = 2;
+
+        doReturn(cache).when(cacheManager).getCache(ProofTemplateBulkSender.BULK_REQUEST_CACHE);
+        doAnswer(inv -> jobs.put(inv.getArgument(0), inv.getArgument(1))).when(cache).put(any(), any());
+        when(cache.get(any(), any(Class.class)))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.getArgument(0))));
+        sender.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.executor.shutdownNow();
+    }
+
+    @Test
+    void testStatusWhileRunning() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(inv -> release.await(5, TimeUnit.SECONDS))
+                .when(proofManager).sendPresentProofRequest(any(Partner.class), any(), any());
+        mockPartners(List.of(partner("c1"), partner("c2"), partner(null)), List.of());
+
+        BulkProofRequestStatus started = sender.start(template, request());
+
+        BulkProofRequestStatus running = sender.status(UUID.fromString(started.getId())).orElseThrow();
+        assertEquals(BulkProofRequestStatus.State.RUNNING, running.getState());
+        assertEquals(template.getId().toString(), running.getTemplateId());
+        assertEquals(2, running.getTotal());
+        assertEquals(1, running.getSkipped());
+        assertNull(running.getFinishedAt());
+
+        release.countDown();
+        BulkProofRequestStatus done = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(2, done.getSent());
+        assertEquals(0, done.getFailed());
+        assertNotNull(done.getFinishedAt());
+    }
+
+    @Test
+    void testFailedPartnerDoesNotStopTheOthers() throws Exception {
+        Partner broken = partner("broken");
+        doThrow(new IllegalStateException("connection gone"))
+                .when(proofManager).sendPresentProofRequest(eq(broken), any(), any());
+        mockPartners(List.of(partner("c1"), broken, partner("c2"), partner("c3")), List.of());
+
+        BulkProofRequestStatus done = awaitDone(UUID.fromString(sender.start(template, request()).getId()));
+
+        assertEquals(4, done.getTotal());
+        assertEquals(3, done.getSent());
+        assertEquals(1, done.getFailed());
+        verify(proofManager, times(4)).sendPresentProofRequest(any(Partner.class), eq(template),
+                eq(ExchangeVersion.V1));
+    }
+
+    @Test
+    void testPartnersAndTagsAreSentOnce() throws Exception {
+        Partner both = partner("c1");
+        mockPartners(List.of(both), List.of(both, partner("c2")));
+
+        BulkProofRequestStatus done = awaitDone(UUID.fromString(sender.start(template, BulkProofRequest.builder()
+                .partnerIds(List.of(both.getId()))
+                .tagIds(List.of(UUID.randomUUID()))
+                .exchangeVersion(ExchangeVersion.V2)
+                .build()).getId()));
+
+        assertEquals(2, done.getTotal());
+        assertEquals(2, done.getSent());
+        verify(proofManager, times(1)).sendPresentProofRequest(eq(both), eq(template), eq(ExchangeVersion.V2));
+    }
+
+    @Test
+    void testNoPartnersCompletes() throws Exception {
+        BulkProofRequestStatus done = awaitDone(UUID.fromString(sender.start(template, request()).getId()));
+
+        assertEquals(0, done.getTotal());
+        verify(proofManager, never()).sendPresentProofRequest(any(Partner.class), any(), any());
+    }
+
+    @Test
+    void testUnknownJob() {
+        assertTrue(sender.status(UUID.randomUUID()).isEmpty());
+    }
+
+    private void mockPartners(List<Partner> byId, List<Partner> byTag) {
+        when(partnerRepo.findByIdIn(anyList())).thenReturn(byId);
+        when(partnerRepo.findByTagIdIn(anyList())).thenReturn(byTag);
+    }
+
+    private BulkProofRequestStatus awaitDone(UUID id) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < until) {
+            BulkProofRequestStatus status = sender.status(id).orElseThrow();
+            if (status.getState() == BulkProofRequestStatus.State.DONE) {
+                return status;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        throw new AssertionError("bulk request did not finish");
+    }
+
+    private static BulkProofRequest request() {
+        return BulkProofRequest.builder().partnerIds(List.of(UUID.randomUUID())).build();
+    }
+
+    private static Partner partner(String connectionId) {
+        return Partner.builder().id(UUID.randomUUID()).connectionId(connectionId).build();
+    }
+}
@@ -24,6 +24,7 @@ import org.hyperledger.aries.api.exception.AriesException;
 import org.hyperledger.aries.api.ledger.DidVerkeyResponse;
 import org.hyperledger.bpa.api.CredentialType;
 import org.hyperledger.bpa.api.exception.WrongApiUsageException;
+import org.hyperledger.bpa.client.CachingAriesClient;
 import org.hyperledger.bpa.controller.api.admin.TrustedIssuer;
 import org.hyperledger.bpa.persistence.model.BPASchema;
 import org.hyperledger.bpa.persistence.repository.BPASchemaRepository;
@@ -43,12 +44,16 @@ public class RestrictionsManagerTest {
     @Inject
     RestrictionsManager mgmt;
 
+    @Inject
+    CachingAriesClient acaCache;
+
     @Inject
     BPASchemaRepository schemaRepo;
 
     @BeforeEach
     void setup() {
-        mgmt.setAc(ac);
+        acaCache.setAc(ac);
+        mgmt.setAc(acaCache);
     }
 
     @Test
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.messaging;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import org.hyperledger.acy_py.generated.model.InvitationRecord;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationRequest;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationStatus;
+import org.hyperledger.bpa.controller.api.messaging.BulkInvitationStatus.RowState;
+import org.hyperledger.bpa.controller.api.partner.CreatePartnerInvitationRequest;
+import org.hyperledger.bpa.impl.aries.connection.ConnectionManager;
+import org.hyperledger.bpa.impl.messaging.email.EmailCmd;
+import org.hyperledger.bpa.impl.messaging.email.EmailOutbox;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.repository.PartnerRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InvitationBulkSenderTest {
+
+    @Mock
+    private ConnectionManager cm;
+
+    @Mock
+    private PartnerRepository partnerRepo;
+
+    @Mock
+    private EmailOutbox outbox;
+
+    @Mock
+    private CacheManager<?> cacheManager;
+
+    @Mock
+    private SyncCache<?> cache;
+
+    @InjectMocks
+    private InvitationBulkSender sender;
+
+    private final Map<Object, Object> jobs = new ConcurrentHashMap<>();
+
+    private final List<EmailCmd> mails = new CopyOnWriteArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() throws Exception {
+        sender.executor = Executors.newFixedThreadPool(4);
+        sender.concurrency = 4;
+        sender.invitationsPerSecond = 0;
+        sender.batchSize = 2;
+
+        doReturn(cache).when(cacheManager).getCache(InvitationBulkSender.BULK_INVITATION_CACHE);
+        doAnswer(inv -> jobs.put(inv.getArgument(0), inv.getArgument(1))).when(cache).put(any(), any());
+        when(cache.get(any(), any(Class.class)))
+                .thenAnswer(inv -> Optional.ofNullable(jobs.get(inv.getArgument(0))));
+        sender.init();
+
+        when(cm.prepareInvitation(any(CreatePartnerInvitationRequest.class))).thenAnswer(inv -> {
+            CreatePartnerInvitationRequest req = inv.getArgument(0);
+            if (req.getAlias().equals("offline")) {
+                throw new IOException("aca-py not reachable");
+            }
+            return Partner.builder()
+                    .alias(req.getAlias())
+                    .connectionId("conn-" + req.getAlias())
+                    .invitationRecord(InvitationRecord.builder().invitationUrl("https://inv/" + req.getAlias()).build())
+                    .build();
+        });
+        when(partnerRepo.save(any(Partner.class))).thenAnswer(inv -> {
+            Partner p = inv.getArgument(0);
+            p.setId(UUID.randomUUID());
+            return p;
+        });
+        doAnswer(inv -> mails.addAll(inv.getArgument(0))).when(outbox).enqueueAll(anyList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        sender.executor.shutdownNow();
+    }
+
+    @Test
+    void testBulkInvitation() throws Exception {
+        BulkInvitationRequest request = BulkInvitationRequest.builder()
+                .recipients(List.of(
+                        recipient("a@example.com", "A"),
+                        recipient("b@example.com", null),
+                        recipient("A@example.com", "A again"),
+                        recipient("no-mail", null),
+                        recipient("c@example.com", "offline"),
+                        recipient("d@example.com", "D")))
+                .build();
+
+        BulkInvitationStatus started = sender.start(request, "subject", uri -> "connect: " + uri);
+        assertEquals(6, started.getTotal());
+
+        BulkInvitationStatus status = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(3, status.getQueued());
+        assertEquals(1, status.getSkipped());
+        assertEquals(2, status.getFailed());
+        assertEquals(List.of(RowState.QUEUED, RowState.QUEUED, RowState.DUPLICATE, RowState.FAILED,
+                RowState.FAILED, RowState.QUEUED),
+                status.getRecipients().stream().map(BulkInvitationStatus.Row::getState)
+                        .collect(Collectors.toList()));
+
+        // every partner is saved on its own, the mails are queued as one full batch
+        // and the rest at the end
+        verify(partnerRepo, times(3)).save(any(Partner.class));
+        verify(outbox, times(2)).enqueueAll(anyList());
+        assertEquals(3, mails.size());
+        EmailCmd b = mails.stream().filter(m -> m.getTo().equals("b@example.com")).findFirst().orElseThrow();
+        assertEquals("subject", b.getSubject());
+        assertEquals("connect: https://inv/b@example.com", b.getTextBody());
+    }
+
+    @Test
+    void testMailsNotQueued() throws Exception {
+        doThrow(new IllegalStateException("outbox down")).when(outbox).enqueueAll(anyList());
+        BulkInvitationRequest request = BulkInvitationRequest.builder()
+                .recipients(List.of(recipient("a@example.com", "A"), recipient("b@example.com", "B")))
+                .build();
+
+        BulkInvitationStatus started = sender.start(request, "subject", uri -> uri);
+
+        BulkInvitationStatus status = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(0, status.getQueued());
+        assertEquals(2, status.getFailed());
+        status.getRecipients().forEach(r -> {
+            // the partners were saved, so the rows still point to them
+            assertEquals(RowState.NOT_SENT, r.getState());
+            assertNotNull(r.getPartnerId());
+            assertEquals("outbox down", r.getMessage());
+        });
+    }
+
+    @Test
+    void testPartnerNotSaved() throws Exception {
+        when(partnerRepo.save(any(Partner.class))).thenThrow(new IllegalStateException("db down"));
+        BulkInvitationRequest request = BulkInvitationRequest.builder()
+                .recipients(List.of(recipient("a@example.com", "A")))
+                .build();
+
+        BulkInvitationStatus started = sender.start(request, "subject", uri -> uri);
+
+        BulkInvitationStatus status = awaitDone(UUID.fromString(started.getId()));
+        assertEquals(1, status.getFailed());
+        assertEquals(RowState.FAILED, status.getRecipients().get(0).getState());
+        assertNull(status.getRecipients().get(0).getPartnerId());
+        // the invitation is not left behind in aca-py
+        verify(cm).removeConnection("conn-A");
+        verify(outbox, never()).enqueueAll(anyList());
+    }
+
+    private BulkInvitationStatus awaitDone(UUID id) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < until) {
+            BulkInvitationStatus status = sender.status(id).orElseThrow();
+            if (status.getState() == BulkInvitationStatus.State.DONE) {
+                return status;
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        throw new AssertionError("bulk invitation did not finish");
+    }
+
+    private static BulkInvitationRequest.Recipient recipient(String email, String alias) {
+        return BulkInvitationRequest.Recipient.builder().email(email).alias(alias).build();
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.messaging.email;
+
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.hyperledger.bpa.persistence.model.messaging.EmailOutboxEntry;
+import org.hyperledger.bpa.persistence.repository.messaging.EmailOutboxRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+@MicronautTest
+class EmailOutboxTest {
+
+    @Inject
+    EmailService emailService; // already a mock
+
+    @Inject
+    EmailOutbox outbox;
+
+    @Inject
+    EmailOutboxRepository repo;
+
+    @AfterEach
+    void reset() {
+        Mockito.reset(emailService);
+        outbox.digestEnabled = false;
+        repo.deleteAll();
+    }
+
+    @Test
+    void testSendAndDelete() {
+        repo.save(entry("one@test.com", "first", null, Instant.now()));
+        outbox.drain();
+        Mockito.verify(emailService, Mockito.times(1))
+                .send(Mockito.argThat(cmd -> "one@test.com".equals(cmd.getTo()) && "first".equals(cmd.getTextBody())));
+        Assertions.assertEquals(0, repo.count());
+    }
+
+    @Test
+    void testFailedMailIsRetriedLater() {
+        Mockito.doThrow(new IllegalStateException("provider down")).when(emailService)
+                .send(Mockito.any(EmailCmd.class));
+        repo.save(entry("one@test.com", "first", null, Instant.now()));
+        outbox.drain();
+
+        EmailOutboxEntry e = repo.findAll().iterator().next();
+        Assertions.assertEquals(1, e.getAttempts());
+        Assertions.assertEquals("provider down", e.getLastError());
+        Assertions.assertNotNull(e.getNextAttemptAt());
+        Assertions.assertTrue(e.getNextAttemptAt().isAfter(Instant.now()));
+
+        // not due yet
+        outbox.drain();
+        Mockito.verify(emailService, Mockito.times(1)).send(Mockito.any(EmailCmd.class));
+    }
+
+    @Test
+    void testDigestIsMergedPerRecipient() {
+        outbox.digestEnabled = true;
+        outbox.enqueue(cmd("one@test.com", "first"), true);
+        outbox.enqueue(cmd("one@test.com", "second"), true);
+        outbox.enqueue(cmd("two@test.com", "third"), true);
+        List<EmailOutboxEntry> pending = StreamSupport.stream(repo.findAll().spliterator(), false).toList();
+        Assertions.assertEquals(3, pending.size());
+        // entries of one recipient become due together
+        Assertions.assertEquals(1, pending.stream()
+                .filter(e -> "one@test.com".equals(e.getDigestKey()))
+                .map(EmailOutboxEntry::getNextAttemptAt)
+                .distinct()
+                .count());
+
+        // move everything into the past, as if the window elapsed
+        pending.forEach(e -> {
+            e.setNextAttemptAt(Instant.now().minus(Duration.ofSeconds(1)));
+            repo.update(e);
+        });
+        outbox.drain();
+
+        Mockito.verify(emailService, Mockito.times(2)).send(Mockito.any(EmailCmd.class));
+        Mockito.verify(emailService).send(Mockito.argThat(cmd -> "one@test.com".equals(cmd.getTo())
+                && cmd.getTextBody().contains("first") && cmd.getTextBody().contains("second")));
+        Assertions.assertEquals(0, repo.count());
+    }
+
+    @Test
+    void testBackoffIsCapped() {
+        Assertions.assertEquals(outbox.retryBackoff, outbox.backoff(1));
+        Assertions.assertEquals(outbox.retryBackoff.multipliedBy(4), outbox.backoff(3));
+        Assertions.assertEquals(Duration.ofHours(6), outbox.backoff(100));
+    }
+
+    private static EmailOutboxEntry entry(String to, String body, String digestKey, Instant due) {
+        return EmailOutboxEntry.builder()
+                .sendTo(to)
+                .subject("subject")
+                .textBody(body)
+                .digestKey(digestKey)
+                .nextAttemptAt(due)
+                .build();
+    }
+
+    private static EmailCmd cmd(String to, String body) {
+        return EmailCmd.builder().to(to).subject("subject").textBody(body).build();
+    }
+}
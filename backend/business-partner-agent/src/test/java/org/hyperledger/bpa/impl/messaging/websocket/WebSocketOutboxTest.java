@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.messaging.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micronaut.http.MediaType;
+import io.micronaut.websocket.CloseReason;
+import io.micronaut.websocket.WebSocketSession;
+import org.hyperledger.bpa.controller.api.WebSocketMessageBody;
+import org.hyperledger.bpa.controller.api.WebSocketMessageBody.WebSocketMessageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+
+class WebSocketOutboxTest {
+
+    private WebSocketOutbox outbox;
+
+    @BeforeEach
+    void setup() {
+        outbox = new WebSocketOutbox();
+        outbox.mapper = new ObjectMapper();
+        outbox.queueSize = 3;
+        outbox.maxLag = Duration.ofMinutes(1);
+    }
+
+    @Test
+    void testStalledSessionDoesNotBlockOthers() {
+        Session stalled = new Session("stalled", false);
+        Session fast = new Session("fast", true);
+        outbox.register(stalled.ws);
+        outbox.register(fast.ws);
+
+        outbox.offer(task(WebSocketMessageType.TASK_ADDED, "1"));
+        outbox.offer(task(WebSocketMessageType.TASK_ADDED, "2"));
+
+        assertEquals(2, fast.written.size());
+        assertEquals(1, stalled.written.size());
+        assertEquals(1, outbox.snapshot().get("stalled").getQueued());
+    }
+
+    @Test
+    void testQueuedNotificationsAreCoalesced() {
+        Session stalled = new Session("stalled", false);
+        outbox.register(stalled.ws);
+
+        outbox.offer(task(WebSocketMessageType.TASK_ADDED, "1"));
+        outbox.offer(task(WebSocketMessageType.TASK_ADDED, "2"));
+        outbox.offer(task(WebSocketMessageType.TASK_ADDED, "2"));
+        outbox.offer(task(WebSocketMessageType.TASK_ADDED, "2"));
+
+        WebSocketOutbox.Snapshot s = outbox.snapshot().get("stalled");
+        assertEquals(1, s.getQueued());
+        assertEquals(2, s.getCoalesced());
+    }
+
+    @Test
+    void testChatMessagesAreNeverCoalesced() {
+        assertNotEquals(
+                WebSocketOutbox.coalesceKey(WebSocketMessageType.ON_MESSAGE_RECEIVED, "p1", 1),
+                WebSocketOutbox.coalesceKey(WebSocketMessageType.ON_MESSAGE_RECEIVED, "p1", 2));
+        assertEquals(
+                WebSocketOutbox.coalesceKey(WebSocketMessageType.TASK_ADDED, "t1", 1),
+                WebSocketOutbox.coalesceKey(WebSocketMessageType.TASK_ADDED, "t1", 2));
+    }
+
+    @Test
+    void testOverflowEvictsSession() {
+        Session stalled = new Session("stalled", false);
+        outbox.register(stalled.ws);
+
+        // first one is in flight, three queued, the fifth overflows
+        for (int i = 0; i < 5; i++) {
+            outbox.offer(task(WebSocketMessageType.TASK_ADDED, String.valueOf(i)));
+        }
+
+        Mockito.verify(stalled.ws).close(CloseReason.TRY_AGAIN_LATER);
+        assertFalse(outbox.hasSessions());
+        assertEquals(1, outbox.evicted());
+        assertEquals(4, outbox.dropped());
+    }
+
+    @Test
+    void testJsonFromOtherInstanceIsDelivered() throws Exception {
+        Session fast = new Session("fast", true);
+        outbox.register(fast.ws);
+
+        outbox.offer(new ObjectMapper().writeValueAsString(task(WebSocketMessageType.TASK_COMPLETED, "1")));
+        outbox.offer("not json");
+
+        assertEquals(2, fast.written.size());
+    }
+
+    private static WebSocketMessageBody task(WebSocketMessageType type, String linkId) {
+        return WebSocketMessageBody.notificationEvent(type, linkId, null, null);
+    }
+
+    private static final class Session {
+        private final WebSocketSession ws = Mockito.mock(WebSocketSession.class);
+        private final List<String> written = new ArrayList<>();
+
+        Session(String id, boolean completes) {
+            Mockito.when(ws.getId()).thenReturn(id);
+            Mockito.when(ws.isOpen()).thenReturn(true);
+            Mockito.when(ws.sendAsync(anyString(), any(MediaType.class))).thenAnswer(inv -> {
+                written.add(inv.getArgument(0));
+                return completes ? CompletableFuture.completedFuture(inv.getArgument(0)) : new CompletableFuture<>();
+            });
+        }
+    }
+}
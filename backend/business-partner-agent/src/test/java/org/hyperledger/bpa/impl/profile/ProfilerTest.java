@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.profile;
+
+import org.hyperledger.bpa.controller.api.stats.OperationProfile;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+public class ProfilerTest {
+
+    private final List<Profiler.Profile> completed = new ArrayList<>();
+
+    @Test
+    void testSpansAreNoOpsWithoutProfile() {
+        try (Profiler.Span span = Profiler.span(Profiler.DB, "PartnerRepository.findById")) {
+            Assertions.assertSame(Profiler.Span.NOOP, span);
+        }
+        Profiler.record(Profiler.ACAPY, "GET /connections/{id}", 10);
+        Assertions.assertFalse(Profiler.isActive());
+        Assertions.assertTrue(completed.isEmpty());
+    }
+
+    @Test
+    void testNothingIsCollectedIfDisabled() {
+        ProfileRecorder recorder = new ProfileRecorder();
+        recorder.setEnabled(false);
+        try (Profiler.Span root = recorder.start("GET /api/partners")) {
+            Assertions.assertSame(Profiler.Span.NOOP, root);
+            Assertions.assertFalse(Profiler.isActive());
+        }
+    }
+
+    @Test
+    void testRepeatedCallsAreMerged() {
+        try (Profiler.Span root = Profiler.start("GET /api/partners", completed::add)) {
+            for (int i = 0; i < 3; i++) {
+                try (Profiler.Span convert = Profiler.span(Profiler.CONVERT, "Converter.toAPIObject")) {
+                    try (Profiler.Span db = Profiler.span(Profiler.DB, "TagRepository.findByPartnerId")) {
+                        Profiler.record(Profiler.ACAPY, "GET /connections/{id}", 0);
+                    }
+                }
+            }
+            Profiler.record(Profiler.ACAPY, "GET /connections/{id}", 0);
+        }
+
+        Assertions.assertFalse(Profiler.isActive());
+        Assertions.assertEquals(1, completed.size());
+        Profiler.Profile p = completed.get(0);
+        Assertions.assertEquals("GET /api/partners", p.getName());
+        List<Profiler.Node> children = p.getRoot().getChildren();
+        Assertions.assertEquals(2, children.size());
+        Profiler.Node convert = children.get(0);
+        Assertions.assertEquals(3, convert.getCount());
+        Assertions.assertEquals(3, convert.getChildren().get(0).getCount());
+        Assertions.assertEquals(3, convert.getChildren().get(0).getChildren().get(0).getCount());
+        Assertions.assertEquals(1, children.get(1).getCount());
+        Assertions.assertTrue(p.toString().startsWith("self GET /api/partners "), p.toString());
+    }
+
+    @Test
+    void testBreakdownAddsUpToTheTotal() {
+        try (Profiler.Span root = Profiler.start("event connections", completed::add)) {
+            try (Profiler.Span cache = Profiler.span(Profiler.CACHE, "CachingAriesClient.schemasGetById")) {
+                Profiler.record(Profiler.ACAPY, "GET /schemas/{id}", TimeUnit.MILLISECONDS.toNanos(5));
+                busy(7);
+            }
+        }
+
+        Profiler.Profile p = completed.get(0);
+        Map<String, Long> breakdown = p.breakdown();
+        Assertions.assertEquals(TimeUnit.MILLISECONDS.toNanos(5), breakdown.get(Profiler.ACAPY));
+        Assertions.assertTrue(breakdown.get(Profiler.CACHE) > 0);
+        Assertions.assertEquals(p.getNanos(), breakdown.values().stream().mapToLong(Long::longValue).sum());
+    }
+
+    @Test
+    void testNestedStartIsASpan() {
+        try (Profiler.Span root = Profiler.start("GET /api/wallet/credential", completed::add)) {
+            try (Profiler.Span nested = Profiler.start("GET /api/partners", completed::add)) {
+                Assertions.assertTrue(Profiler.isActive());
+            }
+            Assertions.assertTrue(Profiler.isActive());
+        }
+        Assertions.assertEquals(1, completed.size());
+        Assertions.assertEquals("GET /api/partners", completed.get(0).getRoot().getChildren().get(0).getName());
+    }
+
+    @Test
+    void testNodesAreCapped() {
+        try (Profiler.Span root = Profiler.start("POST /api/partners/import", completed::add)) {
+            for (int i = 0; i < Profiler.MAX_NODES * 2; i++) {
+                try (Profiler.Span db = Profiler.span(Profiler.DB, "call" + i)) {
+                    Profiler.record(Profiler.ACAPY, "GET /connections/{id}", 1);
+                }
+            }
+        }
+        Assertions.assertTrue(completed.get(0).getRoot().getChildren().size() < Profiler.MAX_NODES);
+    }
+
+    @Test
+    void testRecorderAggregatesPerOperation() {
+        ProfileRecorder recorder = new ProfileRecorder();
+        recorder.setEnabled(true);
+        recorder.setSlowThreshold(Duration.ofMillis(1));
+        for (int i = 0; i < 2; i++) {
+            try (Profiler.Span root = recorder.start("GET /api/proof-exchanges/{id}")) {
+                try (Profiler.Span db = Profiler.span(Profiler.DB, "PartnerProofRepository.findById")) {
+                    busy(2);
+                }
+            }
+        }
+        try (Profiler.Span root = recorder.start("event ping")) {
+            Profiler.record(Profiler.ACAPY, "GET /connections/{id}", 0);
+        }
+
+        List<OperationProfile> profiles = recorder.profiles();
+        Assertions.assertEquals(2, profiles.size());
+        OperationProfile proof = profiles.get(0);
+        Assertions.assertEquals("GET /api/proof-exchanges/{id}", proof.getName());
+        Assertions.assertEquals(2L, proof.getCount());
+        Assertions.assertEquals(2L, proof.getSlow());
+        Assertions.assertTrue(proof.getMaxMillis() >= 2);
+        Assertions.assertTrue(proof.getBreakdown().get(Profiler.DB) >= 2.0);
+        Assertions.assertEquals(0L, profiles.get(1).getSlow());
+    }
+
+    private static void busy(long millis) {
+        long until = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(millis);
+        while (System.nanoTime() < until) {
+            Thread.onSpinWait();
+        }
+    }
+}
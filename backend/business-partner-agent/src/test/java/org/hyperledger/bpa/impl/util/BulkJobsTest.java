@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import io.micronaut.cache.CacheManager;
+import io.micronaut.cache.SyncCache;
+import org.hyperledger.bpa.api.exception.BulkJobRejectedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BulkJobsTest {
+
+    private final Map<Object, Object> cached = new ConcurrentHashMap<>();
+
+    private ExecutorService executor;
+
+    private CacheManager<?> cacheManager;
+
+    private BulkJobs<TestJob> jobs;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setup() {
+        executor = Executors.newFixedThreadPool(2);
+        cacheManager = mock(CacheManager.class);
+        SyncCache<?> cache = mock(SyncCache.class);
+        doReturn(cache).when(cacheManager).getCache("test-cache");
+        doAnswer(inv -> cached.put(inv.getArgument(0), inv.getArgument(1))).when(cache).put(any(), any());
+        when(cache.get(any(), any(Class.class)))
+                .thenAnswer(inv -> Optional.ofNullable(cached.get(inv.getArgument(0))));
+        jobs = new BulkJobs<>(cacheManager, "test-cache", TestJob.class, executor);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void testRowsAndCounters() throws Exception {
+        TestJob job = new TestJob(4);
+        job.skip(3, State.SKIPPED, null);
+        UUID partnerId = UUID.randomUUID();
+        AtomicBoolean doneBeforeCallback = new AtomicBoolean(true);
+
+        jobs.run(job, new ConcurrentLinkedQueue<>(List.of(0, 1, 2)), 2, i -> {
+            if (i == 1) {
+                job.fail(i, "broken");
+            } else {
+                job.succeed(i, State.OK, partnerId);
+            }
+        }, () -> doneBeforeCallback.set(job.isDone()));
+
+        List<String> status = awaitDone(job.getId());
+        assertFalse(doneBeforeCallback.get());
+        assertEquals(List.of("0:OK:" + partnerId + ":null", "1:FAILED:null:broken",
+                "2:OK:" + partnerId + ":null", "3:SKIPPED:null:null"), status);
+        assertEquals(2, job.getSucceeded());
+        assertEquals(1, job.getSkipped());
+        assertEquals(1, job.getFailed());
+        assertNotNull(job.finishedAtMillis());
+    }
+
+    @Test
+    void testInterruptedWorkerStops() throws Exception {
+        TestJob job = new TestJob(3);
+
+        jobs.run(job, new ConcurrentLinkedQueue<>(List.of(0, 1, 2)), 1, i -> {
+            job.fail(i, "interrupted");
+            Thread.currentThread().interrupt();
+        }, () -> {
+        });
+
+        awaitDone(job.getId());
+        assertEquals(1, job.getFailed());
+    }
+
+    @Test
+    void testSaturatedExecutor() throws Exception {
+        // a single thread and no queue, the pool is busy once the first worker runs
+        ExecutorService single = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new SynchronousQueue<>(), new ThreadPoolExecutor.AbortPolicy());
+        jobs = new BulkJobs<>(cacheManager, "test-cache", TestJob.class, single);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            TestJob running = new TestJob(3);
+            jobs.run(running, new ConcurrentLinkedQueue<>(List.of(0, 1, 2)), 2, i -> {
+                awaitUninterruptibly(release);
+                running.succeed(i, State.OK, UUID.randomUUID());
+            }, () -> {
+            });
+
+            TestJob rejected = new TestJob(1);
+            assertThrows(BulkJobRejectedException.class,
+                    () -> jobs.run(rejected, new ConcurrentLinkedQueue<>(List.of(0)), 1, i -> {
+                    }, () -> {
+                    }));
+            assertTrue(jobs.get(rejected.getId()).isEmpty());
+
+            // the job that got one of its two workers still processes all rows
+            release.countDown();
+            awaitDone(running.getId());
+            assertEquals(3, running.getSucceeded());
+        } finally {
+            single.shutdownNow();
+        }
+    }
+
+    @Test
+    void testUnknownJob() {
+        assertTrue(jobs.get(UUID.randomUUID()).isEmpty());
+    }
+
+    private static void awaitUninterruptibly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<String> awaitDone(UUID id) throws InterruptedException {
+        long until = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < until) {
+            TestJob job = jobs.get(id).orElseThrow();
+            if (job.isDone()) {
+                return job.status();
+            }
+            TimeUnit.MILLISECONDS.sleep(10);
+        }
+        throw new AssertionError("job did not finish");
+    }
+
+    enum State {
+        PENDING,
+        OK,
+        SKIPPED,
+        FAILED
+    }
+
+    static final class TestJob extends BulkRowJob<State, List<String>> {
+
+        TestJob(int total) {
+            super(total, State.PENDING, State.FAILED);
+        }
+
+        @Override
+        protected List<String> toStatus() {
+            return rows((i, state, partnerId, message) -> i + ":" + state + ":" + partnerId + ":" + message);
+        }
+    }
+}
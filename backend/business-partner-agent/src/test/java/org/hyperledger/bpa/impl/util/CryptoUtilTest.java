@@ -40,6 +40,23 @@ public class CryptoUtilTest {
         Assertions.assertFalse(CryptoUtil.hashCompare(p1, p2));
     }
 
+    @Test
+    void testMatchIsRepeatable() {
+        V1CredentialExchange.CredentialProposalDict.CredentialProposal p1 = create("test");
+        V1CredentialExchange.CredentialProposalDict.CredentialProposal p2 = create("other");
+        Assertions.assertFalse(CryptoUtil.hashCompare(p1, p2));
+        Assertions.assertTrue(CryptoUtil.hashCompare(p1, create("test")));
+        Assertions.assertTrue(CryptoUtil.hashCompare(p2, create("other")));
+        Assertions.assertFalse(CryptoUtil.hashCompare(p1, null));
+    }
+
+    @Test
+    void testToSHA256Hex() {
+        String expected = "3a985da74fe225b2045c172d6bd390bd855f086e3e9d525b46bfe24511431532";
+        Assertions.assertEquals(expected, CryptoUtil.toSHA256Hex("abc"));
+        Assertions.assertEquals(expected, CryptoUtil.toSHA256Hex("abc"));
+    }
+
     private V1CredentialExchange.CredentialProposalDict.CredentialProposal create(String value) {
         return V1CredentialExchange.CredentialProposalDict.CredentialProposal
                 .builder()
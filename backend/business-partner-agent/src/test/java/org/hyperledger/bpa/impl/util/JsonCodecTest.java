@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.impl.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hyperledger.bpa.BaseTest;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class JsonCodecTest extends BaseTest {
+
+    private static final String NUMBERS = "{\"int\":42,\"long\":12345678901,\"big\":123456789012345678901234567890,"
+            + "\"double\":1.5,\"exp\":1e3,\"negative\":-7,\"bool\":true,\"null\":null,\"text\":\"a\\\"b\","
+            + "\"array\":[1,\"two\",{\"three\":3}],\"empty\":{}}";
+
+    @Test
+    void testJacksonToGson() throws Exception {
+        JsonNode node = mapper.readTree(loader.load("files/verifiablePresentation.json"));
+        JsonElement expected = JsonParser.parseString(node.toString());
+        Assertions.assertEquals(expected, JsonCodec.toGson(node));
+    }
+
+    @Test
+    void testGsonToJackson() throws Exception {
+        JsonObject o = JsonParser.parseString(loader.load("files/verifiablePresentation.json")).getAsJsonObject();
+        JsonNode expected = mapper.readTree(o.toString());
+        Assertions.assertEquals(expected, JsonCodec.toJackson(o));
+    }
+
+    @Test
+    void testNumbersAndNullsRoundTrip() throws Exception {
+        ObjectNode node = (ObjectNode) mapper.readTree(NUMBERS);
+        JsonObject gson = JsonCodec.toGsonObject(node);
+        Assertions.assertEquals(JsonParser.parseString(NUMBERS), gson);
+        Assertions.assertEquals(node, JsonCodec.toJackson(gson));
+        Assertions.assertEquals(node, JsonCodec.toJackson(JsonParser.parseString(NUMBERS)));
+        Assertions.assertTrue(JsonCodec.toJackson(gson).get("int").isInt());
+        Assertions.assertTrue(JsonCodec.toJackson(gson).get("long").isLong());
+        Assertions.assertTrue(JsonCodec.toJackson(gson).get("big").isBigInteger());
+        Assertions.assertTrue(JsonCodec.toJackson(gson).get("double").isDouble());
+    }
+}
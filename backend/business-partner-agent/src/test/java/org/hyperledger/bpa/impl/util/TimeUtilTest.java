@@ -17,6 +17,8 @@
  */
 package org.hyperledger.bpa.impl.util;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
@@ -42,4 +44,12 @@ class TimeUtilTest {
         String time = TimeUtil.toISOInstant(i);
         assertEquals(ts, time);
     }
+
+    @Test
+    void testEpochSecondsMatchesJackson() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Instant i = TimeUtil.fromISOInstant("2021-10-20T09:57:59.194710Z");
+        assertEquals(mapper.writeValueAsString(i), TimeUtil.toEpochSeconds(i).toPlainString());
+        assertEquals(i, mapper.readValue(TimeUtil.toEpochSeconds(i).toPlainString(), Instant.class));
+    }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.model;
+
+import org.hyperledger.aries.api.credentials.CredentialAttributes;
+import org.hyperledger.aries.api.issue_credential_v1.V1CredentialExchange;
+import org.hyperledger.aries.api.issue_credential_v2.V20CredExRecordByFormat;
+import org.hyperledger.bpa.persistence.model.BPACredentialExchange.ExchangePayload;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+class BPACredentialExchangeTest {
+
+    @Test
+    void testSameAttributesIgnoresOrder() {
+        ExchangePayload p1 = indy(attr("name", "Alice"), attr("age", "42"));
+        ExchangePayload p2 = indy(attr("age", "42"), attr("name", "Alice"));
+        Assertions.assertTrue(p1.sameAttributes(p2));
+        Assertions.assertTrue(p2.sameAttributes(p1));
+    }
+
+    @Test
+    void testSameAttributesMismatch() {
+        ExchangePayload p1 = indy(attr("name", "Alice"), attr("age", "42"));
+        Assertions.assertFalse(p1.sameAttributes(indy(attr("name", "Alice"), attr("age", "43"))));
+        Assertions.assertFalse(p1.sameAttributes(indy(attr("name", "Alice"))));
+        Assertions.assertFalse(p1.sameAttributes(indy()));
+        Assertions.assertFalse(p1.sameAttributes(null));
+        Assertions.assertTrue(indy().sameAttributes(indy()));
+    }
+
+    @Test
+    void testSameAttributesTypeMismatch() {
+        ExchangePayload ld = ExchangePayload.jsonLD(V20CredExRecordByFormat.LdProof.builder().build());
+        Assertions.assertFalse(indy().sameAttributes(ld));
+        Assertions.assertFalse(ld.sameAttributes(indy()));
+        Assertions.assertTrue(ld.sameAttributes(
+                ExchangePayload.jsonLD(V20CredExRecordByFormat.LdProof.builder().build())));
+    }
+
+    private static ExchangePayload indy(CredentialAttributes... attrs) {
+        return ExchangePayload.indy(V1CredentialExchange.CredentialProposalDict.CredentialProposal
+                .builder()
+                .attributes(new ArrayList<>(List.of(attrs)))
+                .build());
+    }
+
+    private static CredentialAttributes attr(String name, String value) {
+        return CredentialAttributes.builder().name(name).value(value).build();
+    }
+}
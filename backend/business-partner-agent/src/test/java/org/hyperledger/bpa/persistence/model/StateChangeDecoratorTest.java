@@ -17,7 +17,11 @@
  */
 package org.hyperledger.bpa.persistence.model;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.aries.api.present_proof.PresentationExchangeState;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
@@ -51,4 +55,57 @@ public class StateChangeDecoratorTest {
         Assertions.assertEquals(ConnectionState.RESPONSE, states.get(1));
         Assertions.assertEquals(ConnectionState.ACTIVE, states.get(2));
     }
+
+    @Test
+    void testPushOutOfOrder() {
+        Instant i1 = Instant.ofEpochMilli(1633426742074L);
+        PartnerProof pp = new PartnerProof()
+                .pushStates(PresentationExchangeState.REQUEST_SENT, i1)
+                .pushStates(PresentationExchangeState.VERIFIED, i1.plusMillis(20))
+                .pushStates(PresentationExchangeState.PRESENTATION_RECEIVED, i1.plusMillis(10));
+
+        Assertions.assertEquals(PresentationExchangeState.VERIFIED, pp.getState());
+        Assertions.assertEquals(List.of(PresentationExchangeState.REQUEST_SENT,
+                PresentationExchangeState.PRESENTATION_RECEIVED, PresentationExchangeState.VERIFIED),
+                new ArrayList<>(pp.getStateToTimestamp().toApi().keySet()));
+        Assertions.assertEquals(Map.entry(PresentationExchangeState.PRESENTATION_RECEIVED, i1.plusMillis(10)),
+                pp.getStateToTimestamp().findLastPushed().orElseThrow());
+    }
+
+    @Test
+    void testPushMovesLatestBack() {
+        Instant i1 = Instant.ofEpochMilli(1633426742074L);
+        PartnerProof pp = PartnerProof.builder()
+                .pushStateChange(PresentationExchangeState.REQUEST_SENT, i1)
+                .build()
+                .pushStates(PresentationExchangeState.DONE, i1.plusMillis(20))
+                .pushStates(PresentationExchangeState.VERIFIED, i1.plusMillis(10))
+                .pushStates(PresentationExchangeState.DONE, i1.plusMillis(5));
+
+        Assertions.assertEquals(PresentationExchangeState.VERIFIED, pp.getState());
+    }
+
+    @Test
+    void testPushAfterJsonRoundTrip() throws Exception {
+        ObjectMapper mapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        Instant i1 = Instant.ofEpochMilli(1633426742074L);
+        Partner p = new Partner()
+                .pushStates(ConnectionState.REQUEST, i1)
+                .pushStates(ConnectionState.RESPONSE, i1.plusMillis(10));
+
+        String json = mapper.writeValueAsString(p.getStateToTimestamp());
+        Assertions.assertEquals("{\"stateToTimestamp\":{\"request\":1633426742.074000000,"
+                + "\"response\":1633426742.084000000}}", json);
+        Assertions.assertEquals("request", StateChangeDecorator.toJsonKey(ConnectionState.REQUEST));
+
+        Partner loaded = new Partner().setStateToTimestamp(mapper.readValue(json,
+                new TypeReference<StateChangeDecorator.StateToTimestamp<ConnectionState>>() {
+                }));
+        Assertions.assertTrue(loaded.getStateToTimestamp().findLastPushed().isEmpty());
+        Assertions.assertEquals(ConnectionState.RESPONSE, loaded.getStateToTimestamp().findLatestEntry().getKey());
+
+        loaded.pushStates(ConnectionState.ACTIVE, i1.plusMillis(20));
+        Assertions.assertEquals(ConnectionState.ACTIVE, loaded.getState());
+        Assertions.assertEquals(3, loaded.getStateToTimestamp().getStateToTimestamp().size());
+    }
 }
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micronaut.data.jdbc.runtime.JdbcOperations;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.hyperledger.bpa.persistence.model.ChatMessage;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.junit.jupiter.api.Test;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@MicronautTest
+class ChatMessageRepositoryTest {
+
+    private static final Instant START = Instant.parse("2022-01-01T00:00:00Z");
+
+    @Inject
+    ChatMessageRepository chatRepo;
+
+    @Inject
+    PartnerRepository partnerRepo;
+
+    @Inject
+    JdbcOperations jdbc;
+
+    @Test
+    void testKeysetPages() {
+        Partner p = partnerRepo.save(Partner.builder().did("did:chat").ariesSupport(Boolean.TRUE).build());
+        List<UUID> ids = seed(p.getId(), 7);
+
+        List<ChatMessage> latest = chatRepo.findLatest(p.getId(), 3);
+        assertEquals(List.of(ids.get(6), ids.get(5), ids.get(4)), idsOf(latest));
+        assertEquals(p.getId(), latest.get(0).getPartner().getId());
+        assertNull(latest.get(0).getPartner().getDid());
+
+        assertEquals(List.of(ids.get(3), ids.get(2), ids.get(1)),
+                idsOf(chatRepo.findBefore(p.getId(), at(4), ids.get(4), 3)));
+        assertEquals(List.of(ids.get(0)), idsOf(chatRepo.findBefore(p.getId(), at(1), ids.get(1), 3)));
+        assertEquals(List.of(ids.get(5), ids.get(6)),
+                idsOf(chatRepo.findAfter(p.getId(), at(4), ids.get(4), 3)));
+    }
+
+    @Test
+    void testCursorIsScopedToThePartner() {
+        Partner p = partnerRepo.save(Partner.builder().did("did:chat:cursor").ariesSupport(Boolean.TRUE).build());
+        Partner other = partnerRepo.save(Partner.builder().did("did:chat:other").ariesSupport(Boolean.TRUE).build());
+        List<UUID> ids = seed(p.getId(), 2);
+
+        ChatMessage cursor = chatRepo.findCursor(p.getId(), ids.get(1)).orElseThrow();
+        assertEquals(at(1), cursor.getCreatedAt());
+        assertTrue(chatRepo.findCursor(other.getId(), ids.get(1)).isEmpty());
+        assertTrue(chatRepo.findCursor(p.getId(), UUID.randomUUID()).isEmpty());
+    }
+
+    @Test
+    void testArchiveBefore() {
+        Partner p = partnerRepo.save(Partner.builder().did("did:archive").ariesSupport(Boolean.TRUE).build());
+        List<UUID> ids = seed(p.getId(), 5);
+
+        assertEquals(1, chatRepo.archiveBefore(START.plus(3, ChronoUnit.MINUTES), 1000).intValue());
+        assertEquals(0, chatRepo.archiveBefore(START.plus(3, ChronoUnit.MINUTES), 1000).intValue());
+        assertEquals(List.of(ids.get(4), ids.get(3)), idsOf(chatRepo.findLatest(p.getId(), 10)));
+
+        Integer archived = jdbc.prepareStatement(
+                "SELECT sum(message_count) FROM chat_message_archive WHERE partner_id = ?", ps -> {
+                    ps.setObject(1, p.getId());
+                    try (ResultSet rs = ps.executeQuery()) {
+                        rs.next();
+                        return rs.getInt(1);
+                    }
+                });
+        assertEquals(3, archived);
+    }
+
+    /** Inserts count messages, one minute apart, oldest first */
+    private List<UUID> seed(UUID partnerId, int count) {
+        List<UUID> ids = new ArrayList<>();
+        jdbc.prepareStatement("INSERT INTO chat_message (id, partner_id, content, incoming, created_at) "
+                + "VALUES (?, ?, ?, ?, ?)", (PreparedStatement ps) -> {
+                    for (int i = 0; i < count; i++) {
+                        UUID id = UUID.randomUUID();
+                        ids.add(id);
+                        ps.setObject(1, id);
+                        ps.setObject(2, partnerId);
+                        ps.setString(3, "message " + i);
+                        ps.setBoolean(4, i % 2 == 0);
+                        ps.setTimestamp(5, Timestamp.from(at(i)));
+                        ps.addBatch();
+                    }
+                    return ps.executeBatch();
+                });
+        return ids;
+    }
+
+    private static Instant at(int minute) {
+        return START.plus(minute, ChronoUnit.MINUTES);
+    }
+
+    private static List<UUID> idsOf(List<ChatMessage> messages) {
+        return messages.stream().map(ChatMessage::getId).toList();
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.aries.api.present_proof.PresentationExchangeState;
+import org.hyperledger.bpa.controller.api.stats.StatsBucket;
+import org.hyperledger.bpa.controller.api.stats.StatsGranularity;
+import org.hyperledger.bpa.controller.api.stats.StatsMetric;
+import org.hyperledger.bpa.persistence.model.DashboardCounter;
+import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.model.PartnerProof;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@MicronautTest
+class DashboardCounterRepositoryTest {
+
+    @Inject
+    DashboardCounterRepository counterRepo;
+
+    @Inject
+    PartnerRepository partnerRepo;
+
+    @Inject
+    PartnerProofRepository proofRepo;
+
+    @Test
+    void testCountersFollowStateChanges() {
+        Partner p = partnerRepo.save(Partner.builder().did("did:sov:counted").ariesSupport(Boolean.TRUE)
+                .connectionId("counted").state(ConnectionState.ACTIVE).build());
+        partnerRepo.save(Partner.builder().did("did:sov:invited").ariesSupport(Boolean.TRUE)
+                .state(ConnectionState.INVITATION).build());
+        PartnerProof proof = proofRepo.save(PartnerProof.builder().partnerId(p.getId())
+                .presentationExchangeId("counted").state(PresentationExchangeState.REQUEST_SENT).build());
+
+        assertEquals(1L, totals().get("partners"));
+        assertEquals(1L, totals().get("presentationRequestsSent"));
+        assertEquals(1L, createdSinceYesterday().get("partners"));
+
+        proofRepo.updateState(proof.getId(), PresentationExchangeState.PRESENTATION_RECEIVED);
+        assertEquals(0L, totals().get("presentationRequestsSent"));
+        assertEquals(1L, totals().get("presentationRequestsReceived"));
+
+        partnerRepo.updateStateByConnectionId("counted", ConnectionState.INVITATION);
+        assertEquals(0L, totals().get("partners"));
+        assertEquals(0L, createdSinceYesterday().get("partners"));
+
+        proofRepo.deleteById(proof.getId());
+        assertEquals(0L, totals().get("presentationRequestsReceived"));
+
+        Map<String, Long> maintained = totals();
+        counterRepo.reconcile();
+        Map<String, Long> rebuilt = totals();
+        maintained.forEach((name, value) -> assertEquals(value, rebuilt.getOrDefault(name, 0L), name));
+    }
+
+    @Test
+    void testDailyRollup() {
+        LocalDate today = LocalDate.now();
+        Partner p = partnerRepo.save(Partner.builder().did("did:sov:daily").ariesSupport(Boolean.TRUE)
+                .incoming(Boolean.TRUE).connectionId("daily").state(ConnectionState.REQUEST).build());
+        partnerRepo.save(Partner.builder().did("did:web:daily").ariesSupport(Boolean.FALSE).build());
+        partnerRepo.updateStateByConnectionId("daily", ConnectionState.ACTIVE);
+
+        List<StatsBucket> days = counterRepo.findDailyStats(StatsGranularity.DAY.getField(),
+                today.minusDays(1), today.plusDays(1), StatsMetric.PARTNER);
+        assertEquals(2, days.size());
+        StatsBucket aries = days.stream().filter(b -> "ARIES".equals(b.getType())).findFirst().orElseThrow();
+        assertEquals(today, aries.getPeriod());
+        assertEquals("ACTIVE", aries.getState());
+        assertEquals("INCOMING", aries.getRole());
+        assertEquals(1L, aries.getCount());
+
+        List<StatsBucket> months = counterRepo.findDailyStats(StatsGranularity.MONTH.getField(),
+                today.minusDays(1), today.plusDays(1), null);
+        assertEquals(today.withDayOfMonth(1), months.get(0).getPeriod());
+
+        partnerRepo.deleteByPartnerId(p.getId());
+        counterRepo.rebuildDailyStats(today.minusDays(1));
+        assertEquals(1, counterRepo.findDailyStats(StatsGranularity.DAY.getField(),
+                today.minusDays(1), today.plusDays(1), StatsMetric.PARTNER).size());
+    }
+
+    private Map<String, Long> totals() {
+        return toMap(counterRepo.findAll());
+    }
+
+    private Map<String, Long> createdSinceYesterday() {
+        return toMap(counterRepo.findCreatedSince(Instant.now().minus(1, ChronoUnit.DAYS)
+                .truncatedTo(ChronoUnit.HOURS)));
+    }
+
+    private static Map<String, Long> toMap(Iterable<DashboardCounter> counters) {
+        Map<String, Long> result = new HashMap<>();
+        counters.forEach(c -> result.put(c.getName(), c.getValue()));
+        return result;
+    }
+}
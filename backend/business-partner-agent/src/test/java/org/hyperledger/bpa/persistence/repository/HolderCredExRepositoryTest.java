@@ -29,6 +29,7 @@ import org.hyperledger.aries.config.GsonConfig;
 import org.hyperledger.bpa.BaseTest;
 import org.hyperledger.bpa.api.CredentialType;
 import org.hyperledger.bpa.persistence.model.BPACredentialExchange;
+import org.hyperledger.bpa.persistence.model.DashboardCounter;
 import org.hyperledger.bpa.persistence.model.Partner;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -48,6 +49,9 @@ class HolderCredExRepositoryTest extends BaseTest {
     @Inject
     PartnerRepository partnerRepo;
 
+    @Inject
+    DashboardCounterRepository counterRepo;
+
     @Test
     void testSaveCredential() {
         String schemaId = "F6dB7dMVHUQSC64qemnBi7:2:spaces:1.0";
@@ -106,13 +110,14 @@ class HolderCredExRepositoryTest extends BaseTest {
 
     @Test
     void testCountByState() {
+        long received = credentialsReceived();
         Partner p = createRandomPartner();
         holderCredExRepo.save(createDummyCredEx(p));
         holderCredExRepo.save(createDummyCredEx(p).setState(CredentialExchangeState.CREDENTIAL_ISSUED));
         holderCredExRepo.save(createDummyCredEx(createRandomPartner()));
 
-        assertEquals(2, holderCredExRepo.countByRoleEqualsAndStateEquals(
-                CredentialExchangeRole.HOLDER, CredentialExchangeState.CREDENTIAL_ACKED));
+        // acked holder exchanges are counted by the dashboard counter trigger
+        assertEquals(received + 2, credentialsReceived());
     }
 
     @Test
@@ -169,6 +174,10 @@ class HolderCredExRepositoryTest extends BaseTest {
         assertEquals("value1", exchange.getCredentialOffer().getIndy().getAttributes().get(0).getValue());
     }
 
+    private long credentialsReceived() {
+        return counterRepo.findById("credentialsReceived").map(DashboardCounter::getValue).orElse(0L);
+    }
+
     private static BPACredentialExchange createDummyCredEx(Partner partner) {
         return BPACredentialExchange
                 .builder()
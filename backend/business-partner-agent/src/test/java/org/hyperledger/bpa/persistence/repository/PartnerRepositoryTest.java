@@ -24,9 +24,11 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 import org.apache.commons.lang3.RandomStringUtils;
 import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.bpa.api.PartnerListItem;
 import org.hyperledger.bpa.controller.api.partner.PartnerCredentialType;
 import org.hyperledger.bpa.impl.util.Converter;
 import org.hyperledger.bpa.persistence.model.Partner;
+import org.hyperledger.bpa.persistence.model.Tag;
 import org.junit.jupiter.api.Test;
 
 import java.time.Instant;
@@ -34,6 +36,7 @@ import java.time.temporal.ChronoUnit;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -47,6 +50,9 @@ class PartnerRepositoryTest {
     @Inject
     TagRepository tagRepo;
 
+    @Inject
+    PartnerSearchRepository searchRepo;
+
     @Inject
     Converter conv;
 
@@ -193,6 +199,39 @@ class PartnerRepositoryTest {
         assertEquals(3, found.size());
     }
 
+    @Test
+    void testSearch() {
+        Tag tag = tagRepo.save(Tag.builder().name("search").build());
+        partnerRepo.save(Partner.builder().ariesSupport(Boolean.TRUE).did("did:sov:alpha").alias("Alpha Corp")
+                .state(ConnectionState.ACTIVE).tags(Set.of(tag)).build());
+        partnerRepo.save(Partner.builder().ariesSupport(Boolean.TRUE).did("did:sov:beta").label("beta_100%")
+                .state(ConnectionState.REQUEST).build());
+        partnerRepo.save(Partner.builder().ariesSupport(Boolean.FALSE).did("did:web:gamma").build());
+        createPartnerWithCredentialType(577);
+
+        assertEquals(4, searchRepo.search(filter(null, null, null, null, null, null), 10, 0).size());
+        assertEquals(2, searchRepo.search(filter(null, null, null, null, null, null), 2, 2).size());
+        assertEquals(4, searchRepo.countSearch(filter(null, null, null, null, null, null), 100));
+        assertEquals(3, searchRepo.countSearch(filter(null, null, null, null, null, null), 3));
+
+        List<PartnerListItem> found = searchRepo.search(filter(ConnectionState.ACTIVE, null, null, null, null, null),
+                10, 0);
+        assertEquals(1, found.size());
+        assertEquals("Alpha Corp", found.get(0).getAlias());
+        assertEquals(ConnectionState.ACTIVE, found.get(0).getState());
+
+        assertEquals(1, searchRepo.search(filter(null, Boolean.FALSE, null, null, null, null), 10, 0).size());
+        assertEquals("did:sov:alpha",
+                searchRepo.search(filter(null, null, tag.getId(), null, null, null), 10, 0).get(0).getDid());
+        assertEquals(1, searchRepo.search(filter(null, null, null, "577", null, null), 10, 0).size());
+        assertEquals(0, searchRepo.search(filter(null, null, null, null, "unknown:2:schema:1.0", null), 10, 0).size());
+
+        assertEquals("did:sov:alpha", searchRepo.search(filter(null, null, null, null, null, "%alpha c%"), 10, 0)
+                .get(0).getDid());
+        assertEquals(1, searchRepo.search(filter(null, null, null, null, null, "%100\\%%"), 10, 0).size());
+        assertEquals(2, searchRepo.search(filter(null, Boolean.TRUE, null, null, null, "%did:sov%"), 10, 0).size());
+    }
+
     @Test
     void testFindByDidIn() {
         partnerRepo.save(Partner.builder().ariesSupport(Boolean.TRUE).did("did1").connectionId("con1").build());
@@ -291,4 +330,8 @@ class PartnerRepositoryTest {
         List<PartnerCredentialType> wrapped;
     }
 
+    private static PartnerSearchRepository.Filter filter(ConnectionState state, Boolean ariesSupport, UUID tagId,
+            String seqNo, String issuerOf, String pattern) {
+        return new PartnerSearchRepository.Filter(state, ariesSupport, tagId, seqNo, issuerOf, pattern);
+    }
 }
@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import org.hyperledger.aries.api.connection.ConnectionState;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PartnerSearchRepositoryTest {
+
+    @Test
+    void testNoFilter() {
+        PartnerSearchRepository.Where where = PartnerSearchRepository.Where
+                .of(new PartnerSearchRepository.Filter(null, null, null, null, null, null));
+
+        assertEquals("", where.sql());
+        assertEquals(List.of(), where.params());
+    }
+
+    @Test
+    void testOnlySetFiltersArePartOfTheQuery() {
+        PartnerSearchRepository.Where where = PartnerSearchRepository.Where
+                .of(new PartnerSearchRepository.Filter(ConnectionState.ACTIVE, null, null, null, null, "%acme%"));
+
+        assertEquals(" WHERE state = ? AND " + PartnerSearchRepository.SEARCH_TEXT + " ILIKE ?", where.sql());
+        assertEquals(List.of("ACTIVE", "%acme%"), where.params());
+    }
+
+    @Test
+    void testAllFilters() {
+        UUID tag = UUID.randomUUID();
+        PartnerSearchRepository.Where where = PartnerSearchRepository.Where
+                .of(new PartnerSearchRepository.Filter(ConnectionState.REQUEST, Boolean.TRUE, tag, "577",
+                        "schema:1.0", "%a%"));
+
+        assertTrue(where.sql().startsWith(" WHERE state = ? AND aries_support = ? AND EXISTS ("));
+        assertTrue(where.sql().endsWith(" AND " + PartnerSearchRepository.SEARCH_TEXT + " ILIKE ?"));
+        assertFalse(where.sql().contains("IS NULL"));
+        assertEquals(List.of("REQUEST", Boolean.TRUE, tag, "577", "schema:1.0", "%a%"), where.params());
+    }
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micronaut.context.ApplicationContext;
+import io.micronaut.core.annotation.AnnotationValue;
+import io.micronaut.data.annotation.Query;
+import io.micronaut.data.intercept.annotation.DataMethod;
+import io.micronaut.data.intercept.annotation.DataMethodQueryParameter;
+import io.micronaut.data.jdbc.runtime.JdbcOperations;
+import io.micronaut.inject.ExecutableMethod;
+import io.micronaut.test.extensions.junit5.annotation.MicronautTest;
+import jakarta.inject.Inject;
+import lombok.SneakyThrows;
+import org.hyperledger.aries.api.connection.ConnectionState;
+import org.hyperledger.bpa.controller.api.activity.ActivityRole;
+import org.hyperledger.bpa.controller.api.activity.ActivityType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Seeds realistic volumes and checks that the lookups aca-py events depend on
+ * are served by an index. The statements are taken from the compiled repository
+ * definitions, so a changed finder or query is explained as it ships. Runs in
+ * the test transaction, so nothing is left behind for the other repository
+ * tests.
+ */
+@MicronautTest
+class QueryPlanRegressionTest {
+
+    private static final int PARTNERS = 5_000;
+    private static final int EXCHANGES = 100_000;
+
+    private static final List<Finder> FINDERS = List.of(
+            new Finder(PartnerRepository.class, "findByConnectionId", "conn-4711"),
+            new Finder(PartnerRepository.class, "findByInvitationMsgId", "inv-4711"),
+            new Finder(PartnerRepository.class, "findByConnectionIdOrInvitationMsgId", "conn-4711", "inv-4711"),
+            new Finder(PartnerRepository.class, "findByDid", "did:sov:4711"),
+            new Finder(PartnerRepository.class, "findByStateInAndTrustPingTrueAndAriesSupportTrue",
+                    List.of(ConnectionState.ACTIVE, ConnectionState.PING_RESPONSE)),
+            new Finder(HolderCredExRepository.class, "findByCredentialExchangeId", "cex-4711"),
+            new Finder(HolderCredExRepository.class, "findByReferent", "ref-4711"),
+            new Finder(HolderCredExRepository.class, "findByRevRegIdAndCredRevId", "rev-47", "4711"),
+            new Finder(HolderCredExRepository.class, "findByPartnerId", md5("p-47")),
+            new Finder(PartnerProofRepository.class, "findByPresentationExchangeId", "pex-4711"),
+            new Finder(PartnerProofRepository.class, "findByThreadId", "pth-4711"),
+            new Finder(ActivityRepository.class, "findByLinkIdAndTypeAndRole", md5("cex-4711"),
+                    ActivityType.CREDENTIAL_EXCHANGE, ActivityRole.CREDENTIAL_EXCHANGE_HOLDER),
+            new Finder(ActivityRepository.class, "findByCompletedFalseOrderByUpdatedAtDesc"),
+            new Finder(ChatMessageRepository.class, "findLatest", md5("p-47"), 100),
+            new Finder(ChatMessageRepository.class, "findCursor", md5("p-47"), md5("msg-4711")),
+            new Finder(ChatMessageRepository.class, "findBefore", md5("p-47"),
+                    Instant.now().minus(4711, ChronoUnit.MINUTES), md5("msg-4711"), 100));
+
+    @Inject
+    ApplicationContext ctx;
+
+    @Inject
+    JdbcOperations jdbc;
+
+    @Test
+    void testExchangeLookupsUseAnIndex() {
+        seed();
+        List<Executable> checks = new ArrayList<>();
+        FINDERS.forEach(finder -> {
+            String sql = finder.sql(ctx);
+            String plan = explain(sql);
+            checks.add(() -> assertFalse(plan.contains("Seq Scan"), finder + " falls back to a sequential scan:\n"
+                    + sql + "\n" + plan));
+        });
+        assertAll(checks);
+    }
+
+    private void seed() {
+        jdbc.execute(c -> {
+            try (Statement s = c.createStatement()) {
+                s.execute("INSERT INTO partner (id, did, aries_support, trust_ping, connection_id, "
+                        + "invitation_msg_id, state, created_at, updated_at) "
+                        + "SELECT md5('p-' || g)::uuid, 'did:sov:' || g, true, g % 10 = 0, 'conn-' || g, "
+                        + "'inv-' || g, CASE WHEN g % 100 = 0 THEN 'ACTIVE' ELSE 'COMPLETED' END, now(), now() "
+                        + "FROM generate_series(1, " + PARTNERS + ") g");
+                s.execute("INSERT INTO bpa_credential_exchange (id, partner_id, type, role, state, thread_id, "
+                        + "credential_exchange_id, referent, rev_reg_id, cred_rev_id, created_at, updated_at) "
+                        + "SELECT md5('cex-' || g)::uuid, md5('p-' || (g % " + PARTNERS + " + 1))::uuid, 'INDY', "
+                        + "CASE WHEN g % 2 = 0 THEN 'HOLDER' ELSE 'ISSUER' END, 'CREDENTIAL_ACKED', 'th-' || g, "
+                        + "'cex-' || g, 'ref-' || g, 'rev-' || (g % 100), g::text, now(), now() "
+                        + "FROM generate_series(1, " + EXCHANGES + ") g");
+                s.execute("INSERT INTO partner_proof (id, partner_id, created_at, presentation_exchange_id, "
+                        + "thread_id, state, role) "
+                        + "SELECT md5('pex-' || g)::uuid, md5('p-' || (g % " + PARTNERS + " + 1))::uuid, now(), "
+                        + "'pex-' || g, 'pth-' || g, 'VERIFIED', 'VERIFIER' "
+                        + "FROM generate_series(1, " + EXCHANGES + ") g");
+                s.execute("INSERT INTO activity (id, partner_id, link_id, type, role, state, completed, "
+                        + "created_at, updated_at) "
+                        + "SELECT md5('act-' || g)::uuid, md5('p-' || (g % " + PARTNERS + " + 1))::uuid, "
+                        + "md5('cex-' || g)::uuid, 'CREDENTIAL_EXCHANGE', 'CREDENTIAL_EXCHANGE_HOLDER', "
+                        + "'CREDENTIAL_EXCHANGE_ACCEPTED', g % 200 != 0, now() - g * interval '1 minute', "
+                        + "now() - g * interval '1 minute' "
+                        + "FROM generate_series(1, " + EXCHANGES + ") g");
+                s.execute("INSERT INTO chat_message (id, partner_id, content, incoming, created_at) "
+                        + "SELECT md5('msg-' || g)::uuid, md5('p-' || (g % " + PARTNERS + " + 1))::uuid, "
+                        + "'message ' || g, g % 2 = 0, now() - g * interval '1 minute' "
+                        + "FROM generate_series(1, " + EXCHANGES + ") g");
+                s.execute("ANALYZE partner, bpa_credential_exchange, partner_proof, activity, chat_message");
+            }
+            return null;
+        });
+    }
+
+    private String explain(String sql) {
+        return jdbc.execute(c -> {
+            StringBuilder plan = new StringBuilder();
+            try (Statement s = c.createStatement(); ResultSet rs = s.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    plan.append(rs.getString(1)).append('\n');
+                }
+            }
+            return plan.toString();
+        });
+    }
+
+    @SneakyThrows
+    private static UUID md5(String value) {
+        ByteBuffer hash = ByteBuffer.wrap(MessageDigest.getInstance("MD5")
+                .digest(value.getBytes(StandardCharsets.UTF_8)));
+        return new UUID(hash.getLong(), hash.getLong());
+    }
+
+    /**
+     * A repository method and the arguments it is explained with, inlined as
+     * literals so that postgres plans for the actual values like it does for the
+     * first executions of a prepared statement.
+     */
+    private record Finder(Class<?> repository, String method, Object... args) {
+
+        String sql(ApplicationContext ctx) {
+            ExecutableMethod<?, ?> m = ctx.getBeanDefinition(repository).getExecutableMethods().stream()
+                    .filter(e -> e.getMethodName().equals(method))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalStateException("No finder " + this));
+            String query = m.stringValue(Query.class, DataMethod.META_MEMBER_RAW_QUERY)
+                    .or(() -> m.stringValue(Query.class))
+                    .orElseThrow(() -> new IllegalStateException("No query for " + this));
+            List<AnnotationValue<DataMethodQueryParameter>> parameters = m.getAnnotation(DataMethod.class)
+                    .getAnnotations(DataMethod.META_MEMBER_PARAMETERS, DataMethodQueryParameter.class);
+            StringBuilder sql = new StringBuilder();
+            int p = 0;
+            for (char c : query.toCharArray()) {
+                if (c == '?') {
+                    int index = parameters.get(p++)
+                            .intValue(DataMethodQueryParameter.META_MEMBER_PARAMETER_INDEX)
+                            .orElseThrow(() -> new IllegalStateException("Unbound parameter in " + this));
+                    sql.append(literal(args[index]));
+                } else {
+                    sql.append(c);
+                }
+            }
+            return sql.toString();
+        }
+
+        private static String literal(Object value) {
+            if (value instanceof Collection<?> c) {
+                return c.stream().map(Finder::literal).collect(Collectors.joining(", "));
+            }
+            if (value instanceof Number) {
+                return value.toString();
+            }
+            return "'" + (value instanceof Enum<?> e ? e.name() : value) + "'";
+        }
+
+        @Override
+        public String toString() {
+            return repository.getSimpleName() + "." + method;
+        }
+    }
+}
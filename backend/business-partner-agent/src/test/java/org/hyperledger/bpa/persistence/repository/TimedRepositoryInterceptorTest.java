@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2020-2022 - for information on the respective copyright owner
+ * see the NOTICE file and/or the repository at
+ * https://github.com/hyperledger-labs/business-partner-agent
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.hyperledger.bpa.persistence.repository;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micronaut.aop.MethodInvocationContext;
+import io.micronaut.context.BeanProvider;
+import io.micronaut.inject.ExecutableMethod;
+import org.hyperledger.bpa.impl.profile.Profiler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TimedRepositoryInterceptorTest {
+
+    @Mock
+    private BeanProvider<MeterRegistry> registryProvider;
+
+    @Mock
+    private MethodInvocationContext<Object, Object> context;
+
+    @Mock
+    private ExecutableMethod<Object, Object> method;
+
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+
+    private final TimedRepositoryInterceptor interceptor = new TimedRepositoryInterceptor();
+
+    @BeforeEach
+    void setup() {
+        interceptor.registryProvider = registryProvider;
+        when(registryProvider.isPresent()).thenReturn(Boolean.TRUE);
+        when(registryProvider.get()).thenReturn(registry);
+        when(context.getExecutableMethod()).thenReturn(method);
+        when(context.getTarget()).thenReturn(new TestRepositoryImpl());
+        when(context.getMethodName()).thenReturn("save");
+        doReturn(Object.class).when(context).getDeclaringType();
+    }
+
+    @Test
+    void testCallsAreTimedPerRepositoryAndOutcome() {
+        when(context.proceed()).thenReturn("ok").thenThrow(new IllegalStateException("db down"));
+
+        assertEquals("ok", interceptor.intercept(context));
+        assertThrows(IllegalStateException.class, () -> interceptor.intercept(context));
+
+        assertEquals(1, timer("success").count());
+        assertEquals(1, timer("error").count());
+    }
+
+    @Test
+    void testProceedsWithoutRegistry() {
+        when(registryProvider.isPresent()).thenReturn(Boolean.FALSE);
+        when(context.proceed()).thenReturn("ok");
+
+        assertEquals("ok", interceptor.intercept(context));
+        assertTrue(registry.getMeters().isEmpty());
+        verify(registryProvider, never()).get();
+    }
+
+    @Test
+    void testCallsAreAddedToTheRunningProfile() {
+        List<Profiler.Profile> completed = new ArrayList<>();
+        when(registryProvider.isPresent()).thenReturn(Boolean.FALSE);
+        when(context.proceed()).thenReturn("ok");
+        try (Profiler.Span ignored = Profiler.start("GET /api/partners", completed::add)) {
+            interceptor.intercept(context);
+            interceptor.intercept(context);
+        }
+
+        assertEquals(1, completed.size());
+        Profiler.Node db = completed.get(0).getRoot().getChildren().get(0);
+        assertEquals(Profiler.DB, db.getCategory());
+        assertEquals("TestRepository.save", db.getName());
+        assertEquals(2, db.getCount());
+    }
+
+    private Timer timer(String outcome) {
+        return registry.get(TimedRepositoryInterceptor.METRIC)
+                .tag("repository", "TestRepository")
+                .tag("method", "save")
+                .tag("outcome", outcome)
+                .timer();
+    }
+
+    @TimedRepository
+    interface TestRepository {
+    }
+
+    static class TestRepositoryImpl implements TestRepository {
+    }
+}
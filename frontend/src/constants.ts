@@ -8,6 +8,7 @@
 import i18n from "@/plugins/i18n";
 
 export const CHAT_CURRENT_USERID = "__self__";
+export const CHAT_PAGE_SIZE = 100;
 
 export const CredentialTypes = Object.freeze({
   PROFILE: {
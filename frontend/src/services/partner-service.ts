@@ -42,8 +42,16 @@ export default {
     });
   },
 
-  getMessages(id: string): Promise<AxiosResponse<ChatMessage[]>> {
-    return appAxios().get(`${ApiRoutes.PARTNERS}/${id}/messages`);
+  /**
+   * Keyset page of the chat history, oldest message first. Without a cursor the latest messages are returned.
+   */
+  getMessages(
+    id: string,
+    params?: { before?: string; after?: string; size?: number }
+  ): Promise<AxiosResponse<ChatMessage[]>> {
+    return appAxios().get(`${ApiRoutes.PARTNERS}/${id}/messages`, {
+      params,
+    });
   },
 
   getPresentationExRecords(